@@ -0,0 +1,124 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic request mix for the benchmarks: short ASCII messages, Portuguese text with
+ * accents, emoji and CJK content, and fields just under the smallest provider limits
+ * (the OCI limits: addresses 40, recipient name 50, subject 100, body 250).
+ */
+final class EmailPayloads {
+
+    static final int COUNT = 1024;
+
+    private static final String[] WORDS = {
+            "pedido", "confirmação", "entrega", "olá", "código", "atenção", "fatura", "Ünïcödé",
+            "日本語", "ação", "😀", "🚚", "relatório", "status", "notificação", "São Paulo"
+    };
+
+    enum Shape {
+        SHORT,
+        UNICODE,
+        NEAR_LIMIT,
+        OVERSIZED
+    }
+
+    private EmailPayloads() {
+    }
+
+    /**
+     * {@link #COUNT} requests, a power of two so callers can cycle with a mask. Oversized requests
+     * are only generated when asked for, since they fail adaptation.
+     */
+    static EmailRequestDTO[] generate(long seed, boolean includeOversized) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Shape[] shapes = includeOversized
+                ? Shape.values()
+                : new Shape[]{Shape.SHORT, Shape.UNICODE, Shape.NEAR_LIMIT};
+
+        EmailRequestDTO[] requests = new EmailRequestDTO[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            requests[i] = generate(random, shapes[random.nextInt(shapes.length)], i);
+        }
+        return requests;
+    }
+
+    static EmailRequestDTO generate(SplittableRandom random, Shape shape, int index) {
+        EmailRequestDTO request = new EmailRequestDTO();
+        request.setSenderEmail("noreply" + index % 16 + "@viasoft.com.br");
+
+        switch (shape) {
+            case SHORT -> {
+                request.setRecipientEmail("user" + index + "@example.com");
+                request.setRecipientName("User " + index);
+                request.setSubject("Pedido " + index);
+                request.setContent("Seu pedido " + index + " foi enviado.");
+            }
+            case UNICODE -> {
+                request.setRecipientEmail("joão" + index + "@exemplo.com.br");
+                request.setRecipientName("João da Conceição " + index);
+                request.setSubject(text(random, 20 + random.nextInt(60)));
+                request.setContent(text(random, 40 + random.nextInt(180)));
+            }
+            case NEAR_LIMIT -> {
+                request.setRecipientEmail(pad("r" + index + "@", 40 - ".example.com".length()) + ".example.com");
+                request.setRecipientName(pad("Recipient " + index + " ", 50));
+                request.setSubject(text(random, 100));
+                request.setContent(text(random, 250));
+            }
+            case OVERSIZED -> {
+                request.setRecipientEmail("user" + index + "@example.com");
+                request.setRecipientName("User " + index);
+                request.setSubject(text(random, 121));
+                request.setContent(text(random, 257 + random.nextInt(2000)));
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Random words cut to exactly {@code length} UTF-16 units, the unit {@code @Size} counts,
+     * without splitting a surrogate pair.
+     */
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(length);
+        if (Character.isHighSurrogate(text.charAt(length - 1))) {
+            text.setCharAt(length - 1, '.');
+        }
+        return text.toString();
+    }
+
+    private static String pad(String value, int length) {
+        return value + "x".repeat(Math.max(0, length - value.length()));
+    }
+
+    static EmailRequest toProto(EmailRequestDTO request) {
+        EmailRequest.Builder builder = EmailRequest.newBuilder()
+                .setRecipientEmail(request.getRecipientEmail())
+                .setRecipientName(request.getRecipientName())
+                .setSenderEmail(request.getSenderEmail());
+        if (request.getSubject() != null) {
+            builder.setSubject(request.getSubject());
+        }
+        if (request.getContent() != null) {
+            builder.setContent(request.getContent());
+        }
+        if (request.getTemplateId() != null) {
+            builder.setTemplateId(request.getTemplateId());
+        }
+        if (request.getVariables() != null) {
+            builder.putAllVariables(request.getVariables());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+import com.viasoft.mailservice.mapper.EmailProtoMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message ingestion cost without the transport: a JSON body decoded the way Spring MVC does
+ * it versus a Protobuf message parsed and mapped by {@link EmailProtoMapper}, both followed by
+ * the request validation the two endpoints share. The average encoded sizes are printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestionDecodingBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ObjectReader jsonReader;
+    private EmailProtoMapper protoMapper;
+
+    private byte[][] jsonPayloads;
+    private byte[][] protoPayloads;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        ObjectMapper objectMapper = new ObjectMapper();
+        jsonReader = objectMapper.readerFor(EmailRequestDTO.class);
+        protoMapper = Mappers.getMapper(EmailProtoMapper.class);
+
+        EmailRequestDTO[] requests = EmailPayloads.generate(42, false);
+        jsonPayloads = new byte[requests.length][];
+        protoPayloads = new byte[requests.length][];
+        long jsonBytes = 0;
+        long protoBytes = 0;
+        for (int i = 0; i < requests.length; i++) {
+            jsonPayloads[i] = objectMapper.writeValueAsBytes(requests[i]);
+            protoPayloads[i] = EmailPayloads.toProto(requests[i]).toByteArray();
+            jsonBytes += jsonPayloads[i].length;
+            protoBytes += protoPayloads[i].length;
+        }
+        System.out.printf("%nAverage request size: JSON %d bytes, Protobuf %d bytes%n",
+                jsonBytes / requests.length, protoBytes / requests.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<EmailRequestDTO>> json() throws IOException {
+        EmailRequestDTO request = jsonReader.readValue(jsonPayloads[next()]);
+        return validator.validate(request);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<EmailRequestDTO>> protobuf() throws IOException {
+        EmailRequestDTO request = protoMapper.toRequestDTO(EmailRequest.parseFrom(protoPayloads[next()]));
+        return validator.validate(request);
+    }
+
+    private int next() {
+        return cursor++ & (EmailPayloads.COUNT - 1);
+    }
+}
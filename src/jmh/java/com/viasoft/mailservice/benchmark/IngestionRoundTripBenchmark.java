@@ -0,0 +1,111 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.MailServiceApplication;
+import com.viasoft.mailservice.grpc.GrpcServer;
+import com.viasoft.mailservice.grpc.proto.EmailIngestionGrpc;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+import com.viasoft.mailservice.grpc.proto.SendReply;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One email sent over loopback through each listener of the same running application:
+ * {@code POST /api/email/send} with a JSON body, and the unary {@code EmailIngestion/Send} call.
+ * Both end in the same pipeline (no provider delivery, logging at WARN), so the difference is
+ * the cost of the transport and the encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionRoundTripBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ManagedChannel channel;
+    private EmailIngestionGrpc.EmailIngestionBlockingStub stub;
+
+    private URI endpoint;
+    private byte[][] jsonPayloads;
+    private EmailRequest[] protoRequests;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(MailServiceApplication.class)
+                .run("--server.port=0",
+                        "--mail.grpc.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.viasoft.mailservice=WARN");
+
+        Environment environment = context.getEnvironment();
+        endpoint = URI.create("http://localhost:" + environment.getProperty("local.server.port")
+                + environment.getProperty("spring.mvc.servlet.path", "") + "/email/send");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        channel = Grpc.newChannelBuilderForAddress("localhost", context.getBean(GrpcServer.class).getPort(),
+                InsecureChannelCredentials.create()).build();
+        stub = EmailIngestionGrpc.newBlockingStub(channel);
+
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        var requests = EmailPayloads.generate(42, false);
+        jsonPayloads = new byte[requests.length][];
+        protoRequests = new EmailRequest[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            jsonPayloads[i] = objectMapper.writeValueAsBytes(requests[i]);
+            protoRequests[i] = EmailPayloads.toProto(requests[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int rest() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonPayloads[next()]))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public SendReply grpc() {
+        return stub.send(protoRequests[next()]);
+    }
+
+    private int next() {
+        return cursor.getAndIncrement() & (EmailPayloads.COUNT - 1);
+    }
+}
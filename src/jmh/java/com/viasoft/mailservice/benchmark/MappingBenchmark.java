@@ -0,0 +1,52 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private final EmailMapper mapper = Mappers.getMapper(EmailMapper.class);
+
+    private EmailRequestDTO[] requests;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        requests = EmailPayloads.generate(42, false);
+    }
+
+    @Benchmark
+    public EmailAwsDTO toAwsDTO() {
+        return mapper.toAwsDTO(next());
+    }
+
+    @Benchmark
+    public EmailOciDTO toOciDTO() {
+        return mapper.toOciDTO(next());
+    }
+
+    private EmailRequestDTO next() {
+        return requests[cursor++ & (EmailPayloads.COUNT - 1)];
+    }
+}
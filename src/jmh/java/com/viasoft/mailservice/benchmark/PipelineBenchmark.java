@@ -0,0 +1,73 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.viasoft.mailservice.MailServiceApplication;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.EmailService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end {@link EmailService#handleEmail(EmailRequestDTO)} on the real Spring context, for
+ * each {@link IntegrationType}: without delivery, or delivering over HTTP/2 to the embedded
+ * provider stub. Logging is turned down to WARN so console output is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"AWS", "OCI"})
+    public IntegrationType integration;
+
+    @Param({"false", "true"})
+    public boolean stub;
+
+    private ConfigurableApplicationContext context;
+    private EmailService emailService;
+    private EmailRequestDTO[] requests;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MailServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--mail.integracao=" + integration,
+                        "--mail.stub.enabled=" + stub,
+                        "--mail.grpc.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.viasoft.mailservice=WARN");
+        emailService = context.getBean(EmailService.class);
+        requests = EmailPayloads.generate(42, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void handleEmail() {
+        emailService.handleEmail(requests[cursor.getAndIncrement() & (EmailPayloads.COUNT - 1)]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of adapted DTOs as the sink writer does it: a cached {@link ObjectWriter}
+ * into a reused buffer, compact or pretty-printed ({@code mail.sink.pretty-print}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"AWS", "OCI"})
+    public IntegrationType integration;
+
+    private ObjectWriter compactWriter;
+    private ObjectWriter prettyWriter;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+    private Object[] dtos;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        compactWriter = objectMapper.writer();
+        prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+
+        EmailMapper mapper = Mappers.getMapper(EmailMapper.class);
+        EmailRequestDTO[] requests = EmailPayloads.generate(42, false);
+        dtos = new Object[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            dtos[i] = integration == IntegrationType.AWS ? mapper.toAwsDTO(requests[i]) : mapper.toOciDTO(requests[i]);
+        }
+    }
+
+    @Benchmark
+    public int compactJson() throws IOException {
+        return write(compactWriter);
+    }
+
+    @Benchmark
+    public int prettyJson() throws IOException {
+        return write(prettyWriter);
+    }
+
+    private int write(ObjectWriter writer) throws IOException {
+        buffer.reset();
+        writer.writeValue(buffer, dtos[cursor++ & (EmailPayloads.COUNT - 1)]);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,95 @@
+package com.viasoft.mailservice.benchmark;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.validation.DtoValidatorRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of adapted DTOs: the generated validators, the reflective Bean Validation fallback,
+ * and {@code validateDto} as {@code EmailServiceImpl} runs it (generated first, reflective only
+ * when the generated check fails).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"AWS", "OCI"})
+    public IntegrationType integration;
+
+    @Param({"false", "true"})
+    public boolean includeOversized;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private DtoValidatorRegistry dtoValidators;
+
+    private Object[] dtos;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        dtoValidators = new DtoValidatorRegistry();
+
+        EmailMapper mapper = Mappers.getMapper(EmailMapper.class);
+        EmailRequestDTO[] requests = EmailPayloads.generate(42, includeOversized);
+        dtos = new Object[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            dtos[i] = integration == IntegrationType.AWS ? mapper.toAwsDTO(requests[i]) : mapper.toOciDTO(requests[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean generated() {
+        return dtoValidators.isValid(next());
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Object>> reflective() {
+        return validator.validate(next());
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Object>> validateDto() {
+        Object dto = next();
+        if (dtoValidators.isValid(dto)) {
+            return Set.of();
+        }
+        return validator.validate(dto);
+    }
+
+    private Object next() {
+        return dtos[cursor++ & (EmailPayloads.COUNT - 1)];
+    }
+}
@@ -0,0 +1,135 @@
+package com.viasoft.mailservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one load test phase. {@code corrected} latencies are measured from
+ * the time a request was scheduled to be sent, so a stalled server is charged for every request
+ * the generator could not send on time (coordinated omission); {@code uncorrected} latencies
+ * are measured from the actual send and are kept only for comparison.
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Recorder corrected = new Recorder(3);
+    private final Recorder uncorrected = new Recorder(3);
+    private final Map<Outcome, LongAdder> outcomes = new LinkedHashMap<>();
+    private final Map<String, long[]> gcBaseline = new LinkedHashMap<>();
+
+    private long startNanos;
+    private long endNanos;
+
+    enum Outcome {
+        OK,
+        REJECTED,
+        RATE_LIMITED,
+        UNAVAILABLE,
+        SERVER_ERROR,
+        UNEXPECTED_STATUS,
+        TIMEOUT,
+        IO_ERROR
+    }
+
+    LoadReport() {
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    void start() {
+        corrected.reset();
+        uncorrected.reset();
+        outcomes.values().forEach(LongAdder::reset);
+        gcBaseline.clear();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcBaseline.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    void record(long intendedNanos, long sentNanos, long completedNanos, Outcome outcome) {
+        corrected.recordValue(completedNanos - intendedNanos);
+        uncorrected.recordValue(completedNanos - sentNanos);
+        outcomes.get(outcome).increment();
+    }
+
+    static Outcome classify(int status, boolean valid) {
+        if (valid && status >= 200 && status < 300) {
+            return Outcome.OK;
+        }
+        if (!valid && status == 400) {
+            return Outcome.REJECTED;
+        }
+        return switch (status) {
+            case 429 -> Outcome.RATE_LIMITED;
+            case 503 -> Outcome.UNAVAILABLE;
+            default -> status >= 500 ? Outcome.SERVER_ERROR : Outcome.UNEXPECTED_STATUS;
+        };
+    }
+
+    void print(PrintStream out, LoadTestSettings settings, String integration, boolean stub, long sent) {
+        Histogram correctedHistogram = corrected.getIntervalHistogram();
+        Histogram uncorrectedHistogram = uncorrected.getIntervalHistogram();
+        double elapsedSeconds = (endNanos - startNanos) / 1e9;
+        long completed = outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+
+        out.println();
+        out.printf("Load test: %s, stub=%s, target %d req/s for %s, invalid ratio %.2f%n",
+                integration, stub, settings.rate(), settings.duration(), settings.invalidRatio());
+        out.printf("Sent %d, completed %d in %.1f s: %.1f req/s%n", sent, completed, elapsedSeconds, completed / elapsedSeconds);
+        outcomes.forEach((outcome, count) -> {
+            if (count.sum() > 0 || outcome == Outcome.OK) {
+                out.printf("  %-18s %d%n", outcome, count.sum());
+            }
+        });
+
+        out.printf("%nLatency (ms)     %12s %12s%n", "corrected", "uncorrected");
+        for (double percentile : PERCENTILES) {
+            out.printf("  p%-13s %12.3f %12.3f%n", percentile,
+                    correctedHistogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI,
+                    uncorrectedHistogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+        }
+        out.printf("  %-14s %12.3f %12.3f%n", "max",
+                correctedHistogram.getMaxValue() / NANOS_PER_MILLI, uncorrectedHistogram.getMaxValue() / NANOS_PER_MILLI);
+
+        out.printf("%nGC during the measurement%n");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long[] baseline = gcBaseline.getOrDefault(gc.getName(), new long[2]);
+            out.printf("  %-24s %6d collections %8d ms%n", gc.getName(),
+                    gc.getCollectionCount() - baseline[0], gc.getCollectionTime() - baseline[1]);
+        }
+
+        write(settings.reportDirectory().resolve("latency-corrected.hgrm"), correctedHistogram, out);
+        write(settings.reportDirectory().resolve("latency-uncorrected.hgrm"), uncorrectedHistogram, out);
+    }
+
+    private static void write(Path file, Histogram histogram, PrintStream out) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(stream, NANOS_PER_MILLI);
+            }
+            out.println("Percentile distribution written to " + file);
+        } catch (IOException e) {
+            out.println("Failed to write " + file + ": " + e.getMessage());
+        }
+    }
+}
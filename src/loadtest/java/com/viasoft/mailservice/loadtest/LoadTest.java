@@ -0,0 +1,146 @@
+package com.viasoft.mailservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.MailServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of {@code POST /api/email/send}: boots the application on a random port
+ * and drives it open loop at a constant arrival rate, so requests keep being scheduled at the
+ * target rate no matter how slowly the server answers. Latencies are recorded against the
+ * scheduled send time (see {@link LoadReport}).
+ * <p>
+ * Every argument is handed to the application as well, so the integration, the provider stub and
+ * any other {@code mail.*} setting can be changed from the command line:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--loadtest.rate=500 --mail.integracao=OCI --mail.stub.enabled=true"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LoadTestSettings settings;
+    private final TrafficMix trafficMix;
+    private final URI endpoint;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final AtomicLong pending = new AtomicLong();
+
+    private long sequence;
+
+    private LoadTest(LoadTestSettings settings, TrafficMix trafficMix, URI endpoint) {
+        this.settings = settings;
+        this.trafficMix = trafficMix;
+        this.endpoint = endpoint;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Above application.properties, below the command line: keeps the gRPC listener off port 9090
+        System.setProperty("mail.grpc.port", "0");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MailServiceApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "logging.level.com.viasoft.mailservice=ERROR")
+                .run(args)) {
+
+            Environment environment = context.getEnvironment();
+            LoadTestSettings settings = Binder.get(environment).bindOrCreate("loadtest", LoadTestSettings.class);
+            TrafficMix trafficMix = new TrafficMix(context.getBean(ObjectMapper.class), settings.invalidRatio(), settings.seed());
+            URI endpoint = URI.create("http://localhost:" + environment.getProperty("local.server.port")
+                    + environment.getProperty("spring.mvc.servlet.path", "") + "/email/send");
+
+            LoadTest loadTest = new LoadTest(settings, trafficMix, endpoint);
+            try {
+                loadTest.run(settings.warmup(), new LoadReport());
+
+                LoadReport report = new LoadReport();
+                report.start();
+                long sent = loadTest.run(settings.duration(), report);
+                report.stop();
+
+                report.print(System.out, settings, environment.getProperty("mail.integracao"),
+                        environment.getProperty("mail.stub.enabled", Boolean.class, false), sent);
+            } finally {
+                loadTest.close();
+            }
+        }
+    }
+
+    /**
+     * Sends {@code rate * phase} requests, each at its scheduled time, then waits for the
+     * outstanding responses. Returns the number of requests sent.
+     */
+    private long run(Duration phase, LoadReport report) throws InterruptedException {
+        long count = phase.toNanos() * settings.rate() / NANOS_PER_SECOND;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * NANOS_PER_SECOND / settings.rate();
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            send(sequence++, intended, report);
+        }
+
+        long deadline = System.nanoTime() + settings.timeout().toNanos() + NANOS_PER_SECOND;
+        while (pending.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return count;
+    }
+
+    private void send(long sequence, long intended, LoadReport report) {
+        boolean valid = trafficMix.isValid(sequence);
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(settings.timeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(trafficMix.body(sequence)))
+                .build();
+
+        pending.incrementAndGet();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long completed = System.nanoTime();
+                    report.record(intended, sent, completed, response != null
+                            ? LoadReport.classify(response.statusCode(), valid)
+                            : failure(error));
+                    pending.decrementAndGet();
+                });
+    }
+
+    private static LoadReport.Outcome failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? LoadReport.Outcome.TIMEOUT : LoadReport.Outcome.IO_ERROR;
+    }
+
+    private void close() {
+        client.close();
+        executor.shutdownNow();
+    }
+}
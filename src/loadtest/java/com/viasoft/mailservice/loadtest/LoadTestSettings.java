@@ -0,0 +1,29 @@
+package com.viasoft.mailservice.loadtest;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code loadtest.*} arguments. {@code rate} is the constant arrival rate in requests per second,
+ * {@code invalid-ratio} the share of requests built to fail validation.
+ */
+public record LoadTestSettings(
+        @DefaultValue("200") int rate,
+        @DefaultValue("10s") Duration warmup,
+        @DefaultValue("30s") Duration duration,
+        @DefaultValue("0.1") double invalidRatio,
+        @DefaultValue("5s") Duration timeout,
+        @DefaultValue("42") long seed,
+        @DefaultValue("target/loadtest") Path reportDirectory) {
+
+    public LoadTestSettings {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("loadtest.rate must be positive: " + rate);
+        }
+        if (invalidRatio < 0 || invalidRatio > 1) {
+            throw new IllegalArgumentException("loadtest.invalid-ratio must be between 0 and 1: " + invalidRatio);
+        }
+    }
+}
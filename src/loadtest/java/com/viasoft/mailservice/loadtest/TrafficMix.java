@@ -0,0 +1,63 @@
+package com.viasoft.mailservice.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pre-serialized request bodies, so the generator does no JSON work while it is pacing requests.
+ * Valid requests stay under the OCI limits (the smallest of both providers) and must be accepted
+ * by either integration (204, or 202 in asynchronous mode); invalid ones break one constraint
+ * each and must be rejected with 400.
+ */
+final class TrafficMix {
+
+    static final int SIZE = 4096;
+
+    private final byte[][] bodies = new byte[SIZE][];
+    private final boolean[] valid = new boolean[SIZE];
+
+    TrafficMix(ObjectMapper objectMapper, double invalidRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < SIZE; i++) {
+            boolean invalid = random.nextDouble() < invalidRatio;
+            EmailRequestDTO request = invalid ? invalid(random, i) : valid(random, i);
+            try {
+                bodies[i] = objectMapper.writeValueAsBytes(request);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            valid[i] = !invalid;
+        }
+    }
+
+    byte[] body(long sequence) {
+        return bodies[(int) (sequence & (SIZE - 1))];
+    }
+
+    boolean isValid(long sequence) {
+        return valid[(int) (sequence & (SIZE - 1))];
+    }
+
+    private static EmailRequestDTO valid(SplittableRandom random, int index) {
+        EmailRequestDTO request = new EmailRequestDTO();
+        request.setSenderEmail("noreply" + index % 16 + "@viasoft.com.br");
+        request.setRecipientEmail("user" + index + "@example" + random.nextInt(8) + ".com");
+        request.setRecipientName("Recipient " + index);
+        request.setSubject("Pedido " + index + " enviado");
+        request.setContent("Seu pedido " + index + " foi enviado e chega em " + (1 + random.nextInt(9)) + " dias.");
+        return request;
+    }
+
+    private static EmailRequestDTO invalid(SplittableRandom random, int index) {
+        EmailRequestDTO request = valid(random, index);
+        switch (random.nextInt(3)) {
+            case 0 -> request.setRecipientEmail("not-an-email");
+            case 1 -> request.setRecipientName(" ");
+            default -> request.setSenderEmail(null);
+        }
+        return request;
+    }
+}
@@ -2,8 +2,10 @@ package com.viasoft.mailservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(MailServiceRuntimeHints.class)
 public class MailServiceApplication {
 
     public static void main(String[] args) {
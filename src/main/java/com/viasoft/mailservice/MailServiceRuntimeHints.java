@@ -0,0 +1,51 @@
+package com.viasoft.mailservice;
+
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.exception.ErrorResponse;
+import com.viasoft.mailservice.exception.ValidationErrorResponse;
+import com.viasoft.mailservice.service.tenant.TenantProperties;
+import com.viasoft.mailservice.validation.ContentOrTemplateValidator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image. Bodies of controller methods are registered by Spring
+ * itself; these are the types serialized with the {@code ObjectMapper} directly (provider
+ * payloads, batch results, error bodies), the ones Hibernate Validator introspects and the
+ * tenant configuration, which is bound from its own file at runtime rather than at startup.
+ * {@code EmailMapper} needs none: MapStruct generates plain Java and the implementation is an
+ * ordinary Spring bean.
+ */
+class MailServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            EmailRequestDTO.class, EmailAwsDTO.class, EmailOciDTO.class, BatchItemResultDTO.class,
+            ErrorResponse.class, ValidationErrorResponse.class
+    };
+
+    private static final Class<?>[] CONSTRAINED_TYPES = {
+            EmailRequestDTO.class, EmailAwsDTO.class, EmailOciDTO.class
+    };
+
+    private static final Class<?>[] BOUND_TYPES = {
+            TenantProperties.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingHints.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        bindingHints.registerReflectionHints(hints.reflection(), BOUND_TYPES);
+
+        for (Class<?> type : CONSTRAINED_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(ContentOrTemplateValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -1,24 +1,209 @@
 package com.viasoft.mailservice.controller;
 
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusPageDTO;
+import com.viasoft.mailservice.exception.ErrorBodyWriter;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.MessageNotFoundException;
+import com.viasoft.mailservice.service.AsyncEmailService;
 import com.viasoft.mailservice.service.EmailService;
-import jakarta.validation.Valid;
+import com.viasoft.mailservice.service.SendResult;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.idempotency.IdempotencyCache;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import com.viasoft.mailservice.service.status.StatusStore;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import com.viasoft.mailservice.validation.EmailRequestValidator;
+import com.viasoft.mailservice.validation.ValidationResult;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/email")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmailController {
 
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String MESSAGE_ID_HEADER = "Message-Id";
+
     private final EmailService emailService;
+    private final EmailBatchProcessor batchProcessor;
+    private final AsyncEmailService asyncEmailService;
+    private final EmailScheduler emailScheduler;
+    private final IdempotencyCache idempotencyCache;
+    private final StatusStore statusStore;
+    private final EmailRequestValidator requestValidator;
+    private final ErrorBodyWriter errorBodies;
+    private final TenantRegistry tenants;
 
-    public EmailController(EmailService emailService) {
+    public EmailController(
+            EmailService emailService,
+            EmailBatchProcessor batchProcessor,
+            ObjectProvider<AsyncEmailService> asyncEmailService,
+            ObjectProvider<EmailScheduler> emailScheduler,
+            IdempotencyCache idempotencyCache,
+            ObjectProvider<StatusStore> statusStore,
+            EmailRequestValidator requestValidator,
+            ErrorBodyWriter errorBodies,
+            ObjectProvider<TenantRegistry> tenants) {
         this.emailService = emailService;
+        this.batchProcessor = batchProcessor;
+        this.asyncEmailService = asyncEmailService.getIfAvailable();
+        this.emailScheduler = emailScheduler.getIfAvailable();
+        this.idempotencyCache = idempotencyCache;
+        this.statusStore = statusStore.getIfAvailable();
+        this.requestValidator = requestValidator;
+        this.errorBodies = errorBodies;
+        this.tenants = tenants.getIfAvailable();
     }
 
+    /**
+     * The body is validated here rather than with {@code @Valid}, and requests that fail
+     * validation are answered without an exception being thrown. Idempotency keys are scoped to
+     * the tenant.
+     */
     @PostMapping("/send")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void sendEmail(@Valid @RequestBody EmailRequestDTO requestDTO) {
-        emailService.handleEmail(requestDTO);
+    public ResponseEntity<?> sendEmail(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody EmailRequestDTO requestDTO,
+            HttpServletRequest request) {
+        String tenantId = tenantId(tenants, tenantHeader, apiKey);
+        requestDTO.setTenantId(tenantId);
+        ValidationResult validation = requestValidator.validate(requestDTO);
+        if (!validation.isValid()) {
+            return validationError(validation, request);
+        }
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return send(requestDTO, request);
+        }
+        idempotencyKey = scopedKey(tenantId, idempotencyKey);
+
+        IdempotencyCache.Outcome previous = idempotencyCache.reserve(idempotencyKey, requestDTO.hashCode());
+        if (previous != null) {
+            return replay(previous);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = send(requestDTO, request);
+        } catch (RuntimeException e) {
+            idempotencyCache.release(idempotencyKey);
+            throw e;
+        }
+        if (response.getStatusCode().isError()) {
+            idempotencyCache.release(idempotencyKey);
+            return response;
+        }
+
+        idempotencyCache.complete(idempotencyKey, response.getStatusCode().value(), messageId(response));
+        return response;
+    }
+
+    /**
+     * Only messages sent by the caller's tenant are found.
+     */
+    @GetMapping("/{messageId}/status")
+    public EmailStatusDTO getStatus(
+            @PathVariable String messageId,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey) {
+        return requireStatusStore().find(messageId, tenantId(tenants, tenantHeader, apiKey));
+    }
+
+    @GetMapping("/status")
+    public EmailStatusPageDTO getStatusBySender(
+            @RequestParam String sender,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey) {
+        return requireStatusStore().findBySender(sender, tenantId(tenants, tenantHeader, apiKey), cursor, limit);
+    }
+
+    private StatusStore requireStatusStore() {
+        if (statusStore == null) {
+            throw new MessageNotFoundException(StatusStore.DISABLED);
+        }
+        return statusStore;
+    }
+
+    private ResponseEntity<?> send(EmailRequestDTO requestDTO, HttpServletRequest request) {
+        if (requestDTO.getSendAt() != null) {
+            if (emailScheduler == null) {
+                throw new FieldValidationException("sendAt", EmailScheduler.DISABLED);
+            }
+            return ResponseEntity.accepted().body(emailScheduler.schedule(requestDTO));
+        }
+        if (asyncEmailService != null) {
+            return ResponseEntity.accepted().body(asyncEmailService.accept(requestDTO));
+        }
+
+        SendResult result = emailService.sendEmail(requestDTO);
+        if (!result.isSent()) {
+            return validationError(result.validation(), request);
+        }
+        return ResponseEntity.noContent().header(MESSAGE_ID_HEADER, Long.toString(result.messageId())).build();
+    }
+
+    private ResponseEntity<byte[]> validationError(ValidationResult validation, HttpServletRequest request) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.writeValidation(request.getRequestURI(), validation.getFieldErrors()));
+    }
+
+    /**
+     * The tenant of a request, {@code null} without one or with tenants disabled; the tenant
+     * headers are then ignored.
+     */
+    static String tenantId(TenantRegistry tenants, String tenantHeader, String apiKey) {
+        return tenants == null ? null : tenants.resolve(tenantHeader, apiKey);
+    }
+
+    static String scopedKey(String tenantId, String idempotencyKey) {
+        return tenantId == null ? idempotencyKey : tenantId + "/" + idempotencyKey;
+    }
+
+    static long messageId(ResponseEntity<?> response) {
+        String messageId = response.getBody() instanceof EmailAcceptedDTO body
+                ? body.getMessageId()
+                : response.getHeaders().getFirst(MESSAGE_ID_HEADER);
+        return messageId == null ? IdempotencyCache.NO_MESSAGE_ID : Long.parseLong(messageId);
+    }
+
+    private ResponseEntity<EmailAcceptedDTO> replay(IdempotencyCache.Outcome outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(outcome.status())
+                .header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        if (outcome.messageId() == IdempotencyCache.NO_MESSAGE_ID) {
+            return response.build();
+        }
+        if (outcome.status() == HttpStatus.NO_CONTENT.value()) {
+            return response.header(MESSAGE_ID_HEADER, Long.toString(outcome.messageId())).build();
+        }
+        return response.body(new EmailAcceptedDTO(Long.toString(outcome.messageId())));
+    }
+
+    @PostMapping(
+            value = "/send/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void sendEmailBatch(
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String tenantId = tenantId(tenants, tenantHeader, apiKey);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        batchProcessor.process(request.getInputStream(), response.getOutputStream(), tenantId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.viasoft.mailservice.controller;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusPageDTO;
+import com.viasoft.mailservice.exception.ErrorBodyWriter;
+import com.viasoft.mailservice.service.idempotency.IdempotencyCache;
+import com.viasoft.mailservice.service.reactive.ReactiveEmailService;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import com.viasoft.mailservice.validation.EmailRequestValidator;
+import com.viasoft.mailservice.validation.ValidationResult;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link EmailController}, active with
+ * {@code spring.main.web-application-type=reactive}: same paths, statuses and bodies.
+ */
+@RestController
+@RequestMapping("/email")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmailController {
+
+    private final ReactiveEmailService emailService;
+    private final IdempotencyCache idempotencyCache;
+    private final EmailRequestValidator requestValidator;
+    private final ErrorBodyWriter errorBodies;
+    private final TenantRegistry tenants;
+
+    public ReactiveEmailController(
+            ReactiveEmailService emailService,
+            IdempotencyCache idempotencyCache,
+            EmailRequestValidator requestValidator,
+            ErrorBodyWriter errorBodies,
+            ObjectProvider<TenantRegistry> tenants) {
+        this.emailService = emailService;
+        this.idempotencyCache = idempotencyCache;
+        this.requestValidator = requestValidator;
+        this.errorBodies = errorBodies;
+        this.tenants = tenants.getIfAvailable();
+    }
+
+    @PostMapping("/send")
+    public Mono<ResponseEntity<?>> sendEmail(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody EmailRequestDTO requestDTO,
+            ServerHttpRequest request) {
+        String tenantId = EmailController.tenantId(tenants, tenantHeader, apiKey);
+        requestDTO.setTenantId(tenantId);
+        ValidationResult validation = requestValidator.validate(requestDTO);
+        if (!validation.isValid()) {
+            return Mono.just(validationError(validation, request));
+        }
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return send(requestDTO, request);
+        }
+        String scopedKey = EmailController.scopedKey(tenantId, idempotencyKey);
+
+        IdempotencyCache.Outcome previous = idempotencyCache.reserve(scopedKey, requestDTO.hashCode());
+        if (previous != null) {
+            return Mono.just(replay(previous));
+        }
+
+        Mono<ResponseEntity<?>> response = send(requestDTO, request)
+                .doOnSuccess(result -> {
+                    if (result.getStatusCode().isError()) {
+                        idempotencyCache.release(scopedKey);
+                    } else {
+                        idempotencyCache.complete(scopedKey, result.getStatusCode().value(),
+                                EmailController.messageId(result));
+                    }
+                })
+                .doOnError(e -> idempotencyCache.release(scopedKey));
+
+        // Once reserved, the outcome is recorded even if the client disconnects, as with MVC.
+        return Mono.fromFuture(response.toFuture(), true);
+    }
+
+    @GetMapping("/{messageId}/status")
+    public Mono<EmailStatusDTO> getStatus(
+            @PathVariable String messageId,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey) {
+        return emailService.status(messageId, EmailController.tenantId(tenants, tenantHeader, apiKey));
+    }
+
+    @GetMapping("/status")
+    public Mono<EmailStatusPageDTO> getStatusBySender(
+            @RequestParam String sender,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey) {
+        return emailService.statusBySender(sender, EmailController.tenantId(tenants, tenantHeader, apiKey), cursor, limit);
+    }
+
+    private Mono<ResponseEntity<?>> send(EmailRequestDTO requestDTO, ServerHttpRequest request) {
+        if (emailService.defers(requestDTO)) {
+            return emailService.send(requestDTO).map(accepted -> ResponseEntity.accepted().body(accepted));
+        }
+        return emailService.handle(requestDTO).map(result -> result.isSent()
+                ? ResponseEntity.noContent()
+                        .header(EmailController.MESSAGE_ID_HEADER, Long.toString(result.messageId()))
+                        .build()
+                : validationError(result.validation(), request));
+    }
+
+    private ResponseEntity<byte[]> validationError(ValidationResult validation, ServerHttpRequest request) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.writeValidation(request.getPath().value(), validation.getFieldErrors()));
+    }
+
+    private ResponseEntity<?> replay(IdempotencyCache.Outcome outcome) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(outcome.status())
+                .header(EmailController.IDEMPOTENT_REPLAYED_HEADER, "true");
+        if (outcome.messageId() == IdempotencyCache.NO_MESSAGE_ID) {
+            return response.build();
+        }
+        if (outcome.status() == HttpStatus.NO_CONTENT.value()) {
+            return response.header(EmailController.MESSAGE_ID_HEADER, Long.toString(outcome.messageId())).build();
+        }
+        return response.body(new EmailAcceptedDTO(Long.toString(outcome.messageId())));
+    }
+
+    @PostMapping(
+            value = "/send/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchItemResultDTO> sendEmailBatch(
+            @RequestHeader(value = TenantRegistry.TENANT_HEADER, required = false) String tenantHeader,
+            @RequestHeader(value = TenantRegistry.API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody Flux<DataBuffer> body) {
+        return emailService.sendBatch(body, EmailController.tenantId(tenants, tenantHeader, apiKey));
+    }
+}
@@ -1,10 +1,16 @@
 package com.viasoft.mailservice.dto.request;
 
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.validation.ContentOrTemplate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.time.Instant;
+import java.util.Map;
+
 @Data
+@ContentOrTemplate
 public class EmailRequestDTO {
     @NotBlank
     @Email
@@ -17,9 +23,21 @@ public class EmailRequestDTO {
     @Email
     private String senderEmail;
 
-    @NotBlank
     private String subject;
 
-    @NotBlank
     private String content;
+
+    private String templateId;
+
+    private Map<String, String> variables;
+
+    private Instant sendAt;
+
+    private Lane lane;
+
+    /**
+     * Set by the API from the tenant headers, never taken from the client's body; kept with
+     * journaled and scheduled requests so they are sent with their tenant's configuration.
+     */
+    private String tenantId;
 }
@@ -0,0 +1,38 @@
+package com.viasoft.mailservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO {
+
+    public enum Status {
+        ACCEPTED,
+        REJECTED
+    }
+
+    private int index;
+    private Status status;
+    private String messageId;
+    private String message;
+    private Map<String, String> fieldErrors;
+
+    public static BatchItemResultDTO accepted(int index, String messageId) {
+        return new BatchItemResultDTO(index, Status.ACCEPTED, messageId, null, null);
+    }
+
+    public static BatchItemResultDTO rejected(int index, String message) {
+        return new BatchItemResultDTO(index, Status.REJECTED, null, message, null);
+    }
+
+    public static BatchItemResultDTO rejected(int index, String message, Map<String, String> fieldErrors) {
+        return new BatchItemResultDTO(index, Status.REJECTED, null, message, fieldErrors);
+    }
+}
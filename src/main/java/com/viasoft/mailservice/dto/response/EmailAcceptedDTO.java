@@ -0,0 +1,12 @@
+package com.viasoft.mailservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailAcceptedDTO {
+    private String messageId;
+}
@@ -0,0 +1,21 @@
+package com.viasoft.mailservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.viasoft.mailservice.model.enums.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmailStatusDTO {
+    private String messageId;
+    private DeliveryStatus status;
+    private String reason;
+    private Map<DeliveryStatus, Instant> transitions;
+}
@@ -0,0 +1,17 @@
+package com.viasoft.mailservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmailStatusPageDTO {
+    private List<EmailStatusDTO> items;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.viasoft.mailservice.exception;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import lombok.Getter;
+
+@Getter
+public class DeliveryException extends RuntimeException {
+
+    private final IntegrationType integrationType;
+
+    public DeliveryException(IntegrationType integrationType, String message) {
+        super(message);
+        this.integrationType = integrationType;
+    }
+
+    public DeliveryException(IntegrationType integrationType, String message, Throwable cause) {
+        super(message, cause);
+        this.integrationType = integrationType;
+    }
+}
@@ -0,0 +1,234 @@
+package com.viasoft.mailservice.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the JSON bodies of {@link ErrorResponse} and {@link ValidationErrorResponse} without
+ * serializing them. A response is serialized once at startup with marker values, and the JSON
+ * around the markers is kept as a template; a body is then the template with the status,
+ * message, timestamp, path and field errors filled in.
+ * <p>
+ * The templates are checked against the {@code ObjectMapper} on a sample with characters that
+ * need escaping. When the mapper writes anything differently (pretty printing, sorted map
+ * entries, numeric timestamps), the templates are dropped and every body is serialized by the
+ * mapper, so the bytes a client receives never depend on which path wrote them.
+ */
+@Component
+public class ErrorBodyWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorBodyWriter.class);
+
+    static final String VALIDATION_MESSAGE = "Validation error";
+
+    private static final int STATUS_MARK = 987_654_321;
+    private static final String MESSAGE_MARK = "@@message@@";
+    private static final String PATH_MARK = "@@path@@";
+    private static final Map<String, String> FIELD_ERRORS_MARK = Map.of("@@field@@", "@@error@@");
+
+    private final ObjectMapper objectMapper;
+    private final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+    private final Template errorTemplate;
+    private final Template validationTemplate;
+
+    public ErrorBodyWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+
+        Template error = compile(new ErrorResponse(STATUS_MARK, MESSAGE_MARK, PATH_MARK));
+        Template validation = compile(new ValidationErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), VALIDATION_MESSAGE, PATH_MARK, FIELD_ERRORS_MARK));
+        if (error == null || validation == null || !matchesMapper(error, validation)) {
+            logger.info("ObjectMapper output does not match the error body templates, serializing error bodies");
+            error = null;
+            validation = null;
+        }
+        this.errorTemplate = error;
+        this.validationTemplate = validation;
+    }
+
+    public byte[] write(HttpStatus status, String message, String path) {
+        if (errorTemplate == null || message == null || path == null) {
+            return serialize(new ErrorResponse(status.value(), message, path));
+        }
+        return errorTemplate.render(status.value(), message, Instant.now(), path, null);
+    }
+
+    /**
+     * A {@code 400} {@link ValidationErrorResponse}.
+     */
+    public byte[] writeValidation(String path, Map<String, String> fieldErrors) {
+        if (validationTemplate == null || path == null || fieldErrors == null) {
+            return serialize(new ValidationErrorResponse(
+                    HttpStatus.BAD_REQUEST.value(), VALIDATION_MESSAGE, path, fieldErrors));
+        }
+        return validationTemplate.render(HttpStatus.BAD_REQUEST.value(), VALIDATION_MESSAGE, Instant.now(),
+                path, fieldErrors);
+    }
+
+    /**
+     * Whether bodies are written from the templates rather than serialized by the mapper.
+     */
+    boolean usesTemplates() {
+        return errorTemplate != null;
+    }
+
+    private boolean matchesMapper(Template error, Template validation) {
+        String message = "Probe \"é\" \\ </\n\t\u0001 ";
+        String path = "/email/ção?a=1&b=\"2\"";
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        fieldErrors.put("variables[name]", message);
+        fieldErrors.put("content", "must not be blank");
+
+        ErrorResponse errorProbe = new ErrorResponse(HttpStatus.BAD_GATEWAY.value(), message, path);
+        ValidationErrorResponse validationProbe = new ValidationErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), VALIDATION_MESSAGE, path, fieldErrors);
+        try {
+            return objectMapper.writeValueAsString(errorProbe).equals(new String(error.render(
+                    errorProbe.getStatus(), message, errorProbe.getTimestamp(), path, null), StandardCharsets.UTF_8))
+                    && objectMapper.writeValueAsString(validationProbe).equals(new String(validation.render(
+                    HttpStatus.BAD_REQUEST.value(), VALIDATION_MESSAGE, validationProbe.getTimestamp(), path,
+                    fieldErrors), StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns {@code null} when a marker is missing from the serialized {@code sample} or found
+     * more than once.
+     */
+    private Template compile(ErrorResponse sample) {
+        String json;
+        Map<Slot, String> marks = new EnumMap<>(Slot.class);
+        try {
+            json = objectMapper.writeValueAsString(sample);
+            marks.put(Slot.STATUS, Integer.toString(STATUS_MARK));
+            marks.put(Slot.MESSAGE, objectMapper.writeValueAsString(MESSAGE_MARK));
+            marks.put(Slot.TIMESTAMP, objectMapper.writeValueAsString(sample.getTimestamp()));
+            marks.put(Slot.PATH, objectMapper.writeValueAsString(PATH_MARK));
+            marks.put(Slot.FIELD_ERRORS, objectMapper.writeValueAsString(FIELD_ERRORS_MARK));
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize error body template", e);
+            return null;
+        }
+
+        List<Mark> found = new ArrayList<>();
+        for (Map.Entry<Slot, String> mark : marks.entrySet()) {
+            int at = json.indexOf(mark.getValue());
+            if (at >= 0) {
+                if (json.indexOf(mark.getValue(), at + 1) >= 0) {
+                    return null;
+                }
+                found.add(new Mark(mark.getKey(), at, mark.getValue().length()));
+            }
+        }
+        if (found.stream().noneMatch(mark -> mark.slot() == Slot.TIMESTAMP)) {
+            return null;
+        }
+        found.sort(Comparator.comparingInt(Mark::at));
+
+        String[] literals = new String[found.size() + 1];
+        Slot[] slots = new Slot[found.size()];
+        int position = 0;
+        for (int i = 0; i < found.size(); i++) {
+            Mark mark = found.get(i);
+            literals[i] = json.substring(position, mark.at());
+            slots[i] = mark.slot();
+            position = mark.at() + mark.length();
+        }
+        literals[found.size()] = json.substring(position);
+        return new Template(literals, slots);
+    }
+
+    private byte[] serialize(ErrorResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize error body", e);
+        }
+    }
+
+    private record Mark(Slot slot, int at, int length) {
+    }
+
+    private enum Slot {
+        STATUS,
+        MESSAGE,
+        TIMESTAMP,
+        PATH,
+        FIELD_ERRORS
+    }
+
+    private final class Template {
+
+        private final String[] literals;
+        private final Slot[] slots;
+        private final int length;
+
+        private Template(String[] literals, Slot[] slots) {
+            this.literals = literals;
+            this.slots = slots;
+            int total = 0;
+            for (String literal : literals) {
+                total += literal.length();
+            }
+            this.length = total;
+        }
+
+        private byte[] render(int status, String message, Instant timestamp, String path,
+                              Map<String, String> fieldErrors) {
+            StringBuilder json = new StringBuilder(length + 128);
+            for (int i = 0; i < slots.length; i++) {
+                json.append(literals[i]);
+                switch (slots[i]) {
+                    case STATUS -> json.append(status);
+                    case MESSAGE -> quote(json, message);
+                    case TIMESTAMP -> json.append('"').append(timestamp).append('"');
+                    case PATH -> quote(json, path);
+                    case FIELD_ERRORS -> writeFieldErrors(json, fieldErrors);
+                }
+            }
+            json.append(literals[slots.length]);
+            return json.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private void writeFieldErrors(StringBuilder json, Map<String, String> fieldErrors) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> error : fieldErrors.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                quote(json, error.getKey());
+                json.append(':');
+                quote(json, error.getValue());
+            }
+            json.append('}');
+        }
+
+        private void quote(StringBuilder json, String value) {
+            if (value == null) {
+                json.append("null");
+                return;
+            }
+            json.append('"');
+            encoder.quoteAsString(value, json);
+            json.append('"');
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.viasoft.mailservice.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class FieldValidationException extends RuntimeException {
+
+    private final Map<String, String> fieldErrors;
+
+    public FieldValidationException(String field, String message) {
+        super(message, null, false, false);
+        this.fieldErrors = Map.of(field, message);
+    }
+}
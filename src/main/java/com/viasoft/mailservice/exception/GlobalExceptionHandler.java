@@ -1,11 +1,16 @@
 package com.viasoft.mailservice.exception;
 
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,78 +18,180 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Error bodies of the servlet (MVC) API. Each handler delegates to a path-based overload that
+ * {@link ReactiveExceptionHandler} reuses, so both variants answer with the same bodies. The
+ * bodies are written by {@link ErrorBodyWriter} from precompiled templates.
+ */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final EmailMetrics metrics;
+    private final ErrorBodyWriter errorBodies;
+
+    public GlobalExceptionHandler(EmailMetrics metrics, ErrorBodyWriter errorBodies) {
+        this.metrics = metrics;
+        this.errorBodies = errorBodies;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ValidationErrorResponse> handleMethodArgumentNotValid(
+    public ResponseEntity<byte[]> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
+        return handleBindingErrors(ex.getBindingResult(), request.getRequestURI());
+    }
 
-        Map<String, String> errors = ex.getBindingResult().getFieldErrors().stream()
+    ResponseEntity<byte[]> handleBindingErrors(BindingResult bindingResult, String path) {
+        Map<String, String> errors = bindingResult.getFieldErrors().stream()
                 .collect(Collectors.toMap(
                         fieldError -> fieldError.getField(),
                         fieldError -> fieldError.getDefaultMessage()
                 ));
+        metrics.validationFailed(null, errors.keySet());
 
-        ValidationErrorResponse response = new ValidationErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                "Validation error",
-                request.getRequestURI(),
-                errors
-        );
-
-        return ResponseEntity.badRequest().body(response);
+        return validationError(path, errors);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<ValidationErrorResponse> handleConstraintViolation(
+    public ResponseEntity<byte[]> handleConstraintViolation(
             ConstraintViolationException ex, HttpServletRequest request) {
+        return handleConstraintViolation(ex, request.getRequestURI());
+    }
 
+    ResponseEntity<byte[]> handleConstraintViolation(ConstraintViolationException ex, String path) {
         Map<String, String> errors = ex.getConstraintViolations().stream()
                 .collect(Collectors.toMap(
                         violation -> violation.getPropertyPath().toString(),
                         violation -> violation.getMessage()
                 ));
 
-        ValidationErrorResponse response = new ValidationErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                "Validation error",
-                request.getRequestURI(),
-                errors
-        );
+        return validationError(path, errors);
+    }
 
-        return ResponseEntity.badRequest().body(response);
+    @ExceptionHandler(FieldValidationException.class)
+    public ResponseEntity<byte[]> handleFieldValidation(
+            FieldValidationException ex, HttpServletRequest request) {
+        return handleFieldValidation(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleFieldValidation(FieldValidationException ex, String path) {
+        metrics.validationFailed(null, ex.getFieldErrors().keySet());
+
+        return validationError(path, ex.getFieldErrors());
     }
 
     @ExceptionHandler(ConfigurationException.class)
-    public ResponseEntity<ErrorResponse> handleConfigurationError(
+    public ResponseEntity<byte[]> handleConfigurationError(
             ConfigurationException ex, HttpServletRequest request) {
+        return handleConfigurationError(ex, request.getRequestURI());
+    }
 
+    ResponseEntity<byte[]> handleConfigurationError(ConfigurationException ex, String path) {
         logger.error("Configuration error detected: {}", ex.getMessage());
 
-        ErrorResponse response = new ErrorResponse(
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                ex.getMessage(),
-                request.getRequestURI()
-        );
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), path));
+    }
+
+    @ExceptionHandler(DeliveryException.class)
+    public ResponseEntity<byte[]> handleDeliveryError(
+            DeliveryException ex, HttpServletRequest request) {
+        return handleDeliveryError(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleDeliveryError(DeliveryException ex, String path) {
+        logger.error("Delivery failed: {}", ex.getMessage(), ex.getCause());
+
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.BAD_GATEWAY, ex.getMessage(), path));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailable(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+        return handleServiceUnavailable(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleServiceUnavailable(ServiceUnavailableException ex, String path) {
+        logger.warn("Shedding request: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), path));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<byte[]> handleIdempotencyConflict(
+            IdempotencyConflictException ex, HttpServletRequest request) {
+        return handleIdempotencyConflict(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleIdempotencyConflict(IdempotencyConflictException ex, String path) {
+        logger.warn("Idempotency conflict: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.CONFLICT, ex.getMessage(), path));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<byte[]> handleRateLimitExceeded(
+            RateLimitExceededException ex, HttpServletRequest request) {
+        return handleRateLimitExceeded(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleRateLimitExceeded(RateLimitExceededException ex, String path) {
+        logger.warn("Rate limited request: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), path));
+    }
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    @ExceptionHandler(SuppressedRecipientException.class)
+    public ResponseEntity<byte[]> handleSuppressedRecipient(
+            SuppressedRecipientException ex, HttpServletRequest request) {
+        return handleSuppressedRecipient(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleSuppressedRecipient(SuppressedRecipientException ex, String path) {
+        logger.info("Suppressed recipient: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), path));
+    }
+
+    @ExceptionHandler(MessageNotFoundException.class)
+    public ResponseEntity<byte[]> handleMessageNotFound(
+            MessageNotFoundException ex, HttpServletRequest request) {
+        return handleMessageNotFound(ex, request.getRequestURI());
+    }
+
+    ResponseEntity<byte[]> handleMessageNotFound(MessageNotFoundException ex, String path) {
+        logger.debug("Message not found: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.NOT_FOUND, ex.getMessage(), path));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGenericException(
+    public ResponseEntity<byte[]> handleGenericException(
             Exception ex, HttpServletRequest request) {
+        return handleGenericException(ex, request.getRequestURI());
+    }
 
+    ResponseEntity<byte[]> handleGenericException(Exception ex, String path) {
         logger.error("Unexpected server error: ", ex);
 
-        ErrorResponse response = new ErrorResponse(
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                "An unexpected internal server error occurred.",
-                request.getRequestURI()
-        );
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.write(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected internal server error occurred.", path));
+    }
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    private ResponseEntity<byte[]> validationError(String path, Map<String, String> fieldErrors) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.writeValidation(path, fieldErrors));
     }
 }
\ No newline at end of file
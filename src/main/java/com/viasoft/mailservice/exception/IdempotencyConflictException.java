@@ -0,0 +1,7 @@
+package com.viasoft.mailservice.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.viasoft.mailservice.exception;
+
+public class MessageNotFoundException extends RuntimeException {
+    public MessageNotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
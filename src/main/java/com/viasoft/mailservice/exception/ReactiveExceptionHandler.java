@@ -0,0 +1,96 @@
+package com.viasoft.mailservice.exception;
+
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+/**
+ * Error bodies of the WebFlux API, built by the same code as {@link GlobalExceptionHandler}.
+ * {@link WebExchangeBindException} is the reactive counterpart of
+ * {@code MethodArgumentNotValidException}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private final GlobalExceptionHandler errors;
+
+    public ReactiveExceptionHandler(EmailMetrics metrics, ErrorBodyWriter errorBodies) {
+        this.errors = new GlobalExceptionHandler(metrics, errorBodies);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<byte[]> handleWebExchangeBind(
+            WebExchangeBindException ex, ServerHttpRequest request) {
+        return errors.handleBindingErrors(ex.getBindingResult(), path(request));
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<byte[]> handleConstraintViolation(
+            ConstraintViolationException ex, ServerHttpRequest request) {
+        return errors.handleConstraintViolation(ex, path(request));
+    }
+
+    @ExceptionHandler(FieldValidationException.class)
+    public ResponseEntity<byte[]> handleFieldValidation(
+            FieldValidationException ex, ServerHttpRequest request) {
+        return errors.handleFieldValidation(ex, path(request));
+    }
+
+    @ExceptionHandler(ConfigurationException.class)
+    public ResponseEntity<byte[]> handleConfigurationError(
+            ConfigurationException ex, ServerHttpRequest request) {
+        return errors.handleConfigurationError(ex, path(request));
+    }
+
+    @ExceptionHandler(DeliveryException.class)
+    public ResponseEntity<byte[]> handleDeliveryError(
+            DeliveryException ex, ServerHttpRequest request) {
+        return errors.handleDeliveryError(ex, path(request));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailable(
+            ServiceUnavailableException ex, ServerHttpRequest request) {
+        return errors.handleServiceUnavailable(ex, path(request));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<byte[]> handleIdempotencyConflict(
+            IdempotencyConflictException ex, ServerHttpRequest request) {
+        return errors.handleIdempotencyConflict(ex, path(request));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<byte[]> handleRateLimitExceeded(
+            RateLimitExceededException ex, ServerHttpRequest request) {
+        return errors.handleRateLimitExceeded(ex, path(request));
+    }
+
+    @ExceptionHandler(SuppressedRecipientException.class)
+    public ResponseEntity<byte[]> handleSuppressedRecipient(
+            SuppressedRecipientException ex, ServerHttpRequest request) {
+        return errors.handleSuppressedRecipient(ex, path(request));
+    }
+
+    @ExceptionHandler(MessageNotFoundException.class)
+    public ResponseEntity<byte[]> handleMessageNotFound(
+            MessageNotFoundException ex, ServerHttpRequest request) {
+        return errors.handleMessageNotFound(ex, path(request));
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleGenericException(
+            Exception ex, ServerHttpRequest request) {
+        return errors.handleGenericException(ex, path(request));
+    }
+
+    private static String path(ServerHttpRequest request) {
+        return request.getPath().value();
+    }
+}
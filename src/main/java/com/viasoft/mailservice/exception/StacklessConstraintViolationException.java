@@ -0,0 +1,18 @@
+package com.viasoft.mailservice.exception;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+
+import java.util.Set;
+
+public class StacklessConstraintViolationException extends ConstraintViolationException {
+
+    public StacklessConstraintViolationException(Set<? extends ConstraintViolation<?>> constraintViolations) {
+        super(constraintViolations);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
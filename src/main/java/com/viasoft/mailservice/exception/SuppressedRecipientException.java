@@ -0,0 +1,7 @@
+package com.viasoft.mailservice.exception;
+
+public class SuppressedRecipientException extends RuntimeException {
+    public SuppressedRecipientException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,310 @@
+package com.viasoft.mailservice.grpc;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.Duration;
+import com.google.rpc.BadRequest;
+import com.google.rpc.Code;
+import com.google.rpc.RetryInfo;
+import com.google.rpc.Status;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import com.viasoft.mailservice.grpc.proto.BulkReply;
+import com.viasoft.mailservice.grpc.proto.EmailIngestionGrpc;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+import com.viasoft.mailservice.grpc.proto.Rejection;
+import com.viasoft.mailservice.grpc.proto.SendReply;
+import com.viasoft.mailservice.mapper.EmailProtoMapper;
+import com.viasoft.mailservice.service.AsyncEmailService;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * gRPC counterpart of {@code EmailController}. Requests are mapped to {@link EmailRequestDTO} and
+ * go through the same validation and pipeline as the REST API; errors are translated to gRPC
+ * status codes with {@code google.rpc} details ({@link BadRequest} for validation errors,
+ * {@link RetryInfo} wherever REST answers with {@code Retry-After}). Field names in the details
+ * are the proto field names. The tenant of a call comes from its {@code x-tenant-id} and
+ * {@code x-api-key} metadata, read by {@link TenantServerInterceptor}.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.grpc.enabled", havingValue = "true")
+public class EmailIngestionService extends EmailIngestionGrpc.EmailIngestionImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailIngestionService.class);
+
+    private static final String VALIDATION_ERROR = "Validation error";
+
+    private final EmailProtoMapper mapper;
+    private final Validator validator;
+    private final EmailService emailService;
+    private final AsyncEmailService asyncEmailService;
+    private final EmailScheduler emailScheduler;
+    private final EmailBatchProcessor batchProcessor;
+    private final EmailMetrics metrics;
+    private final TenantRegistry tenants;
+
+    public EmailIngestionService(
+            EmailProtoMapper mapper,
+            Validator validator,
+            EmailService emailService,
+            ObjectProvider<AsyncEmailService> asyncEmailService,
+            ObjectProvider<EmailScheduler> emailScheduler,
+            EmailBatchProcessor batchProcessor,
+            EmailMetrics metrics,
+            ObjectProvider<TenantRegistry> tenants) {
+        this.mapper = mapper;
+        this.validator = validator;
+        this.emailService = emailService;
+        this.asyncEmailService = asyncEmailService.getIfAvailable();
+        this.emailScheduler = emailScheduler.getIfAvailable();
+        this.batchProcessor = batchProcessor;
+        this.metrics = metrics;
+        this.tenants = tenants.getIfAvailable();
+    }
+
+    @Override
+    public void send(EmailRequest request, StreamObserver<SendReply> responseObserver) {
+        EmailRequestDTO requestDTO = mapper.toRequestDTO(request);
+        try {
+            requestDTO.setTenantId(tenantId());
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatusException(e));
+            return;
+        }
+
+        Set<ConstraintViolation<EmailRequestDTO>> violations = validator.validate(requestDTO);
+        if (!violations.isEmpty()) {
+            Map<String, String> fieldErrors = toFieldErrors(violations);
+            metrics.validationFailed(null, fieldErrors.keySet());
+            responseObserver.onError(invalidArgument(fieldErrors));
+            return;
+        }
+
+        SendReply reply;
+        try {
+            reply = send(requestDTO);
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatusException(e));
+            return;
+        }
+        responseObserver.onNext(reply);
+        responseObserver.onCompleted();
+    }
+
+    private SendReply send(EmailRequestDTO requestDTO) {
+        if (requestDTO.getSendAt() != null) {
+            if (emailScheduler == null) {
+                throw new FieldValidationException("sendAt", EmailScheduler.DISABLED);
+            }
+            return SendReply.newBuilder()
+                    .setMessageId(emailScheduler.schedule(requestDTO).getMessageId())
+                    .build();
+        }
+        if (asyncEmailService != null) {
+            return SendReply.newBuilder()
+                    .setMessageId(asyncEmailService.accept(requestDTO).getMessageId())
+                    .build();
+        }
+
+        return SendReply.newBuilder()
+                .setMessageId(Long.toString(emailService.handleEmail(requestDTO)))
+                .build();
+    }
+
+    /**
+     * Items are processed as they arrive, on the thread delivering them, so gRPC only requests
+     * the next message once the previous one has gone through the pipeline. The tenant is
+     * resolved once, when the stream opens; a stream with invalid tenant metadata is failed
+     * right away and its items are discarded.
+     */
+    @Override
+    public StreamObserver<EmailRequest> sendBulk(StreamObserver<BulkReply> responseObserver) {
+        String tenantId;
+        try {
+            tenantId = tenantId();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatusException(e));
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(EmailRequest request) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            };
+        }
+
+        return new StreamObserver<>() {
+
+            private final BulkReply.Builder reply = BulkReply.newBuilder();
+            private int index;
+
+            @Override
+            public void onNext(EmailRequest request) {
+                EmailRequestDTO requestDTO = mapper.toRequestDTO(request);
+                requestDTO.setTenantId(tenantId);
+                BatchItemResultDTO result = batchProcessor.processItem(index, requestDTO);
+                if (result.getStatus() == BatchItemResultDTO.Status.ACCEPTED) {
+                    reply.setAccepted(reply.getAccepted() + 1);
+                } else {
+                    reply.setRejected(reply.getRejected() + 1);
+                    Rejection.Builder rejection = Rejection.newBuilder()
+                            .setIndex(index)
+                            .setMessage(result.getMessage());
+                    if (result.getFieldErrors() != null) {
+                        result.getFieldErrors().forEach((field, message) ->
+                                rejection.putFieldErrors(toProtoField(field), message));
+                    }
+                    reply.addRejections(rejection);
+                }
+                index++;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                logger.warn("Email bulk stream aborted by the client after {} items: {}", index, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                logger.info("Processed email bulk stream: {} accepted, {} rejected",
+                        reply.getAccepted(), reply.getRejected());
+                responseObserver.onNext(reply.build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * The tenant of the current call, {@code null} without one or with tenants disabled; the
+     * tenant metadata is then ignored.
+     */
+    private String tenantId() {
+        if (tenants == null) {
+            return null;
+        }
+        return tenants.resolve(TenantServerInterceptor.TENANT_ID.get(), TenantServerInterceptor.API_KEY.get());
+    }
+
+    StatusRuntimeException toStatusException(RuntimeException e) {
+        if (e instanceof ConstraintViolationException violation) {
+            return invalidArgument(toFieldErrors(violation.getConstraintViolations()));
+        }
+        if (e instanceof FieldValidationException validation) {
+            metrics.validationFailed(null, validation.getFieldErrors().keySet());
+            return invalidArgument(validation.getFieldErrors());
+        }
+        if (e instanceof ServiceUnavailableException unavailable) {
+            logger.warn("Shedding request: {}", unavailable.getMessage());
+            return retryable(Code.UNAVAILABLE, unavailable.getMessage(), unavailable.getRetryAfter());
+        }
+        if (e instanceof RateLimitExceededException rateLimited) {
+            logger.warn("Rate limited request: {}", rateLimited.getMessage());
+            return retryable(Code.RESOURCE_EXHAUSTED, rateLimited.getMessage(), rateLimited.getRetryAfter());
+        }
+        if (e instanceof DeliveryException delivery) {
+            logger.error("Delivery failed: {}", delivery.getMessage(), delivery.getCause());
+            return status(Status.newBuilder().setCode(Code.UNAVAILABLE_VALUE).setMessage(delivery.getMessage()));
+        }
+        if (e instanceof SuppressedRecipientException suppressed) {
+            logger.info("Suppressed recipient: {}", suppressed.getMessage());
+            return status(Status.newBuilder().setCode(Code.FAILED_PRECONDITION_VALUE).setMessage(suppressed.getMessage()));
+        }
+        if (e instanceof ConfigurationException configuration) {
+            logger.error("Configuration error detected: {}", configuration.getMessage());
+            return status(Status.newBuilder().setCode(Code.INTERNAL_VALUE).setMessage(configuration.getMessage()));
+        }
+
+        logger.error("Unexpected server error: ", e);
+        return status(Status.newBuilder()
+                .setCode(Code.INTERNAL_VALUE)
+                .setMessage("An unexpected internal server error occurred."));
+    }
+
+    private static StatusRuntimeException invalidArgument(Map<String, String> fieldErrors) {
+        BadRequest.Builder badRequest = BadRequest.newBuilder();
+        fieldErrors.forEach((field, message) -> badRequest.addFieldViolations(BadRequest.FieldViolation.newBuilder()
+                .setField(toProtoField(field))
+                .setDescription(message)));
+
+        return status(Status.newBuilder()
+                .setCode(Code.INVALID_ARGUMENT_VALUE)
+                .setMessage(VALIDATION_ERROR)
+                .addDetails(Any.pack(badRequest.build())));
+    }
+
+    private static StatusRuntimeException retryable(Code code, String message, java.time.Duration retryAfter) {
+        RetryInfo retryInfo = RetryInfo.newBuilder()
+                .setRetryDelay(Duration.newBuilder()
+                        .setSeconds(retryAfter.getSeconds())
+                        .setNanos(retryAfter.getNano()))
+                .build();
+
+        return status(Status.newBuilder()
+                .setCode(code.getNumber())
+                .setMessage(message)
+                .addDetails(Any.pack(retryInfo)));
+    }
+
+    private static StatusRuntimeException status(Status.Builder status) {
+        return StatusProto.toStatusRuntimeException(status.build());
+    }
+
+    private static Map<String, String> toFieldErrors(Set<? extends ConstraintViolation<?>> violations) {
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (ConstraintViolation<?> violation : violations) {
+            fieldErrors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return fieldErrors;
+    }
+
+    /**
+     * {@code recipientEmail} → {@code recipient_email}; the tenant headers
+     * ({@code X-Api-Key}) become their metadata keys ({@code x-api-key}).
+     */
+    static String toProtoField(String property) {
+        if (property.indexOf('-') >= 0) {
+            return property.toLowerCase(Locale.ROOT);
+        }
+        StringBuilder field = new StringBuilder(property.length() + 4);
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (Character.isUpperCase(c)) {
+                field.append('_').append(Character.toLowerCase(c));
+            } else {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+}
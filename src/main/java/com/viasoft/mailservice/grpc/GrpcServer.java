@@ -0,0 +1,105 @@
+package com.viasoft.mailservice.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC listener running next to the HTTP server in the same process. Calls are handed to virtual
+ * threads, because the pipeline blocks (bulkhead queues, rate-limit deferral, provider calls).
+ * It is a {@link SmartLifecycle} rather than a {@code @PostConstruct} bean so that it starts and
+ * stops together with the web server, and not at all in runs that exit on refresh (AppCDS
+ * training run).
+ */
+@Component
+@ConditionalOnProperty(name = "mail.grpc.enabled", havingValue = "true")
+public class GrpcServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+
+    private final EmailIngestionService ingestionService;
+    private final int port;
+    private final DataSize maxInboundMessageSize;
+    private final Duration shutdownTimeout;
+
+    private ExecutorService executor;
+    private volatile Server server;
+
+    public GrpcServer(
+            EmailIngestionService ingestionService,
+            @Value("${mail.grpc.port}") int port,
+            @Value("${mail.grpc.max-inbound-message-size}") DataSize maxInboundMessageSize,
+            @Value("${mail.grpc.shutdown-timeout}") Duration shutdownTimeout) {
+        this.ingestionService = ingestionService;
+        this.port = port;
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        Server created = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(ingestionService, new TenantServerInterceptor()))
+                .executor(executor)
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
+                .build();
+        try {
+            created.start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        server = created;
+        logger.info("gRPC server listening on port {}", created.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.shutdownNow();
+        } finally {
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Bound port, or {@code -1} when the server is not running. Differs from
+     * {@code mail.grpc.port} when that is {@code 0}.
+     */
+    public int getPort() {
+        Server running = server;
+        return running == null ? -1 : running.getPort();
+    }
+}
@@ -0,0 +1,36 @@
+package com.viasoft.mailservice.grpc;
+
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.util.Locale;
+
+/**
+ * Copies the tenant metadata of a call, the gRPC counterpart of the REST tenant headers, into
+ * its {@link Context}. {@link EmailIngestionService} resolves it through the
+ * {@link TenantRegistry} with the same rules as the REST API.
+ */
+final class TenantServerInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> TENANT_ID_KEY = Metadata.Key.of(
+            TenantRegistry.TENANT_HEADER.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> API_KEY_KEY = Metadata.Key.of(
+            TenantRegistry.API_KEY_HEADER.toLowerCase(Locale.ROOT), Metadata.ASCII_STRING_MARSHALLER);
+
+    static final Context.Key<String> TENANT_ID = Context.key(TENANT_ID_KEY.name());
+    static final Context.Key<String> API_KEY = Context.key(API_KEY_KEY.name());
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        Context context = Context.current()
+                .withValue(TENANT_ID, headers.get(TENANT_ID_KEY))
+                .withValue(API_KEY, headers.get(API_KEY_KEY));
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+}
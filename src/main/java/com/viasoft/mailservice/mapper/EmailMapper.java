@@ -21,4 +21,10 @@ public interface EmailMapper {
     @Mapping(source = "subject", target = "subject")
     @Mapping(source = "content", target = "body")
     EmailOciDTO toOciDTO(EmailRequestDTO requestDTO);
+
+    @Mapping(source = "subject", target = "subject")
+    @Mapping(source = "content", target = "content")
+    @Mapping(target = "templateId", ignore = true)
+    @Mapping(target = "variables", ignore = true)
+    EmailRequestDTO toRenderedDTO(EmailRequestDTO requestDTO, String subject, String content);
 }
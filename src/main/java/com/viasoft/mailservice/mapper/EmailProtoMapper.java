@@ -0,0 +1,48 @@
+package com.viasoft.mailservice.mapper;
+
+import com.google.protobuf.Timestamp;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+import com.viasoft.mailservice.model.enums.Lane;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.time.Instant;
+
+@Mapper(componentModel = "spring")
+public interface EmailProtoMapper {
+    @Mapping(source = "recipientEmail", target = "recipientEmail")
+    @Mapping(source = "recipientName", target = "recipientName")
+    @Mapping(source = "senderEmail", target = "senderEmail")
+    @Mapping(source = "subject", target = "subject")
+    @Mapping(source = "content", target = "content")
+    @Mapping(source = "templateId", target = "templateId")
+    @Mapping(source = "variablesMap", target = "variables")
+    @Mapping(source = "sendAt", target = "sendAt")
+    @Mapping(source = "lane", target = "lane")
+    @Mapping(target = "tenantId", ignore = true)
+    EmailRequestDTO toRequestDTO(EmailRequest request);
+
+    /**
+     * Proto3 strings are never null: an unset field arrives empty and must be reported as
+     * missing, exactly like an absent JSON property.
+     */
+    default String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Unset message fields are skipped through {@code hasSendAt()}, so this only sees set ones.
+     */
+    default Instant toInstant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+
+    default Lane toLane(com.viasoft.mailservice.grpc.proto.Lane lane) {
+        return switch (lane) {
+            case LANE_TRANSACTIONAL -> Lane.TRANSACTIONAL;
+            case LANE_BULK -> Lane.BULK;
+            case LANE_UNSPECIFIED, UNRECOGNIZED -> null;
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.viasoft.mailservice.model.enums;
+
+/**
+ * Lifecycle of a tracked message, in the order a successful delivery goes through it.
+ */
+public enum DeliveryStatus {
+    ACCEPTED,
+    VALIDATED,
+    DISPATCHED,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.viasoft.mailservice.model.enums;
+
+public enum Lane {
+    TRANSACTIONAL,
+    BULK;
+
+    /**
+     * Lane of requests that do not name one: only requests that ask for it get ahead of bulk
+     * traffic.
+     */
+    public static Lane of(Lane lane) {
+        return lane == null ? BULK : lane;
+    }
+}
@@ -0,0 +1,6 @@
+package com.viasoft.mailservice.model.enums;
+
+public enum RoutingMode {
+    STATIC,
+    ADAPTIVE
+}
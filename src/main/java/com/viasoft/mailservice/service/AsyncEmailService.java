@@ -0,0 +1,178 @@
+package com.viasoft.mailservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.exception.JournalException;
+import com.viasoft.mailservice.service.journal.EmailJournal;
+import com.viasoft.mailservice.service.status.StatusStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous accept mode: requests are validated, appended to the {@link EmailJournal} and
+ * acknowledged as soon as the journal commit is durable. A background dispatcher drains the
+ * journal in batches, handing each record to the {@link DeferredEmailHandler} on its own
+ * virtual thread, and resumes from the last checkpoint after a restart (at-least-once
+ * delivery).
+ */
+@Service
+@ConditionalOnProperty(name = "mail.async.enabled", havingValue = "true")
+@RegisterReflectionForBinding(AsyncEmailService.JournalEntry.class)
+public class AsyncEmailService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncEmailService.class);
+
+    private final EmailService emailService;
+    private final DeferredEmailHandler deferredHandler;
+    private final MessageIdGenerator idGenerator;
+    private final StatusStore statusStore;
+    private final ObjectWriter entryWriter;
+    private final ObjectReader entryReader;
+    private final EmailJournal journal;
+    private final int dispatchBatchSize;
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Thread dispatcher;
+
+    public AsyncEmailService(
+            EmailService emailService,
+            DeferredEmailHandler deferredHandler,
+            MessageIdGenerator idGenerator,
+            ObjectProvider<StatusStore> statusStore,
+            ObjectMapper objectMapper,
+            @Value("${mail.async.journal.directory}") Path journalDirectory,
+            @Value("${mail.async.journal.segment-size}") int segmentSize,
+            @Value("${mail.async.dispatch-batch-size}") int dispatchBatchSize) {
+
+        this.emailService = emailService;
+        this.deferredHandler = deferredHandler;
+        this.idGenerator = idGenerator;
+        this.statusStore = statusStore.getIfAvailable();
+        this.entryWriter = objectMapper.writerFor(JournalEntry.class);
+        this.entryReader = objectMapper.readerFor(JournalEntry.class);
+        this.journal = new EmailJournal(journalDirectory, segmentSize);
+        this.dispatchBatchSize = dispatchBatchSize;
+    }
+
+    @PostConstruct
+    void startDispatcher() {
+        dispatcher = new Thread(this::dispatchLoop, "email-journal-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        dispatchExecutor.shutdownNow();
+        journal.close();
+    }
+
+    public EmailAcceptedDTO accept(EmailRequestDTO requestDTO) {
+        emailService.validateEmail(requestDTO);
+
+        long messageId = idGenerator.nextId();
+        byte[] payload;
+        try {
+            payload = entryWriter.writeValueAsBytes(new JournalEntry(messageId, requestDTO));
+        } catch (IOException e) {
+            throw new JournalException("Failed to serialize email request for the journal", e);
+        }
+
+        journal.awaitCommit(journal.append(payload));
+        if (statusStore != null) {
+            statusStore.accepted(messageId, requestDTO);
+        }
+        logger.debug("Email request {} journaled", messageId);
+
+        return new EmailAcceptedDTO(Long.toString(messageId));
+    }
+
+    public long pendingBytes() {
+        return journal.pendingBytes();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.journal.pending", this, AsyncEmailService::pendingBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void dispatchLoop() {
+        long offset = journal.checkpoint();
+        List<EmailJournal.JournalRecord> batch = new ArrayList<>(dispatchBatchSize);
+        List<Future<?>> inFlight = new ArrayList<>(dispatchBatchSize);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long next = offset;
+                EmailJournal.JournalRecord record;
+                while (batch.size() < dispatchBatchSize && (record = journal.read(next)) != null) {
+                    batch.add(record);
+                    next = record.nextOffset();
+                }
+
+                if (batch.isEmpty()) {
+                    journal.awaitRecord(offset, 1, TimeUnit.SECONDS);
+                    continue;
+                }
+
+                for (EmailJournal.JournalRecord pending : batch) {
+                    inFlight.add(dispatchExecutor.submit(() -> dispatch(pending)));
+                }
+                for (Future<?> future : inFlight) {
+                    future.get();
+                }
+                batch.clear();
+                inFlight.clear();
+
+                offset = next;
+                journal.checkpoint(offset);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new JournalException("Journal dispatch failed", e.getCause());
+            }
+        }
+    }
+
+    private void dispatch(EmailJournal.JournalRecord record) {
+        JournalEntry entry;
+        try {
+            entry = entryReader.readValue(record.payload());
+        } catch (IOException e) {
+            logger.error("Skipping unreadable journal record at offset {}", record.offset(), e);
+            return;
+        }
+
+        deferredHandler.handle(entry.messageId(), entry.request());
+    }
+
+    record JournalEntry(long messageId, EmailRequestDTO request) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.viasoft.mailservice.service;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Runs requests that were already acknowledged to the client (journaled or scheduled) through
+ * {@link EmailService#handleEmail(long, EmailRequestDTO)}. Nobody is left to answer with
+ * {@code Retry-After}, so a busy provider or a rate limit is waited out here; any other failure
+ * is logged and the request dropped.
+ */
+@Component
+public class DeferredEmailHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeferredEmailHandler.class);
+
+    private final EmailService emailService;
+
+    public DeferredEmailHandler(EmailService emailService) {
+        this.emailService = emailService;
+    }
+
+    /**
+     * Returns once the request was handled or dropped, or when the thread is interrupted.
+     */
+    public void handle(long messageId, EmailRequestDTO requestDTO) {
+        while (true) {
+            try {
+                emailService.handleEmail(messageId, requestDTO);
+                return;
+            } catch (ServiceUnavailableException e) {
+                logger.debug("Provider busy, retrying email request {} in {}", messageId, e.getRetryAfter());
+                if (!pause(e.getRetryAfter())) {
+                    return;
+                }
+            } catch (RateLimitExceededException e) {
+                logger.debug("Rate limited, retrying email request {} in {}", messageId, e.getRetryAfter());
+                if (!pause(e.getRetryAfter())) {
+                    return;
+                }
+            } catch (SuppressedRecipientException e) {
+                logger.info("Dropping email request {}: {}", messageId, e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to dispatch email request {}: ", messageId, e);
+                return;
+            }
+        }
+    }
+
+    private static boolean pause(Duration retryAfter) {
+        try {
+            Thread.sleep(retryAfter);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -3,5 +3,23 @@ package com.viasoft.mailservice.service;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 
 public interface EmailService {
-    void handleEmail(EmailRequestDTO requestDTO);
+    /**
+     * Sends {@code requestDTO} under a new message id. A request that fits no provider is
+     * returned as an invalid {@link SendResult} instead of being thrown; every other failure is
+     * thrown as by {@link #handleEmail(EmailRequestDTO)}.
+     */
+    SendResult sendEmail(EmailRequestDTO requestDTO);
+
+    /**
+     * Sends {@code requestDTO} under a new message id and returns that id.
+     */
+    long handleEmail(EmailRequestDTO requestDTO);
+
+    /**
+     * Sends a request that was given its message id when it was accepted (journaled or
+     * scheduled).
+     */
+    void handleEmail(long messageId, EmailRequestDTO requestDTO);
+
+    void validateEmail(EmailRequestDTO requestDTO);
 }
@@ -1,20 +1,43 @@
 package com.viasoft.mailservice.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import com.viasoft.mailservice.model.enums.DeliveryStatus;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.model.enums.RoutingMode;
 import com.viasoft.mailservice.service.adapter.AdapterStrategy;
+import com.viasoft.mailservice.service.coalesce.EmailCoalescer;
+import com.viasoft.mailservice.service.dispatch.BulkheadRegistry;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.metrics.EmailMetrics.Rejection;
+import com.viasoft.mailservice.service.metrics.EmailMetrics.Stage;
+import com.viasoft.mailservice.service.ratelimit.EmailRateLimiter;
+import com.viasoft.mailservice.service.routing.ProviderRouter;
+import com.viasoft.mailservice.service.sink.EmailSink;
+import com.viasoft.mailservice.service.status.StatusStore;
+import com.viasoft.mailservice.service.suppression.SuppressionList;
+import com.viasoft.mailservice.service.template.TemplateEngine;
+import com.viasoft.mailservice.service.tenant.Tenant;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import com.viasoft.mailservice.validation.DtoValidatorRegistry;
+import com.viasoft.mailservice.validation.ValidationResult;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -25,60 +48,383 @@ public class EmailServiceImpl implements EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
 
     private final IntegrationType integrationType;
+    private final RoutingMode routingMode;
 
-    private final Map<IntegrationType, AdapterStrategy> strategyMap;
+    /**
+     * Built once and never modified: read concurrently without locks, like the tenant snapshot.
+     */
+    private final EnumMap<IntegrationType, AdapterStrategy> strategyMap;
+    private final IntegrationType[] routableTypes;
+    private final IntegrationType[] targetTypes;
+    private final EnumMap<IntegrationType, IntegrationType[]> pinnedTargets = new EnumMap<>(IntegrationType.class);
 
-    private final ObjectMapper objectMapper;
+    private final EmailSink emailSink;
     private final Validator validator;
+    private final DtoValidatorRegistry dtoValidators;
+    private final BulkheadRegistry bulkheads;
+    private final ProviderRouter router;
+    private final EmailRateLimiter rateLimiter;
+    private final SuppressionList suppressionList;
+    private final TemplateEngine templateEngine;
+    private final EmailCoalescer coalescer;
+    private final StatusStore statusStore;
+    private final TenantRegistry tenants;
+    private final MessageIdGenerator idGenerator;
+    private final EmailMetrics metrics;
 
     public EmailServiceImpl(
             @Value("${mail.integracao}") IntegrationType integrationType,
+            @Value("${mail.routing.mode}") RoutingMode routingMode,
             List<AdapterStrategy> strategies,
-            ObjectMapper objectMapper,
-            Validator validator) {
+            EmailSink emailSink,
+            Validator validator,
+            DtoValidatorRegistry dtoValidators,
+            BulkheadRegistry bulkheads,
+            ProviderRouter router,
+            EmailRateLimiter rateLimiter,
+            SuppressionList suppressionList,
+            TemplateEngine templateEngine,
+            ObjectProvider<EmailCoalescer> coalescer,
+            ObjectProvider<StatusStore> statusStore,
+            ObjectProvider<TenantRegistry> tenants,
+            MessageIdGenerator idGenerator,
+            EmailMetrics metrics) {
 
         this.integrationType = integrationType;
-        this.objectMapper = objectMapper;
+        this.routingMode = routingMode;
+        this.emailSink = emailSink;
         this.validator = validator;
+        this.dtoValidators = dtoValidators;
+        this.bulkheads = bulkheads;
+        this.router = router;
+        this.rateLimiter = rateLimiter;
+        this.suppressionList = suppressionList;
+        this.templateEngine = templateEngine;
+        this.coalescer = coalescer.getIfAvailable();
+        this.statusStore = statusStore.getIfAvailable();
+        this.tenants = tenants.getIfAvailable();
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
 
         this.strategyMap = strategies.stream()
-                .collect(Collectors.toMap(AdapterStrategy::getIntegrationType, Function.identity()));
+                .collect(Collectors.toMap(AdapterStrategy::getIntegrationType, Function.identity(),
+                        (first, second) -> first, () -> new EnumMap<>(IntegrationType.class)));
+        this.routableTypes = strategyMap.keySet().toArray(IntegrationType[]::new);
+        this.targetTypes = routingMode == RoutingMode.ADAPTIVE ? routableTypes : new IntegrationType[] {integrationType};
+        for (IntegrationType type : IntegrationType.values()) {
+            pinnedTargets.put(type, new IntegrationType[] {type});
+        }
     }
 
     @Override
-    public void handleEmail(EmailRequestDTO requestDTO) {
+    public SendResult sendEmail(EmailRequestDTO requestDTO) {
+        long messageId = idGenerator.nextId();
+        return new SendResult(messageId, send(messageId, requestDTO));
+    }
+
+    @Override
+    public long handleEmail(EmailRequestDTO requestDTO) {
+        SendResult result = sendEmail(requestDTO);
+        result.validation().orThrow();
+        return result.messageId();
+    }
+
+    @Override
+    public void handleEmail(long messageId, EmailRequestDTO requestDTO) {
+        send(messageId, requestDTO).orThrow();
+    }
+
+    private ValidationResult send(long messageId, EmailRequestDTO requestDTO) {
+        if (statusStore != null) {
+            statusStore.accepted(messageId, requestDTO);
+        }
+        try {
+            Tenant tenant = tenant(requestDTO);
+            ValidationResult result = checkSize(requestDTO, tenant);
+            if (!result.isValid()) {
+                if (statusStore != null) {
+                    statusStore.failed(messageId, Rejection.VALIDATION);
+                }
+                return result;
+            }
+            checkSuppression(requestDTO);
+
+            if (coalescer != null && coalescer.accepts(requestDTO)) {
+                // Rendered first, so digests are built from the final subject and content.
+                IntegrationType[] targets = targets(tenant);
+                coalescer.submit(templateEngine.render(requestDTO, targets), targets,
+                        digest -> deliver(StatusStore.UNTRACKED, digest, tenant(digest)).orThrow());
+                track(messageId, DeliveryStatus.DISPATCHED);
+                return ValidationResult.VALID;
+            }
+            result = deliver(messageId, requestDTO, tenant);
+            if (!result.isValid() && statusStore != null) {
+                statusStore.failed(messageId, Rejection.VALIDATION);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (statusStore != null) {
+                statusStore.failed(messageId, failureReason(e));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Everything after the suppression check, from the rate limiter to the sink. Coalesced
+     * digests enter here, so a digest takes a single rate limit token. A request that fits no
+     * provider is returned as an invalid result; it is adapted and validated before it enters a
+     * bulkhead, so it never holds a slot nor counts as a successful call.
+     */
+    private ValidationResult deliver(long messageId, EmailRequestDTO requestDTO, Tenant tenant) {
+        long start = System.nanoTime();
+        try {
+            rateLimiter.acquire(requestDTO, tenant.rateLimits());
+        } catch (RateLimitExceededException e) {
+            metrics.rejected(Rejection.RATE_LIMITED, null);
+            throw e;
+        }
+        start = metrics.record(Stage.RATE_LIMIT, null, start);
+
+        if (routesAdaptively(tenant)) {
+            EmailRequestDTO renderedDTO = templateEngine.render(requestDTO, routableTypes);
+            return handleAdaptive(messageId, renderedDTO, metrics.record(Stage.RENDER, null, start));
+        }
+
+        IntegrationType integrationType = integrationType(tenant);
         logger.info("Processing email request for integration: {}", integrationType);
 
+        AdapterStrategy strategy = resolveStrategy(integrationType);
+        EmailRequestDTO renderedDTO = templateEngine.render(requestDTO, integrationType);
+        long stage = metrics.record(Stage.RENDER, integrationType, start);
+
+        Object adaptedDTO = strategy.adapt(renderedDTO);
+        stage = metrics.record(Stage.ADAPT, integrationType, stage);
+
+        ValidationResult validation = validateDto(adaptedDTO, integrationType);
+        if (!validation.isValid()) {
+            return validation;
+        }
+        long queued = metrics.record(Stage.VALIDATE, integrationType, stage);
+        track(messageId, DeliveryStatus.VALIDATED);
+
+        Lane lane = Lane.of(requestDTO.getLane());
+        try {
+            bulkheads.get(integrationType).execute(lane, () -> {
+                long sendStart = metrics.recordQueue(lane, integrationType, queued);
+                strategy.send(adaptedDTO);
+                long sent = metrics.record(Stage.SEND, integrationType, sendStart);
+                track(messageId, DeliveryStatus.DISPATCHED);
+
+                emailSink.write(adaptedDTO);
+                metrics.record(Stage.SINK, integrationType, sent);
+            });
+        } catch (ServiceUnavailableException e) {
+            metrics.rejected(Rejection.UNAVAILABLE, integrationType);
+            throw e;
+        } catch (DeliveryException e) {
+            metrics.rejected(Rejection.DELIVERY, integrationType);
+            throw e;
+        }
+        return ValidationResult.VALID;
+    }
+
+    @Override
+    public void validateEmail(EmailRequestDTO requestDTO) {
+        Tenant tenant = tenant(requestDTO);
+        checkSize(requestDTO, tenant).orThrow();
+        checkSuppression(requestDTO);
+
+        if (!routesAdaptively(tenant)) {
+            IntegrationType integrationType = integrationType(tenant);
+            AdapterStrategy strategy = resolveStrategy(integrationType);
+            validateDto(strategy.adapt(templateEngine.render(requestDTO, integrationType)), integrationType).orThrow();
+            return;
+        }
+
+        EmailRequestDTO renderedDTO = templateEngine.render(requestDTO, routableTypes);
+        Set<ConstraintViolation<Object>> firstViolations = null;
+        for (IntegrationType candidate : routableTypes) {
+            Set<ConstraintViolation<Object>> violations = findViolations(strategyMap.get(candidate).adapt(renderedDTO));
+            if (violations.isEmpty()) {
+                return;
+            }
+            if (firstViolations == null) {
+                firstViolations = violations;
+            }
+        }
+        noRoutableProvider(firstViolations, null).orThrow();
+    }
+
+    /**
+     * Tries the providers in the order given by the {@link ProviderRouter}. Providers whose DTO
+     * limits the request does not fit are skipped without counting against them; delivery
+     * failures and saturated bulkheads fail over to the next provider.
+     */
+    private ValidationResult handleAdaptive(long messageId, EmailRequestDTO requestDTO, long start) {
+        boolean validated = false;
+        Set<ConstraintViolation<Object>> firstViolations = null;
+        IntegrationType firstViolated = null;
+        RuntimeException lastFailure = null;
+        Lane lane = Lane.of(requestDTO.getLane());
+
+        for (IntegrationType candidate : router.route(routableTypes)) {
+            AdapterStrategy strategy = strategyMap.get(candidate);
+            long stage = System.nanoTime();
+            Object adaptedDTO = strategy.adapt(requestDTO);
+            stage = metrics.record(Stage.ADAPT, candidate, stage);
+
+            Set<ConstraintViolation<Object>> violations = findViolations(adaptedDTO);
+            long queued = metrics.record(Stage.VALIDATE, candidate, stage);
+            if (!violations.isEmpty()) {
+                if (firstViolations == null) {
+                    firstViolations = violations;
+                    firstViolated = candidate;
+                }
+                continue;
+            }
+            if (!validated) {
+                track(messageId, DeliveryStatus.VALIDATED);
+                validated = true;
+            }
+
+            try {
+                bulkheads.get(candidate).execute(lane, () -> {
+                    long sendStart = metrics.recordQueue(lane, candidate, queued);
+                    try {
+                        strategy.send(adaptedDTO);
+                    } catch (DeliveryException e) {
+                        router.recordFailure(candidate);
+                        throw e;
+                    }
+                    long sent = metrics.record(Stage.SEND, candidate, sendStart);
+                    router.recordSuccess(candidate, sent - sendStart);
+                    track(messageId, DeliveryStatus.DISPATCHED);
+                    emailSink.write(adaptedDTO);
+                    metrics.record(Stage.SINK, candidate, sent);
+                });
+                logger.info("Email request routed to integration: {}", candidate);
+                return ValidationResult.VALID;
+            } catch (DeliveryException e) {
+                logger.warn("Integration {} failed, trying next provider: {}", candidate, e.getMessage());
+                metrics.rejected(Rejection.DELIVERY, candidate);
+                lastFailure = e;
+            } catch (ServiceUnavailableException e) {
+                logger.warn("Integration {} unavailable, trying next provider: {}", candidate, e.getMessage());
+                metrics.rejected(Rejection.UNAVAILABLE, candidate);
+                lastFailure = e;
+            }
+        }
+
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        return noRoutableProvider(firstViolations, firstViolated);
+    }
+
+    /**
+     * Runs before the rate limiter, so suppressed recipients never use up a sender's tokens.
+     */
+    private void checkSuppression(EmailRequestDTO requestDTO) {
+        if (suppressionList.isSuppressed(requestDTO.getRecipientEmail())) {
+            metrics.rejected(Rejection.SUPPRESSED, null);
+            throw new SuppressedRecipientException(
+                    "Recipient " + requestDTO.getRecipientEmail() + " is on the suppression list");
+        }
+    }
+
+    /**
+     * Read once per request from the current snapshot; a reload only affects later requests.
+     */
+    private Tenant tenant(EmailRequestDTO requestDTO) {
+        return tenants == null ? Tenant.DEFAULT : tenants.tenant(requestDTO.getTenantId());
+    }
+
+    private ValidationResult checkSize(EmailRequestDTO requestDTO, Tenant tenant) {
+        ValidationResult result = tenant.checkSize(requestDTO);
+        if (!result.isValid()) {
+            metrics.rejected(Rejection.VALIDATION, null);
+            metrics.validationFailed(null, result.getFieldErrors().keySet());
+        }
+        return result;
+    }
+
+    /**
+     * A tenant with an integration of its own is always sent to it; the others follow
+     * {@code mail.routing.mode}.
+     */
+    private boolean routesAdaptively(Tenant tenant) {
+        return routingMode == RoutingMode.ADAPTIVE && tenant.integration() == null;
+    }
+
+    private IntegrationType integrationType(Tenant tenant) {
+        return tenant.integration() != null ? tenant.integration() : integrationType;
+    }
+
+    private IntegrationType[] targets(Tenant tenant) {
+        return tenant.integration() != null ? pinnedTargets.get(tenant.integration()) : targetTypes;
+    }
+
+    private void track(long messageId, DeliveryStatus status) {
+        if (statusStore != null) {
+            statusStore.record(messageId, status);
+        }
+    }
+
+    private static Rejection failureReason(RuntimeException e) {
+        return switch (e) {
+            case SuppressedRecipientException suppressed -> Rejection.SUPPRESSED;
+            case RateLimitExceededException rateLimited -> Rejection.RATE_LIMITED;
+            case ConstraintViolationException violation -> Rejection.VALIDATION;
+            case FieldValidationException validation -> Rejection.VALIDATION;
+            case ServiceUnavailableException unavailable -> Rejection.UNAVAILABLE;
+            case DeliveryException delivery -> Rejection.DELIVERY;
+            default -> null;
+        };
+    }
+
+    private ValidationResult noRoutableProvider(Set<ConstraintViolation<Object>> violations,
+                                                IntegrationType integrationType) {
+        if (violations == null) {
+            logger.error("No Strategy implementation available for adaptive routing");
+            throw new ConfigurationException("No service implementation configured for adaptive routing");
+        }
+        logger.warn("Email request does not fit any provider: {}", violations);
+        countViolations(violations, integrationType);
+        return ValidationResult.of(violations);
+    }
+
+    private AdapterStrategy resolveStrategy(IntegrationType integrationType) {
         AdapterStrategy strategy = strategyMap.get(integrationType);
 
         if (strategy == null) {
             logger.error("No Strategy implementation found for: {}", integrationType);
             throw new ConfigurationException("Service implementation not configured for: " + integrationType);
         }
-
-        Object adaptedDTO = strategy.adapt(requestDTO);
-
-        validateDto(adaptedDTO);
-        logJson(adaptedDTO);
+        return strategy;
     }
 
-    private void validateDto(Object dto) {
-        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
-        if (!violations.isEmpty()) {
-            logger.warn("Failed to validate adapted DTO: {}", violations);
-            throw new ConstraintViolationException(violations);
+    private ValidationResult validateDto(Object dto, IntegrationType integrationType) {
+        Set<ConstraintViolation<Object>> violations = findViolations(dto);
+        if (violations.isEmpty()) {
+            return ValidationResult.VALID;
         }
+        logger.warn("Failed to validate adapted DTO: {}", violations);
+        countViolations(violations, integrationType);
+        return ValidationResult.of(violations);
     }
 
-    private void logJson(Object dto) {
-        try {
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(dto);
-
-            logger.info("\n----------------------------------\n{}\n----------------------------------", json);
+    private void countViolations(Set<ConstraintViolation<Object>> violations, IntegrationType integrationType) {
+        metrics.rejected(Rejection.VALIDATION, integrationType);
+        for (ConstraintViolation<Object> violation : violations) {
+            metrics.validationFailed(integrationType, String.valueOf(violation.getPropertyPath()));
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to serialize object to JSON", e);
-            throw new RuntimeException("Failed to serialize object into JSON", e);
+    private Set<ConstraintViolation<Object>> findViolations(Object dto) {
+        if (dtoValidators.isValid(dto)) {
+            return Set.of();
         }
+        return validator.validate(dto);
     }
 }
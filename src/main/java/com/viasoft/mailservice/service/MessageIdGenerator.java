@@ -0,0 +1,39 @@
+package com.viasoft.mailservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-ordered 64-bit message ids: milliseconds since {@link #EPOCH} in the
+ * upper 42 bits and a per-millisecond sequence in the lower 22 bits.
+ */
+@Component
+public class MessageIdGenerator {
+
+    static final long EPOCH = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    private static final int SEQUENCE_BITS = 22;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final AtomicLong last = new AtomicLong();
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long candidate = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+
+            if (candidate <= previous) {
+                if ((previous & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                candidate = previous + 1;
+            }
+
+            if (last.compareAndSet(previous, candidate)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.viasoft.mailservice.service;
+
+import com.viasoft.mailservice.validation.ValidationResult;
+
+/**
+ * Outcome of {@link EmailService#sendEmail}: the id the request was given, and whether the
+ * adapted request passed the provider's validation. The request was sent only when
+ * {@code validation} is valid.
+ */
+public record SendResult(long messageId, ValidationResult validation) {
+
+    public boolean isSent() {
+        return validation.isValid();
+    }
+}
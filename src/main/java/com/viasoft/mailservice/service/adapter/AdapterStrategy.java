@@ -7,5 +7,7 @@ public interface AdapterStrategy {
 
     Object adapt(EmailRequestDTO request);
 
+    void send(Object adaptedDTO);
+
     IntegrationType getIntegrationType();
-}
\ No newline at end of file
+}
@@ -1,26 +1,84 @@
 package com.viasoft.mailservice.service.adapter;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.mapper.EmailMapper;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.delivery.ProviderHttpClient;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class AwsAdapterStrategy implements AdapterStrategy {
 
+    public static final String SEND_EMAIL_PATH = "/v2/email/outbound-emails";
+
+    private static final String CHARSET = "UTF-8";
+
     private final EmailMapper mapper;
+    private final ProviderHttpClient httpClient;
+    private final BodyStore bodyStore;
 
-    public AwsAdapterStrategy(EmailMapper mapper) {
+    public AwsAdapterStrategy(EmailMapper mapper, ProviderHttpClient httpClient, BodyStore bodyStore) {
         this.mapper = mapper;
+        this.httpClient = httpClient;
+        this.bodyStore = bodyStore;
     }
 
     @Override
     public Object adapt(EmailRequestDTO request) {
-        return mapper.toAwsDTO(request);
+        EmailAwsDTO dto = mapper.toAwsDTO(request);
+        dto.setContent(bodyStore.externalize(dto.getContent()));
+        return dto;
+    }
+
+    @Override
+    public void send(Object adaptedDTO) {
+        EmailAwsDTO dto = (EmailAwsDTO) adaptedDTO;
+
+        SendEmailRequest request = new SendEmailRequest(
+                dto.getSender(),
+                new Destination(List.of(formatAddress(dto.getRecipientName(), dto.getRecipient()))),
+                new Content(new Simple(
+                        new Text(dto.getSubject(), CHARSET),
+                        new Body(new Text(bodyStore.resolve(dto.getContent()), CHARSET)))));
+
+        httpClient.post(IntegrationType.AWS, SEND_EMAIL_PATH, request);
     }
 
     @Override
     public IntegrationType getIntegrationType() {
         return IntegrationType.AWS;
     }
-}
\ No newline at end of file
+
+    private static String formatAddress(String name, String email) {
+        if (name == null || name.isBlank()) {
+            return email;
+        }
+        return "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\" <" + email + ">";
+    }
+
+    record SendEmailRequest(
+            @JsonProperty("FromEmailAddress") String fromEmailAddress,
+            @JsonProperty("Destination") Destination destination,
+            @JsonProperty("Content") Content content) {
+    }
+
+    record Destination(@JsonProperty("ToAddresses") List<String> toAddresses) {
+    }
+
+    record Content(@JsonProperty("Simple") Simple simple) {
+    }
+
+    record Simple(@JsonProperty("Subject") Text subject, @JsonProperty("Body") Body body) {
+    }
+
+    record Body(@JsonProperty("Text") Text text) {
+    }
+
+    record Text(@JsonProperty("Data") String data, @JsonProperty("Charset") String charset) {
+    }
+}
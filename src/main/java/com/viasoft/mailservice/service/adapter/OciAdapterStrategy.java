@@ -1,26 +1,71 @@
 package com.viasoft.mailservice.service.adapter;
 
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.mapper.EmailMapper;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.delivery.ProviderHttpClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class OciAdapterStrategy implements AdapterStrategy {
 
+    public static final String SUBMIT_EMAIL_PATH = "/20220926/actions/submitEmail";
+
     private final EmailMapper mapper;
+    private final ProviderHttpClient httpClient;
+    private final BodyStore bodyStore;
+    private final String compartmentId;
 
-    public OciAdapterStrategy(EmailMapper mapper) {
+    public OciAdapterStrategy(
+            EmailMapper mapper,
+            ProviderHttpClient httpClient,
+            BodyStore bodyStore,
+            @Value("${mail.delivery.oci.compartment-id:}") String compartmentId) {
         this.mapper = mapper;
+        this.httpClient = httpClient;
+        this.bodyStore = bodyStore;
+        this.compartmentId = compartmentId;
     }
 
     @Override
     public Object adapt(EmailRequestDTO request) {
-        return mapper.toOciDTO(request);
+        EmailOciDTO dto = mapper.toOciDTO(request);
+        dto.setBody(bodyStore.externalize(dto.getBody()));
+        return dto;
+    }
+
+    @Override
+    public void send(Object adaptedDTO) {
+        EmailOciDTO dto = (EmailOciDTO) adaptedDTO;
+
+        SubmitEmailDetails details = new SubmitEmailDetails(
+                new Sender(new EmailAddress(dto.getSenderEmail(), null), compartmentId),
+                new Recipients(List.of(new EmailAddress(dto.getRecipientEmail(), dto.getRecipientName()))),
+                dto.getSubject(),
+                bodyStore.resolve(dto.getBody()));
+
+        httpClient.post(IntegrationType.OCI, SUBMIT_EMAIL_PATH, details);
     }
 
     @Override
     public IntegrationType getIntegrationType() {
         return IntegrationType.OCI;
     }
-}
\ No newline at end of file
+
+    record SubmitEmailDetails(Sender sender, Recipients recipients, String subject, String bodyText) {
+    }
+
+    record Sender(EmailAddress senderAddress, String compartmentId) {
+    }
+
+    record Recipients(List<EmailAddress> to) {
+    }
+
+    record EmailAddress(String email, String name) {
+    }
+}
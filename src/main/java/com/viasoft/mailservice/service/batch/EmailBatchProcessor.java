@@ -0,0 +1,176 @@
+package com.viasoft.mailservice.service.batch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a JSON array or an NDJSON stream of {@link EmailRequestDTO} one item at a time and
+ * writes one NDJSON {@link BatchItemResultDTO} line per item, so neither side of the batch
+ * is ever held in memory as a whole.
+ */
+@Component
+public class EmailBatchProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBatchProcessor.class);
+
+    private static final int FLUSH_INTERVAL = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EmailService emailService;
+    private final EmailMetrics metrics;
+    private final EmailScheduler emailScheduler;
+
+    public EmailBatchProcessor(ObjectMapper objectMapper, Validator validator, EmailService emailService,
+                               EmailMetrics metrics, ObjectProvider<EmailScheduler> emailScheduler) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.emailService = emailService;
+        this.metrics = metrics;
+        this.emailScheduler = emailScheduler.getIfAvailable();
+    }
+
+    /**
+     * Every item is sent as a request of {@code tenantId}, which may be {@code null}.
+     */
+    public BatchSummary process(InputStream input, OutputStream output, String tenantId) throws IOException {
+        int accepted = 0;
+        int rejected = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            int index = 0;
+            try {
+                JsonToken token = parser.nextToken();
+                boolean array = token == JsonToken.START_ARRAY;
+                if (array) {
+                    token = parser.nextToken();
+                }
+
+                while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                    JsonNode item = parser.readValueAsTree();
+                    BatchItemResultDTO result = processItem(index, item, tenantId);
+
+                    if (result.getStatus() == BatchItemResultDTO.Status.ACCEPTED) {
+                        accepted++;
+                    } else {
+                        rejected++;
+                    }
+
+                    generator.writeObject(result);
+                    if (++index % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                logger.warn("Aborting email batch at item {}: malformed JSON", index);
+                generator.writeObject(BatchItemResultDTO.rejected(index, "Malformed JSON: " + e.getOriginalMessage()));
+                rejected++;
+            }
+
+            if (accepted + rejected > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        logger.info("Processed email batch: {} accepted, {} rejected", accepted, rejected);
+        return new BatchSummary(accepted, rejected);
+    }
+
+    /**
+     * Validates and sends a single batch item as a request of {@code tenantId}. Never throws:
+     * every failure becomes a rejected result.
+     */
+    public BatchItemResultDTO processItem(int index, JsonNode item, String tenantId) {
+        EmailRequestDTO requestDTO;
+        try {
+            requestDTO = objectMapper.treeToValue(item, EmailRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            return BatchItemResultDTO.rejected(index, "Malformed item: " + e.getOriginalMessage());
+        }
+        requestDTO.setTenantId(tenantId);
+        return processItem(index, requestDTO);
+    }
+
+    /**
+     * Validates and sends an already decoded batch item, see {@link #processItem(int, JsonNode, String)}.
+     */
+    public BatchItemResultDTO processItem(int index, EmailRequestDTO requestDTO) {
+        Set<ConstraintViolation<EmailRequestDTO>> violations = validator.validate(requestDTO);
+        if (!violations.isEmpty()) {
+            Map<String, String> fieldErrors = toFieldErrors(violations);
+            metrics.validationFailed(null, fieldErrors.keySet());
+            return BatchItemResultDTO.rejected(index, "Validation error", fieldErrors);
+        }
+
+        try {
+            String messageId;
+            if (requestDTO.getSendAt() == null) {
+                messageId = Long.toString(emailService.handleEmail(requestDTO));
+            } else if (emailScheduler != null) {
+                messageId = emailScheduler.schedule(requestDTO).getMessageId();
+            } else {
+                throw new FieldValidationException("sendAt", EmailScheduler.DISABLED);
+            }
+            return BatchItemResultDTO.accepted(index, messageId);
+        } catch (ConstraintViolationException e) {
+            return BatchItemResultDTO.rejected(index, "Validation error", toFieldErrors(e.getConstraintViolations()));
+        } catch (FieldValidationException e) {
+            metrics.validationFailed(null, e.getFieldErrors().keySet());
+            return BatchItemResultDTO.rejected(index, "Validation error", e.getFieldErrors());
+        } catch (ConfigurationException | ServiceUnavailableException | DeliveryException
+                 | RateLimitExceededException | SuppressedRecipientException e) {
+            return BatchItemResultDTO.rejected(index, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error processing batch item {}: ", index, e);
+            return BatchItemResultDTO.rejected(index, "An unexpected internal server error occurred.");
+        }
+    }
+
+    private Map<String, String> toFieldErrors(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .collect(Collectors.toMap(
+                        violation -> violation.getPropertyPath().toString(),
+                        violation -> violation.getMessage(),
+                        (first, second) -> first
+                ));
+    }
+
+    public record BatchSummary(int accepted, int rejected) {
+    }
+}
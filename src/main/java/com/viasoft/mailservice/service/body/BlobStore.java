@@ -0,0 +1,296 @@
+package com.viasoft.mailservice.service.body;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of immutable blobs, keyed by their SHA-256 digest.
+ * <p>
+ * Blobs are appended to fixed-size segment files as {@code [int length][32-byte digest][payload]}
+ * through {@link FileChannel#write(ByteBuffer, long)} and read back through a memory mapping of
+ * the same file, so reads never copy through the channel. Storing a blob that already exists is
+ * a lookup in the in-memory index, which is rebuilt from the segments on startup. Only the newest
+ * {@code maxSegments} segments are kept; older blobs are dropped with their segment, unless they
+ * are stored again while in the oldest one, which copies them to the active segment.
+ */
+public class BlobStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    static final int DIGEST_SIZE = 32;
+    static final int HEADER_SIZE = Integer.BYTES + DIGEST_SIZE;
+    private static final String SEGMENT_SUFFIX = ".blob";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<Digest, Long> index = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private Segment activeSegment;
+    private long writeOffset;
+
+    public BlobStore(Path directory, int segmentSize, int maxSegments) {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Blob segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+
+        try {
+            Files.createDirectories(directory);
+            loadSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open blob store at " + directory, e);
+        }
+        logger.info("Blob store opened at {} with {} blobs in {} segments", directory, index.size(), segments.size());
+    }
+
+    /**
+     * Stores {@code payload} unless a blob with the same content already exists, and returns its
+     * digest either way. An existing blob in the oldest segment is appended again, so that it
+     * outlives the next rollover like a blob stored for the first time.
+     */
+    public Digest put(byte[] payload) {
+        if (payload.length > maxBlobSize()) {
+            throw new IllegalArgumentException("Blob of " + payload.length + " bytes exceeds the segment size");
+        }
+
+        byte[] hash = sha256(payload);
+        Digest digest = Digest.of(hash);
+        Long existing = index.get(digest);
+        if (existing != null && !expiring(existing)) {
+            return digest;
+        }
+
+        appendLock.lock();
+        try {
+            existing = index.get(digest);
+            if (existing != null && !expiring(existing)) {
+                return digest;
+            }
+
+            int recordSize = HEADER_SIZE + payload.length;
+            if (writeOffset - activeSegment.base + recordSize > segmentSize) {
+                activeSegment = openSegment(activeSegment.base + segmentSize);
+                writeOffset = activeSegment.base;
+                dropOldSegments();
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(recordSize)
+                    .putInt(payload.length)
+                    .put(hash)
+                    .put(payload)
+                    .flip();
+            long position = writeOffset - activeSegment.base;
+            while (record.hasRemaining()) {
+                position += activeSegment.channel.write(record, position);
+            }
+
+            index.put(digest, writeOffset);
+            writeOffset += recordSize;
+            return digest;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write blob to " + activeSegment.path, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the content stored under {@code digest}, or {@code null} if it is unknown or its
+     * segment has already been dropped.
+     */
+    public byte[] get(Digest digest) {
+        Long offset = index.get(digest);
+        if (offset == null) {
+            return null;
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        if (entry == null) {
+            return null;
+        }
+
+        MappedByteBuffer buffer = entry.getValue().buffer;
+        int position = (int) (offset - entry.getKey());
+        byte[] payload = new byte[buffer.getInt(position)];
+        buffer.get(position + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    public int maxBlobSize() {
+        return segmentSize - HEADER_SIZE;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.force(false);
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close blob store at {}", directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Whether the blob at {@code offset} is in the segment the next rollover drops, and is not in
+     * the active segment itself.
+     */
+    private boolean expiring(long offset) {
+        return segments.size() >= maxSegments
+                && offset < segments.firstKey() + segmentSize
+                && offset < segments.lastKey();
+    }
+
+    private void dropOldSegments() {
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, Segment> head = segments.pollFirstEntry();
+            long from = head.getKey();
+            long to = from + segmentSize;
+            index.values().removeIf(offset -> offset >= from && offset < to);
+            try {
+                head.getValue().channel.close();
+                Files.deleteIfExists(head.getValue().path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete blob segment {}", head.getValue().path, e);
+            }
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = mapSegment(file, base);
+            segments.put(base, segment);
+            writeOffset = base + indexSegment(segment);
+        }
+
+        if (segments.isEmpty()) {
+            activeSegment = openSegment(0);
+            writeOffset = 0;
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+        }
+    }
+
+    /**
+     * Indexes the blobs of a segment and returns the position right after the last intact one.
+     */
+    private int indexSegment(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] hash = new byte[DIGEST_SIZE];
+            byte[] payload = new byte[length];
+            buffer.get(position + Integer.BYTES, hash);
+            buffer.get(position + HEADER_SIZE, payload);
+            if (!Arrays.equals(hash, sha256(payload))) {
+                logger.warn("Discarding torn blob at offset {}", segment.base + position);
+                break;
+            }
+            index.put(Digest.of(hash), segment.base + position);
+            position += HEADER_SIZE + length;
+        }
+
+        // A torn tail would otherwise be mistaken for a record once the position is reused.
+        for (int i = position; i < Math.min(position + Integer.BYTES, segmentSize); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private Segment openSegment(long base) {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        try {
+            Segment segment = mapSegment(path, base);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create blob segment " + path, e);
+        }
+    }
+
+    private Segment mapSegment(Path path, long base) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(base, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    static byte[] sha256(byte[] payload) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(payload);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Segment(long base, Path path, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * SHA-256 digest held as four longs, so index keys hash and compare without touching arrays.
+     */
+    public record Digest(long a, long b, long c, long d) {
+
+        private static final HexFormat HEX = HexFormat.of();
+
+        static Digest of(byte[] hash) {
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new Digest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+
+        public static Digest parse(String hex) {
+            if (hex.length() != DIGEST_SIZE * 2) {
+                throw new IllegalArgumentException("Invalid digest: " + hex);
+            }
+            return of(HEX.parseHex(hex));
+        }
+
+        @Override
+        public String toString() {
+            return HEX.toHexDigits(a) + HEX.toHexDigits(b) + HEX.toHexDigits(c) + HEX.toHexDigits(d);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.viasoft.mailservice.service.body;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Moves message bodies out of the adapted DTOs. With {@code mail.body-store.enabled}, bodies
+ * longer than {@code inline-threshold} characters are written once to a {@link BlobStore} and
+ * replaced by a {@code cas:<sha256>} reference, which fits the provider DTO limits and is
+ * resolved back to the full text only when the provider request is built.
+ */
+@Component
+public class BodyStore implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BodyStore.class);
+
+    public static final String REFERENCE_PREFIX = "cas:";
+
+    private final BlobStore blobs;
+    private final int inlineThreshold;
+
+    public BodyStore(
+            @Value("${mail.body-store.enabled}") boolean enabled,
+            @Value("${mail.body-store.directory}") Path directory,
+            @Value("${mail.body-store.segment-size}") int segmentSize,
+            @Value("${mail.body-store.max-segments}") int maxSegments,
+            @Value("${mail.body-store.inline-threshold}") int inlineThreshold) {
+        this.blobs = enabled ? new BlobStore(directory, segmentSize, maxSegments) : null;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    public boolean isEnabled() {
+        return blobs != null;
+    }
+
+    /**
+     * Largest body, in characters, that can be stored; {@link Integer#MAX_VALUE} when disabled,
+     * since the provider DTO limits apply instead.
+     */
+    public int maxBodyLength() {
+        return blobs == null ? Integer.MAX_VALUE : blobs.maxBlobSize() / 3;
+    }
+
+    /**
+     * Returns {@code body} unchanged when it is short enough to stay inline, or the reference to
+     * its stored copy. Bodies that look like a reference are always stored, so every reference
+     * in a DTO was issued by this store.
+     */
+    public String externalize(String body) {
+        if (blobs == null || body == null
+                || (body.length() <= inlineThreshold && !body.startsWith(REFERENCE_PREFIX))) {
+            return body;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > blobs.maxBlobSize()) {
+            throw new FieldValidationException("content",
+                    "Content of " + bytes.length + " bytes exceeds the " + blobs.maxBlobSize() + " bytes limit");
+        }
+        return REFERENCE_PREFIX + blobs.put(bytes);
+    }
+
+    /**
+     * Returns the body behind a reference, or {@code value} itself when it is an inline body.
+     */
+    public String resolve(String value) {
+        if (blobs == null || value == null || !value.startsWith(REFERENCE_PREFIX)) {
+            return value;
+        }
+
+        byte[] bytes = blobs.get(BlobStore.Digest.parse(value.substring(REFERENCE_PREFIX.length())));
+        if (bytes == null) {
+            throw new IllegalStateException("Message body " + value + " is no longer in the body store");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (blobs != null) {
+            Gauge.builder("mail.body-store.blobs", blobs, BlobStore::size)
+                    .register(registry);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (blobs != null) {
+            logger.info("Closing body store with {} bodies", blobs.size());
+            blobs.close();
+        }
+    }
+}
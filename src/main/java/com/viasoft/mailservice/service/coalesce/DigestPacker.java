@@ -0,0 +1,102 @@
+package com.viasoft.mailservice.service.coalesce;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Packs the messages buffered for one recipient into as few digests as the provider limits
+ * allow. Messages keep their arrival order and each digest takes a contiguous run of them; a
+ * message that shares a digest with no other is passed through unchanged, so it fails or
+ * succeeds exactly as it would have without coalescing.
+ */
+final class DigestPacker {
+
+    static final String SEPARATOR = "\n\n";
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * {@code message} carries the messages from {@code first} to {@code first + count - 1}.
+     */
+    record Digest(EmailRequestDTO message, int first, int count) {
+    }
+
+    private DigestPacker() {
+    }
+
+    static List<Digest> pack(List<EmailRequestDTO> messages, int maxSubject, int maxContent) {
+        List<Digest> digests = new ArrayList<>();
+        StringBuilder content = new StringBuilder(Math.min(maxContent, INITIAL_CAPACITY));
+        int first = 0;
+
+        for (int i = 0; i < messages.size(); i++) {
+            String section = section(messages.get(i));
+            if (!content.isEmpty()) {
+                if ((long) content.length() + SEPARATOR.length() + section.length() > maxContent) {
+                    digests.add(digest(messages, first, i - first, content, maxSubject));
+                    content.setLength(0);
+                    first = i;
+                } else {
+                    content.append(SEPARATOR);
+                }
+            }
+            content.append(section);
+        }
+        if (first < messages.size()) {
+            digests.add(digest(messages, first, messages.size() - first, content, maxSubject));
+        }
+        return digests;
+    }
+
+    private static Digest digest(List<EmailRequestDTO> messages, int first, int count,
+                                 CharSequence content, int maxSubject) {
+        EmailRequestDTO head = messages.get(first);
+        if (count == 1) {
+            return new Digest(head, first, 1);
+        }
+
+        EmailRequestDTO digest = new EmailRequestDTO();
+        digest.setRecipientEmail(head.getRecipientEmail());
+        digest.setRecipientName(head.getRecipientName());
+        digest.setSenderEmail(head.getSenderEmail());
+        digest.setSubject(subject(messages, first, count, maxSubject));
+        digest.setContent(content.toString());
+        digest.setLane(head.getLane());
+        digest.setTenantId(head.getTenantId());
+        return new Digest(digest, first, count);
+    }
+
+    /**
+     * The shared subject when all messages have the same one, otherwise the first subject
+     * followed by the number of other messages, cut to fit {@code maxSubject}.
+     */
+    private static String subject(List<EmailRequestDTO> messages, int first, int count, int maxSubject) {
+        String head = Objects.toString(messages.get(first).getSubject(), "");
+        boolean shared = true;
+        for (int i = first + 1; i < first + count && shared; i++) {
+            shared = head.equals(messages.get(i).getSubject());
+        }
+        if (shared && !head.isBlank()) {
+            return truncate(head, maxSubject);
+        }
+        if (head.isBlank()) {
+            return truncate(count + " messages", maxSubject);
+        }
+
+        String suffix = " (+" + (count - 1) + " more)";
+        return truncate(head, maxSubject - suffix.length()) + suffix;
+    }
+
+    private static String section(EmailRequestDTO message) {
+        String content = Objects.toString(message.getContent(), "");
+        String subject = message.getSubject();
+        return subject == null || subject.isBlank() ? content : subject + "\n" + content;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, Math.max(0, maxLength));
+    }
+}
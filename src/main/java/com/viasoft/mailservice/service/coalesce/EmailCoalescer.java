@@ -0,0 +1,239 @@
+package com.viasoft.mailservice.service.coalesce;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.service.template.TemplateEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces bulk mail per recipient. With {@code mail.coalesce.enabled}, rendered
+ * {@link Lane#BULK} requests are held per tenant, sender and recipient for up to
+ * {@code mail.coalesce.window}, or until {@code mail.coalesce.max-messages} are waiting, and are
+ * then sent as digests packed by {@link DigestPacker} to fit the limits of the target providers.
+ * Transactional requests are never held.
+ * <p>
+ * The caller of {@link #submit} waits for the digest carrying its message and gets the outcome
+ * of a direct send: an exception thrown while sending a digest is rethrown to every caller whose
+ * message it carried. Digests of one recipient are sent one after the other, in arrival order.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.coalesce.enabled", havingValue = "true")
+public class EmailCoalescer implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailCoalescer.class);
+
+    private final TemplateEngine templateEngine;
+    private final long windowNanos;
+    private final int maxMessages;
+
+    private final ConcurrentHashMap<Key, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService flushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+
+    public EmailCoalescer(
+            TemplateEngine templateEngine,
+            @Value("${mail.coalesce.window}") Duration window,
+            @Value("${mail.coalesce.max-messages}") int maxMessages) {
+
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("mail.coalesce.window must be positive: " + window);
+        }
+        if (maxMessages < 1) {
+            throw new IllegalArgumentException("mail.coalesce.max-messages must be at least 1: " + maxMessages);
+        }
+        this.templateEngine = templateEngine;
+        this.windowNanos = window.toNanos();
+        this.maxMessages = maxMessages;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        timer.shutdownNow();
+        // Nobody will expire the open windows any more: send what they hold so callers return.
+        for (Key key : batches.keySet()) {
+            Batch batch = batches.remove(key);
+            if (batch != null) {
+                flush(batch);
+            }
+        }
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public boolean accepts(EmailRequestDTO requestDTO) {
+        return Lane.of(requestDTO.getLane()) == Lane.BULK;
+    }
+
+    /**
+     * Adds the rendered {@code requestDTO} to the window of its recipient and returns once the
+     * digest carrying it was handed to {@code downstream}. The first request of a window decides
+     * the {@code providers} whose limits the digests must fit and the {@code downstream} that
+     * sends them.
+     */
+    public void submit(EmailRequestDTO requestDTO, IntegrationType[] providers, Consumer<EmailRequestDTO> downstream) {
+        Pending pending = new Pending(requestDTO, System.nanoTime(), new CompletableFuture<>());
+        Key key = new Key(requestDTO.getTenantId(), normalize(requestDTO.getSenderEmail()),
+                normalize(requestDTO.getRecipientEmail()));
+        Batch[] full = new Batch[1];
+
+        buffered.incrementAndGet();
+        batches.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new Batch(providers, downstream);
+                Batch opened = batch;
+                timer.schedule(() -> expire(k, opened), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.pending.add(pending);
+            if (batch.pending.size() >= maxMessages) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            flush(full[0]);
+        }
+        await(pending.done());
+    }
+
+    public int getBuffered() {
+        return buffered.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.coalesce.messages", messages, LongAdder::sum)
+                .description("Bulk messages that went through a coalescing window")
+                .register(registry);
+        FunctionCounter.builder("mail.coalesce.digests", digests, LongAdder::sum)
+                .description("Messages sent for them; messages / digests is the merge ratio")
+                .register(registry);
+        FunctionTimer.builder("mail.coalesce.delay", this,
+                        coalescer -> coalescer.messages.sum(),
+                        coalescer -> coalescer.delayNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time bulk messages waited in a coalescing window")
+                .register(registry);
+        Gauge.builder("mail.coalesce.buffered", this, EmailCoalescer::getBuffered)
+                .description("Bulk messages waiting in a coalescing window")
+                .register(registry);
+    }
+
+    /**
+     * Runs on the timer thread; a window that was already flushed because it filled up is no
+     * longer mapped to its key and is skipped.
+     */
+    private void expire(Key key, Batch batch) {
+        if (batches.remove(key, batch)) {
+            flushExecutor.execute(() -> flush(batch));
+        }
+    }
+
+    private void flush(Batch batch) {
+        long now = System.nanoTime();
+        List<EmailRequestDTO> requests = new ArrayList<>(batch.pending.size());
+        for (Pending pending : batch.pending) {
+            requests.add(pending.request());
+            delayNanos.add(now - pending.arrivedNanos());
+        }
+        buffered.addAndGet(-requests.size());
+        messages.add(requests.size());
+
+        List<DigestPacker.Digest> packed = DigestPacker.pack(requests,
+                templateEngine.maxSubjectLength(batch.providers), templateEngine.maxContentLength(batch.providers));
+        logger.debug("Coalesced {} email requests into {} digests", requests.size(), packed.size());
+
+        for (DigestPacker.Digest digest : packed) {
+            digests.increment();
+            Throwable failure = null;
+            try {
+                batch.downstream.accept(digest.message());
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+            for (int i = digest.first(); i < digest.first() + digest.count(); i++) {
+                CompletableFuture<Void> done = batch.pending.get(i).done();
+                if (failure == null) {
+                    done.complete(null);
+                } else {
+                    done.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String normalize(String address) {
+        return address == null ? "" : address.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String tenantId, String sender, String recipient) {
+    }
+
+    private record Pending(EmailRequestDTO request, long arrivedNanos, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * Only touched inside {@link ConcurrentHashMap#compute} while mapped, and by the single
+     * flushing thread once removed.
+     */
+    private static final class Batch {
+
+        private final List<Pending> pending = new ArrayList<>();
+        private final IntegrationType[] providers;
+        private final Consumer<EmailRequestDTO> downstream;
+
+        private Batch(IntegrationType[] providers, Consumer<EmailRequestDTO> downstream) {
+            this.providers = providers;
+            this.downstream = downstream;
+        }
+    }
+}
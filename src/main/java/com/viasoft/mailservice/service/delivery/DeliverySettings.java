@@ -0,0 +1,26 @@
+package com.viasoft.mailservice.service.delivery;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Delivery to one provider. Requests are sent unsigned, so a configured {@code endpoint} must be
+ * a proxy that adds the provider's signature (SigV4 for AWS, OCI request signing), which
+ * {@code signing-proxy} acknowledges.
+ */
+public record DeliverySettings(
+        URI endpoint,
+        @DefaultValue("false") boolean signingProxy,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("10s") Duration requestTimeout,
+        @DefaultValue("50") int maxConnections) {
+
+    public static final DeliverySettings DEFAULT =
+            new DeliverySettings(null, false, Duration.ofSeconds(2), Duration.ofSeconds(10), 50);
+
+    public DeliverySettings withEndpoint(URI endpoint) {
+        return new DeliverySettings(endpoint, signingProxy, connectTimeout, requestTimeout, maxConnections);
+    }
+}
@@ -0,0 +1,156 @@
+package com.viasoft.mailservice.service.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.stub.ProviderStubServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keep-alive HTTP client used by the strategies to deliver mail. Each {@link IntegrationType}
+ * has its own {@link HttpClient} (and so its own connection pool and connect timeout), preferring
+ * HTTP/2 and falling back to HTTP/1.1. All clients share one virtual-thread executor. The JDK
+ * client has no pool size setting, so {@code max-connections} caps in-flight requests, which
+ * bounds the number of HTTP/1.1 connections opened to the provider.
+ * <p>
+ * Providers without an endpoint are not called, which keeps the service in adapt-and-log mode.
+ * Requests are not signed: real providers reject them, so an endpoint is either the
+ * {@link ProviderStubServer} or a signing proxy declared with {@code signing-proxy=true}.
+ */
+@Component
+public class ProviderHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderHttpClient.class);
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<IntegrationType, Provider> providers = new EnumMap<>(IntegrationType.class);
+
+    @Autowired
+    public ProviderHttpClient(
+            ObjectMapper objectMapper,
+            Environment environment,
+            ObjectProvider<ProviderStubServer> stubServer) {
+        this(objectMapper, bindSettings(environment, stubServer.getIfAvailable()));
+    }
+
+    public ProviderHttpClient(ObjectMapper objectMapper, Map<IntegrationType, DeliverySettings> settings) {
+        this.objectMapper = objectMapper;
+        for (IntegrationType type : IntegrationType.values()) {
+            DeliverySettings providerSettings = settings.getOrDefault(type, DeliverySettings.DEFAULT);
+            if (providerSettings.endpoint() != null) {
+                providers.put(type, new Provider(providerSettings, HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(providerSettings.connectTimeout())
+                        .executor(executor)
+                        .build()));
+                logger.info("Delivery for {} enabled at {}", type, providerSettings.endpoint());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        providers.values().forEach(provider -> provider.client().close());
+        executor.shutdownNow();
+    }
+
+    public boolean isEnabled(IntegrationType integrationType) {
+        return providers.containsKey(integrationType);
+    }
+
+    /**
+     * POSTs {@code payload} as JSON to {@code path} on the provider's endpoint and returns the
+     * response body. Does nothing and returns {@code null} when delivery is not configured.
+     */
+    public String post(IntegrationType integrationType, String path, Object payload) {
+        Provider provider = providers.get(integrationType);
+        if (provider == null) {
+            return null;
+        }
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new DeliveryException(integrationType, "Failed to serialize request for " + integrationType, e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(provider.settings().endpoint().resolve(path))
+                .timeout(provider.settings().requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        provider.connections().acquireUninterruptibly();
+        try {
+            HttpResponse<String> response = provider.client().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new DeliveryException(integrationType,
+                        "Provider " + integrationType + " rejected the email with status " + response.statusCode());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new DeliveryException(integrationType, "Failed to deliver email through " + integrationType, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryException(integrationType, "Interrupted while delivering email through " + integrationType, e);
+        } finally {
+            provider.connections().release();
+        }
+    }
+
+    private static Map<IntegrationType, DeliverySettings> bindSettings(Environment environment, ProviderStubServer stubServer) {
+        Map<IntegrationType, DeliverySettings> settings = new EnumMap<>(IntegrationType.class);
+        settings.putAll(Binder.get(environment)
+                .bind("mail.delivery", Bindable.mapOf(IntegrationType.class, DeliverySettings.class))
+                .orElse(Map.of()));
+        settings.forEach((type, current) -> {
+            if (current.endpoint() != null && !current.signingProxy()) {
+                // Requests are not signed; only a proxy that signs them can forward them to the provider.
+                throw new ConfigurationException("Invalid configuration: 'mail.delivery." + type.name().toLowerCase(Locale.ROOT)
+                        + ".endpoint' must be a signing proxy, declared with signing-proxy=true");
+            }
+        });
+
+        if (stubServer != null) {
+            URI stubUri = stubServer.getBaseUri();
+            for (IntegrationType type : IntegrationType.values()) {
+                DeliverySettings current = settings.getOrDefault(type, DeliverySettings.DEFAULT);
+                if (current.endpoint() == null) {
+                    settings.put(type, current.withEndpoint(stubUri));
+                }
+            }
+        }
+        return settings;
+    }
+
+    private record Provider(DeliverySettings settings, HttpClient client, Semaphore connections) {
+
+        Provider(DeliverySettings settings, HttpClient client) {
+            this(settings, client, new Semaphore(settings.maxConnections()));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent dispatches to one provider. Callers beyond the limit either
+ * fail fast or wait, up to {@link BulkheadSettings#queueTimeout()}, in the bounded wait queue of
+ * their {@link Lane}. The limit is {@code max-concurrent}, lowered to the current limit of the
+ * {@link ConcurrencyLimiter} when there is one.
+ * <p>
+ * A released permit is handed directly to the next waiter picked by deficit round-robin over
+ * the lanes ({@link LaneQueues}), weighted by {@link LaneSettings#weight()}. A burst of bulk
+ * requests therefore only fills the bulk queue: transactional requests keep their own room and
+ * get most of the permits that free up, so their wait stays short while a campaign saturates
+ * the provider.
+ * <p>
+ * Optionally, a {@link CircuitBreaker} sheds calls while the provider keeps failing, rejecting
+ * them with {@link ServiceUnavailableException}. A {@link ConcurrencyLimiter} lowers the limit
+ * when the provider's latency rises: calls above it wait in their lane like any other.
+ */
+public class Bulkhead {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final IntegrationType integrationType;
+    private final BulkheadSettings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LaneQueues<Waiter> waiters;
+    private volatile int active;
+    private final ConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+
+    public Bulkhead(IntegrationType integrationType, BulkheadSettings settings) {
+        this(integrationType, settings, null, null);
+    }
+
+    public Bulkhead(IntegrationType integrationType, BulkheadSettings settings,
+                    ConcurrencyLimiter limiter, CircuitBreaker circuitBreaker) {
+        this(integrationType, settings, LaneSettings.DEFAULTS, limiter, circuitBreaker);
+    }
+
+    public Bulkhead(IntegrationType integrationType, BulkheadSettings settings, Map<Lane, LaneSettings> lanes,
+                    ConcurrencyLimiter limiter, CircuitBreaker circuitBreaker) {
+        this.integrationType = integrationType;
+        this.settings = settings;
+        this.waiters = new LaneQueues<>(settings.maxWaitQueue(), lanes);
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        return execute(Lane.of(null), task);
+    }
+
+    public void execute(Runnable task) {
+        execute(Lane.of(null), task);
+    }
+
+    public <T> T execute(Lane lane, Supplier<T> task) {
+        if (circuitBreaker != null) {
+            circuitBreaker.acquirePermission();
+        }
+        CallOutcome outcome = CallOutcome.IGNORED;
+        try {
+            acquire(lane);
+            try {
+                int inFlight = limiter != null ? limiter.acquire() : 0;
+                long start = System.nanoTime();
+                try {
+                    T result = task.get();
+                    outcome = CallOutcome.SUCCESS;
+                    return result;
+                } catch (DeliveryException e) {
+                    outcome = CallOutcome.FAILURE;
+                    throw e;
+                } finally {
+                    if (limiter != null) {
+                        limiter.release(System.nanoTime() - start, inFlight, outcome);
+                    }
+                }
+            } finally {
+                release();
+            }
+        } finally {
+            if (circuitBreaker != null) {
+                circuitBreaker.onResult(outcome);
+            }
+        }
+    }
+
+    public void execute(Lane lane, Runnable task) {
+        execute(lane, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public int getActiveCount() {
+        return active;
+    }
+
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingCount(Lane lane) {
+        lock.lock();
+        try {
+            return waiters.size(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private void acquire(Lane lane) {
+        lock.lock();
+        try {
+            // The limiter may have raised the limit since the last release.
+            grantWaiters();
+            if (active < limit()) {
+                active++;
+                return;
+            }
+            if (settings.rejectionPolicy() == BulkheadSettings.RejectionPolicy.FAIL_FAST) {
+                throw rejected();
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            if (!waiters.offer(lane, waiter)) {
+                throw rejected();
+            }
+            long remaining = settings.queueTimeout().toNanos();
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        waiters.remove(lane, waiter);
+                        throw rejected();
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.granted) {
+                    active--;
+                    grantWaiters();
+                } else {
+                    waiters.remove(lane, waiter);
+                }
+                throw rejected();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            active--;
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the free permits to the next waiters, as long as the limit allows. After the limiter
+     * lowers the limit, releases only free permits once the calls in flight fall below it. Called
+     * with the lock held.
+     */
+    private void grantWaiters() {
+        Waiter next;
+        while (active < limit() && (next = waiters.poll()) != null) {
+            active++;
+            next.granted = true;
+            next.condition.signal();
+        }
+    }
+
+    private int limit() {
+        return limiter == null ? settings.maxConcurrent() : Math.min(settings.maxConcurrent(), limiter.getLimit());
+    }
+
+    private ServiceUnavailableException rejected() {
+        return new ServiceUnavailableException(
+                "Provider " + integrationType + " is at capacity, try again later", RETRY_AFTER);
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+        private boolean granted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
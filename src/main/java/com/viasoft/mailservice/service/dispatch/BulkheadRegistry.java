@@ -0,0 +1,117 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link Bulkhead} per {@link IntegrationType}, configured from {@code mail.bulkhead.<type>.*},
+ * with its adaptive limiter from {@code mail.limiter.<type>.*} and its circuit breaker from
+ * {@code mail.circuit-breaker.<type>.*}. Lane weights, shared by all bulkheads, come from
+ * {@code mail.lanes.<lane>.*}.
+ */
+@Component
+public class BulkheadRegistry implements MeterBinder {
+
+    private final Map<IntegrationType, Bulkhead> bulkheads = new EnumMap<>(IntegrationType.class);
+
+    @Autowired
+    public BulkheadRegistry(Environment environment) {
+        this(bind(environment, "mail.bulkhead", IntegrationType.class, BulkheadSettings.class),
+                bind(environment, "mail.lanes", Lane.class, LaneSettings.class),
+                bind(environment, "mail.limiter", IntegrationType.class, LimiterSettings.class),
+                bind(environment, "mail.circuit-breaker", IntegrationType.class, CircuitBreakerSettings.class),
+                LimiterSettings.DEFAULT, CircuitBreakerSettings.DEFAULT);
+    }
+
+    /**
+     * Static bulkheads only, without adaptive limiting or circuit breaking.
+     */
+    public BulkheadRegistry(Map<IntegrationType, BulkheadSettings> settings) {
+        this(settings, LaneSettings.DEFAULTS, Map.of(), Map.of(), LimiterSettings.DISABLED, CircuitBreakerSettings.DISABLED);
+    }
+
+    public BulkheadRegistry(
+            Map<IntegrationType, BulkheadSettings> settings,
+            Map<IntegrationType, LimiterSettings> limiterSettings,
+            Map<IntegrationType, CircuitBreakerSettings> circuitBreakerSettings) {
+        this(settings, LaneSettings.DEFAULTS, limiterSettings, circuitBreakerSettings,
+                LimiterSettings.DEFAULT, CircuitBreakerSettings.DEFAULT);
+    }
+
+    private BulkheadRegistry(
+            Map<IntegrationType, BulkheadSettings> settings,
+            Map<Lane, LaneSettings> laneSettings,
+            Map<IntegrationType, LimiterSettings> limiterSettings,
+            Map<IntegrationType, CircuitBreakerSettings> circuitBreakerSettings,
+            LimiterSettings defaultLimiter,
+            CircuitBreakerSettings defaultCircuitBreaker) {
+        for (IntegrationType type : IntegrationType.values()) {
+            LimiterSettings limiter = limiterSettings.getOrDefault(type, defaultLimiter);
+            CircuitBreakerSettings circuitBreaker = circuitBreakerSettings.getOrDefault(type, defaultCircuitBreaker);
+            bulkheads.put(type, new Bulkhead(type, settings.getOrDefault(type, BulkheadSettings.DEFAULT), laneSettings,
+                    limiter.enabled() ? new ConcurrencyLimiter(limiter) : null,
+                    circuitBreaker.enabled() ? new CircuitBreaker(type, circuitBreaker) : null));
+        }
+    }
+
+    public Bulkhead get(IntegrationType integrationType) {
+        return bulkheads.get(integrationType);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bulkheads.forEach((type, bulkhead) -> {
+            Gauge.builder("mail.bulkhead.active", bulkhead, Bulkhead::getActiveCount)
+                    .tag("integration", type.name())
+                    .register(registry);
+            Gauge.builder("mail.bulkhead.waiting", bulkhead, Bulkhead::getWaitingCount)
+                    .tag("integration", type.name())
+                    .register(registry);
+            for (Lane lane : Lane.values()) {
+                Gauge.builder("mail.lane.waiting", bulkhead, head -> head.getWaitingCount(lane))
+                        .description("Requests waiting for a bulkhead permit, by lane")
+                        .tag("integration", type.name())
+                        .tag("lane", lane.name())
+                        .register(registry);
+            }
+
+            ConcurrencyLimiter limiter = bulkhead.getLimiter();
+            if (limiter != null) {
+                Gauge.builder("mail.limiter.limit", limiter, ConcurrencyLimiter::getLimit)
+                        .tag("integration", type.name())
+                        .register(registry);
+                Gauge.builder("mail.limiter.in-flight", limiter, ConcurrencyLimiter::getInFlight)
+                        .tag("integration", type.name())
+                        .register(registry);
+            }
+
+            CircuitBreaker circuitBreaker = bulkhead.getCircuitBreaker();
+            if (circuitBreaker != null) {
+                for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                    Gauge.builder("mail.circuit-breaker.state", circuitBreaker,
+                                    breaker -> breaker.getState() == state ? 1 : 0)
+                            .tag("integration", type.name())
+                            .tag("state", state.name())
+                            .register(registry);
+                }
+            }
+        });
+    }
+
+    private static <K, T> Map<K, T> bind(Environment environment, String prefix, Class<K> keyType, Class<T> type) {
+        return Binder.get(environment)
+                .bind(prefix, Bindable.mapOf(keyType, type))
+                .orElse(Map.of());
+    }
+}
@@ -0,0 +1,20 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+public record BulkheadSettings(
+        @DefaultValue("64") int maxConcurrent,
+        @DefaultValue("128") int maxWaitQueue,
+        @DefaultValue("QUEUE") RejectionPolicy rejectionPolicy,
+        @DefaultValue("500ms") Duration queueTimeout) {
+
+    public static final BulkheadSettings DEFAULT =
+            new BulkheadSettings(64, 128, RejectionPolicy.QUEUE, Duration.ofMillis(500));
+
+    public enum RejectionPolicy {
+        FAIL_FAST,
+        QUEUE
+    }
+}
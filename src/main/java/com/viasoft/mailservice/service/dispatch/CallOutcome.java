@@ -0,0 +1,12 @@
+package com.viasoft.mailservice.service.dispatch;
+
+/**
+ * How a guarded call ended, as seen by the {@link ConcurrencyLimiter} and {@link CircuitBreaker}.
+ * Only delivery failures count against a provider; errors raised before the provider was called
+ * (validation, configuration) are {@link #IGNORED}.
+ */
+enum CallOutcome {
+    SUCCESS,
+    FAILURE,
+    IGNORED
+}
@@ -0,0 +1,142 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last
+ * {@code sliding-window-size} calls reaches {@code failure-rate-threshold}, rejects every call
+ * for {@code open-duration}, then lets {@code half-open-calls} trial calls through: all of them
+ * succeeding closes the circuit, any failure opens it again.
+ * <p>
+ * While closed, admission only reads a volatile field.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final IntegrationType integrationType;
+    private final CircuitBreakerSettings settings;
+    private final LongSupplier clock;
+
+    private final boolean[] outcomes;
+    private int nextOutcome;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(IntegrationType integrationType, CircuitBreakerSettings settings) {
+        this(integrationType, settings, System::nanoTime);
+    }
+
+    CircuitBreaker(IntegrationType integrationType, CircuitBreakerSettings settings, LongSupplier clock) {
+        this.integrationType = integrationType;
+        this.settings = settings;
+        this.clock = clock;
+        this.outcomes = new boolean[settings.slidingWindowSize()];
+    }
+
+    void acquirePermission() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (state == State.OPEN) {
+                if (now - openUntil < 0) {
+                    throw rejected(Duration.ofNanos(openUntil - now));
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = settings.halfOpenCalls();
+                halfOpenSuccesses = 0;
+                logger.info("Circuit for {} half-open, sending trial calls", integrationType);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    throw rejected(settings.openDuration());
+                }
+                halfOpenPermits--;
+            }
+        }
+    }
+
+    synchronized void onResult(CallOutcome outcome) {
+        switch (state) {
+            case CLOSED -> {
+                if (outcome != CallOutcome.IGNORED) {
+                    record(outcome == CallOutcome.FAILURE);
+                }
+            }
+            case HALF_OPEN -> {
+                if (outcome == CallOutcome.FAILURE) {
+                    open();
+                } else if (outcome == CallOutcome.IGNORED) {
+                    halfOpenPermits++;
+                } else if (++halfOpenSuccesses >= settings.halfOpenCalls()) {
+                    close();
+                }
+            }
+            case OPEN -> {
+                // Calls admitted before the circuit opened do not change the decision.
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[nextOutcome]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[nextOutcome] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+
+        if (failed && recordedCalls >= settings.minimumCalls()
+                && failedCalls >= settings.failureRateThreshold() * recordedCalls) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + settings.openDuration().toNanos();
+        logger.warn("Circuit for {} opened for {}", integrationType, settings.openDuration());
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        failedCalls = 0;
+        nextOutcome = 0;
+        logger.info("Circuit for {} closed", integrationType);
+    }
+
+    private ServiceUnavailableException rejected(Duration retryAfter) {
+        return new ServiceUnavailableException(
+                "Provider " + integrationType + " is unavailable, try again later", retryAfter);
+    }
+}
@@ -0,0 +1,20 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+public record CircuitBreakerSettings(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.5") double failureRateThreshold,
+        @DefaultValue("20") int slidingWindowSize,
+        @DefaultValue("10") int minimumCalls,
+        @DefaultValue("10s") Duration openDuration,
+        @DefaultValue("3") int halfOpenCalls) {
+
+    public static final CircuitBreakerSettings DEFAULT =
+            new CircuitBreakerSettings(true, 0.5, 20, 10, Duration.ofSeconds(10), 3);
+
+    public static final CircuitBreakerSettings DISABLED =
+            new CircuitBreakerSettings(false, 0.5, 20, 10, Duration.ofSeconds(10), 3);
+}
@@ -0,0 +1,81 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient concurrency limiter. The limit follows the ratio between a long-term average of the
+ * round-trip time and the latest sample: while the provider answers as fast as usual the limit
+ * grows by roughly its square root per sample, and once latency rises above
+ * {@code rtt-tolerance} times the baseline it shrinks proportionally, queueing less work on a
+ * slow upstream instead of letting it pile up.
+ * <p>
+ * The limiter only computes the limit: {@link Bulkhead} enforces it, queueing the calls above it,
+ * and reports the calls it admits through {@link #acquire()} and {@link #release}. Counting a
+ * call is an atomic increment; only the limit update after each sample is synchronized.
+ */
+public class ConcurrencyLimiter {
+
+    private final LimiterSettings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt = Double.NaN;
+
+    public ConcurrencyLimiter(LimiterSettings settings) {
+        if (settings.minLimit() < 1 || settings.maxLimit() < settings.minLimit()) {
+            throw new IllegalArgumentException("Invalid concurrency limits: " + settings);
+        }
+        this.settings = settings;
+        this.estimatedLimit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Counts a call admitted under {@link #getLimit()} and returns the number of calls in flight
+     * including this one. The limit may have dropped since, so the count can exceed it.
+     */
+    int acquire() {
+        return inFlight.incrementAndGet();
+    }
+
+    void release(long rttNanos, int inFlightAtStart, CallOutcome outcome) {
+        inFlight.decrementAndGet();
+        if (outcome != CallOutcome.IGNORED && rttNanos > 0) {
+            onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double shortRtt = rttNanos;
+        if (Double.isNaN(longRtt)) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / settings.longWindow();
+        }
+        // After a sustained slowdown the baseline would otherwise keep the limit pinned down.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // The provider is not the bottleneck while most of the limit is unused.
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(settings.rttTolerance() * longRtt / shortRtt, 0.5, 1.0);
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+
+        estimatedLimit = Math.clamp(newLimit, settings.minLimit(), settings.maxLimit());
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,90 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.model.enums.Lane;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * One bounded FIFO queue per {@link Lane}, drained by deficit round-robin. Every entry costs one
+ * unit (one provider call), so a lane visited with a non-empty queue is credited its weight
+ * and served until the credit or the queue runs out; an emptied lane forfeits its remaining
+ * credit. With backlogs in several lanes, each is served in proportion to its weight, and no
+ * lane starves however busy the others are. Not thread-safe.
+ */
+class LaneQueues<T> {
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final ArrayDeque<T>[] queues;
+    private final int[] quanta;
+    private final int[] deficits;
+    private final int capacity;
+    private int current;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    LaneQueues(int capacity, Map<Lane, LaneSettings> settings) {
+        this.queues = new ArrayDeque[LANES.length];
+        this.quanta = new int[LANES.length];
+        this.deficits = new int[LANES.length];
+        this.capacity = capacity;
+        for (Lane lane : LANES) {
+            queues[lane.ordinal()] = new ArrayDeque<>();
+            quanta[lane.ordinal()] = settings.getOrDefault(lane, LaneSettings.DEFAULTS.get(lane)).weight();
+        }
+        deficits[0] = quanta[0];
+    }
+
+    /**
+     * Appends {@code entry} to {@code lane}'s queue, unless it already holds {@code capacity}
+     * entries.
+     */
+    boolean offer(Lane lane, T entry) {
+        ArrayDeque<T> queue = queues[lane.ordinal()];
+        if (queue.size() >= capacity) {
+            return false;
+        }
+        queue.addLast(entry);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the next entry in deficit round-robin order, or returns {@code null} when all
+     * queues are empty.
+     */
+    T poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (true) {
+            ArrayDeque<T> queue = queues[current];
+            if (queue.isEmpty()) {
+                deficits[current] = 0;
+            } else if (deficits[current] > 0) {
+                deficits[current]--;
+                size--;
+                return queue.pollFirst();
+            }
+            current = (current + 1) % queues.length;
+            deficits[current] += quanta[current];
+        }
+    }
+
+    boolean remove(Lane lane, T entry) {
+        if (queues[lane.ordinal()].removeFirstOccurrence(entry)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    int size(Lane lane) {
+        return queues[lane.ordinal()].size();
+    }
+
+    int size() {
+        return size;
+    }
+}
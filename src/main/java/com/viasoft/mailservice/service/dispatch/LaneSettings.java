@@ -0,0 +1,23 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.model.enums.Lane;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Share of a saturated bulkhead's permits given to a {@link Lane}: while several lanes have
+ * requests waiting, each receives permits in proportion to its {@code weight}.
+ */
+public record LaneSettings(@DefaultValue("1") int weight) {
+
+    public static final Map<Lane, LaneSettings> DEFAULTS = Map.of(
+            Lane.TRANSACTIONAL, new LaneSettings(8),
+            Lane.BULK, new LaneSettings(1));
+
+    public LaneSettings {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Lane weight must be at least 1: " + weight);
+        }
+    }
+}
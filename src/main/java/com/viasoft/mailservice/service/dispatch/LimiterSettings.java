@@ -0,0 +1,17 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+public record LimiterSettings(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("16") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("64") int maxLimit,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("1.5") double rttTolerance,
+        @DefaultValue("600") int longWindow) {
+
+    public static final LimiterSettings DEFAULT = new LimiterSettings(true, 16, 4, 64, 0.2, 1.5, 600);
+
+    public static final LimiterSettings DISABLED = new LimiterSettings(false, 16, 4, 64, 0.2, 1.5, 600);
+}
@@ -0,0 +1,40 @@
+package com.viasoft.mailservice.service.hash;
+
+/**
+ * 64-bit hashing primitives shared by the in-memory tables and the on-disk indexes. Hashes end up
+ * in the status log and the suppression index, so their values must never change.
+ */
+public final class Hash64 {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hash64() {
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars of {@code value}, case-sensitive, with the
+     * {@link #fmix64} finalizer on top so that the low and high bits are equally well mixed.
+     */
+    public static long fnv1a(CharSequence value) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return fmix64(h);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer: every input bit affects every output bit, and {@code 0} is
+     * its only fixed point.
+     */
+    public static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
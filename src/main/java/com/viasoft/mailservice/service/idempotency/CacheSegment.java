@@ -0,0 +1,283 @@
+package com.viasoft.mailservice.service.idempotency;
+
+/**
+ * One lock-protected slice of the {@link IdempotencyCache}, laid out in parallel primitive arrays
+ * indexed by slot: no object is allocated per entry.
+ * <p>
+ * Eviction follows W-TinyLFU. New entries enter a small LRU window (1% of the capacity); entries
+ * leaving it compete for the main region, a segmented LRU split into probation and protected
+ * (80%) queues, where an entry is promoted to protected on its second access. When the segment
+ * is full, the newest probation entry is only kept if the {@link FrequencySketch} estimates it
+ * to be more popular than the probation LRU victim, so a burst of one-off keys cannot flush the
+ * keys that are actually retried. Expired entries are dropped on access and evicted first.
+ */
+class CacheSegment {
+
+    static final int IN_PROGRESS = 0;
+
+    private static final int NONE = -1;
+    private static final byte FREE = 0;
+    private static final byte WINDOW = 1;
+    private static final byte PROBATION = 2;
+    private static final byte PROTECTED = 3;
+
+    private final int maxSize;
+    private final int windowMax;
+    private final int protectedMax;
+
+    private final long[] keys;
+    private final long[] expiresAt;
+    private final long[] messageIds;
+    private final int[] statuses;
+    private final int[] fingerprints;
+    private final int[] prev;
+    private final int[] next;
+    private final byte[] queues;
+
+    private final int[] index;
+    private final int indexMask;
+
+    private final int[] heads = {NONE, NONE, NONE, NONE};
+    private final int[] tails = {NONE, NONE, NONE, NONE};
+    private final int[] sizes = new int[4];
+    private int freeHead;
+
+    private final FrequencySketch sketch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    CacheSegment(int maxSize) {
+        this.maxSize = Math.max(2, maxSize);
+        this.windowMax = Math.max(1, this.maxSize / 100);
+        this.protectedMax = (int) ((this.maxSize - windowMax) * 0.8);
+
+        int slots = this.maxSize + 1;
+        keys = new long[slots];
+        expiresAt = new long[slots];
+        messageIds = new long[slots];
+        statuses = new int[slots];
+        fingerprints = new int[slots];
+        prev = new int[slots];
+        next = new int[slots];
+        queues = new byte[slots];
+
+        for (int slot = 0; slot < slots; slot++) {
+            next[slot] = slot + 1 < slots ? slot + 1 : NONE;
+        }
+        freeHead = 0;
+
+        int indexLength = Integer.highestOneBit(slots * 2 - 1) << 1;
+        index = new int[indexLength];
+        indexMask = indexLength - 1;
+
+        sketch = new FrequencySketch(this.maxSize);
+    }
+
+    /**
+     * Returns the live entry for {@code key}, or records a new in-progress entry and returns
+     * {@code null}.
+     */
+    synchronized IdempotencyCache.Entry reserve(long key, int fingerprint, long now, long ttlNanos) {
+        sketch.increment(key);
+
+        int slot = find(key);
+        if (slot != NONE && expiresAt[slot] - now <= 0) {
+            remove(slot);
+            slot = NONE;
+        }
+        if (slot != NONE) {
+            hits++;
+            onAccess(slot);
+            return new IdempotencyCache.Entry(statuses[slot], messageIds[slot], fingerprints[slot]);
+        }
+
+        misses++;
+        slot = freeHead;
+        freeHead = next[slot];
+        keys[slot] = key;
+        expiresAt[slot] = now + ttlNanos;
+        statuses[slot] = IN_PROGRESS;
+        messageIds[slot] = 0;
+        fingerprints[slot] = fingerprint;
+        link(WINDOW, slot);
+        insertIndex(slot);
+
+        evictIfNeeded(now);
+        return null;
+    }
+
+    synchronized void complete(long key, int status, long messageId, long now, long ttlNanos) {
+        int slot = find(key);
+        if (slot != NONE) {
+            statuses[slot] = status;
+            messageIds[slot] = messageId;
+            expiresAt[slot] = now + ttlNanos;
+        }
+    }
+
+    synchronized void release(long key) {
+        int slot = find(key);
+        if (slot != NONE && statuses[slot] == IN_PROGRESS) {
+            remove(slot);
+        }
+    }
+
+    synchronized int size() {
+        return sizes[WINDOW] + sizes[PROBATION] + sizes[PROTECTED];
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    long memoryBytes() {
+        int slots = keys.length;
+        return (long) slots * (3 * Long.BYTES + 4 * Integer.BYTES + 1)
+                + (long) index.length * Integer.BYTES
+                + sketch.memoryBytes();
+    }
+
+    private void onAccess(int slot) {
+        switch (queues[slot]) {
+            case WINDOW -> moveToHead(WINDOW, slot);
+            case PROBATION -> {
+                unlink(slot);
+                link(PROTECTED, slot);
+                if (sizes[PROTECTED] > protectedMax) {
+                    int demoted = tails[PROTECTED];
+                    unlink(demoted);
+                    link(PROBATION, demoted);
+                }
+            }
+            case PROTECTED -> moveToHead(PROTECTED, slot);
+            default -> throw new IllegalStateException("Slot " + slot + " is not in use");
+        }
+    }
+
+    private void evictIfNeeded(long now) {
+        while (sizes[WINDOW] > windowMax) {
+            int candidate = tails[WINDOW];
+            unlink(candidate);
+            link(PROBATION, candidate);
+        }
+
+        while (size() > maxSize) {
+            int candidate = heads[PROBATION];
+            int victim = tails[PROBATION];
+            if (victim == NONE) {
+                victim = tails[PROTECTED];
+            }
+
+            if (expiresAt[victim] - now <= 0 || candidate == victim || candidate == NONE) {
+                evict(victim);
+            } else if (expiresAt[candidate] - now <= 0
+                    || sketch.frequency(keys[candidate]) <= sketch.frequency(keys[victim])) {
+                evict(candidate);
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private void evict(int slot) {
+        evictions++;
+        remove(slot);
+    }
+
+    private void remove(int slot) {
+        unlink(slot);
+        removeIndex(slot);
+        queues[slot] = FREE;
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private void link(byte queue, int slot) {
+        queues[slot] = queue;
+        prev[slot] = NONE;
+        next[slot] = heads[queue];
+        if (heads[queue] != NONE) {
+            prev[heads[queue]] = slot;
+        } else {
+            tails[queue] = slot;
+        }
+        heads[queue] = slot;
+        sizes[queue]++;
+    }
+
+    private void unlink(int slot) {
+        byte queue = queues[slot];
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            heads[queue] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tails[queue] = prev[slot];
+        }
+        sizes[queue]--;
+    }
+
+    private void moveToHead(byte queue, int slot) {
+        if (heads[queue] != slot) {
+            unlink(slot);
+            link(queue, slot);
+        }
+    }
+
+    private int find(long key) {
+        for (int i = bucket(key); index[i] != 0; i = (i + 1) & indexMask) {
+            int slot = index[i] - 1;
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    private void insertIndex(int slot) {
+        int i = bucket(keys[slot]);
+        while (index[i] != 0) {
+            i = (i + 1) & indexMask;
+        }
+        index[i] = slot + 1;
+    }
+
+    /**
+     * Linear-probing deletion by backward shift, so lookups never need tombstones.
+     */
+    private void removeIndex(int slot) {
+        int i = bucket(keys[slot]);
+        while (index[i] != slot + 1) {
+            i = (i + 1) & indexMask;
+        }
+        index[i] = 0;
+
+        for (int j = (i + 1) & indexMask; index[j] != 0; j = (j + 1) & indexMask) {
+            int home = bucket(keys[index[j] - 1]);
+            boolean stays = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!stays) {
+                index[i] = index[j];
+                index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    private int bucket(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h >>> 32) & indexMask;
+    }
+}
@@ -0,0 +1,72 @@
+package com.viasoft.mailservice.service.idempotency;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often a key was seen recently. Sixteen
+ * counters are packed per {@code long}, and all counters are halved once the number of
+ * increments reaches ten times the cache size, so old popularity fades. Not thread-safe; used
+ * under the owning {@link CacheSegment}'s lock.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(2, maximumSize) - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    int frequency(long hash) {
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = rehash(hash, i);
+            int offset = (int) (h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index(h)] >>> offset) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = rehash(hash, i);
+            int index = index(h);
+            int offset = (int) (h & 15) << 2;
+            if (((table[index] >>> offset) & 0xF) != 0xF) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    long memoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private int index(long h) {
+        return (int) (h >>> 32) & tableMask;
+    }
+
+    private static long rehash(long hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h ^ (h >>> 29);
+    }
+}
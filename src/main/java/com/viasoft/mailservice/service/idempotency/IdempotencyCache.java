@@ -0,0 +1,141 @@
+package com.viasoft.mailservice.service.idempotency;
+
+import com.viasoft.mailservice.exception.IdempotencyConflictException;
+import com.viasoft.mailservice.service.hash.Hash64;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Remembers the outcome of requests sent with an {@code Idempotency-Key} for {@code ttl}, so
+ * retries get the original response instead of sending the email again.
+ * <p>
+ * Keys are stored as 64-bit hashes in {@link CacheSegment}s, striped by hash to spread lock
+ * contention, with W-TinyLFU admission and a fixed capacity of {@code max-entries}. A key is
+ * reserved before the request runs: a retry arriving while it is still running, or reusing the
+ * key for a different request, is a conflict.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final long NO_MESSAGE_ID = -1;
+
+    private static final int SEGMENTS = 16;
+
+    private final CacheSegment[] segments = new CacheSegment[SEGMENTS];
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public IdempotencyCache(
+            @Value("${mail.idempotency.max-entries}") int maxEntries,
+            @Value("${mail.idempotency.ttl}") Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        int segmentSize = (maxEntries + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new CacheSegment(segmentSize);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Reserves {@code key} for a request whose body hashes to {@code fingerprint}. Returns
+     * {@code null} when the caller should run the request and then {@link #complete} or
+     * {@link #release} the key, or the outcome recorded for the original request.
+     */
+    public Outcome reserve(String key, int fingerprint) {
+        long hash = Hash64.fnv1a(key);
+        Entry entry = segment(hash).reserve(hash, fingerprint, clock.getAsLong(), ttlNanos);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.fingerprint() != fingerprint) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+        if (entry.status() == CacheSegment.IN_PROGRESS) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+        return new Outcome(entry.status(), entry.messageId());
+    }
+
+    public void complete(String key, int status, long messageId) {
+        long hash = Hash64.fnv1a(key);
+        segment(hash).complete(hash, status, messageId, clock.getAsLong(), ttlNanos);
+    }
+
+    /**
+     * Forgets a reservation whose request failed, so the caller can retry it.
+     */
+    public void release(String key) {
+        long hash = Hash64.fnv1a(key);
+        segment(hash).release(hash);
+    }
+
+    public long getHitCount() {
+        return sum(CacheSegment::hits);
+    }
+
+    public long getMissCount() {
+        return sum(CacheSegment::misses);
+    }
+
+    public long getEvictionCount() {
+        return sum(CacheSegment::evictions);
+    }
+
+    public long getSize() {
+        return sum(CacheSegment::size);
+    }
+
+    public long getMemoryBytes() {
+        return sum(CacheSegment::memoryBytes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.idempotency.requests", this, IdempotencyCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("mail.idempotency.requests", this, IdempotencyCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("mail.idempotency.evictions", this, IdempotencyCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("mail.idempotency.size", this, IdempotencyCache::getSize)
+                .register(registry);
+        Gauge.builder("mail.idempotency.memory", this, IdempotencyCache::getMemoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private CacheSegment segment(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private long sum(ToLongFunction<CacheSegment> metric) {
+        long total = 0;
+        for (CacheSegment segment : segments) {
+            total += metric.applyAsLong(segment);
+        }
+        return total;
+    }
+
+    public record Outcome(int status, long messageId) {
+    }
+
+    record Entry(int status, long messageId, int fingerprint) {
+    }
+}
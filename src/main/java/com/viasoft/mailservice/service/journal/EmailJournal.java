@@ -0,0 +1,382 @@
+package com.viasoft.mailservice.service.journal;
+
+import com.viasoft.mailservice.exception.JournalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal made of fixed-size, memory-mapped segment files.
+ * <p>
+ * Records are laid out as {@code [int length][int crc32c][payload]} and addressed by a global
+ * offset ({@code segment base + position}). Appends only write into the mapped pages; a single
+ * flusher thread forces every dirty segment to disk and publishes the new committed offset, so
+ * all appenders waiting in {@link #awaitCommit(long)} are released by one fsync (group commit).
+ * Readers only ever see committed records. The consumer position is kept in a memory-mapped
+ * checkpoint file, which makes the journal replay from the last checkpoint after a restart.
+ */
+public class EmailJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailJournal.class);
+
+    static final int HEADER_SIZE = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final MappedByteBuffer checkpointBuffer;
+    private final FileChannel checkpointChannel;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition commitAdvanced = commitLock.newCondition();
+    private final Condition dataAppended = commitLock.newCondition();
+
+    private Segment activeSegment;
+    private volatile long writeOffset;
+    private volatile long committedOffset;
+    private volatile long checkpointOffset;
+    private volatile boolean closed;
+
+    private final Thread flusher;
+
+    public EmailJournal(Path directory, int segmentSize) {
+        if (segmentSize <= HEADER_SIZE * 2) {
+            throw new IllegalArgumentException("Journal segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        try {
+            Files.createDirectories(directory);
+            loadSegments();
+
+            checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            checkpointBuffer = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException e) {
+            throw new JournalException("Failed to open email journal at " + directory, e);
+        }
+
+        long firstBase = segments.firstKey();
+        checkpointOffset = Math.max(checkpointBuffer.getLong(0), firstBase);
+        committedOffset = writeOffset;
+
+        logger.info("Email journal opened at {}: replaying from offset {} up to {}",
+                directory, checkpointOffset, committedOffset);
+
+        flusher = new Thread(this::flushLoop, "email-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends a record and returns the offset right after it. The record is not durable until
+     * {@link #awaitCommit(long)} returns for that offset.
+     */
+    public long append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize - Integer.BYTES) {
+            throw new JournalException("Journal record of " + payload.length + " bytes exceeds the segment size");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        long end;
+        appendLock.lock();
+        try {
+            ensureOpen();
+            int position = (int) (writeOffset - activeSegment.base);
+            if (position + recordSize > segmentSize) {
+                if (position + Integer.BYTES <= segmentSize) {
+                    activeSegment.buffer.putInt(position, END_OF_SEGMENT);
+                }
+                activeSegment = openSegment(activeSegment.base + segmentSize);
+                position = 0;
+            }
+
+            MappedByteBuffer buffer = activeSegment.buffer;
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + HEADER_SIZE, payload);
+            buffer.putInt(position, payload.length);
+
+            end = activeSegment.base + position + recordSize;
+            writeOffset = end;
+        } finally {
+            appendLock.unlock();
+        }
+
+        commitLock.lock();
+        try {
+            dataAppended.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        return end;
+    }
+
+    /**
+     * Offset of the record of {@code payloadLength} bytes that {@link #append(byte[])} ended at
+     * {@code end}, the offset to {@link #read(long)} it back from.
+     */
+    public static long recordOffset(long end, int payloadLength) {
+        return end - HEADER_SIZE - payloadLength;
+    }
+
+    public void awaitCommit(long offset) {
+        if (committedOffset >= offset) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (committedOffset < offset) {
+                ensureOpen();
+                commitAdvanced.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalException("Interrupted while waiting for journal commit", e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the committed record starting at {@code offset}, skipping over segment boundaries.
+     * Returns {@code null} when there is no committed record at that offset yet.
+     */
+    public JournalRecord read(long offset) {
+        while (offset < committedOffset) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                throw new JournalException("Journal offset " + offset + " is no longer available");
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.base);
+
+            int length = position + HEADER_SIZE <= segmentSize ? segment.buffer.getInt(position) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT) {
+                offset = segment.base + segmentSize;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_SIZE, payload);
+            return new JournalRecord(offset, offset + HEADER_SIZE + length, payload);
+        }
+        return null;
+    }
+
+    /**
+     * Blocks until a committed record exists at {@code offset} or the timeout elapses.
+     */
+    public boolean awaitRecord(long offset, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        commitLock.lock();
+        try {
+            while (committedOffset <= offset && !closed) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = commitAdvanced.awaitNanos(remaining);
+            }
+            return committedOffset > offset;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public long checkpoint() {
+        return checkpointOffset;
+    }
+
+    /**
+     * Marks everything before {@code offset} as consumed and deletes the segments that are
+     * entirely behind it.
+     */
+    public void checkpoint(long offset) {
+        checkpointOffset = offset;
+        checkpointBuffer.putLong(0, offset);
+
+        Map.Entry<Long, Segment> head;
+        while ((head = segments.firstEntry()) != null
+                && head.getKey() + segmentSize <= offset
+                && head.getValue() != activeSegment) {
+            segments.remove(head.getKey());
+            try {
+                Files.deleteIfExists(head.getValue().path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete consumed journal segment {}", head.getValue().path, e);
+            }
+        }
+    }
+
+    public long committedOffset() {
+        return committedOffset;
+    }
+
+    public long pendingBytes() {
+        return committedOffset - checkpointOffset;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        commitLock.lock();
+        try {
+            dataAppended.signalAll();
+            commitAdvanced.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointBuffer.force();
+        try {
+            checkpointChannel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close journal checkpoint", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            commitLock.lock();
+            try {
+                while (writeOffset == committedOffset && !closed) {
+                    dataAppended.await();
+                }
+                target = writeOffset;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                commitLock.unlock();
+            }
+
+            long from = committedOffset;
+            if (target > from) {
+                Long firstDirty = segments.floorKey(from);
+                for (Segment segment : segments.subMap(firstDirty != null ? firstDirty : from, true, target, false).values()) {
+                    int start = (int) Math.max(from - segment.base, 0);
+                    int end = (int) Math.min(target - segment.base, segmentSize);
+                    segment.buffer.force(start, end - start);
+                }
+            }
+
+            commitLock.lock();
+            try {
+                committedOffset = target;
+                commitAdvanced.signalAll();
+                if (closed && writeOffset == committedOffset) {
+                    return;
+                }
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(base, mapSegment(file, base));
+        }
+
+        if (segments.isEmpty()) {
+            activeSegment = openSegment(0);
+            writeOffset = 0;
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+            writeOffset = activeSegment.base + recoverWritePosition(activeSegment);
+        }
+    }
+
+    private int recoverWritePosition(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                logger.warn("Discarding torn journal record at offset {}", segment.base + position);
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+
+        for (int i = position; i < Math.min(position + HEADER_SIZE, segmentSize); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private Segment openSegment(long base) {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        try {
+            Segment segment = mapSegment(path, base);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new JournalException("Failed to create journal segment " + path, e);
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Segment mapSegment(Path path, long base) throws IOException {
+        return new Segment(base, path, map(path));
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new JournalException("Email journal is closed");
+        }
+    }
+
+    private record Segment(long base, Path path, MappedByteBuffer buffer) {
+    }
+
+    public record JournalRecord(long offset, long nextOffset, byte[] payload) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.viasoft.mailservice.service.metrics;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the email pipeline. Stage timers and rejection counters are registered up front and
+ * looked up by array index, so recording a stage is two {@code nanoTime} reads and a
+ * {@link Timer#record(long, TimeUnit)}. Percentiles and histogram buckets for {@code mail.stage}
+ * and {@code mail.lane.wait} are configured through {@code management.metrics.distribution.*}.
+ */
+@Component
+public class EmailMetrics {
+
+    public static final String NO_INTEGRATION = "none";
+
+    public enum Stage {
+        RATE_LIMIT,
+        RENDER,
+        QUEUE,
+        ADAPT,
+        VALIDATE,
+        SEND,
+        SINK
+    }
+
+    public enum Rejection {
+        RATE_LIMITED,
+        VALIDATION,
+        UNAVAILABLE,
+        DELIVERY,
+        SUPPRESSED
+    }
+
+    private static final IntegrationType[] INTEGRATIONS = IntegrationType.values();
+    private static final Lane[] LANES = Lane.values();
+
+    private final MeterRegistry registry;
+    private final Timer[][] stageTimers = new Timer[Stage.values().length][INTEGRATIONS.length + 1];
+    private final Counter[][] rejections = new Counter[Rejection.values().length][INTEGRATIONS.length + 1];
+    private final Timer[][] laneWaitTimers = new Timer[LANES.length][INTEGRATIONS.length + 1];
+    private final Map<String, Counter>[] validationFailures;
+
+    @SuppressWarnings("unchecked")
+    public EmailMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.validationFailures = new Map[INTEGRATIONS.length + 1];
+
+        for (int i = 0; i <= INTEGRATIONS.length; i++) {
+            String integration = integrationTag(i);
+            for (Stage stage : Stage.values()) {
+                stageTimers[stage.ordinal()][i] = Timer.builder("mail.stage")
+                        .description("Time spent in each stage of the email pipeline")
+                        .tag("stage", tagValue(stage))
+                        .tag("integration", integration)
+                        .register(registry);
+            }
+            for (Rejection rejection : Rejection.values()) {
+                rejections[rejection.ordinal()][i] = Counter.builder("mail.rejections")
+                        .description("Email requests rejected, by reason")
+                        .tag("reason", tagValue(rejection))
+                        .tag("integration", integration)
+                        .register(registry);
+            }
+            for (Lane lane : LANES) {
+                laneWaitTimers[lane.ordinal()][i] = Timer.builder("mail.lane.wait")
+                        .description("Time spent waiting for a bulkhead permit, by lane")
+                        .tag("lane", lane.name())
+                        .tag("integration", integration)
+                        .register(registry);
+            }
+            validationFailures[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Records the time since {@code startNanos} for {@code stage} and returns the current
+     * {@code nanoTime}, which is the start of the next stage. {@code integrationType} is
+     * {@code null} for stages that run before a provider is chosen.
+     */
+    public long record(Stage stage, IntegrationType integrationType, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers[stage.ordinal()][index(integrationType)].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * {@link #record} for {@link Stage#QUEUE}, also recorded as the wait of {@code lane}.
+     */
+    public long recordQueue(Lane lane, IntegrationType integrationType, long startNanos) {
+        long now = System.nanoTime();
+        int index = index(integrationType);
+        stageTimers[Stage.QUEUE.ordinal()][index].record(now - startNanos, TimeUnit.NANOSECONDS);
+        laneWaitTimers[lane.ordinal()][index].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void rejected(Rejection rejection, IntegrationType integrationType) {
+        rejections[rejection.ordinal()][index(integrationType)].increment();
+    }
+
+    /**
+     * Counts a validation failure on {@code field}. Field names come from the DTO classes, which
+     * keeps the number of counters bounded.
+     */
+    public void validationFailed(IntegrationType integrationType, String field) {
+        int index = index(integrationType);
+        validationFailures[index].computeIfAbsent(field, name -> Counter.builder("mail.validation.failures")
+                        .description("Validation failures, by field")
+                        .tag("field", name)
+                        .tag("integration", integrationTag(index))
+                        .register(registry))
+                .increment();
+    }
+
+    public void validationFailed(IntegrationType integrationType, Iterable<String> fields) {
+        for (String field : fields) {
+            validationFailed(integrationType, field);
+        }
+    }
+
+    private static int index(IntegrationType integrationType) {
+        return integrationType == null ? INTEGRATIONS.length : integrationType.ordinal();
+    }
+
+    private static String integrationTag(int index) {
+        return index == INTEGRATIONS.length ? NO_INTEGRATION : INTEGRATIONS[index].name();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
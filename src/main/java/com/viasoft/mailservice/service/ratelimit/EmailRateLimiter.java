@@ -0,0 +1,119 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiting by sender and by recipient domain, configured as an ordered list of
+ * {@link RateLimitRule}s under {@code mail.rate-limit.rules}. For each scope the first rule whose
+ * pattern matches applies, and every matching key gets its own bucket. A tenant with rules of its
+ * own is limited by those instead, in buckets of its own.
+ */
+@Component
+public class EmailRateLimiter implements MeterBinder {
+
+    private final boolean enabled;
+    private final RateLimitRules rules;
+    private final TokenBucketTable buckets;
+
+    @Autowired
+    public EmailRateLimiter(
+            @Value("${mail.rate-limit.enabled}") boolean enabled,
+            @Value("${mail.rate-limit.max-keys}") int maxKeys,
+            Environment environment) {
+        this(enabled, maxKeys, Binder.get(environment)
+                .bind("mail.rate-limit.rules", Bindable.listOf(RateLimitRule.class))
+                .orElse(List.of()), System::nanoTime);
+    }
+
+    EmailRateLimiter(boolean enabled, int maxKeys, List<RateLimitRule> rules, LongSupplier clock) {
+        this.enabled = enabled;
+        this.buckets = new TokenBucketTable(maxKeys, clock);
+        this.rules = new RateLimitRules("", rules);
+    }
+
+    /**
+     * Takes a token for the request's sender and recipient domain. Returns immediately when both
+     * are available, waits for a deferred slot, or throws {@link RateLimitExceededException}.
+     */
+    public void acquire(EmailRequestDTO requestDTO) {
+        acquire(requestDTO, null);
+    }
+
+    /**
+     * Like {@link #acquire(EmailRequestDTO)}, with {@code tenantRules} in place of the
+     * {@code mail.rate-limit.rules} when not {@code null}; tenant rules apply even when
+     * {@code mail.rate-limit.enabled} is off.
+     */
+    public void acquire(EmailRequestDTO requestDTO, RateLimitRules tenantRules) {
+        RateLimitRules rules = tenantRules != null ? tenantRules : enabled ? this.rules : null;
+        if (rules == null) {
+            return;
+        }
+
+        String sender = normalize(requestDTO.getSenderEmail());
+        String recipient = normalize(requestDTO.getRecipientEmail());
+        String domain = recipient == null ? null : recipient.substring(recipient.lastIndexOf('@') + 1);
+
+        RateLimitRules.CompiledRule senderRule = rules.matchSender(sender);
+        RateLimitRules.CompiledRule domainRule = rules.matchDomain(domain);
+
+        long senderWait = senderRule == null ? 0 : take(senderRule, sender);
+        long domainWait;
+        try {
+            domainWait = domainRule == null ? 0 : take(domainRule, domain);
+        } catch (RateLimitExceededException e) {
+            if (senderRule != null) {
+                buckets.release(senderRule.key(sender), senderRule.intervalNanos());
+            }
+            throw e;
+        }
+
+        long wait = Math.max(senderWait, domainWait);
+        if (wait > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(wait));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException("Interrupted while waiting for a rate limit slot", Duration.ofNanos(wait));
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.rate-limit.keys", buckets, TokenBucketTable::size)
+                .register(registry);
+    }
+
+    private long take(RateLimitRules.CompiledRule rule, String value) {
+        RateLimitRule settings = rule.rule();
+        long maxDelay = settings.action() == RateLimitRule.Action.DEFER ? settings.maxDelay().toNanos() : 0;
+
+        long wait = buckets.tryAcquire(rule.key(value), rule.intervalNanos(), rule.burst(), maxDelay);
+        if (wait < 0) {
+            throw new RateLimitExceededException(
+                    "Rate limit exceeded for " + (settings.scope() == RateLimitRule.Scope.SENDER ? "sender " : "recipient domain ")
+                            + value, Duration.ofNanos(-wait));
+        }
+        return wait;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
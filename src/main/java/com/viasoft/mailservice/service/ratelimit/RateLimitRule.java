@@ -0,0 +1,32 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Allows {@code limit} emails per {@code period} for every key of {@code scope} matching
+ * {@code pattern} (a case-insensitive glob, {@code *} matching any characters), with bursts of up
+ * to {@code burst} emails ({@code 0} meaning {@code limit}). Over-limit emails are rejected, or,
+ * with {@link Action#DEFER}, held until their slot comes up as long as that is within
+ * {@code max-delay}.
+ */
+public record RateLimitRule(
+        Scope scope,
+        @DefaultValue("*") String pattern,
+        int limit,
+        @DefaultValue("1s") Duration period,
+        @DefaultValue("0") int burst,
+        @DefaultValue("REJECT") Action action,
+        @DefaultValue("5s") Duration maxDelay) {
+
+    public enum Scope {
+        SENDER,
+        RECIPIENT_DOMAIN
+    }
+
+    public enum Action {
+        REJECT,
+        DEFER
+    }
+}
@@ -0,0 +1,72 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * An ordered list of {@link RateLimitRule}s compiled for {@link EmailRateLimiter}. Immutable,
+ * so a rule set built off the request path can be published to running requests as is. The
+ * buckets of a rule set are keyed under its {@code keyPrefix}, which keeps the buckets of
+ * different rule sets apart in the shared bucket table.
+ */
+public final class RateLimitRules {
+
+    private final List<CompiledRule> senderRules = new ArrayList<>();
+    private final List<CompiledRule> domainRules = new ArrayList<>();
+
+    public RateLimitRules(String keyPrefix, List<RateLimitRule> rules) {
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitRule rule = rules.get(i);
+            if (rule.scope() == null || rule.limit() <= 0 || rule.period().isZero() || rule.period().isNegative()) {
+                throw new IllegalArgumentException("Invalid rate limit rule " + i + ": " + rule);
+            }
+            CompiledRule compiled = new CompiledRule(keyPrefix + i + ":", rule);
+            (rule.scope() == RateLimitRule.Scope.SENDER ? senderRules : domainRules).add(compiled);
+        }
+    }
+
+    CompiledRule matchSender(String sender) {
+        return match(senderRules, sender);
+    }
+
+    CompiledRule matchDomain(String domain) {
+        return match(domainRules, domain);
+    }
+
+    private static CompiledRule match(List<CompiledRule> rules, String value) {
+        if (value == null) {
+            return null;
+        }
+        for (CompiledRule rule : rules) {
+            if (rule.pattern().matcher(value).matches()) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    record CompiledRule(String keyPrefix, RateLimitRule rule, Pattern pattern, long intervalNanos, int burst) {
+
+        CompiledRule(String keyPrefix, RateLimitRule rule) {
+            this(keyPrefix, rule, compile(rule.pattern()), rule.period().toNanos() / rule.limit(),
+                    rule.burst() > 0 ? rule.burst() : rule.limit());
+        }
+
+        String key(String value) {
+            return keyPrefix + value;
+        }
+
+        private static Pattern compile(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (String part : glob.toLowerCase(Locale.ROOT).split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an unbounded key space in bounded memory.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival time (GCRA), which
+ * is equivalent to a token bucket refilled continuously: taking a token is one CAS, with no
+ * refill bookkeeping. Keys are spread over independent stripes, each holding at most
+ * {@code maxKeys / stripes} buckets. A bucket whose arrival time is in the past is full, and so
+ * indistinguishable from a new one: only those idle buckets are ever evicted.
+ * <p>
+ * A new key in a full stripe advances the stripe's clock hand over at most
+ * {@value #SWEEP_BATCH} buckets, evicting the idle ones, so the cost per request stays constant
+ * however many keys come and go. When none of them is idle the new key is refused until one
+ * is, rather than resetting the limit of a key that is still being throttled.
+ */
+class TokenBucketTable {
+
+    static final int SWEEP_BATCH = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxKeysPerStripe;
+    private final LongSupplier clock;
+
+    TokenBucketTable(int maxKeys, LongSupplier clock) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        stripeCount = Math.min(stripeCount, Integer.highestOneBit(Math.max(1, maxKeys)));
+
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token from {@code key}'s bucket, which refills one token every
+     * {@code intervalNanos} up to {@code burst} tokens.
+     *
+     * @return {@code 0} when a token was available, a positive wait in nanoseconds when the token
+     * was reserved in the future (at most {@code maxDelayNanos} away), or the negated wait when
+     * it would be further away than that, or when there is no room for a new key, in which case
+     * nothing is taken
+     */
+    long tryAcquire(String key, long intervalNanos, int burst, long maxDelayNanos) {
+        Stripe stripe = stripe(key);
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            long idleIn = stripe.buckets.size() < maxKeysPerStripe
+                    ? 0
+                    : stripe.sweep(maxKeysPerStripe, clock.getAsLong());
+            if (idleIn > 0) {
+                return -idleIn;
+            }
+            bucket = stripe.buckets.computeIfAbsent(key, ignored -> new AtomicLong(clock.getAsLong()));
+        }
+        long tolerance = intervalNanos * (burst - 1L);
+        while (true) {
+            long now = clock.getAsLong();
+            long stored = bucket.get();
+            long arrival = stored - now > 0 ? stored : now;
+            long wait = arrival - now - tolerance;
+            if (wait > maxDelayNanos) {
+                return -wait;
+            }
+            if (bucket.compareAndSet(stored, arrival + intervalNanos)) {
+                return Math.max(wait, 0);
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire}, when the email was not sent after all.
+     */
+    void release(String key, long intervalNanos) {
+        AtomicLong bucket = stripe(key).buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-intervalNanos);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private static final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private Iterator<Map.Entry<String, AtomicLong>> hand;
+
+        /**
+         * Evicts the idle buckets among the next {@link #SWEEP_BATCH} under the hand. Returns
+         * {@code 0} when there is room for a new bucket, otherwise the time until the first
+         * bucket seen goes idle.
+         */
+        synchronized long sweep(int maxKeys, long now) {
+            if (buckets.size() < maxKeys) {
+                return 0;
+            }
+            boolean evicted = false;
+            long idleIn = Long.MAX_VALUE;
+            for (int i = 0; i < SWEEP_BATCH; i++) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = buckets.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return 0;
+                    }
+                }
+                long wait = hand.next().getValue().get() - now;
+                if (wait <= 0) {
+                    hand.remove();
+                    evicted = true;
+                } else {
+                    idleIn = Math.min(idleIn, wait);
+                }
+            }
+            return evicted ? 0 : idleIn;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.viasoft.mailservice.service.reactive;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a request body holding a JSON array or NDJSON into one {@link JsonNode} per item with
+ * Jackson's non-blocking parser, one buffer at a time. Unlike the codec's tokenizer, the items
+ * completed before a syntax error are still emitted, followed by the error, which is what
+ * {@link com.viasoft.mailservice.service.batch.EmailBatchProcessor} does for the servlet API.
+ */
+final class JsonItemStream {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private TokenBuffer current;
+    private boolean started;
+    private boolean array;
+    private int depth;
+
+    private JsonItemStream(ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    static Flux<JsonNode> items(ObjectMapper objectMapper, Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            JsonItemStream stream;
+            try {
+                stream = new JsonItemStream(objectMapper);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            return body.concatMap(stream::feed)
+                    .concatWith(Flux.defer(stream::end))
+                    .doFinally(signal -> stream.close());
+        });
+    }
+
+    private Flux<JsonNode> feed(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+
+        List<JsonNode> items = new ArrayList<>();
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain(items);
+        } catch (IOException e) {
+            return Flux.fromIterable(items).concatWith(Flux.error(e));
+        }
+        return Flux.fromIterable(items);
+    }
+
+    private Flux<JsonNode> end() {
+        List<JsonNode> items = new ArrayList<>();
+        try {
+            feeder.endOfInput();
+            drain(items);
+        } catch (IOException e) {
+            return Flux.fromIterable(items).concatWith(Flux.error(e));
+        }
+        return Flux.fromIterable(items);
+    }
+
+    private void drain(List<JsonNode> items) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    array = true;
+                    continue;
+                }
+            }
+            if (array && depth == 0 && token == JsonToken.END_ARRAY) {
+                continue;
+            }
+
+            if (current == null) {
+                current = new TokenBuffer(parser);
+            }
+            current.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+
+            if (depth == 0) {
+                try (JsonParser itemParser = current.asParser(objectMapper)) {
+                    items.add(objectMapper.readTree(itemParser));
+                }
+                current = null;
+            }
+        }
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
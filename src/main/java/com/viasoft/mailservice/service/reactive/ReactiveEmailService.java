@@ -0,0 +1,159 @@
+package com.viasoft.mailservice.service.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusPageDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.MessageNotFoundException;
+import com.viasoft.mailservice.service.AsyncEmailService;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.SendResult;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import com.viasoft.mailservice.service.status.StatusStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking facade over {@link EmailService} for the WebFlux API. Request validation runs on
+ * the event loop; the pipeline itself may wait (bulkhead queues, rate-limit deferral, provider
+ * calls, journal commits), so it runs on virtual threads and no Netty thread ever blocks.
+ * Batches are decoded and answered item by item with at most
+ * {@code mail.reactive.batch-concurrency} items in flight, which is what throttles reading
+ * the request body.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveEmailService.class);
+
+    private final ObjectMapper objectMapper;
+    private final EmailService emailService;
+    private final AsyncEmailService asyncEmailService;
+    private final EmailScheduler emailScheduler;
+    private final EmailBatchProcessor batchProcessor;
+    private final StatusStore statusStore;
+    private final int batchConcurrency;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Scheduler scheduler = Schedulers.fromExecutorService(executor, "email-pipeline");
+
+    public ReactiveEmailService(
+            ObjectMapper objectMapper,
+            EmailService emailService,
+            ObjectProvider<AsyncEmailService> asyncEmailService,
+            ObjectProvider<EmailScheduler> emailScheduler,
+            EmailBatchProcessor batchProcessor,
+            ObjectProvider<StatusStore> statusStore,
+            @Value("${mail.reactive.batch-concurrency}") int batchConcurrency) {
+
+        this.objectMapper = objectMapper;
+        this.emailService = emailService;
+        this.asyncEmailService = asyncEmailService.getIfAvailable();
+        this.emailScheduler = emailScheduler.getIfAvailable();
+        this.batchProcessor = batchProcessor;
+        this.statusStore = statusStore.getIfAvailable();
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Whether {@link #send} only journals or schedules {@code requestDTO} rather than handling
+     * it before completing.
+     */
+    public boolean defers(EmailRequestDTO requestDTO) {
+        return requestDTO.getSendAt() != null || asyncEmailService != null;
+    }
+
+    /**
+     * Completes with the message id once the email was handled, or once it was journaled
+     * (asynchronous accept mode) or scheduled when it {@link #defers}.
+     */
+    public Mono<EmailAcceptedDTO> send(EmailRequestDTO requestDTO) {
+        if (requestDTO.getSendAt() != null) {
+            if (emailScheduler == null) {
+                return Mono.error(new FieldValidationException("sendAt", EmailScheduler.DISABLED));
+            }
+            return Mono.fromCallable(() -> emailScheduler.schedule(requestDTO)).subscribeOn(scheduler);
+        }
+        if (asyncEmailService != null) {
+            return Mono.fromCallable(() -> asyncEmailService.accept(requestDTO)).subscribeOn(scheduler);
+        }
+        return Mono.fromCallable(() -> new EmailAcceptedDTO(Long.toString(emailService.handleEmail(requestDTO))))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Handles a request that does not {@link #defers defer}, like {@link #send}, but completes
+     * with a rejected {@link SendResult} instead of an error when it fits no provider.
+     */
+    public Mono<SendResult> handle(EmailRequestDTO requestDTO) {
+        return Mono.fromCallable(() -> emailService.sendEmail(requestDTO)).subscribeOn(scheduler);
+    }
+
+    public Mono<EmailStatusDTO> status(String messageId, String tenantId) {
+        if (statusStore == null) {
+            return Mono.error(new MessageNotFoundException(StatusStore.DISABLED));
+        }
+        return Mono.fromCallable(() -> statusStore.find(messageId, tenantId)).subscribeOn(scheduler);
+    }
+
+    public Mono<EmailStatusPageDTO> statusBySender(String sender, String tenantId, String cursor, int limit) {
+        if (statusStore == null) {
+            return Mono.error(new MessageNotFoundException(StatusStore.DISABLED));
+        }
+        return Mono.fromCallable(() -> statusStore.findBySender(sender, tenantId, cursor, limit)).subscribeOn(scheduler);
+    }
+
+    /**
+     * One result per item, in input order, each sent as a request of {@code tenantId}. A malformed
+     * document ends the batch with a rejected result for the item that could not be read, like
+     * {@link EmailBatchProcessor#process}.
+     */
+    public Flux<BatchItemResultDTO> sendBatch(Flux<DataBuffer> body, String tenantId) {
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+
+        return JsonItemStream.items(objectMapper, body)
+                .map(item -> new IndexedItem(received.getAndIncrement(), item))
+                .flatMapSequentialDelayError(item -> Mono.fromCallable(() -> batchProcessor.processItem(item.index(), item.item(), tenantId))
+                        .subscribeOn(scheduler), batchConcurrency, 1)
+                .onErrorResume(JsonProcessingException.class, e -> {
+                    logger.warn("Aborting email batch at item {}: malformed JSON", received.get());
+                    return Mono.just(BatchItemResultDTO.rejected(received.get(), "Malformed JSON: " + e.getOriginalMessage()));
+                })
+                .doOnNext(result -> {
+                    if (result.getStatus() == BatchItemResultDTO.Status.ACCEPTED) {
+                        accepted.incrementAndGet();
+                    }
+                })
+                .doOnComplete(() -> logger.info("Processed email batch: {} accepted, {} rejected",
+                        accepted.get(), received.get() - accepted.get()));
+    }
+
+    private record IndexedItem(int index, JsonNode item) {
+    }
+}
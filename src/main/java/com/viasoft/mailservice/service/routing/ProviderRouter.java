@@ -0,0 +1,161 @@
+package com.viasoft.mailservice.service.routing;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Orders providers for adaptive routing. The first provider is drawn at random, weighted by
+ * {@link ProviderStats#weight()}, so traffic shifts towards the faster and more reliable
+ * provider without abandoning the other one. The remaining healthy providers follow by weight as
+ * failover targets. Unhealthy providers, whose error rate is above {@code max-error-rate}, only
+ * come last, except for one probe request per {@code probe-interval} that is routed to them
+ * first.
+ * <p>
+ * Routing only reads the atomically updated averages, so it never takes a lock.
+ */
+@Component
+public class ProviderRouter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderRouter.class);
+
+    private final Map<IntegrationType, ProviderStats> stats = new EnumMap<>(IntegrationType.class);
+    private final double maxErrorRate;
+    private final long probeIntervalNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public ProviderRouter(
+            @Value("${mail.routing.decay}") double decay,
+            @Value("${mail.routing.max-error-rate}") double maxErrorRate,
+            @Value("${mail.routing.probe-interval}") Duration probeInterval) {
+        this(decay, maxErrorRate, probeInterval, System::nanoTime);
+    }
+
+    ProviderRouter(double decay, double maxErrorRate, Duration probeInterval, LongSupplier clock) {
+        if (decay <= 0 || decay > 1) {
+            throw new IllegalArgumentException("Routing decay must be in (0, 1]: " + decay);
+        }
+        this.maxErrorRate = maxErrorRate;
+        this.probeIntervalNanos = probeInterval.toNanos();
+        this.clock = clock;
+        for (IntegrationType type : IntegrationType.values()) {
+            stats.put(type, new ProviderStats(decay));
+        }
+    }
+
+    /**
+     * Returns {@code candidates} in the order they should be tried for one request.
+     */
+    public IntegrationType[] route(IntegrationType[] candidates) {
+        int count = candidates.length;
+        IntegrationType[] order = candidates.clone();
+        double[] weights = new double[count];
+        long now = clock.getAsLong();
+
+        double total = 0;
+        int probe = -1;
+        for (int i = 0; i < count; i++) {
+            ProviderStats providerStats = stats.get(order[i]);
+            if (providerStats.errorRate() <= maxErrorRate) {
+                weights[i] = providerStats.weight();
+                total += weights[i];
+            } else if (probe < 0 && providerStats.tryClaimProbe(now, probeIntervalNanos)) {
+                probe = i;
+            }
+        }
+
+        int first = probe;
+        if (first < 0 && total > 0) {
+            double target = ThreadLocalRandom.current().nextDouble(total);
+            for (int i = 0; i < count; i++) {
+                if (weights[i] > 0) {
+                    first = i;
+                    if ((target -= weights[i]) < 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (first > 0) {
+            swap(order, weights, 0, first);
+        }
+
+        int sortFrom = first >= 0 ? 1 : 0;
+        for (int i = sortFrom + 1; i < count; i++) {
+            for (int j = i; j > sortFrom && rank(order[j], weights[j]) > rank(order[j - 1], weights[j - 1]); j--) {
+                swap(order, weights, j, j - 1);
+            }
+        }
+        return order;
+    }
+
+    public void recordSuccess(IntegrationType integrationType, long latencyNanos) {
+        stats.get(integrationType).recordSuccess(latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public void recordFailure(IntegrationType integrationType) {
+        ProviderStats providerStats = stats.get(integrationType);
+        boolean wasHealthy = providerStats.errorRate() <= maxErrorRate;
+        providerStats.recordFailure();
+        if (wasHealthy && providerStats.errorRate() > maxErrorRate) {
+            providerStats.deferProbe(clock.getAsLong(), probeIntervalNanos);
+            logger.warn("Provider {} marked unhealthy, error rate {}", integrationType, providerStats.errorRate());
+        }
+    }
+
+    public boolean isHealthy(IntegrationType integrationType) {
+        return stats.get(integrationType).errorRate() <= maxErrorRate;
+    }
+
+    public double getErrorRate(IntegrationType integrationType) {
+        return stats.get(integrationType).errorRate();
+    }
+
+    public double getLatencyMillis(IntegrationType integrationType) {
+        return stats.get(integrationType).latencyMillis();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (IntegrationType type : stats.keySet()) {
+            Gauge.builder("mail.routing.latency", this, router -> router.getLatencyMillis(type))
+                    .tag("integration", type.name())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("mail.routing.error-rate", this, router -> router.getErrorRate(type))
+                    .tag("integration", type.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Healthy providers rank by weight; unhealthy ones (weight 0) rank after all of them, the
+     * least failing first.
+     */
+    private double rank(IntegrationType type, double weight) {
+        return weight > 0 ? weight : -stats.get(type).errorRate();
+    }
+
+    private static void swap(IntegrationType[] order, double[] weights, int a, int b) {
+        IntegrationType type = order[a];
+        order[a] = order[b];
+        order[b] = type;
+        double weight = weights[a];
+        weights[a] = weights[b];
+        weights[b] = weight;
+    }
+}
@@ -0,0 +1,72 @@
+package com.viasoft.mailservice.service.routing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exponentially weighted moving averages of one provider's latency and error rate. Each average
+ * is a {@code double} stored as raw bits in an {@link AtomicLong} and updated with a CAS loop, so
+ * readers and writers never block.
+ */
+class ProviderStats {
+
+    private static final double MIN_LATENCY_MILLIS = 1.0;
+
+    private final double decay;
+    private final AtomicLong latencyBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+    private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private final AtomicLong nextProbe = new AtomicLong();
+
+    ProviderStats(double decay) {
+        this.decay = decay;
+    }
+
+    void recordSuccess(double latencyMillis) {
+        update(latencyBits, latencyMillis);
+        update(errorRateBits, 0.0);
+    }
+
+    void recordFailure() {
+        update(errorRateBits, 1.0);
+    }
+
+    double latencyMillis() {
+        double latency = Double.longBitsToDouble(latencyBits.get());
+        return Double.isNaN(latency) ? 0.0 : latency;
+    }
+
+    double errorRate() {
+        return Double.longBitsToDouble(errorRateBits.get());
+    }
+
+    /**
+     * Relative share of traffic: the success rate divided by the average latency. Providers
+     * without samples yet count as having the minimum latency, so they are tried early.
+     */
+    double weight() {
+        return (1.0 - errorRate()) / Math.max(latencyMillis(), MIN_LATENCY_MILLIS);
+    }
+
+    /**
+     * Lets one caller per {@code interval} through to an unhealthy provider, so it gets samples
+     * again and can recover.
+     */
+    boolean tryClaimProbe(long now, long interval) {
+        long due = nextProbe.get();
+        return now - due >= 0 && nextProbe.compareAndSet(due, now + interval);
+    }
+
+    void deferProbe(long now, long interval) {
+        nextProbe.set(now + interval);
+    }
+
+    private void update(AtomicLong bits, double sample) {
+        while (true) {
+            long current = bits.get();
+            double average = Double.longBitsToDouble(current);
+            double next = Double.isNaN(average) ? sample : average + decay * (sample - average);
+            if (bits.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.viasoft.mailservice.service.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.JournalException;
+import com.viasoft.mailservice.service.DeferredEmailHandler;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.MessageIdGenerator;
+import com.viasoft.mailservice.service.status.StatusStore;
+import com.viasoft.mailservice.service.journal.EmailJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Scheduled delivery for requests with a {@code sendAt}. Requests are validated, appended to a
+ * dedicated {@link EmailJournal} and acknowledged with a message id once the append is durable;
+ * the wheel only keeps the journal offset of each pending request, so the request itself stays
+ * on disk until it is due. A driver thread advances the {@link TimingWheel} every
+ * {@code mail.schedule.tick} and hands due requests to the {@link DeferredEmailHandler}, which
+ * sends them through the normal pipeline, with at most {@code mail.schedule.max-in-flight} in
+ * flight.
+ * <p>
+ * A fired request is marked with a small record in the same journal. After a restart, the
+ * retained segments are scanned and every request without a mark is put back in the wheel;
+ * those whose time has passed fire right away (at-least-once delivery). The journal checkpoint
+ * follows the oldest segment that still holds a pending request, so segments are deleted as
+ * soon as everything in them has fired.
+ */
+@Service
+@ConditionalOnProperty(name = "mail.schedule.enabled", havingValue = "true")
+public class EmailScheduler implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailScheduler.class);
+
+    public static final String DISABLED = "Scheduled delivery is not enabled";
+
+    private static final byte SCHEDULED = 1;
+    private static final byte FIRED = 2;
+    private static final int SCHEDULED_HEADER = 1 + Long.BYTES * 2;
+
+    private final EmailService emailService;
+    private final DeferredEmailHandler deferredHandler;
+    private final MessageIdGenerator idGenerator;
+    private final StatusStore statusStore;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader requestReader;
+    private final EmailJournal journal;
+    private final long segmentSize;
+    private final long tickMillis;
+    private final Duration maxDelay;
+    private final Semaphore inFlight;
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+    private final TreeMap<Long, Integer> pendingBySegment = new TreeMap<>();
+
+    private Thread driver;
+
+    public EmailScheduler(
+            EmailService emailService,
+            DeferredEmailHandler deferredHandler,
+            MessageIdGenerator idGenerator,
+            ObjectProvider<StatusStore> statusStore,
+            ObjectMapper objectMapper,
+            @Value("${mail.schedule.journal.directory}") Path journalDirectory,
+            @Value("${mail.schedule.journal.segment-size}") int segmentSize,
+            @Value("${mail.schedule.tick}") Duration tick,
+            @Value("${mail.schedule.max-delay}") Duration maxDelay,
+            @Value("${mail.schedule.max-in-flight}") int maxInFlight) {
+
+        if (tick.toMillis() < 1) {
+            throw new IllegalArgumentException("mail.schedule.tick must be at least 1ms: " + tick);
+        }
+        this.emailService = emailService;
+        this.deferredHandler = deferredHandler;
+        this.idGenerator = idGenerator;
+        this.statusStore = statusStore.getIfAvailable();
+        this.requestWriter = objectMapper.writerFor(EmailRequestDTO.class);
+        this.requestReader = objectMapper.readerFor(EmailRequestDTO.class);
+        this.journal = new EmailJournal(journalDirectory, segmentSize);
+        this.segmentSize = segmentSize;
+        this.tickMillis = tick.toMillis();
+        this.maxDelay = maxDelay;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.wheel = new TimingWheel(currentTick(), 1024);
+    }
+
+    @PostConstruct
+    void start() {
+        recover();
+        driver = new Thread(this::driveLoop, "email-scheduler");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        driver.interrupt();
+        driver.join(TimeUnit.SECONDS.toMillis(5));
+        dispatchExecutor.shutdownNow();
+        dispatchExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        journal.close();
+    }
+
+    /**
+     * Validates {@code requestDTO} now and stores it until its {@code sendAt}. A time in the
+     * past is due on the next tick.
+     */
+    public EmailAcceptedDTO schedule(EmailRequestDTO requestDTO) {
+        Instant sendAt = requestDTO.getSendAt();
+        if (sendAt.isAfter(Instant.now().plus(maxDelay))) {
+            throw new FieldValidationException("sendAt", "must be at most " + maxDelay + " in the future");
+        }
+        emailService.validateEmail(requestDTO);
+
+        long messageId = idGenerator.nextId();
+        byte[] request;
+        try {
+            request = requestWriter.writeValueAsBytes(requestDTO);
+        } catch (IOException e) {
+            throw new JournalException("Failed to serialize email request for the schedule journal", e);
+        }
+        byte[] payload = ByteBuffer.allocate(SCHEDULED_HEADER + request.length)
+                .put(SCHEDULED)
+                .putLong(sendAt.toEpochMilli())
+                .putLong(messageId)
+                .put(request)
+                .array();
+
+        // Counted before the lock is released, so the checkpoint never moves past the record.
+        long end;
+        long offset;
+        lock.lock();
+        try {
+            end = journal.append(payload);
+            offset = EmailJournal.recordOffset(end, payload.length);
+            pendingBySegment.merge(offset / segmentSize, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            journal.awaitCommit(end);
+        } catch (JournalException e) {
+            // Never put in the wheel, so nothing would ever release the segment.
+            lock.lock();
+            try {
+                release(offset);
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        if (statusStore != null) {
+            statusStore.accepted(messageId, requestDTO);
+        }
+
+        lock.lock();
+        try {
+            wheel.schedule(deadlineTick(sendAt.toEpochMilli()), offset);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Email request {} scheduled for {}", messageId, sendAt);
+
+        return new EmailAcceptedDTO(Long.toString(messageId));
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.schedule.pending", this, EmailScheduler::pending)
+                .description("Scheduled email requests waiting for their send time")
+                .register(registry);
+    }
+
+    private void driveLoop() {
+        DueOffsets due = new DueOffsets();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long tick = currentTick();
+                lock.lock();
+                try {
+                    wheel.advance(tick, due);
+                } finally {
+                    lock.unlock();
+                }
+
+                for (int i = 0; i < due.size; i++) {
+                    long offset = due.offsets[i];
+                    inFlight.acquire();
+                    dispatchExecutor.execute(() -> {
+                        try {
+                            fire(offset);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                due.size = 0;
+
+                Thread.sleep(Math.max(1, (tick + 1) * tickMillis - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void fire(long offset) {
+        EmailJournal.JournalRecord record = journal.read(offset);
+        if (record == null) {
+            logger.error("Scheduled email request at offset {} is missing from the journal", offset);
+            return;
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(record.payload());
+        payload.get();
+        payload.getLong();
+        long messageId = payload.getLong();
+        try {
+            EmailRequestDTO requestDTO = requestReader.readValue(record.payload(), SCHEDULED_HEADER,
+                    record.payload().length - SCHEDULED_HEADER);
+            deferredHandler.handle(messageId, requestDTO);
+        } catch (IOException e) {
+            logger.error("Skipping unreadable scheduled email request {} at offset {}", messageId, offset, e);
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            // Shutting down: leave the request unmarked so it fires again after the restart.
+            return;
+        }
+        markFired(offset);
+    }
+
+    private void markFired(long offset) {
+        byte[] mark = ByteBuffer.allocate(1 + Long.BYTES).put(FIRED).putLong(offset).array();
+        lock.lock();
+        try {
+            journal.append(mark);
+            release(offset);
+        } catch (JournalException e) {
+            logger.warn("Failed to mark scheduled email request at offset {} as fired", offset, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Uncounts the record at {@code offset} and moves the checkpoint up to the oldest segment
+     * that still holds a pending record. Called with the lock held.
+     */
+    private void release(long offset) {
+        Long segment = offset / segmentSize;
+        if (pendingBySegment.merge(segment, -1, Integer::sum) == 0) {
+            pendingBySegment.remove(segment);
+            Map.Entry<Long, Integer> oldest = pendingBySegment.firstEntry();
+            journal.checkpoint(oldest == null ? journal.committedOffset() : oldest.getKey() * segmentSize);
+        }
+    }
+
+    /**
+     * Puts back in the wheel every request of the retained segments that has no fired mark.
+     */
+    private void recover() {
+        long start = journal.checkpoint();
+        long end = journal.committedOffset();
+
+        Set<Long> fired = new HashSet<>();
+        EmailJournal.JournalRecord record;
+        for (long offset = start; offset < end && (record = journal.read(offset)) != null; offset = record.nextOffset()) {
+            ByteBuffer payload = ByteBuffer.wrap(record.payload());
+            if (payload.get() == FIRED) {
+                fired.add(payload.getLong());
+            }
+        }
+
+        int recovered = 0;
+        for (long offset = start; offset < end && (record = journal.read(offset)) != null; offset = record.nextOffset()) {
+            ByteBuffer payload = ByteBuffer.wrap(record.payload());
+            if (payload.get() == SCHEDULED && !fired.contains(record.offset())) {
+                wheel.schedule(deadlineTick(payload.getLong()), record.offset());
+                pendingBySegment.merge(record.offset() / segmentSize, 1, Integer::sum);
+                recovered++;
+            }
+        }
+
+        Map.Entry<Long, Integer> oldest = pendingBySegment.firstEntry();
+        journal.checkpoint(oldest == null ? end : oldest.getKey() * segmentSize);
+        if (recovered > 0) {
+            logger.info("Recovered {} scheduled email requests", recovered);
+        }
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * First tick at or after {@code epochMillis}, so a request never fires early.
+     */
+    private long deadlineTick(long epochMillis) {
+        return Math.ceilDiv(epochMillis, tickMillis);
+    }
+
+    private static final class DueOffsets implements LongConsumer {
+
+        private long[] offsets = new long[64];
+        private int size;
+
+        @Override
+        public void accept(long offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.viasoft.mailservice.service.schedule;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel holding {@code long} values keyed by an absolute deadline tick.
+ * <p>
+ * There are {@link #LEVELS} wheels of {@link #SLOTS} slots. A deadline goes to the level of the
+ * highest 6-bit digit in which it differs from the current tick, in the slot given by its own
+ * digit at that level; entries are therefore only ever moved down a level (cascaded) when the
+ * current tick enters their slot, at most {@code LEVELS - 1} times over their lifetime. Inserting
+ * is O(1) and each tick touches one slot per level that rolls over. Deadlines beyond the top
+ * wheel, about 10<sup>9</sup> ticks away, wait in an overflow list that is re-examined whenever
+ * the top wheel wraps around.
+ * <p>
+ * Entries live in parallel primitive arrays threaded into per-slot singly linked lists, with
+ * freed entries recycled, so millions of pending values cost 20 bytes each and no objects.
+ * Not thread-safe.
+ */
+class TimingWheel {
+
+    static final int BITS = 6;
+    static final int SLOTS = 1 << BITS;
+    static final int LEVELS = 5;
+
+    private static final int MASK = SLOTS - 1;
+    private static final int NONE = -1;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+
+    private final int[] heads = new int[OVERFLOW + 1];
+    private long[] deadlines;
+    private long[] values;
+    private int[] next;
+    private int free = NONE;
+    private int allocated;
+    private int size;
+    private long current;
+
+    TimingWheel(long startTick, int initialCapacity) {
+        Arrays.fill(heads, NONE);
+        int capacity = Math.max(16, initialCapacity);
+        this.deadlines = new long[capacity];
+        this.values = new long[capacity];
+        this.next = new int[capacity];
+        this.current = startTick;
+    }
+
+    /**
+     * Adds {@code value}, to be expired by the first {@link #advance} that reaches
+     * {@code deadlineTick}. Deadlines that are not in the future expire on the next tick.
+     */
+    void schedule(long deadlineTick, long value) {
+        int entry = allocate();
+        deadlines[entry] = Math.max(deadlineTick, current + 1);
+        values[entry] = value;
+        link(entry);
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward one tick at a time up to {@code tick}, passing every expired value
+     * to {@code expired} in deadline order (values due on the same tick in no particular order).
+     *
+     * @return the number of values expired
+     */
+    int advance(long tick, LongConsumer expired) {
+        int count = 0;
+        while (current < tick) {
+            current++;
+            cascade();
+            count += expire(expired);
+        }
+        return count;
+    }
+
+    long currentTick() {
+        return current;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade() {
+        if ((current & MASK) != 0) {
+            return;
+        }
+        int top = 1;
+        while (top < LEVELS && ((current >>> (top * BITS)) & MASK) == 0) {
+            top++;
+        }
+        if (top == LEVELS) {
+            relink(OVERFLOW);
+            top = LEVELS - 1;
+        }
+        for (int level = top; level >= 1; level--) {
+            relink(level * SLOTS + (int) ((current >>> (level * BITS)) & MASK));
+        }
+    }
+
+    private int expire(LongConsumer expired) {
+        int slot = (int) (current & MASK);
+        int entry = heads[slot];
+        heads[slot] = NONE;
+        int count = 0;
+        while (entry != NONE) {
+            int following = next[entry];
+            long value = values[entry];
+            release(entry);
+            size--;
+            count++;
+            expired.accept(value);
+            entry = following;
+        }
+        return count;
+    }
+
+    private void relink(int slot) {
+        int entry = heads[slot];
+        heads[slot] = NONE;
+        while (entry != NONE) {
+            int following = next[entry];
+            link(entry);
+            entry = following;
+        }
+    }
+
+    /**
+     * Puts the entry in the slot for its deadline relative to the current tick. Only called for
+     * deadlines after the current tick.
+     */
+    private void link(int entry) {
+        long deadline = deadlines[entry];
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(deadline ^ current)) / BITS;
+        int slot = level >= LEVELS
+                ? OVERFLOW
+                : level * SLOTS + (int) ((deadline >>> (level * BITS)) & MASK);
+        next[entry] = heads[slot];
+        heads[slot] = entry;
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int entry = free;
+            free = next[entry];
+            return entry;
+        }
+        if (allocated == deadlines.length) {
+            int capacity = deadlines.length * 2;
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            values = Arrays.copyOf(values, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int entry) {
+        next[entry] = free;
+        free = entry;
+    }
+}
@@ -0,0 +1,176 @@
+package com.viasoft.mailservice.service.sink;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.viasoft.mailservice.exception.ConfigurationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link EmailSink} that publishes DTOs to a lock-free {@link RingBuffer} and returns. A single
+ * writer thread serializes them as compact JSON with a cached {@link ObjectWriter} into one
+ * reused buffer and hands the bytes to the configured {@link PayloadWriter}.
+ */
+@Component
+public class AsyncEmailSink implements EmailSink, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncEmailSink.class);
+
+    private static final int DRAIN_LIMIT = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public enum Target {
+        LOG,
+        FILE
+    }
+
+    private final RingBuffer<Object> ringBuffer;
+    private final ObjectWriter objectWriter;
+    private final PayloadWriter output;
+    private final ReusableByteArrayOutputStream serializationBuffer = new ReusableByteArrayOutputStream(1024);
+
+    private Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    @Autowired
+    public AsyncEmailSink(
+            ObjectMapper objectMapper,
+            @Value("${mail.sink.target}") Target target,
+            @Value("${mail.sink.pretty-print}") boolean prettyPrint,
+            @Value("${mail.sink.buffer-size}") int bufferSize,
+            @Value("${mail.sink.file.directory}") Path directory,
+            @Value("${mail.sink.file.max-size}") long maxFileSize,
+            @Value("${mail.sink.file.max-history}") int maxHistory) {
+
+        this.ringBuffer = new RingBuffer<>(bufferSize);
+        this.objectWriter = prettyPrint ? objectMapper.writerWithDefaultPrettyPrinter() : objectMapper.writer();
+        this.output = createOutput(target, prettyPrint, directory, maxFileSize, maxHistory);
+    }
+
+    AsyncEmailSink(ObjectWriter objectWriter, PayloadWriter output, int bufferSize) {
+        this.ringBuffer = new RingBuffer<>(bufferSize);
+        this.objectWriter = objectWriter;
+        this.output = output;
+    }
+
+    @PostConstruct
+    void start() {
+        writerThread = new Thread(this::writeLoop, "email-sink-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        try {
+            output.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close email sink output", e);
+        }
+    }
+
+    @Override
+    public void write(Object adaptedDTO) {
+        while (!ringBuffer.offer(adaptedDTO)) {
+            if (!running) {
+                throw new IllegalStateException("Email sink is stopped");
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (idle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public int getPendingCount() {
+        return ringBuffer.size();
+    }
+
+    public int getCapacity() {
+        return ringBuffer.capacity();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.sink.pending", this, AsyncEmailSink::getPendingCount)
+                .register(registry);
+        Gauge.builder("mail.sink.capacity", this, AsyncEmailSink::getCapacity)
+                .register(registry);
+    }
+
+    private void writeLoop() {
+        while (running || ringBuffer.size() > 0) {
+            if (ringBuffer.drain(this::serialize, DRAIN_LIMIT) > 0) {
+                flushOutput();
+                continue;
+            }
+
+            idle = true;
+            if (ringBuffer.size() == 0 && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    private void serialize(Object dto) {
+        try {
+            serializationBuffer.reset();
+            objectWriter.writeValue(serializationBuffer, dto);
+            output.write(serializationBuffer.array(), 0, serializationBuffer.size());
+        } catch (IOException e) {
+            logger.error("Failed to serialize object to JSON", e);
+        }
+    }
+
+    private void flushOutput() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush email sink output", e);
+        }
+    }
+
+    private static PayloadWriter createOutput(
+            Target target, boolean prettyPrint, Path directory, long maxFileSize, int maxHistory) {
+        if (target == Target.LOG) {
+            return new LogPayloadWriter(prettyPrint);
+        }
+        try {
+            return new RollingFilePayloadWriter(directory, maxFileSize, maxHistory);
+        } catch (IOException e) {
+            throw new ConfigurationException("Unable to open email sink directory: " + directory);
+        }
+    }
+
+    private static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+        ReusableByteArrayOutputStream(int initialSize) {
+            super(initialSize);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
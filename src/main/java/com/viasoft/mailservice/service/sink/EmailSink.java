@@ -0,0 +1,9 @@
+package com.viasoft.mailservice.service.sink;
+
+/**
+ * Output stage of the email pipeline: receives adapted and validated provider DTOs.
+ */
+public interface EmailSink {
+
+    void write(Object adaptedDTO);
+}
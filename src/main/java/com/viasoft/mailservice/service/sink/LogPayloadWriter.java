@@ -0,0 +1,27 @@
+package com.viasoft.mailservice.service.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+
+class LogPayloadWriter implements PayloadWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPayloadWriter.class);
+
+    private final boolean prettyPrint;
+
+    LogPayloadWriter(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+        String json = new String(buffer, offset, length, StandardCharsets.UTF_8);
+        if (prettyPrint) {
+            logger.info("\n----------------------------------\n{}\n----------------------------------", json);
+        } else {
+            logger.info("{}", json);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.viasoft.mailservice.service.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of serialized payloads. Called only from the sink's writer thread.
+ */
+interface PayloadWriter extends Closeable {
+
+    void write(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Called once the writer thread has drained everything that was pending.
+     */
+    default void flush() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
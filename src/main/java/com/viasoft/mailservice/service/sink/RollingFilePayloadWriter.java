@@ -0,0 +1,110 @@
+package com.viasoft.mailservice.service.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Appends newline-delimited records to {@code emails.jsonl}, rolling the file over once it grows
+ * past {@code maxFileSize} and keeping at most {@code maxHistory} rolled files.
+ */
+class RollingFilePayloadWriter implements PayloadWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollingFilePayloadWriter.class);
+
+    private static final String ACTIVE_FILE = "emails.jsonl";
+    private static final String ROLLED_PREFIX = "emails-";
+    private static final DateTimeFormatter ROLL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxHistory;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private FileChannel channel;
+
+    RollingFilePayloadWriter(Path directory, long maxFileSize, int maxHistory) throws IOException {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+        Files.createDirectories(directory);
+        this.channel = open();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length + 1 > buffer.remaining()) {
+            flush();
+        }
+        if (length + 1 > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes, offset, length));
+            writeFully(ByteBuffer.wrap(new byte[]{'\n'}));
+            return;
+        }
+        buffer.put(bytes, offset, length).put((byte) '\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+
+        if (channel.size() >= maxFileSize) {
+            roll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        Path rolled = directory.resolve(ROLLED_PREFIX + LocalDateTime.now().format(ROLL_FORMAT) + ".jsonl");
+        Files.move(directory.resolve(ACTIVE_FILE), rolled, StandardCopyOption.ATOMIC_MOVE);
+        channel = open();
+        deleteExpiredFiles();
+    }
+
+    private void deleteExpiredFiles() throws IOException {
+        List<Path> rolledFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            rolledFiles = files
+                    .filter(path -> path.getFileName().toString().startsWith(ROLLED_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < rolledFiles.size() - maxHistory; i++) {
+            try {
+                Files.deleteIfExists(rolledFiles.get(i));
+            } catch (IOException e) {
+                logger.warn("Failed to delete rolled email output {}", rolledFiles.get(i), e);
+            }
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(directory.resolve(ACTIVE_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,152 @@
+package com.viasoft.mailservice.service.status;
+
+/**
+ * Open-addressing hash map from non-zero {@code long} keys to {@code long} values, in two
+ * parallel arrays with linear probing: an entry costs 16 bytes of table at most and no object.
+ * Removal shifts the following entries of the probe run back, so there are no tombstones and
+ * lookups never slow down as entries come and go. The table doubles at 75% load.
+ * Not thread-safe.
+ */
+final class LongLongMap {
+
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongLongMap(int expectedSize) {
+        int needed = (int) Math.min(1 << 30, Math.max(MIN_CAPACITY, expectedSize * 4L / 3 + 1));
+        allocate(Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@code missing} when it has none.
+     */
+    long get(long key, long missing) {
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    boolean containsKey(long key) {
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key must not be zero");
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+    }
+
+    /**
+     * Returns whether {@code key} was present.
+     */
+    boolean remove(long key) {
+        if (key == EMPTY) {
+            return false;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != key) {
+            if (current == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Move back every entry of the run that would no longer be reachable across the hole.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while ((current = keys[next]) != EMPTY) {
+            int home = slot(current);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = current;
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+}
@@ -0,0 +1,215 @@
+package com.viasoft.mailservice.service.status;
+
+import com.viasoft.mailservice.exception.JournalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of fixed-size status records, kept in memory-mapped segment files of
+ * {@code recordsPerSegment} records. A record is addressed by its sequence number, so finding it
+ * is plain arithmetic, and any sealed segment can be deleted on its own once compaction has
+ * moved its live records forward.
+ * <p>
+ * Appends only write into the mapped pages and a segment is forced to disk when it is sealed and
+ * on close: a crash of the process loses nothing, a crash of the machine at most the records of
+ * the unsealed segment. The last four bytes of a record are a CRC32C of the others, and records
+ * that fail it are skipped on recovery.
+ * <p>
+ * Appends are serialized on the log, holding it only to copy the record into the mapped page;
+ * reads and segment deletions may run alongside them. A record is only read through a sequence
+ * number handed out by {@link #append}, so callers publish that number to readers themselves.
+ */
+final class StatusLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusLog.class);
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".status";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private MappedByteBuffer active;
+    private volatile long activeNumber;
+    private volatile long next;
+
+    StatusLog(Path directory, int recordsPerSegment) {
+        if (recordsPerSegment < 1 || (long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid status log segment size: " + recordsPerSegment + " records");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long number = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(number, map(number));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new JournalException("Failed to open status log at " + directory, e);
+        }
+
+        if (segments.isEmpty()) {
+            active = openSegment(0);
+            next = 0;
+        } else {
+            Map.Entry<Long, MappedByteBuffer> last = segments.lastEntry();
+            active = last.getValue();
+            activeNumber = last.getKey();
+            int position = 0;
+            while (position < recordsPerSegment && isValid(active, position * RECORD_SIZE)) {
+                position++;
+            }
+            next = last.getKey() * recordsPerSegment + position;
+        }
+    }
+
+    /**
+     * Writes {@code record}, whose CRC is filled in here, and returns its sequence number.
+     */
+    long append(byte[] record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record, 0, CRC_OFFSET);
+        ByteBuffer.wrap(record).putInt(CRC_OFFSET, (int) crc.getValue());
+        return write(record);
+    }
+
+    /**
+     * Copies the record at {@code sequence} into {@code record}; returns {@code false} when it
+     * was never written or its segment was deleted.
+     */
+    boolean read(long sequence, byte[] record) {
+        MappedByteBuffer segment = sequence < next ? segments.get(segmentOf(sequence)) : null;
+        if (segment == null) {
+            return false;
+        }
+        segment.get((int) (sequence % recordsPerSegment) * RECORD_SIZE, record);
+        return true;
+    }
+
+    /**
+     * Passes every valid record to {@code consumer}, in sequence order.
+     */
+    void scan(RecordConsumer consumer) {
+        byte[] record = new byte[RECORD_SIZE];
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.entrySet()) {
+            long base = entry.getKey() * recordsPerSegment;
+            MappedByteBuffer segment = entry.getValue();
+            for (int position = 0; position < recordsPerSegment && base + position < next; position++) {
+                if (isValid(segment, position * RECORD_SIZE)) {
+                    segment.get(position * RECORD_SIZE, record);
+                    consumer.accept(base + position, record);
+                }
+            }
+        }
+    }
+
+    long segmentOf(long sequence) {
+        return sequence / recordsPerSegment;
+    }
+
+    long firstSequence(long segment) {
+        return segment * recordsPerSegment;
+    }
+
+    int recordsPerSegment() {
+        return recordsPerSegment;
+    }
+
+    /**
+     * Segments that are no longer appended to, oldest first.
+     */
+    List<Long> sealedSegments() {
+        return new ArrayList<>(segments.headMap(activeNumber, false).keySet());
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    void delete(long segment) {
+        if (segment == activeNumber || segments.remove(segment) == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path(segment));
+        } catch (IOException e) {
+            logger.warn("Failed to delete compacted status log segment {}", path(segment), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long sequence, byte[] record);
+    }
+
+    private synchronized long write(byte[] record) {
+        long sequence = next;
+        if (segmentOf(sequence) != activeNumber) {
+            active.force();
+            activeNumber = segmentOf(sequence);
+            active = openSegment(activeNumber);
+        }
+        active.put((int) (sequence % recordsPerSegment) * RECORD_SIZE, record);
+        next = sequence + 1;
+        return sequence;
+    }
+
+    private static boolean isValid(MappedByteBuffer segment, int offset) {
+        if (segment.getLong(offset) == 0) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(offset, CRC_OFFSET));
+        return segment.getInt(offset + CRC_OFFSET) == (int) crc.getValue();
+    }
+
+    private MappedByteBuffer openSegment(long number) {
+        try {
+            MappedByteBuffer segment = map(number);
+            segments.put(number, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new JournalException("Failed to create status log segment " + number, e);
+        }
+    }
+
+    private MappedByteBuffer map(long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,623 @@
+package com.viasoft.mailservice.service.status;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusPageDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.JournalException;
+import com.viasoft.mailservice.exception.MessageNotFoundException;
+import com.viasoft.mailservice.model.enums.DeliveryStatus;
+import com.viasoft.mailservice.service.hash.Hash64;
+import com.viasoft.mailservice.service.metrics.EmailMetrics.Rejection;
+import com.viasoft.mailservice.service.suppression.AddressHash;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Delivery status of every message, by message id. Each transition writes the full state of the
+ * message (its tenant and sender, the time it reached each {@link DeliveryStatus} and the failure
+ * reason)
+ * as a new 64-byte record in the {@link StatusLog}, and an in-memory {@link LongLongMap} points
+ * the message id at its latest record: a lookup is one hash probe and one 64-byte copy out of a
+ * mapped segment, and the heap holds 16 bytes per table slot, about 30 per tracked message.
+ * <p>
+ * Records also link each message to the previous one of the same sender and tenant, newest
+ * first, which is what {@link #findBySender} pages through. Message ids are time-ordered, so the
+ * chains stay sorted by id and a page cursor is simply the last id returned. Lookups only ever
+ * return messages of the caller's tenant; the messages of other tenants are not found.
+ * <p>
+ * Messages are spread by id over {@value #STRIPES} stripes, each with its own index and lock, so
+ * transitions and lookups of different messages do not contend. Accepting a message also takes
+ * the lock of the sender chains, always before any stripe lock, and is the only path that holds
+ * more than one stripe lock at a time.
+ * <p>
+ * A background thread compacts sealed segments whose share of live records fell to
+ * {@code mail.status.compaction.live-ratio}, or whose newest record is older than
+ * {@code mail.status.retention}: live records are copied forward, messages whose last
+ * transition is older than the retention are dropped, and the segment is deleted. The index is
+ * rebuilt from the log at startup, skipping expired messages.
+ * <p>
+ * Tracking is best effort: a failed write is logged and never fails the request.
+ */
+@Service
+@ConditionalOnProperty(name = "mail.status.enabled", havingValue = "true")
+public class StatusStore implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusStore.class);
+
+    public static final String DISABLED = "Status tracking is not enabled";
+    public static final long UNTRACKED = 0;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+
+    private static final long NONE = 0;
+    private static final long NO_SEQUENCE = -1;
+    private static final DeliveryStatus[] STATUSES = DeliveryStatus.values();
+    private static final Rejection[] REASONS = Rejection.values();
+
+    // Record layout; the last four bytes hold the CRC written by the StatusLog. Timestamps are
+    // 48-bit epoch millis, which last until the year 10889.
+    private static final int MESSAGE_ID = 0;
+    private static final int SENDER_HASH = 8;
+    private static final int PREVIOUS_BY_SENDER = 16;
+    private static final int TENANT_HASH = 24;
+    private static final int TIMESTAMPS = 32;
+    private static final int TIMESTAMP_BYTES = 6;
+    private static final int STATUS = TIMESTAMPS + TIMESTAMP_BYTES * STATUSES.length;
+    private static final int REASON = STATUS + 1;
+    private static final int FORMAT = REASON + 1;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final StatusLog log;
+    private final long retentionMillis;
+    private final Duration compactionInterval;
+    private final int compactBelow;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ReentrantReadWriteLock senderLock = new ReentrantReadWriteLock();
+    private final LongLongMap senderHeads;
+    private final Map<Long, LongAdder> liveBySegment = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> newestBySegment = new ConcurrentHashMap<>();
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    private Thread compactor;
+
+    public StatusStore(
+            @Value("${mail.status.directory}") Path directory,
+            @Value("${mail.status.segment-records}") int segmentRecords,
+            @Value("${mail.status.expected-messages}") int expectedMessages,
+            @Value("${mail.status.retention}") Duration retention,
+            @Value("${mail.status.compaction.interval}") Duration compactionInterval,
+            @Value("${mail.status.compaction.live-ratio}") double liveRatio) {
+
+        if (liveRatio < 0 || liveRatio >= 1) {
+            throw new IllegalArgumentException("mail.status.compaction.live-ratio must be in [0, 1): " + liveRatio);
+        }
+        this.log = new StatusLog(directory, segmentRecords);
+        this.retentionMillis = retention.toMillis();
+        this.compactionInterval = compactionInterval;
+        this.compactBelow = (int) (segmentRecords * liveRatio);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(new LongLongMap(expectedMessages / STRIPES));
+        }
+        this.senderHeads = new LongLongMap(Math.max(16, expectedMessages / 64));
+
+        recover(System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void start() {
+        compactor = new Thread(this::compactLoop, "email-status-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (compactor != null) {
+            compactor.interrupt();
+            compactor.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        log.close();
+    }
+
+    /**
+     * Starts tracking {@code messageId} for the tenant of {@code requestDTO}. Does nothing when
+     * it is already tracked, so requests accepted by the journal or the scheduler keep their
+     * original acceptance time.
+     */
+    public void accepted(long messageId, EmailRequestDTO requestDTO) {
+        if (messageId == UNTRACKED) {
+            return;
+        }
+        long tenantHash = tenantHash(requestDTO.getTenantId());
+        long senderHash = senderKey(requestDTO.getSenderEmail(), tenantHash);
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+        ByteBuffer.wrap(record)
+                .putLong(MESSAGE_ID, messageId)
+                .putLong(SENDER_HASH, senderHash)
+                .putLong(TENANT_HASH, tenantHash)
+                .put(STATUS, (byte) DeliveryStatus.ACCEPTED.ordinal())
+                .put(FORMAT, FORMAT_VERSION);
+        putTimestamp(record, DeliveryStatus.ACCEPTED, System.currentTimeMillis());
+
+        Stripe stripe = stripe(messageId);
+        if (senderHash != NONE) {
+            senderLock.writeLock().lock();
+        }
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.index.containsKey(messageId)) {
+                return;
+            }
+            if (senderHash != NONE) {
+                ByteBuffer.wrap(record).putLong(PREVIOUS_BY_SENDER, linkBySender(senderHash, messageId));
+            }
+            append(stripe, messageId, record, NO_SEQUENCE);
+        } catch (JournalException e) {
+            logger.warn("Failed to record status of message {}", messageId, e);
+        } finally {
+            stripe.lock.writeLock().unlock();
+            if (senderHash != NONE) {
+                senderLock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void record(long messageId, DeliveryStatus status) {
+        transition(messageId, status, null);
+    }
+
+    public void failed(long messageId, Rejection reason) {
+        transition(messageId, DeliveryStatus.FAILED, reason);
+    }
+
+    public EmailStatusDTO find(String messageId) {
+        return find(messageId, null);
+    }
+
+    /**
+     * Status of {@code messageId}, when it was sent by {@code tenantId} ({@code null} for
+     * requests without a tenant).
+     */
+    public EmailStatusDTO find(String messageId, String tenantId) {
+        long id = parseId(messageId);
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+        if (id == NONE || !read(id, record) || getLong(record, TENANT_HASH) != tenantHash(tenantId)) {
+            throw new MessageNotFoundException("No status recorded for message " + messageId);
+        }
+        return toStatus(record);
+    }
+
+    public EmailStatusPageDTO findBySender(String sender, String cursor, int limit) {
+        return findBySender(sender, null, cursor, limit);
+    }
+
+    /**
+     * Messages of {@code sender} sent by {@code tenantId}, newest first, starting after the
+     * message id {@code cursor} ({@code null} for the first page). The page ends early at the
+     * first expired message.
+     */
+    public EmailStatusPageDTO findBySender(String sender, String tenantId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new FieldValidationException("limit", "must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long senderHash = senderKey(sender, tenantHash(tenantId));
+        long after = cursor == null ? NONE : parseId(cursor);
+        if (cursor != null && after == NONE) {
+            throw new FieldValidationException("cursor", "is not a message id");
+        }
+
+        List<EmailStatusDTO> items = new ArrayList<>(Math.min(limit, 64));
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+        long id;
+        if (senderHash == NONE) {
+            id = NONE;
+        } else if (after == NONE) {
+            senderLock.readLock().lock();
+            try {
+                id = senderHeads.get(senderHash, NONE);
+            } finally {
+                senderLock.readLock().unlock();
+            }
+        } else {
+            id = read(after, record) && getLong(record, SENDER_HASH) == senderHash
+                    ? getLong(record, PREVIOUS_BY_SENDER)
+                    : NONE;
+        }
+
+        while (id != NONE && items.size() < limit) {
+            if (!read(id, record) || getLong(record, SENDER_HASH) != senderHash) {
+                id = NONE;
+                break;
+            }
+            items.add(toStatus(record));
+            id = getLong(record, PREVIOUS_BY_SENDER);
+        }
+
+        String nextCursor = id == NONE || items.isEmpty() ? null : items.get(items.size() - 1).getMessageId();
+        return new EmailStatusPageDTO(items, nextCursor);
+    }
+
+    public int tracked() {
+        int tracked = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                tracked += stripe.index.size();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return tracked;
+    }
+
+    public int segments() {
+        return log.segmentCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.status.tracked", this, StatusStore::tracked)
+                .description("Messages whose delivery status is tracked")
+                .register(registry);
+        Gauge.builder("mail.status.segments", this, StatusStore::segments)
+                .description("Segments of the status log")
+                .register(registry);
+        FunctionCounter.builder("mail.status.expired", expired, LongAdder::sum)
+                .description("Messages dropped from the status log after the retention period")
+                .register(registry);
+        FunctionCounter.builder("mail.status.compactions", compactions, LongAdder::sum)
+                .description("Status log segments compacted")
+                .register(registry);
+    }
+
+    /**
+     * Compacts every sealed segment that is mostly dead or past the retention. Each record is
+     * moved under the lock of its own stripe only, so the messages of other stripes are never
+     * held up; expiring a record also takes the lock of the sender chains.
+     */
+    void compact(long nowMillis) {
+        long cutoff = nowMillis - retentionMillis;
+        for (Long segment : log.sealedSegments()) {
+            LongAdder live = liveBySegment.get(segment);
+            AtomicLong newest = newestBySegment.get(segment);
+            if ((live == null ? 0 : live.sum()) <= compactBelow || (newest == null ? 0 : newest.get()) < cutoff) {
+                compactSegment(segment, cutoff);
+            }
+        }
+    }
+
+    private void compactSegment(long segment, long cutoff) {
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+        long first = log.firstSequence(segment);
+        int moved = 0;
+        int dropped = 0;
+
+        for (long sequence = first; sequence < first + log.recordsPerSegment(); sequence++) {
+            // A sealed record never changes, but it is only known to be live, and safely
+            // published, once the lock of its stripe is held.
+            if (!log.read(sequence, record)) {
+                continue;
+            }
+            long id = getLong(record, MESSAGE_ID);
+            if (id == NONE) {
+                continue;
+            }
+            boolean expiring = latestTimestamp(record) < cutoff;
+            Stripe stripe = stripe(id);
+            if (expiring) {
+                senderLock.writeLock().lock();
+            }
+            stripe.lock.writeLock().lock();
+            try {
+                if (stripe.index.get(id, NO_SEQUENCE) != sequence || !log.read(sequence, record)) {
+                    continue;
+                }
+                if (expiring) {
+                    expire(stripe, id, record);
+                    dropped++;
+                } else {
+                    append(stripe, id, record, sequence);
+                    moved++;
+                }
+            } finally {
+                stripe.lock.writeLock().unlock();
+                if (expiring) {
+                    senderLock.writeLock().unlock();
+                }
+            }
+        }
+
+        log.delete(segment);
+        liveBySegment.remove(segment);
+        newestBySegment.remove(segment);
+        expired.add(dropped);
+        compactions.increment();
+        logger.debug("Compacted status log segment {}: {} records moved, {} expired", segment, moved, dropped);
+    }
+
+    private void compactLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(compactionInterval);
+                compact(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Status log compaction failed", e);
+            }
+        }
+    }
+
+    private void transition(long messageId, DeliveryStatus status, Rejection reason) {
+        if (messageId == UNTRACKED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+
+        Stripe stripe = stripe(messageId);
+        stripe.lock.writeLock().lock();
+        try {
+            long sequence = stripe.index.get(messageId, NO_SEQUENCE);
+            if (sequence == NO_SEQUENCE || !log.read(sequence, record)) {
+                return;
+            }
+            putTimestamp(record, status, now);
+            ByteBuffer.wrap(record)
+                    .put(STATUS, (byte) status.ordinal())
+                    .put(REASON, (byte) (reason == null ? 0 : reason.ordinal() + 1));
+            append(stripe, messageId, record, sequence);
+        } catch (JournalException e) {
+            logger.warn("Failed to record status {} of message {}", status, messageId, e);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes {@code messageId} the head of its sender's chain and returns the id it must link to.
+     * Ids are taken before the lock, so a message can arrive after a newer one of the same
+     * sender; it is then inserted below the newer ones, rewriting the record that links past it
+     * under the lock of its stripe. Called with the lock of the sender chains held.
+     */
+    private long linkBySender(long senderHash, long messageId) {
+        long newer = senderHeads.get(senderHash, NONE);
+        if (newer < messageId) {
+            senderHeads.put(senderHash, messageId);
+            return newer;
+        }
+
+        byte[] record = new byte[StatusLog.RECORD_SIZE];
+        while (true) {
+            Stripe stripe = stripe(newer);
+            stripe.lock.writeLock().lock();
+            try {
+                long sequence = stripe.index.get(newer, NO_SEQUENCE);
+                if (sequence == NO_SEQUENCE || !log.read(sequence, record)) {
+                    return NONE;
+                }
+                long previous = getLong(record, PREVIOUS_BY_SENDER);
+                if (previous < messageId) {
+                    ByteBuffer.wrap(record).putLong(PREVIOUS_BY_SENDER, messageId);
+                    append(stripe, newer, record, sequence);
+                    return previous;
+                }
+                newer = previous;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Called with the lock of {@code stripe} held.
+     */
+    private void append(Stripe stripe, long messageId, byte[] record, long replaced) {
+        long sequence = log.append(record);
+        stripe.index.put(messageId, sequence);
+
+        long segment = log.segmentOf(sequence);
+        liveBySegment.computeIfAbsent(segment, ignored -> new LongAdder()).increment();
+        newestBySegment.computeIfAbsent(segment, ignored -> new AtomicLong())
+                .accumulateAndGet(latestTimestamp(record), Math::max);
+        if (replaced != NO_SEQUENCE) {
+            uncountLive(log.segmentOf(replaced));
+        }
+    }
+
+    /**
+     * Called with the lock of the sender chains and of {@code stripe} held.
+     */
+    private void expire(Stripe stripe, long messageId, byte[] record) {
+        long sequence = stripe.index.get(messageId, NO_SEQUENCE);
+        stripe.index.remove(messageId);
+        uncountLive(log.segmentOf(sequence));
+
+        long senderHash = getLong(record, SENDER_HASH);
+        if (senderHash != NONE && senderHeads.get(senderHash, NONE) == messageId) {
+            long previous = getLong(record, PREVIOUS_BY_SENDER);
+            if (previous != NONE && isTracked(previous)) {
+                senderHeads.put(senderHash, previous);
+            } else {
+                senderHeads.remove(senderHash);
+            }
+        }
+    }
+
+    private void uncountLive(long segment) {
+        LongAdder live = liveBySegment.get(segment);
+        if (live != null) {
+            live.decrement();
+        }
+    }
+
+    private boolean isTracked(long messageId) {
+        Stripe stripe = stripe(messageId);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.index.containsKey(messageId);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private boolean read(long messageId, byte[] record) {
+        Stripe stripe = stripe(messageId);
+        stripe.lock.readLock().lock();
+        try {
+            long sequence = stripe.index.get(messageId, NO_SEQUENCE);
+            return sequence != NO_SEQUENCE && log.read(sequence, record);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private Stripe stripe(long messageId) {
+        return stripes[(int) ((messageId * 0x9e3779b97f4a7c15L) >>> STRIPE_SHIFT)];
+    }
+
+    /**
+     * Later records of a message win. Every record of an expired message is older than its last
+     * one, so skipping records past the retention never brings back a stale state.
+     */
+    private void recover(long nowMillis) {
+        long cutoff = nowMillis - retentionMillis;
+        log.scan((sequence, record) -> {
+            if (record[FORMAT] != FORMAT_VERSION) {
+                // Written before tenants were recorded: cannot be attributed, left to compaction.
+                return;
+            }
+            long latest = latestTimestamp(record);
+            long segment = log.segmentOf(sequence);
+            newestBySegment.computeIfAbsent(segment, ignored -> new AtomicLong()).accumulateAndGet(latest, Math::max);
+            if (latest < cutoff) {
+                return;
+            }
+
+            long id = getLong(record, MESSAGE_ID);
+            stripe(id).index.put(id, sequence);
+            long senderHash = getLong(record, SENDER_HASH);
+            if (senderHash != NONE && id > senderHeads.get(senderHash, NONE)) {
+                senderHeads.put(senderHash, id);
+            }
+        });
+        for (Stripe stripe : stripes) {
+            stripe.index.forEach((id, sequence) ->
+                    liveBySegment.computeIfAbsent(log.segmentOf(sequence), ignored -> new LongAdder()).increment());
+        }
+
+        int tracked = tracked();
+        if (tracked > 0) {
+            logger.info("Recovered the delivery status of {} messages", tracked);
+        }
+    }
+
+    private static EmailStatusDTO toStatus(byte[] record) {
+        Map<DeliveryStatus, Instant> transitions = new EnumMap<>(DeliveryStatus.class);
+        for (DeliveryStatus status : STATUSES) {
+            long at = getTimestamp(record, status);
+            if (at != 0) {
+                transitions.put(status, Instant.ofEpochMilli(at));
+            }
+        }
+        int reason = record[REASON];
+        return new EmailStatusDTO(
+                Long.toString(getLong(record, MESSAGE_ID)),
+                STATUSES[record[STATUS]],
+                reason == 0 ? null : REASONS[reason - 1].name().toLowerCase(Locale.ROOT).replace('_', '-'),
+                transitions);
+    }
+
+    private static long latestTimestamp(byte[] record) {
+        long latest = 0;
+        for (DeliveryStatus status : STATUSES) {
+            latest = Math.max(latest, getTimestamp(record, status));
+        }
+        return latest;
+    }
+
+    private static long getTimestamp(byte[] record, DeliveryStatus status) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int offset = TIMESTAMPS + TIMESTAMP_BYTES * status.ordinal();
+        return (buffer.getShort(offset) & 0xFFFFL) << 32 | buffer.getInt(offset + Short.BYTES) & 0xFFFFFFFFL;
+    }
+
+    private static void putTimestamp(byte[] record, DeliveryStatus status, long epochMillis) {
+        int offset = TIMESTAMPS + TIMESTAMP_BYTES * status.ordinal();
+        ByteBuffer.wrap(record)
+                .putShort(offset, (short) (epochMillis >>> 32))
+                .putInt(offset + Short.BYTES, (int) epochMillis);
+    }
+
+    /**
+     * Key of the sender's chain: the same address has a separate chain in every tenant.
+     */
+    private static long senderKey(String sender, long tenantHash) {
+        long senderHash = AddressHash.hash(sender);
+        if (senderHash == NONE || tenantHash == NONE) {
+            return senderHash;
+        }
+        long key = senderHash ^ tenantHash;
+        return key == NONE ? 1 : key;
+    }
+
+    /**
+     * Tenant ids are case-sensitive. {@code 0} stands for requests without a tenant.
+     */
+    private static long tenantHash(String tenantId) {
+        if (tenantId == null) {
+            return NONE;
+        }
+        long h = Hash64.fnv1a(tenantId);
+        return h == NONE ? 1 : h;
+    }
+
+    private static long getLong(byte[] record, int offset) {
+        return ByteBuffer.wrap(record).getLong(offset);
+    }
+
+    private static long parseId(String messageId) {
+        try {
+            return Long.parseLong(messageId);
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+    }
+
+    private record Stripe(LongLongMap index, ReentrantReadWriteLock lock) {
+
+        Stripe(LongLongMap index) {
+            this(index, new ReentrantReadWriteLock());
+        }
+    }
+}
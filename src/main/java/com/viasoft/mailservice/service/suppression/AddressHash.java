@@ -0,0 +1,71 @@
+package com.viasoft.mailservice.service.suppression;
+
+import com.viasoft.mailservice.service.hash.Hash64;
+
+/**
+ * 64-bit hash of a normalized email address: surrounding whitespace is ignored and characters
+ * are lower-cased one by one, so hashing a request field allocates nothing. Four UTF-16 chars
+ * are packed per block and mixed MurmurHash3-style, with the MurmurHash3 finalizer on top.
+ */
+public final class AddressHash {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    private AddressHash() {
+    }
+
+    /**
+     * Returns {@code 0} for a {@code null} or blank address; such addresses are never suppressed.
+     */
+    public static long hash(CharSequence address) {
+        if (address == null) {
+            return 0;
+        }
+        int start = 0;
+        int end = address.length();
+        while (start < end && address.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && address.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return 0;
+        }
+
+        long h = SEED ^ ((end - start) * C2);
+        long block = 0;
+        int chars = 0;
+        for (int i = start; i < end; i++) {
+            block = (block << 16) | Character.toLowerCase(address.charAt(i));
+            if (++chars == 4) {
+                h = mixBlock(h, block);
+                block = 0;
+                chars = 0;
+            }
+        }
+        if (chars > 0) {
+            h = mixBlock(h, block);
+        }
+        return Hash64.fmix64(h);
+    }
+
+    /**
+     * Second, independent hash derived from the first one, for double hashing in the Bloom filter.
+     * Always odd, so the probe sequence never collapses.
+     */
+    static long rehash(long hash) {
+        return Hash64.fmix64(hash ^ C1) | 1;
+    }
+
+    private static long mixBlock(long h, long block) {
+        block *= C1;
+        block = Long.rotateLeft(block, 31);
+        block *= C2;
+        h ^= block;
+        h = Long.rotateLeft(h, 27);
+        return h * 5 + 0x52dce729;
+    }
+}
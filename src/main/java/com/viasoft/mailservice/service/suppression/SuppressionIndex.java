@@ -0,0 +1,347 @@
+package com.viasoft.mailservice.service.suppression;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable, memory-mapped set of address hashes built from a {@link SuppressionSource} file.
+ * <p>
+ * The file holds a Bloom filter, a fence table and the sorted, de-duplicated hashes:
+ * {@code [header][fence: 65537 ints][bloom: long words][hashes: longs]}. {@link #contains(long)}
+ * checks the Bloom filter first, so most addresses, which are not suppressed, are answered
+ * after a few bit reads. A positive is confirmed by a binary search restricted to the fence
+ * bucket of the hash's top 16 bits, a few hundred entries even for tens of millions of
+ * addresses. Nothing but this object lives on the heap; the pages are shared with the OS cache.
+ * <p>
+ * Building sorts the hashes in runs of {@code runSize} entries, spills them to temporary files
+ * and merges them, so building needs {@code runSize * 8} bytes of heap whatever the list size.
+ */
+final class SuppressionIndex {
+
+    static final String EXTENSION = ".idx";
+
+    private static final long MAGIC = 0x5355505049445831L; // "SUPPIDX1"
+    private static final int HEADER_SIZE = 48;
+    private static final int BUCKETS = 1 << 16;
+    private static final int FENCE_SIZE = (BUCKETS + 1) * Integer.BYTES;
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long count;
+    private final long sourceLength;
+    private final long sourceModified;
+    private final int hashFunctions;
+    private final long bloomBits;
+    private final long bloomOffset;
+    private final long hashesOffset;
+
+    private SuppressionIndex(Path file, MappedByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+            throw new IllegalStateException("Not a suppression index: " + file);
+        }
+        this.file = file;
+        this.buffer = buffer;
+        this.count = buffer.getLong(8);
+        this.sourceLength = buffer.getLong(16);
+        this.sourceModified = buffer.getLong(24);
+        this.hashFunctions = buffer.getInt(32);
+        int bloomWords = buffer.getInt(36);
+        this.bloomBits = (long) bloomWords * Long.SIZE;
+        this.bloomOffset = HEADER_SIZE + FENCE_SIZE;
+        this.hashesOffset = bloomOffset + (long) bloomWords * Long.BYTES;
+    }
+
+    static SuppressionIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SuppressionIndex(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Builds the index of {@code source} into {@code target}. The file is written under a
+     * temporary name and moved into place once complete, so a crash never leaves a truncated
+     * index behind.
+     */
+    static SuppressionIndex build(Path source, Path target, double falsePositiveRate, int runSize) throws IOException {
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        List<Path> runs = new ArrayList<>();
+        long[] run = new long[runSize];
+        int[] runLength = {0};
+        long[] total = {0};
+
+        long sourceLength;
+        try {
+            try {
+                sourceLength = SuppressionSource.read(source, 0, true, hash -> {
+                    if (runLength[0] == run.length) {
+                        runs.add(spill(target, run, run.length, runs.size()));
+                        runLength[0] = 0;
+                    }
+                    run[runLength[0]++] = hash;
+                    total[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (runs.isEmpty()) {
+                Arrays.sort(run, 0, runLength[0]);
+            } else if (runLength[0] > 0) {
+                runs.add(spill(target, run, runLength[0], runs.size()));
+            }
+
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try (Writer writer = new Writer(temporary, total[0], falsePositiveRate)) {
+                if (runs.isEmpty()) {
+                    for (int i = 0; i < runLength[0]; i++) {
+                        writer.add(run[i]);
+                    }
+                } else {
+                    merge(runs, writer);
+                }
+                writer.finish(sourceLength, sourceModified);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (Path spilled : runs) {
+                Files.deleteIfExists(spilled);
+            }
+        }
+        return open(target);
+    }
+
+    /**
+     * {@code true} when {@code hash} is in the set. {@code 0}, the hash of a blank address, is
+     * never in it.
+     */
+    boolean contains(long hash) {
+        return hash != 0 && mightContain(hash) && confirm(hash);
+    }
+
+    /**
+     * Bloom filter check: {@code false} means the hash is certainly not in the set.
+     */
+    boolean mightContain(long hash) {
+        long step = AddressHash.rehash(hash);
+        long combined = hash;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.unsignedMultiplyHigh(combined, bloomBits);
+            if ((buffer.getLong((int) (bloomOffset + (bit >>> 6) * Long.BYTES)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    /**
+     * Exact lookup in the sorted hashes, for hashes that passed {@link #mightContain(long)}.
+     */
+    boolean confirm(long hash) {
+        int bucket = bucket(hash);
+        long low = buffer.getInt(HEADER_SIZE + bucket * Integer.BYTES);
+        long high = buffer.getInt(HEADER_SIZE + (bucket + 1) * Integer.BYTES) - 1L;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long value = buffer.getLong((int) (hashesOffset + middle * Long.BYTES));
+            if (value < hash) {
+                low = middle + 1;
+            } else if (value > hash) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long size() {
+        return count;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Bytes of the source covered by this index; later appends start there.
+     */
+    long sourceLength() {
+        return sourceLength;
+    }
+
+    long sourceModified() {
+        return sourceModified;
+    }
+
+    /**
+     * Bucket of the fence table, ordered like the signed hashes so buckets follow the sort order.
+     */
+    private static int bucket(long hash) {
+        return (int) (hash >> 48) + BUCKETS / 2;
+    }
+
+    private static Path spill(Path target, long[] run, int length, int index) {
+        Arrays.sort(run, 0, length);
+        Path file = target.resolveSibling(target.getFileName() + ".run" + index);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < length; i++) {
+                output.writeLong(run[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill suppression list run " + file, e);
+        }
+        return file;
+    }
+
+    private static void merge(List<Path> runs, LongConsumer output) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> Long.compare(a.head, b.head));
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                output.accept(reader.head);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : heads) {
+                reader.close();
+            }
+        }
+    }
+
+    private static final class RunReader implements AutoCloseable {
+
+        private final DataInputStream input;
+        private long head;
+
+        RunReader(Path file) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                head = input.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Writes sorted hashes, dropping duplicates, and fills the Bloom filter and fence table as
+     * it goes. The file is sized for {@code capacity} hashes up front.
+     */
+    private static final class Writer implements LongConsumer, AutoCloseable {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int hashFunctions;
+        private final int bloomWords;
+        private final long bloomBits;
+        private final long bloomOffset;
+        private final long hashesOffset;
+
+        private long count;
+        private long previous;
+        private int nextBucket;
+
+        Writer(Path file, long capacity, double falsePositiveRate) throws IOException {
+            double bits = Math.max(Long.SIZE, -capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bloomWords = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(bits / Long.SIZE));
+            this.bloomBits = (long) bloomWords * Long.SIZE;
+            this.hashFunctions = Math.clamp(Math.round((double) bloomBits / Math.max(1, capacity) * Math.log(2)),
+                    1, MAX_HASH_FUNCTIONS);
+            this.bloomOffset = HEADER_SIZE + FENCE_SIZE;
+            this.hashesOffset = bloomOffset + (long) bloomWords * Long.BYTES;
+
+            long size = hashesOffset + capacity * Long.BYTES;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Suppression list of " + capacity + " entries exceeds the 2 GB index limit");
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        void add(long hash) {
+            if (count > 0 && hash == previous) {
+                return;
+            }
+            int bucket = bucket(hash);
+            while (nextBucket <= bucket) {
+                buffer.putInt(HEADER_SIZE + nextBucket++ * Integer.BYTES, (int) count);
+            }
+
+            buffer.putLong((int) (hashesOffset + count * Long.BYTES), hash);
+            long step = AddressHash.rehash(hash);
+            long combined = hash;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.unsignedMultiplyHigh(combined, bloomBits);
+                int word = (int) (bloomOffset + (bit >>> 6) * Long.BYTES);
+                buffer.putLong(word, buffer.getLong(word) | (1L << bit));
+                combined += step;
+            }
+
+            previous = hash;
+            count++;
+        }
+
+        @Override
+        public void accept(long hash) {
+            add(hash);
+        }
+
+        void finish(long sourceLength, long sourceModified) {
+            while (nextBucket <= BUCKETS) {
+                buffer.putInt(HEADER_SIZE + nextBucket++ * Integer.BYTES, (int) count);
+            }
+            buffer.putLong(8, count);
+            buffer.putLong(16, sourceLength);
+            buffer.putLong(24, sourceModified);
+            buffer.putInt(32, hashFunctions);
+            buffer.putInt(36, bloomWords);
+            buffer.putLong(0, MAGIC);
+            buffer.force();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
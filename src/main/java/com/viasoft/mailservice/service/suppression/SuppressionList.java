@@ -0,0 +1,373 @@
+package com.viasoft.mailservice.service.suppression;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Addresses that must not receive email (bounces, unsubscribes), read from
+ * {@code mail.suppression.source}, one address per line.
+ * <p>
+ * The list is served from a {@link SuppressionIndex} memory-mapped from
+ * {@code mail.suppression.index-directory}, plus a small sorted on-heap delta of the lines
+ * appended to the source since the index was built. A background thread polls the source every
+ * {@code reload-interval}: appended lines are merged into the delta, and a replaced or edited
+ * file, or a delta over {@code max-delta} entries, triggers a full rebuild into a new index
+ * file. Lookups read an immutable snapshot published through a volatile field, so a reload
+ * never blocks traffic. An index whose source is unchanged is reused after a restart.
+ */
+@Component
+public class SuppressionList implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuppressionList.class);
+
+    private static final String INDEX_PREFIX = "suppression-";
+    private static final int TAIL_CHECKSUM_BYTES = 4096;
+
+    private final boolean enabled;
+    private final Path source;
+    private final Path indexDirectory;
+    private final double falsePositiveRate;
+    private final int buildRunSize;
+    private final int maxDelta;
+    private final Duration reloadInterval;
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private long generation;
+    private Thread reloader;
+
+    public SuppressionList(
+            @Value("${mail.suppression.enabled}") boolean enabled,
+            @Value("${mail.suppression.source}") Path source,
+            @Value("${mail.suppression.index-directory}") Path indexDirectory,
+            @Value("${mail.suppression.false-positive-rate}") double falsePositiveRate,
+            @Value("${mail.suppression.build-run-size}") int buildRunSize,
+            @Value("${mail.suppression.max-delta}") int maxDelta,
+            @Value("${mail.suppression.reload-interval}") Duration reloadInterval) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid suppression list false positive rate: " + falsePositiveRate);
+        }
+        this.enabled = enabled;
+        this.source = source;
+        this.indexDirectory = indexDirectory;
+        this.falsePositiveRate = falsePositiveRate;
+        this.buildRunSize = buildRunSize;
+        this.maxDelta = maxDelta;
+        this.reloadInterval = reloadInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(indexDirectory);
+            generation = Math.max(System.currentTimeMillis(), reuseIndex() + 1);
+            if (!Files.exists(source)) {
+                logger.info("Suppression list {} not found, no address is suppressed until it is created", source);
+            }
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load suppression list " + source, e);
+        }
+
+        reloader = new Thread(this::reloadLoop, "suppression-reloader");
+        reloader.setDaemon(true);
+        reloader.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (reloader != null) {
+            reloader.interrupt();
+            reloader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * {@code true} when the normalized (trimmed, lower-case) address is on the list. A Bloom
+     * filter answers most lookups without touching the sorted hashes.
+     */
+    public boolean isSuppressed(String address) {
+        if (!enabled) {
+            return false;
+        }
+        long hash = AddressHash.hash(address);
+        if (hash == 0) {
+            return false;
+        }
+
+        Snapshot current = snapshot;
+        if (current.index() != null && current.index().mightContain(hash)) {
+            if (current.index().confirm(hash)) {
+                return true;
+            }
+            bloomFalsePositives.increment();
+        }
+        return current.delta().length > 0 && Arrays.binarySearch(current.delta(), hash) >= 0;
+    }
+
+    public long size() {
+        Snapshot current = snapshot;
+        return (current.index() == null ? 0 : current.index().size()) + current.delta().length;
+    }
+
+    public int deltaSize() {
+        return snapshot.delta().length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("mail.suppression.entries", this, SuppressionList::size)
+                .description("Addresses on the suppression list")
+                .register(registry);
+        Gauge.builder("mail.suppression.delta", this, SuppressionList::deltaSize)
+                .description("Suppression list entries appended since the index was built")
+                .register(registry);
+        FunctionCounter.builder("mail.suppression.bloom.false-positives", bloomFalsePositives, LongAdder::sum)
+                .description("Lookups that passed the Bloom filter but were not on the list")
+                .register(registry);
+    }
+
+    /**
+     * Brings the snapshot up to date with the source. Called once at startup and then by the
+     * reloader thread only, so reloads never overlap.
+     */
+    void reload() throws IOException {
+        Snapshot current = snapshot;
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (current == Snapshot.EMPTY) {
+                logger.debug("Suppression list {} not found", source);
+            } else {
+                logger.warn("Suppression list {} not found, keeping the {} entries loaded", source, size());
+            }
+            return;
+        }
+
+        long length = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Object fileKey = attributes.fileKey();
+        if (current.index() != null && Objects.equals(fileKey, current.fileKey())
+                && length == current.consumed() && modified == current.modified()) {
+            return;
+        }
+
+        if (current.index() != null && fileKey != null && fileKey.equals(current.fileKey())
+                && length > current.consumed() && tailChecksum(current.consumed()) == current.tailChecksum()) {
+            Appended appended = new Appended(maxDelta - current.delta().length);
+            long consumed = SuppressionSource.read(source, current.consumed(), false, appended);
+            if (!appended.overflow) {
+                long[] delta = mergeDelta(current.delta(), appended.hashes, appended.count);
+                snapshot = new Snapshot(current.index(), delta, fileKey, consumed, modified, tailChecksum(consumed));
+                logger.debug("Suppression list: {} appended entries, {} in the delta", appended.count, delta.length);
+                return;
+            }
+        }
+
+        rebuild(fileKey);
+    }
+
+    private void rebuild(Object fileKey) throws IOException {
+        long start = System.nanoTime();
+        Path target = indexDirectory.resolve(INDEX_PREFIX + generation++ + SuppressionIndex.EXTENSION);
+        SuppressionIndex index = SuppressionIndex.build(source, target, falsePositiveRate, buildRunSize);
+        publish(index, fileKey);
+
+        logger.info("Suppression list {} indexed: {} addresses in {} ms", source, index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void publish(SuppressionIndex index, Object fileKey) throws IOException {
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(index, new long[0], fileKey, index.sourceLength(), index.sourceModified(),
+                tailChecksum(index.sourceLength()));
+
+        if (previous.index() != null && !previous.index().file().equals(index.file())) {
+            // Still mapped until garbage collected, which is fine on POSIX file systems.
+            try {
+                Files.deleteIfExists(previous.index().file());
+            } catch (IOException e) {
+                logger.debug("Failed to delete previous suppression index {}", previous.index().file(), e);
+            }
+        }
+    }
+
+    /**
+     * Publishes the newest index left by a previous run when it still matches the source, and
+     * deletes every other index file. Returns the newest generation found, or {@code 0}.
+     */
+    private long reuseIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(indexDirectory)) {
+            files = stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(INDEX_PREFIX) && (name.endsWith(SuppressionIndex.EXTENSION) || name.contains(SuppressionIndex.EXTENSION + "."));
+            }).toList();
+        }
+
+        Path newest = null;
+        long newestGeneration = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(SuppressionIndex.EXTENSION)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            long fileGeneration = parseGeneration(name);
+            if (fileGeneration > newestGeneration) {
+                if (newest != null) {
+                    Files.deleteIfExists(newest);
+                }
+                newest = file;
+                newestGeneration = fileGeneration;
+            } else {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        if (newest != null && Files.exists(source)) {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            try {
+                SuppressionIndex index = SuppressionIndex.open(newest);
+                if (index.sourceLength() == attributes.size()
+                        && index.sourceModified() == attributes.lastModifiedTime().toMillis()) {
+                    publish(index, attributes.fileKey());
+                    logger.info("Reusing suppression index {} with {} addresses", newest, index.size());
+                    return newestGeneration;
+                }
+            } catch (IllegalStateException e) {
+                logger.warn("Ignoring unreadable suppression index {}: {}", newest, e.getMessage());
+            }
+        }
+        if (newest != null) {
+            Files.deleteIfExists(newest);
+        }
+        return newestGeneration;
+    }
+
+    private static long parseGeneration(String name) {
+        try {
+            return Long.parseLong(name.substring(INDEX_PREFIX.length(), name.length() - SuppressionIndex.EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * CRC32C of the bytes right before {@code offset}: when it still matches, the file was only
+     * appended to since it was read up to {@code offset}.
+     */
+    private long tailChecksum(long offset) throws IOException {
+        int length = (int) Math.min(offset, TAIL_CHECKSUM_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, offset - length + buffer.position()) > 0) {
+                // read until the buffer is full
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+
+    private static long[] mergeDelta(long[] delta, long[] appended, int count) {
+        long[] merged = Arrays.copyOf(delta, delta.length + count);
+        System.arraycopy(appended, 0, merged, delta.length, count);
+        Arrays.sort(merged);
+
+        int unique = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (unique == 0 || merged[i] != merged[unique - 1]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return unique == merged.length ? merged : Arrays.copyOf(merged, unique);
+    }
+
+    private void reloadLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(reloadInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                reload();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to reload suppression list {}, keeping the loaded one: ", source, e);
+            }
+        }
+    }
+
+    /**
+     * Hashes of appended lines, up to {@code limit}; past it only {@code overflow} is set and the
+     * caller falls back to a full rebuild.
+     */
+    private static final class Appended implements LongConsumer {
+
+        private final int limit;
+        private long[] hashes = new long[64];
+        private int count;
+        private boolean overflow;
+
+        Appended(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void accept(long hash) {
+            if (count >= limit) {
+                overflow = true;
+                return;
+            }
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, Math.min(limit, count * 2));
+            }
+            hashes[count++] = hash;
+        }
+    }
+
+    /**
+     * Everything a lookup needs, replaced as a whole on reload. {@code consumed} is the source
+     * offset read so far and {@code tailChecksum} the checksum of the bytes before it.
+     */
+    private record Snapshot(SuppressionIndex index, long[] delta, Object fileKey, long consumed, long modified,
+                            long tailChecksum) {
+
+        static final Snapshot EMPTY = new Snapshot(null, new long[0], null, 0, 0, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.viasoft.mailservice.service.suppression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Reader of the suppression list source: a UTF-8 text file with one address per line. Blank
+ * lines and lines starting with {@code #} are skipped. Reading can start at any byte offset,
+ * which is how entries appended since the last read are picked up.
+ */
+final class SuppressionSource {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SuppressionSource() {
+    }
+
+    /**
+     * Hashes every address from {@code offset} to the end of the file and returns the offset
+     * right after the last line read. An unterminated last line is only read when
+     * {@code includeUnterminated} is set; otherwise it may still be being written and is left for
+     * the next read.
+     */
+    static long read(Path file, long offset, boolean includeUnterminated, LongConsumer hashes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] line = new byte[256];
+            int lineLength = 0;
+            long consumed = offset;
+            long position = offset;
+
+            while (channel.read(buffer.clear()) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    position++;
+                    if (b == '\n') {
+                        accept(line, lineLength, hashes);
+                        lineLength = 0;
+                        consumed = position;
+                    } else {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, line.length * 2);
+                        }
+                        line[lineLength++] = b;
+                    }
+                }
+            }
+
+            if (includeUnterminated && lineLength > 0) {
+                accept(line, lineLength, hashes);
+                consumed = position;
+            }
+            return consumed;
+        }
+    }
+
+    private static void accept(byte[] line, int length, LongConsumer hashes) {
+        String address = new String(line, 0, length, StandardCharsets.UTF_8);
+        if (address.isBlank() || address.strip().startsWith("#")) {
+            return;
+        }
+        long hash = AddressHash.hash(address);
+        if (hash != 0) {
+            hashes.accept(hash);
+        }
+    }
+}
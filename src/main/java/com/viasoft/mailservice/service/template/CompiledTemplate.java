@@ -0,0 +1,100 @@
+package com.viasoft.mailservice.service.template;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into immutable literal and variable segments. The source's first line
+ * is the subject and the remaining lines are the body; {@code {{name}}} is replaced by the
+ * request variable {@code name}.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String id;
+    private final List<Segment> subject;
+    private final List<Segment> body;
+
+    private CompiledTemplate(String id, List<Segment> subject, List<Segment> body) {
+        this.id = id;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public static CompiledTemplate compile(String id, String source) {
+        int lineEnd = source.indexOf('\n');
+        String subject = lineEnd < 0 ? source : source.substring(0, lineEnd);
+        String body = lineEnd < 0 ? "" : source.substring(lineEnd + 1);
+        return new CompiledTemplate(id, parse(subject.strip()), parse(body.stripTrailing()));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    void renderSubject(Map<String, String> variables, StringBuilder out, int maxLength) {
+        render(subject, variables, out, maxLength, "subject");
+    }
+
+    void renderBody(Map<String, String> variables, StringBuilder out, int maxLength) {
+        render(body, variables, out, maxLength, "content");
+    }
+
+    /**
+     * Appends the segments to {@code out}, failing as soon as the output grows past
+     * {@code maxLength} instead of rendering text that could never be sent.
+     */
+    private void render(List<Segment> segments, Map<String, String> variables, StringBuilder out,
+                        int maxLength, String field) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> out.append(literal.text());
+                case Variable variable -> {
+                    String value = variables.get(variable.name());
+                    if (value == null) {
+                        throw new FieldValidationException("variables",
+                                "Missing variable '" + variable.name() + "' for template " + id);
+                    }
+                    out.append(value);
+                }
+            }
+            if (out.length() > maxLength) {
+                throw new FieldValidationException(field,
+                        "Rendered " + field + " of template " + id + " exceeds " + maxLength + " characters");
+            }
+        }
+    }
+
+    private static List<Segment> parse(String text) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                segments.add(new Literal(text.substring(position)));
+                break;
+            }
+            if (open > position) {
+                segments.add(new Literal(text.substring(position, open)));
+            }
+            segments.add(new Variable(text.substring(open + OPEN.length(), close).strip()));
+            position = close + CLOSE.length();
+        }
+        return List.copyOf(segments);
+    }
+
+    sealed interface Segment permits Literal, Variable {
+    }
+
+    record Literal(String text) implements Segment {
+    }
+
+    record Variable(String name) implements Segment {
+    }
+}
@@ -0,0 +1,116 @@
+package com.viasoft.mailservice.service.template;
+
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.body.BodyStore;
+import jakarta.validation.constraints.Size;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Renders template requests into a plain {@link EmailRequestDTO}. Output is bounded by the
+ * {@link Size} limits of the adapted DTOs (or, for the body, by the {@link BodyStore} when it is
+ * enabled), so an oversized template is rejected while rendering rather than after building the
+ * whole text.
+ */
+@Component
+public class TemplateEngine {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TemplateRepository templates;
+    private final BodyStore bodyStore;
+    private final EmailMapper emailMapper;
+    private final Map<IntegrationType, RenderLimits> limits = new EnumMap<>(IntegrationType.class);
+
+    public TemplateEngine(TemplateRepository templates, BodyStore bodyStore, EmailMapper emailMapper) {
+        this.templates = templates;
+        this.bodyStore = bodyStore;
+        this.emailMapper = emailMapper;
+        limits.put(IntegrationType.AWS, RenderLimits.of(EmailAwsDTO.class, "subject", "content"));
+        limits.put(IntegrationType.OCI, RenderLimits.of(EmailOciDTO.class, "subject", "body"));
+    }
+
+    /**
+     * Returns {@code request} itself when it carries no template, or a copy with the rendered
+     * subject and content, sized for the most permissive of {@code providers}.
+     * <p>
+     * Each call allocates one builder, presized to the limits and shared by the subject and the
+     * body. It is not pooled across calls: renders run on virtual threads, where a
+     * {@link ThreadLocal} buffer would live and die with each request anyway.
+     */
+    public EmailRequestDTO render(EmailRequestDTO request, IntegrationType... providers) {
+        if (request.getTemplateId() == null || request.getTemplateId().isBlank()) {
+            return request;
+        }
+
+        int maxSubject = 0;
+        int maxContent = 0;
+        for (IntegrationType provider : providers) {
+            RenderLimits providerLimits = limits.get(provider);
+            maxSubject = Math.max(maxSubject, providerLimits.subject());
+            maxContent = Math.max(maxContent, providerLimits.content());
+        }
+        if (bodyStore.isEnabled()) {
+            maxContent = bodyStore.maxBodyLength();
+        }
+
+        CompiledTemplate template = templates.get(request.getTemplateId());
+        Map<String, String> variables = request.getVariables() == null ? Map.of() : request.getVariables();
+
+        StringBuilder out = new StringBuilder(Math.min(Math.max(maxSubject, maxContent), INITIAL_CAPACITY) + 1);
+        template.renderSubject(variables, out, maxSubject);
+        String subject = out.toString();
+        out.setLength(0);
+        template.renderBody(variables, out, maxContent);
+
+        return emailMapper.toRenderedDTO(request, subject, out.toString());
+    }
+
+    /**
+     * Longest subject that every one of {@code providers} accepts.
+     */
+    public int maxSubjectLength(IntegrationType... providers) {
+        int maxSubject = Integer.MAX_VALUE;
+        for (IntegrationType provider : providers) {
+            maxSubject = Math.min(maxSubject, limits.get(provider).subject());
+        }
+        return maxSubject;
+    }
+
+    /**
+     * Longest content that every one of {@code providers} accepts, or the {@link BodyStore}
+     * limit when it is enabled.
+     */
+    public int maxContentLength(IntegrationType... providers) {
+        if (bodyStore.isEnabled()) {
+            return bodyStore.maxBodyLength();
+        }
+        int maxContent = Integer.MAX_VALUE;
+        for (IntegrationType provider : providers) {
+            maxContent = Math.min(maxContent, limits.get(provider).content());
+        }
+        return maxContent;
+    }
+
+    record RenderLimits(int subject, int content) {
+
+        static RenderLimits of(Class<?> dtoType, String subjectField, String contentField) {
+            return new RenderLimits(maxSize(dtoType, subjectField), maxSize(dtoType, contentField));
+        }
+
+        private static int maxSize(Class<?> dtoType, String field) {
+            try {
+                Size size = dtoType.getDeclaredField(field).getAnnotation(Size.class);
+                return size == null ? Integer.MAX_VALUE : size.max();
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(dtoType.getSimpleName() + " has no field " + field, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.viasoft.mailservice.service.template;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Loads {@code <id>.tmpl} files from {@code mail.template.directory} and keeps the compiled
+ * templates in an LRU cache of {@code mail.template.cache-size} entries. A watcher thread drops
+ * templates from the cache as soon as their file changes, so edits apply without a restart.
+ */
+@Component
+public class TemplateRepository implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRepository.class);
+
+    static final String EXTENSION = ".tmpl";
+    private static final Pattern TEMPLATE_ID = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+
+    private final Path directory;
+    private final Map<String, CompiledTemplate> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    public TemplateRepository(
+            @Value("${mail.template.directory}") Path directory,
+            @Value("${mail.template.cache-size}") int cacheSize) {
+        this.directory = directory;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @PostConstruct
+    void startWatching() {
+        if (!Files.isDirectory(directory)) {
+            logger.info("Template directory {} not found, template mode unavailable until it is created", directory);
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.warn("Failed to watch template directory {}, templates will not hot reload", directory, e);
+            return;
+        }
+        watcher = new Thread(this::watchLoop, "template-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    public CompiledTemplate get(String id) {
+        if (!TEMPLATE_ID.matcher(id).matches()) {
+            throw new FieldValidationException("templateId", "Invalid template id: " + id);
+        }
+
+        synchronized (cache) {
+            CompiledTemplate template = cache.get(id);
+            if (template != null) {
+                return template;
+            }
+        }
+
+        long generation = invalidations.get();
+        CompiledTemplate template = load(id);
+        synchronized (cache) {
+            // A file changed while loading: keep the result out of the cache, it may be stale.
+            if (generation == invalidations.get()) {
+                cache.put(id, template);
+            }
+        }
+        return template;
+    }
+
+    public int cachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.template.cache.size", this, TemplateRepository::cachedCount)
+                .register(registry);
+    }
+
+    void invalidate(String id) {
+        synchronized (cache) {
+            invalidations.incrementAndGet();
+            if (id == null) {
+                cache.clear();
+            } else {
+                cache.remove(id);
+            }
+        }
+    }
+
+    private CompiledTemplate load(String id) {
+        Path file = directory.resolve(id + EXTENSION);
+        try {
+            return CompiledTemplate.compile(id, Files.readString(file, StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            throw new FieldValidationException("templateId", "Unknown template: " + id);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read template " + file, e);
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    invalidate(null);
+                } else if (event.context() instanceof Path changed) {
+                    String name = changed.getFileName().toString();
+                    if (name.endsWith(EXTENSION)) {
+                        String id = name.substring(0, name.length() - EXTENSION.length());
+                        invalidate(id);
+                        logger.info("Template {} changed, reloading on next use", id);
+                    }
+                }
+            }
+            if (!key.reset()) {
+                logger.warn("Template directory {} is no longer accessible", directory);
+                return;
+            }
+        }
+    }
+}
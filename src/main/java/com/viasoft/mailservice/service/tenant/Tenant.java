@@ -0,0 +1,47 @@
+package com.viasoft.mailservice.service.tenant;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.ratelimit.RateLimitRules;
+import com.viasoft.mailservice.validation.ValidationResult;
+
+/**
+ * Configuration a request is sent with, resolved from its tenant. Every setting left unset
+ * ({@code null}, or {@code 0} for a size) falls back to the application-wide one:
+ * {@code mail.integracao} and {@code mail.routing.mode}, {@code mail.rate-limit.rules}, and no
+ * size limit beyond the providers' own.
+ */
+public record Tenant(
+        String id,
+        IntegrationType integration,
+        RateLimitRules rateLimits,
+        int maxSubjectLength,
+        int maxContentLength) {
+
+    /**
+     * The application-wide configuration, for requests without a tenant.
+     */
+    public static final Tenant DEFAULT = new Tenant(null, null, null, 0, 0);
+
+    /**
+     * Checks the subject and content of {@code requestDTO} as the client sent them; template
+     * requests have neither and are only held to the providers' limits once rendered.
+     */
+    public ValidationResult checkSize(EmailRequestDTO requestDTO) {
+        if (exceeds(requestDTO.getSubject(), maxSubjectLength)) {
+            return ValidationResult.ofField("subject", sizeMessage(maxSubjectLength));
+        }
+        if (exceeds(requestDTO.getContent(), maxContentLength)) {
+            return ValidationResult.ofField("content", sizeMessage(maxContentLength));
+        }
+        return ValidationResult.VALID;
+    }
+
+    private static boolean exceeds(String value, int max) {
+        return max > 0 && value != null && value.length() > max;
+    }
+
+    private static String sizeMessage(int max) {
+        return "size must be between 0 and " + max;
+    }
+}
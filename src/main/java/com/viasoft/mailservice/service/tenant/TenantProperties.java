@@ -0,0 +1,20 @@
+package com.viasoft.mailservice.service.tenant;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.ratelimit.RateLimitRule;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * One tenant of the {@code mail.tenants.file}, bound from {@code tenant.<id>.*}. A request
+ * belongs to the tenant when it carries one of its {@code api-keys} or names it in the tenant
+ * header. {@code rate-limits} take the form of {@code mail.rate-limit.rules}.
+ */
+public record TenantProperties(
+        @DefaultValue List<String> apiKeys,
+        IntegrationType integration,
+        List<RateLimitRule> rateLimits,
+        @DefaultValue("0") int maxSubjectLength,
+        @DefaultValue("0") int maxContentLength) {
+}
@@ -0,0 +1,274 @@
+package com.viasoft.mailservice.service.tenant;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.service.ratelimit.RateLimitRules;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant configuration read from {@code mail.tenants.file}, a properties file of
+ * {@code tenant.<id>.*} entries (see {@link TenantProperties}). A tenant named {@code default}
+ * replaces the application-wide configuration for requests without a tenant.
+ * <p>
+ * Requests read an immutable snapshot published through a volatile field. A background thread
+ * watches the file's directory with a {@link WatchService}; once a change has settled for
+ * {@code mail.tenants.reload-delay}, the file is bound and compiled into a new snapshot that
+ * replaces the old one in a single write, so a reload never blocks or slows a request. A file
+ * that fails to bind is rejected as a whole and the previous snapshot stays in place.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.tenants.enabled", havingValue = "true")
+public class TenantRegistry implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantRegistry.class);
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    static final String DEFAULT_TENANT = "default";
+
+    private final Path file;
+    private final Duration reloadDelay;
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder rejectedReloads = new LongAdder();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public TenantRegistry(
+            @Value("${mail.tenants.file}") Path file,
+            @Value("${mail.tenants.reload-delay}") Duration reloadDelay) {
+        this.file = file.toAbsolutePath().normalize();
+        this.reloadDelay = reloadDelay;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Path directory = file.getParent();
+        Files.createDirectories(directory);
+        if (Files.exists(file)) {
+            snapshot = load();
+            logger.info("Loaded tenant configuration {}: {} tenants", file, size());
+        } else {
+            logger.info("Tenant configuration {} not found, every request uses the default configuration until it is created", file);
+        }
+
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(this::watch, "tenant-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * The id of the tenant a request belongs to, from its headers, or {@code null} when it names
+     * none. An API key takes precedence over the tenant header, which must then name the same
+     * tenant; a tenant with API keys can only be named together with one of them. Unknown keys
+     * and tenants, and missing keys, are rejected as field errors of their header.
+     */
+    public String resolve(String tenantId, String apiKey) {
+        Snapshot current = snapshot;
+        boolean named = tenantId != null && !tenantId.isBlank();
+        if (apiKey != null && !apiKey.isBlank()) {
+            Tenant tenant = current.byApiKey().get(apiKey);
+            if (tenant == null) {
+                throw new FieldValidationException(API_KEY_HEADER, "Unknown API key");
+            }
+            if (named && !tenantId.equals(tenant.id())) {
+                throw new FieldValidationException(TENANT_HEADER, "Does not match the tenant of the API key");
+            }
+            return tenant.id();
+        }
+        if (!named) {
+            return null;
+        }
+        if (!current.byId().containsKey(tenantId)) {
+            throw new FieldValidationException(TENANT_HEADER, "Unknown tenant: " + tenantId);
+        }
+        if (current.keyed().contains(tenantId)) {
+            throw new FieldValidationException(API_KEY_HEADER, "Required for tenant " + tenantId);
+        }
+        return tenantId;
+    }
+
+    /**
+     * The configuration of {@code tenantId} in the current snapshot. A request without a tenant,
+     * or whose tenant was removed since it was accepted, gets the default configuration.
+     */
+    public Tenant tenant(String tenantId) {
+        Snapshot current = snapshot;
+        if (tenantId != null) {
+            Tenant tenant = current.byId().get(tenantId);
+            if (tenant != null) {
+                return tenant;
+            }
+        }
+        return current.defaults();
+    }
+
+    public int size() {
+        return snapshot.byId().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mail.tenants.configured", this, TenantRegistry::size)
+                .description("Tenants in the current configuration snapshot")
+                .register(registry);
+        FunctionCounter.builder("mail.tenants.reloads", reloads, LongAdder::sum)
+                .description("Tenant configuration reloads")
+                .tag("result", "applied")
+                .register(registry);
+        FunctionCounter.builder("mail.tenants.reloads", rejectedReloads, LongAdder::sum)
+                .description("Tenant configuration reloads")
+                .tag("result", "rejected")
+                .register(registry);
+    }
+
+    /**
+     * Replaces the snapshot with the current content of the file. Called by the watcher thread
+     * only, so reloads never overlap.
+     */
+    void reload() {
+        if (!Files.exists(file)) {
+            logger.warn("Tenant configuration {} was removed, keeping the {} tenants loaded", file, size());
+            return;
+        }
+        try {
+            snapshot = load();
+            reloads.increment();
+            logger.info("Reloaded tenant configuration {}: {} tenants", file, size());
+        } catch (IOException | RuntimeException e) {
+            rejectedReloads.increment();
+            logger.warn("Rejected tenant configuration {}, keeping the previous one: {}", file, e.getMessage());
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Editors and deployment tools write in several steps: wait for the writes to settle.
+                WatchKey next;
+                while ((next = watchService.poll(reloadDelay.toNanos(), TimeUnit.NANOSECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            logger.debug("Stopped watching tenant configuration {}", file);
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            logger.warn("Tenant configuration directory {} is no longer watched", file.getParent());
+        }
+        return changed;
+    }
+
+    private Snapshot load() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, TenantProperties> tenants = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("tenant", Bindable.mapOf(String.class, TenantProperties.class))
+                .orElse(Map.of());
+        return Snapshot.of(tenants);
+    }
+
+    /**
+     * {@code keyed} holds the ids of the tenants that have API keys.
+     */
+    private record Snapshot(Map<String, Tenant> byId, Map<String, Tenant> byApiKey, Set<String> keyed,
+                            Tenant defaults) {
+
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Set.of(), Tenant.DEFAULT);
+
+        /**
+         * Compiles every tenant up front, so that requests only ever look settings up.
+         */
+        private static Snapshot of(Map<String, TenantProperties> tenants) {
+            Map<String, Tenant> byId = new HashMap<>();
+            Map<String, Tenant> byApiKey = new HashMap<>();
+            Set<String> keyed = new HashSet<>();
+            for (Map.Entry<String, TenantProperties> entry : tenants.entrySet()) {
+                String id = entry.getKey();
+                TenantProperties properties = entry.getValue();
+                if (properties.maxSubjectLength() < 0 || properties.maxContentLength() < 0) {
+                    throw new IllegalArgumentException("Invalid size limits of tenant " + id);
+                }
+                Tenant tenant = new Tenant(id, properties.integration(),
+                        properties.rateLimits() == null ? null : new RateLimitRules(id + "/", properties.rateLimits()),
+                        properties.maxSubjectLength(), properties.maxContentLength());
+                byId.put(id, tenant);
+
+                if (!properties.apiKeys().isEmpty()) {
+                    keyed.add(id);
+                }
+                for (String apiKey : properties.apiKeys()) {
+                    Tenant previous = byApiKey.putIfAbsent(apiKey, tenant);
+                    if (previous != null) {
+                        throw new IllegalArgumentException("An API key of tenant " + id + " is also a key of tenant " + previous.id());
+                    }
+                }
+            }
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byApiKey), Set.copyOf(keyed),
+                    byId.getOrDefault(DEFAULT_TENANT, Tenant.DEFAULT));
+        }
+    }
+}
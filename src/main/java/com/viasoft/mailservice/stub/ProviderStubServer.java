@@ -0,0 +1,116 @@
+package com.viasoft.mailservice.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.adapter.AwsAdapterStrategy;
+import com.viasoft.mailservice.service.adapter.OciAdapterStrategy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP server imitating the AWS SES v2 {@code SendEmail} and OCI Email Delivery
+ * {@code SubmitEmail} APIs, so delivery can be exercised offline by integration and throughput
+ * tests. Enabled with {@code mail.stub.enabled=true}; endpoints without an explicit
+ * {@code mail.delivery.<type>.endpoint} are then pointed at it.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.stub.enabled", havingValue = "true")
+public class ProviderStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderStubServer.class);
+
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Map<IntegrationType, AtomicLong> received = new EnumMap<>(IntegrationType.class);
+
+    public ProviderStubServer(
+            @Value("${mail.stub.port}") int port,
+            @Value("${mail.stub.latency}") Duration latency) throws IOException {
+
+        this.latency = latency;
+        for (IntegrationType type : IntegrationType.values()) {
+            received.put(type, new AtomicLong());
+        }
+
+        // Without TCP_NODELAY every keep-alive exchange stalls on Nagle/delayed ACK (~40ms); the
+        // JDK server reads this once, so it only applies if no HttpServer was created before.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(AwsAdapterStrategy.SEND_EMAIL_PATH, exchange -> handle(exchange, IntegrationType.AWS));
+        server.createContext(OciAdapterStrategy.SUBMIT_EMAIL_PATH, exchange -> handle(exchange, IntegrationType.OCI));
+        server.start();
+
+        logger.info("Provider stub server listening on {}", getBaseUri());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+    }
+
+    public URI getBaseUri() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    public long getReceivedCount(IntegrationType integrationType) {
+        return received.get(integrationType).get();
+    }
+
+    private void handle(HttpExchange exchange, IntegrationType integrationType) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"message\":\"Method not allowed\"}");
+                return;
+            }
+            if (body.readAllBytes().length == 0) {
+                respond(exchange, 400, "{\"message\":\"Request body is required\"}");
+                return;
+            }
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+
+            received.get(integrationType).incrementAndGet();
+            String id = UUID.randomUUID().toString();
+            respond(exchange, 200, integrationType == IntegrationType.AWS
+                    ? "{\"MessageId\":\"" + id + "\"}"
+                    : "{\"messageId\":\"" + id + "\",\"envelopeId\":\"" + id + "\",\"suppressedRecipients\":[]}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
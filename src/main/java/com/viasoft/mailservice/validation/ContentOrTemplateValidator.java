@@ -0,0 +1,47 @@
+package com.viasoft.mailservice.validation;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ContentOrTemplateValidator implements ConstraintValidator<ContentOrTemplate, EmailRequestDTO> {
+
+    @Override
+    public boolean isValid(EmailRequestDTO request, ConstraintValidatorContext context) {
+        if (request == null) {
+            return true;
+        }
+
+        context.disableDefaultConstraintViolation();
+        if (!isBlank(request.getTemplateId())) {
+            boolean valid = true;
+            if (request.getSubject() != null) {
+                valid = reject(context, "subject", "must be empty when templateId is set");
+            }
+            if (request.getContent() != null) {
+                valid = reject(context, "content", "must be empty when templateId is set");
+            }
+            return valid;
+        }
+
+        boolean valid = true;
+        if (isBlank(request.getSubject())) {
+            valid = reject(context, "subject", context.getDefaultConstraintMessageTemplate());
+        }
+        if (isBlank(request.getContent())) {
+            valid = reject(context, "content", context.getDefaultConstraintMessageTemplate());
+        }
+        return valid;
+    }
+
+    private static boolean reject(ConstraintValidatorContext context, String field, String message) {
+        context.buildConstraintViolationWithTemplate(message)
+                .addPropertyNode(field)
+                .addConstraintViolation();
+        return false;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,14 @@
+package com.viasoft.mailservice.validation;
+
+/**
+ * Reflection-free validator generated at compile time by
+ * {@link com.viasoft.mailservice.validation.processor.DtoValidatorProcessor} for DTOs whose
+ * constraints it can translate. It only answers whether a DTO is valid: invalid DTOs are handed
+ * to the Bean Validation {@link jakarta.validation.Validator}, which builds the violations.
+ */
+public interface DtoValidator<T> {
+
+    Class<T> getType();
+
+    boolean isValid(T dto);
+}
@@ -0,0 +1,52 @@
+package com.viasoft.mailservice.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up the generated {@link DtoValidator} for a DTO class. Generated validators are
+ * registered through {@link ServiceLoader} by the annotation processor.
+ */
+@Component
+public class DtoValidatorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DtoValidatorRegistry.class);
+
+    private final Map<Class<?>, DtoValidator<?>> validators = new HashMap<>();
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    public DtoValidatorRegistry() {
+        this(ServiceLoader.load(DtoValidator.class, DtoValidatorRegistry.class.getClassLoader()).stream()
+                .<DtoValidator<?>>map(provider -> provider.get())
+                .toList());
+    }
+
+    public DtoValidatorRegistry(List<DtoValidator<?>> validators) {
+        for (DtoValidator<?> validator : validators) {
+            this.validators.put(validator.getType(), validator);
+        }
+        logger.info("Loaded {} generated DTO validators", this.validators.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> DtoValidator<T> get(Class<T> type) {
+        return (DtoValidator<T>) validators.get(type);
+    }
+
+    /**
+     * Returns {@code true} only when a generated validator exists for the DTO's class and accepts it.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean isValid(Object dto) {
+        DtoValidator<Object> validator = (DtoValidator<Object>) validators.get(dto.getClass());
+        return validator != null && validator.isValid(dto);
+    }
+}
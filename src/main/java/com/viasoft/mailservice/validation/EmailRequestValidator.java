@@ -0,0 +1,31 @@
+package com.viasoft.mailservice.validation;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The checks {@code @Valid} runs on a request body, without the
+ * {@code MethodArgumentNotValidException} (or {@code WebExchangeBindException}) the framework
+ * would throw for an invalid one. Failures are counted like the exception handler counts them.
+ */
+@Component
+public class EmailRequestValidator {
+
+    private final Validator validator;
+    private final EmailMetrics metrics;
+
+    public EmailRequestValidator(Validator validator, EmailMetrics metrics) {
+        this.validator = validator;
+        this.metrics = metrics;
+    }
+
+    public ValidationResult validate(EmailRequestDTO requestDTO) {
+        ValidationResult result = ValidationResult.of(validator.validate(requestDTO));
+        if (!result.isValid()) {
+            metrics.validationFailed(null, result.getFieldErrors().keySet());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.viasoft.mailservice.validation;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.StacklessConstraintViolationException;
+import jakarta.validation.ConstraintViolation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Constraint violations of a request, returned instead of thrown where invalid input is an
+ * expected outcome. {@link #getFieldErrors()} maps each property path to its message, like the
+ * {@code fieldErrors} of a validation error body.
+ */
+public final class ValidationResult {
+
+    public static final ValidationResult VALID = new ValidationResult(Set.of(), Map.of());
+
+    private final Set<? extends ConstraintViolation<?>> violations;
+    private final Map<String, String> fieldErrors;
+
+    private ValidationResult(Set<? extends ConstraintViolation<?>> violations, Map<String, String> fieldErrors) {
+        this.violations = violations;
+        this.fieldErrors = fieldErrors;
+    }
+
+    public static ValidationResult of(Set<? extends ConstraintViolation<?>> violations) {
+        if (violations.isEmpty()) {
+            return VALID;
+        }
+        Map<String, String> fieldErrors = new HashMap<>();
+        for (ConstraintViolation<?> violation : violations) {
+            fieldErrors.putIfAbsent(String.valueOf(violation.getPropertyPath()), violation.getMessage());
+        }
+        return new ValidationResult(violations, fieldErrors);
+    }
+
+    /**
+     * A single field error that does not come from a constraint, like a
+     * {@link FieldValidationException}.
+     */
+    public static ValidationResult ofField(String field, String message) {
+        return new ValidationResult(Set.of(), Map.of(field, message));
+    }
+
+    public boolean isValid() {
+        return fieldErrors.isEmpty();
+    }
+
+    public Set<? extends ConstraintViolation<?>> getViolations() {
+        return violations;
+    }
+
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+
+    /**
+     * For callers of the throwing API: throws the violations as a
+     * {@link jakarta.validation.ConstraintViolationException}, or a field error as a
+     * {@link FieldValidationException}, unless the result is valid.
+     */
+    public void orThrow() {
+        if (!violations.isEmpty()) {
+            throw new StacklessConstraintViolationException(violations);
+        }
+        if (!fieldErrors.isEmpty()) {
+            Map.Entry<String, String> error = fieldErrors.entrySet().iterator().next();
+            throw new FieldValidationException(error.getKey(), error.getValue());
+        }
+    }
+}
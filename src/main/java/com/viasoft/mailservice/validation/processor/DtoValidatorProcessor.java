@@ -0,0 +1,275 @@
+package com.viasoft.mailservice.validation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code <Dto>Validator} implementing
+ * {@link com.viasoft.mailservice.validation.DtoValidator} for every class in
+ * {@code com.viasoft.mailservice.dto} whose fields only use {@code @NotNull}, {@code @NotEmpty},
+ * {@code @NotBlank} and {@code @Size}, and registers them in {@code META-INF/services}.
+ * Classes using any other constraint are skipped and keep being validated reflectively.
+ * <p>
+ * Runs in its own compiler execution (see pom.xml), because the processor has to be compiled
+ * before it can be used on the sources of the same module.
+ */
+@SupportedAnnotationTypes("jakarta.validation.constraints.*")
+public class DtoValidatorProcessor extends AbstractProcessor {
+
+    static final String DTO_PACKAGE = "com.viasoft.mailservice.dto";
+    static final String VALIDATOR_INTERFACE = "com.viasoft.mailservice.validation.DtoValidator";
+
+    private static final String CONSTRAINTS_PACKAGE = "jakarta.validation.constraints.";
+    private static final String DEFAULT_GROUP = "jakarta.validation.groups.Default";
+    private static final Set<String> GETTER_ANNOTATIONS = Set.of("lombok.Data", "lombok.Getter", "lombok.Value");
+
+    private final Set<String> processedTypes = new TreeSet<>();
+    private final Set<String> generatedValidators = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD
+                        && element.getEnclosingElement() instanceof TypeElement type
+                        && processedTypes.add(type.getQualifiedName().toString())) {
+                    generate(type);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver() && !generatedValidators.isEmpty()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        String qualifiedName = type.getQualifiedName().toString();
+        if (!qualifiedName.startsWith(DTO_PACKAGE + ".") || type.getKind() != ElementKind.CLASS
+                || type.getNestingKind().isNested()) {
+            return;
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String accessor = accessor(type, field);
+            String local = field.getSimpleName().toString();
+            List<String> checks = new ArrayList<>();
+
+            for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (!annotationName.startsWith(CONSTRAINTS_PACKAGE)) {
+                    continue;
+                }
+                String check = accessor == null ? null : translate(annotationName, mirror, field, local);
+                if (check == null) {
+                    note(type, "@" + annotationName.substring(CONSTRAINTS_PACKAGE.length()) + " on " + local
+                            + " is not supported, keeping reflective validation");
+                    return;
+                }
+                if (!check.isEmpty()) {
+                    checks.add(check);
+                }
+            }
+
+            if (!checks.isEmpty()) {
+                statements.add("var " + local + " = " + accessor + ";");
+                statements.addAll(checks);
+            }
+        }
+
+        if (type.getSuperclass().getKind() == TypeKind.DECLARED
+                && !"java.lang.Object".equals(type.getSuperclass().toString())) {
+            note(type, "inherited constraints are not supported, keeping reflective validation");
+            return;
+        }
+
+        writeValidator(type, statements);
+    }
+
+    private String translate(String annotationName, AnnotationMirror mirror, VariableElement field, String value) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        if (!usesDefaultGroup(values)) {
+            return null;
+        }
+
+        TypeMirror fieldType = field.asType();
+        boolean charSequence = isAssignable(fieldType, "java.lang.CharSequence");
+        boolean collection = isAssignable(fieldType, "java.util.Collection") || isAssignable(fieldType, "java.util.Map");
+        boolean array = fieldType.getKind() == TypeKind.ARRAY;
+        boolean reference = !fieldType.getKind().isPrimitive();
+
+        String size = charSequence ? ".length()" : collection ? ".size()" : array ? ".length" : null;
+
+        return switch (annotationName.substring(CONSTRAINTS_PACKAGE.length())) {
+            case "NotNull" -> reference ? "if (" + value + " == null) return false;" : "";
+            case "NotEmpty" -> size == null ? null
+                    : "if (" + value + " == null || " + value + size + " == 0) return false;";
+            case "NotBlank" -> charSequence
+                    ? "if (" + value + " == null || isBlank(" + value + ")) return false;"
+                    : null;
+            case "Size" -> {
+                if (size == null) {
+                    yield null;
+                }
+                int min = (Integer) attribute(values, "min");
+                int max = (Integer) attribute(values, "max");
+                List<String> bounds = new ArrayList<>();
+                if (min > 0) {
+                    bounds.add(value + size + " < " + min);
+                }
+                if (max != Integer.MAX_VALUE) {
+                    bounds.add(value + size + " > " + max);
+                }
+                yield bounds.isEmpty() ? ""
+                        : "if (" + value + " != null && (" + String.join(" || ", bounds) + ")) return false;";
+            }
+            default -> null;
+        };
+    }
+
+    private String accessor(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String getter = (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + suffix;
+
+        boolean explicitGetter = ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .anyMatch(method -> method.getSimpleName().contentEquals(getter) && method.getParameters().isEmpty()
+                        && !method.getModifiers().contains(Modifier.PRIVATE));
+        boolean lombokGetter = type.getAnnotationMirrors().stream()
+                .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())
+                .anyMatch(GETTER_ANNOTATIONS::contains);
+
+        if (explicitGetter || lombokGetter) {
+            return "dto." + getter + "()";
+        }
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "dto." + name;
+        }
+        return null;
+    }
+
+    private boolean usesDefaultGroup(Map<? extends ExecutableElement, ? extends AnnotationValue> values) {
+        Object groups = attribute(values, "groups");
+        if (!(groups instanceof List<?> list) || list.isEmpty()) {
+            return true;
+        }
+        return list.size() == 1 && DEFAULT_GROUP.equals(String.valueOf(((AnnotationValue) list.get(0)).getValue()));
+    }
+
+    private Object attribute(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        return values.entrySet().stream()
+                .filter(entry -> entry.getKey().getSimpleName().contentEquals(name))
+                .map(entry -> entry.getValue().getValue())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean isAssignable(TypeMirror type, String target) {
+        TypeElement targetElement = processingEnv.getElementUtils().getTypeElement(target);
+        return targetElement != null && processingEnv.getTypeUtils()
+                .isAssignable(processingEnv.getTypeUtils().erasure(type), processingEnv.getTypeUtils().erasure(targetElement.asType()));
+    }
+
+    private void writeValidator(TypeElement type, List<String> statements) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String dtoName = type.getSimpleName().toString();
+        String validatorName = dtoName + "Validator";
+
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(packageName).append(";\n\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(validatorName)
+                .append(" implements ").append(VALIDATOR_INTERFACE).append("<").append(dtoName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public Class<").append(dtoName).append("> getType() {\n")
+                .append("        return ").append(dtoName).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean isValid(").append(dtoName).append(" dto) {\n");
+        for (String statement : statements) {
+            source.append("        ").append(statement).append("\n");
+        }
+        source.append("        return true;\n")
+                .append("    }\n");
+        if (statements.stream().anyMatch(statement -> statement.contains("isBlank("))) {
+            source.append("\n")
+                    .append("    private static boolean isBlank(CharSequence value) {\n")
+                    .append("        for (int i = 0; i < value.length(); i++) {\n")
+                    .append("            if (value.charAt(i) > ' ') return false;\n")
+                    .append("        }\n")
+                    .append("        return true;\n")
+                    .append("    }\n");
+        }
+        source.append("}\n");
+
+        String qualifiedValidatorName = packageName + "." + validatorName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedValidatorName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+            generatedValidators.add(qualifiedValidatorName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + qualifiedValidatorName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private void writeServiceFile() {
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + VALIDATOR_INTERFACE);
+            try (Writer writer = file.openWriter()) {
+                for (String validator : generatedValidators) {
+                    writer.write(validator);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to register generated DTO validators: " + e.getMessage());
+        }
+    }
+
+    private void note(TypeElement type, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                type.getSimpleName() + ": " + message, type);
+    }
+}
@@ -3,7 +3,7 @@ package com.viasoft.mailservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "mail.grpc.port=0")
 class MailServiceApplicationTests {
 
     @Test
@@ -0,0 +1,41 @@
+package com.viasoft.mailservice;
+
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.exception.ValidationErrorResponse;
+import com.viasoft.mailservice.validation.ContentOrTemplateValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MailServiceRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new MailServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void deveRegistrarPayloadsSerializadosForaDoController() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(EmailAwsDTO.class.getMethod("getRecipient"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(EmailOciDTO.class.getMethod("getBody"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(BatchItemResultDTO.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ValidationErrorResponse.class)).accepts(hints);
+    }
+
+    @Test
+    void deveRegistrarTiposIntrospectadosPeloBeanValidation() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(EmailRequestDTO.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ContentOrTemplateValidator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+}
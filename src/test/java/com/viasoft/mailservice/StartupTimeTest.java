@@ -0,0 +1,115 @@
+package com.viasoft.mailservice;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application in its own JVM and measures the time until the first
+ * {@code POST /api/email/send} is accepted. Tagged {@code startup}, so {@code mvn test} leaves
+ * it out; the {@code aot} profile runs it on the extracted jar with AOT and the CDS archive
+ * ({@code startup.jar} and {@code startup.jvm-args}). The limit is {@code startup.max-time}.
+ */
+@Tag("startup")
+public class StartupTimeTest {
+
+    private static final Duration MAX_TIME = DurationStyle.detectAndParse(System.getProperty("startup.max-time", "30s"));
+
+    private static final String VALID_REQUEST = """
+            {"recipientEmail":"recipient@example.com","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveAtenderPrimeiroEnvioDentroDoTempoMaximo() throws Exception {
+        int port = freePort();
+        Path log = directory.resolve("startup.log");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/email/send"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(VALID_REQUEST))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command(port))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            Duration elapsed = null;
+            while (elapsed == null && process.isAlive() && System.nanoTime() - start < MAX_TIME.toNanos()) {
+                elapsed = trySend(client, request, start);
+                if (elapsed == null) {
+                    Thread.sleep(10);
+                }
+            }
+
+            assertThat(elapsed)
+                    .as("time to first successful /email/send, application log:%n%s", Files.readString(log))
+                    .isNotNull()
+                    .isLessThan(MAX_TIME);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        String jvmArgs = System.getProperty("startup.jvm-args", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(List.of(jvmArgs.split("\\s+")));
+        }
+        command.add("-Dspring.devtools.restart.enabled=false");
+
+        String jar = System.getProperty("startup.jar", "");
+        if (jar.isBlank()) {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), MailServiceApplication.class.getName()));
+        } else {
+            command.addAll(List.of("-jar", jar));
+        }
+
+        command.add("--server.port=" + port);
+        command.add("--mail.grpc.port=0");
+        command.add("--mail.template.directory=" + directory.resolve("templates"));
+        return command;
+    }
+
+    private static Duration trySend(HttpClient client, HttpRequest request, long start) throws InterruptedException {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 == 2) {
+                return Duration.ofNanos(System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            // not listening yet
+        }
+        return null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
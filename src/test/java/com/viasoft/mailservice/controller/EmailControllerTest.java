@@ -4,26 +4,54 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.ErrorBodyWriter;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
 import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.SendResult;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.idempotency.IdempotencyCache;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import com.viasoft.mailservice.service.status.StatusStore;
+import com.viasoft.mailservice.validation.EmailRequestValidator;
+import com.viasoft.mailservice.validation.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EmailController.class)
+@Import({IdempotencyCache.class, EmailMetrics.class, SimpleMeterRegistry.class,
+        EmailRequestValidator.class, ErrorBodyWriter.class})
 public class EmailControllerTest {
 
     @Autowired
@@ -32,9 +60,15 @@ public class EmailControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Validator validator;
+
     @MockitoBean
     private EmailService emailService;
 
+    @MockitoBean
+    private EmailBatchProcessor batchProcessor;
+
     private EmailRequestDTO validRequestDTO;
 
     @BeforeEach
@@ -45,16 +79,25 @@ public class EmailControllerTest {
         validRequestDTO.setSenderEmail("sender@example.com");
         validRequestDTO.setSubject("Test");
         validRequestDTO.setContent("Body Email");
+
+        when(emailService.sendEmail(any(EmailRequestDTO.class))).thenReturn(new SendResult(42L, ValidationResult.VALID));
     }
 
     @Test
     void deveRetornarStatus204QuandoSucesso() throws Exception {
-        doNothing().when(emailService).handleEmail(any(EmailRequestDTO.class));
-
         mockMvc.perform(post("/email/send")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(validRequestDTO)))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(EmailController.MESSAGE_ID_HEADER, "42"));
+    }
+
+    @Test
+    void deveRetornarStatus404NaConsultaDeStatusQuandoRastreamentoDesabilitado() throws Exception {
+        mockMvc.perform(get("/email/42/status"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value(StatusStore.DISABLED));
     }
 
     @Test
@@ -74,10 +117,49 @@ public class EmailControllerTest {
                 .andExpect(jsonPath("$.fieldErrors.recipientEmail").exists());
     }
 
+    @Test
+    void deveRetornarStatus400QuandoTemplateEConteudoInformadosJuntos() throws Exception {
+        validRequestDTO.setTemplateId("welcome");
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.subject").exists())
+                .andExpect(jsonPath("$.fieldErrors.content").exists());
+    }
+
+    @Test
+    void deveAceitarRequisicaoComTemplateSemAssuntoEConteudo() throws Exception {
+        validRequestDTO.setSubject(null);
+        validRequestDTO.setContent(null);
+        validRequestDTO.setTemplateId("welcome");
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void deveRetornarStatus400QuandoTemplateInexistente() throws Exception {
+        validRequestDTO.setSubject(null);
+        validRequestDTO.setContent(null);
+        validRequestDTO.setTemplateId("missing");
+        doThrow(new FieldValidationException("templateId", "Unknown template: missing"))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.templateId").value("Unknown template: missing"));
+    }
+
     @Test
     void deveRetornarStatus400QuandoValidacaoDeAdaptacaoFalha() throws Exception {
         doThrow(new ConstraintViolationException(Collections.emptySet()))
-                .when(emailService).handleEmail(any(EmailRequestDTO.class));
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
 
         mockMvc.perform(post("/email/send")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -87,10 +169,40 @@ public class EmailControllerTest {
                 .andExpect(jsonPath("$.message").value("Validation error"));
     }
 
+    @Test
+    void deveRetornarStatus400SemExcecaoQuandoNenhumProvedorComportaORequest() throws Exception {
+        // O serviço devolve as violações em vez de lançá-las; o corpo é o mesmo do handler
+        EmailRequestDTO adaptado = new EmailRequestDTO();
+        adaptado.setRecipientEmail("recipient@example.com");
+        adaptado.setRecipientName("Recipient Name");
+        adaptado.setSenderEmail("sender@example.com");
+        adaptado.setSubject("Test");
+        ValidationResult invalido = ValidationResult.of(validator.validate(adaptado));
+        when(emailService.sendEmail(any(EmailRequestDTO.class))).thenReturn(new SendResult(42L, invalido));
+
+        mockMvc.perform(post("/email/send")
+                        .header("Idempotency-Key", "order-789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Validation error"))
+                .andExpect(jsonPath("$.fieldErrors.content").exists());
+
+        // A chave é liberada, então a correção do request é processada normalmente
+        when(emailService.sendEmail(any(EmailRequestDTO.class))).thenReturn(new SendResult(43L, ValidationResult.VALID));
+        mockMvc.perform(post("/email/send")
+                        .header("Idempotency-Key", "order-789")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(EmailController.MESSAGE_ID_HEADER, "43"));
+    }
+
     @Test
     void deveRetornarStatus500QuandoErroDeConfiguracao() throws Exception {
         doThrow(new ConfigurationException("Invalid configuration: 'mail.integracao'"))
-                .when(emailService).handleEmail(any(EmailRequestDTO.class));
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
 
         mockMvc.perform(post("/email/send")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -99,4 +211,108 @@ public class EmailControllerTest {
                 .andExpect(jsonPath("$.status").value(500))
                 .andExpect(jsonPath("$.message").value("Invalid configuration: 'mail.integracao'"));
     }
+
+    @Test
+    void deveRetornarStatus503ComRetryAfterQuandoProvedorSaturado() throws Exception {
+        doThrow(new ServiceUnavailableException("Provider AWS is at capacity, try again later", Duration.ofSeconds(2)))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void deveRepetirResultadoOriginalSemReenviarQuandoIdempotencyKeyRepetida() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/email/send")
+                            .header("Idempotency-Key", "order-123")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validRequestDTO)))
+                    .andExpect(status().isNoContent());
+        }
+
+        verify(emailService, times(1)).sendEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveRetornarStatus409QuandoIdempotencyKeyReutilizadaComOutroConteudo() throws Exception {
+        mockMvc.perform(post("/email/send")
+                        .header("Idempotency-Key", "order-456")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isNoContent());
+
+        validRequestDTO.setSubject("Other subject");
+        mockMvc.perform(post("/email/send")
+                        .header("Idempotency-Key", "order-456")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void deveRetornarStatus429ComRetryAfterQuandoLimiteExcedido() throws Exception {
+        doThrow(new RateLimitExceededException("Rate limit exceeded for sender sender@example.com", Duration.ofMillis(300)))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @Test
+    void deveRetornarStatus422QuandoDestinatarioSuprimido() throws Exception {
+        doThrow(new SuppressedRecipientException("Recipient recipient@example.com is on the suppression list"))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value(422));
+    }
+
+    @Test
+    void deveRetornarStatus400QuandoSendAtSemAgendamentoHabilitado() throws Exception {
+        validRequestDTO.setSendAt(Instant.parse("2030-01-01T09:00:00Z"));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.sendAt").value(EmailScheduler.DISABLED));
+
+        verify(emailService, times(0)).sendEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveRetornarStatus502QuandoProvedorRecusaEntrega() throws Exception {
+        doThrow(new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500"))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.status").value(502));
+    }
+
+    @Test
+    void deveDelegarLoteAoProcessadorERetornarNdjson() throws Exception {
+        mockMvc.perform(post("/email/send/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(validRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        verify(batchProcessor).process(any(), any(), isNull());
+    }
 }
\ No newline at end of file
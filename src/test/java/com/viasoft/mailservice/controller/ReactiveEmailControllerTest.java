@@ -0,0 +1,170 @@
+package com.viasoft.mailservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.ErrorBodyWriter;
+import com.viasoft.mailservice.exception.ReactiveExceptionHandler;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.SendResult;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.idempotency.IdempotencyCache;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.reactive.ReactiveEmailService;
+import com.viasoft.mailservice.validation.EmailRequestValidator;
+import com.viasoft.mailservice.validation.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveEmailController.class)
+@Import({ReactiveEmailService.class, EmailBatchProcessor.class, ReactiveExceptionHandler.class,
+        IdempotencyCache.class, EmailMetrics.class, SimpleMeterRegistry.class,
+        EmailRequestValidator.class, ErrorBodyWriter.class})
+public class ReactiveEmailControllerTest {
+
+    private static final String VALID_ITEM = """
+            {"recipientEmail":"recipient@example.com","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}""";
+
+    private static final String INVALID_ITEM = """
+            {"recipientEmail":"email-invalid","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}""";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    private EmailRequestDTO validRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        validRequestDTO = new EmailRequestDTO();
+        validRequestDTO.setRecipientEmail("recipient@example.com");
+        validRequestDTO.setRecipientName("Recipient Name");
+        validRequestDTO.setSenderEmail("sender@example.com");
+        validRequestDTO.setSubject("Test");
+        validRequestDTO.setContent("Body Email");
+
+        when(emailService.sendEmail(any(EmailRequestDTO.class))).thenReturn(new SendResult(42L, ValidationResult.VALID));
+    }
+
+    @Test
+    void deveRetornarStatus204QuandoSucesso() {
+        webTestClient.post().uri("/email/send")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validRequestDTO)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(EmailController.MESSAGE_ID_HEADER, "42");
+
+        verify(emailService).sendEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveRetornarMesmoCorpoDeErroDoMvcQuandoValidacaoDeEntradaFalha() {
+        validRequestDTO.setRecipientEmail("email-invalid");
+
+        webTestClient.post().uri("/email/send")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validRequestDTO)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message").isEqualTo("Validation error")
+                .jsonPath("$.path").isEqualTo("/email/send")
+                .jsonPath("$.fieldErrors.recipientEmail").exists();
+    }
+
+    @Test
+    void deveRetornarStatus503ComRetryAfterQuandoProvedorSaturado() {
+        doThrow(new ServiceUnavailableException("Provider AWS is at capacity", Duration.ofSeconds(2)))
+                .when(emailService).sendEmail(any(EmailRequestDTO.class));
+
+        webTestClient.post().uri("/email/send")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validRequestDTO)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "2")
+                .expectBody().jsonPath("$.status").isEqualTo(503);
+    }
+
+    @Test
+    void deveRepetirResultadoOriginalSemReenviarQuandoIdempotencyKeyRepetida() {
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post().uri("/email/send")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotencyCache.HEADER, "reactive-key")
+                    .bodyValue(validRequestDTO)
+                    .exchange()
+                    .expectStatus().isNoContent();
+        }
+
+        verify(emailService, times(1)).sendEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveProcessarLoteEmStreamingMantendoAOrdem() {
+        List<JsonNode> results = sendBatch(MediaType.APPLICATION_NDJSON, VALID_ITEM + "\n" + INVALID_ITEM + "\n" + VALID_ITEM + "\n");
+
+        assertThat(results).extracting(result -> result.get("status").asText())
+                .containsExactly("ACCEPTED", "REJECTED", "ACCEPTED");
+        assertThat(results.get(1).get("fieldErrors").has("recipientEmail")).isTrue();
+        assertThat(results.get(2).get("index").asInt()).isEqualTo(2);
+        verify(emailService, times(2)).handleEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveInterromperLoteQuandoJsonMalformado() {
+        List<JsonNode> results = sendBatch(MediaType.APPLICATION_JSON, "[" + VALID_ITEM + ", {\"recipientEmail\": }]");
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(1).get("status").asText()).isEqualTo("REJECTED");
+        assertThat(results.get(1).get("index").asInt()).isEqualTo(1);
+        assertThat(results.get(1).get("message").asText()).startsWith("Malformed JSON");
+    }
+
+    private List<JsonNode> sendBatch(MediaType contentType, String body) {
+        String response = webTestClient.post().uri("/email/send/batch")
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        return response.lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.viasoft.mailservice.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorBodyWriterTest {
+
+    private static final String PATH = "/email/send?x=\"1\"";
+    private static final Pattern TIMESTAMP = Pattern.compile("\"timestamp\"\\s*:\\s*(\"[^\"]*\"|[0-9.]+)");
+
+    @Test
+    void deveUsarTemplatesComOObjectMapperDaAplicacao() {
+        // Mapper configurado pelo Spring Boot com o application.properties, como em produção
+        new ApplicationContextRunner()
+                .withInitializer(new ConfigDataApplicationContextInitializer())
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+                .withUserConfiguration(ErrorBodyWriter.class)
+                .run(context -> assertThat(context.getBean(ErrorBodyWriter.class).usesTemplates()).isTrue());
+    }
+
+    @Test
+    void deveEscreverOsMesmosBytesQueOObjectMapper() throws Exception {
+        ObjectMapper objectMapper = objectMapper().build();
+        ErrorBodyWriter writer = new ErrorBodyWriter(objectMapper);
+        assertThat(writer.usesTemplates()).isTrue();
+        String message = "Provider \"AWS\" recusou: ação inválida\n\t\u0002 </script>";
+
+        String body = new String(writer.write(HttpStatus.BAD_GATEWAY, message, PATH), StandardCharsets.UTF_8);
+
+        String expected = objectMapper.writeValueAsString(new ErrorResponse(502, message, PATH));
+        assertThat(body).isEqualTo(withTimestampOf(body, expected));
+    }
+
+    @Test
+    void deveEscreverErrosDeCampoNaMesmaOrdemDoObjectMapper() throws Exception {
+        ObjectMapper objectMapper = objectMapper().build();
+        ErrorBodyWriter writer = new ErrorBodyWriter(objectMapper);
+        Map<String, String> fieldErrors = new HashMap<>();
+        fieldErrors.put("recipientEmail", "must be a well-formed email address");
+        fieldErrors.put("subject", "must not be blank");
+        fieldErrors.put("variables[nome]", "valor \"inválido\"");
+
+        String body = new String(writer.writeValidation(PATH, fieldErrors), StandardCharsets.UTF_8);
+
+        String expected = objectMapper.writeValueAsString(
+                new ValidationErrorResponse(400, ErrorBodyWriter.VALIDATION_MESSAGE, PATH, fieldErrors));
+        assertThat(body).isEqualTo(withTimestampOf(body, expected));
+    }
+
+    @Test
+    void deveSerializarPeloObjectMapperQuandoSaidaNaoCorrespondeAoTemplate() throws Exception {
+        // Saída indentada e timestamps numéricos não cabem no template: o writer usa o mapper
+        for (ObjectMapper objectMapper : new ObjectMapper[]{
+                objectMapper().enable(SerializationFeature.INDENT_OUTPUT).build(),
+                objectMapper().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build()}) {
+            ErrorBodyWriter writer = new ErrorBodyWriter(objectMapper);
+            assertThat(writer.usesTemplates()).isFalse();
+
+            String body = new String(writer.write(HttpStatus.CONFLICT, "conflict", PATH), StandardCharsets.UTF_8);
+
+            String expected = objectMapper.writeValueAsString(new ErrorResponse(409, "conflict", PATH));
+            assertThat(body).isEqualTo(withTimestampOf(body, expected));
+        }
+    }
+
+    @Test
+    void deveEscreverMensagemNulaComoOObjectMapper() throws Exception {
+        ObjectMapper objectMapper = objectMapper().build();
+        ErrorBodyWriter writer = new ErrorBodyWriter(objectMapper);
+
+        String body = new String(writer.write(HttpStatus.INTERNAL_SERVER_ERROR, null, PATH), StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.readTree(body).get("message").isNull()).isTrue();
+    }
+
+    private static JsonMapper.Builder objectMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * {@code expected} com o timestamp de {@code body}, já que cada resposta tem o seu.
+     */
+    private static String withTimestampOf(String body, String expected) {
+        Matcher actual = TIMESTAMP.matcher(body);
+        assertThat(actual.find()).isTrue();
+        return TIMESTAMP.matcher(expected).replaceFirst(Matcher.quoteReplacement(actual.group()));
+    }
+}
@@ -0,0 +1,228 @@
+package com.viasoft.mailservice.grpc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.rpc.BadRequest;
+import com.google.rpc.Code;
+import com.google.rpc.RetryInfo;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.grpc.proto.BulkReply;
+import com.viasoft.mailservice.grpc.proto.EmailIngestionGrpc;
+import com.viasoft.mailservice.grpc.proto.EmailRequest;
+import com.viasoft.mailservice.grpc.proto.SendReply;
+import com.viasoft.mailservice.mapper.EmailProtoMapperImpl;
+import com.viasoft.mailservice.service.AsyncEmailService;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.batch.EmailBatchProcessor;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailIngestionServiceTest {
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private ObjectProvider<AsyncEmailService> asyncEmailService;
+
+    @Mock
+    private ObjectProvider<EmailScheduler> emailScheduler;
+
+    @Mock
+    private ObjectProvider<TenantRegistry> tenantRegistry;
+
+    @Mock
+    private TenantRegistry tenants;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        EmailMetrics metrics = new EmailMetrics(new SimpleMeterRegistry());
+        EmailBatchProcessor batchProcessor = new EmailBatchProcessor(new ObjectMapper(), validator, emailService, metrics, emailScheduler);
+        lenient().when(tenantRegistry.getIfAvailable()).thenReturn(tenants);
+        EmailIngestionService service = new EmailIngestionService(new EmailProtoMapperImpl(), validator, emailService,
+                asyncEmailService, emailScheduler, batchProcessor, metrics, tenantRegistry);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(service, new TenantServerInterceptor()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void deveEnviarEmailPeloPipeline() {
+        when(emailService.handleEmail(any(EmailRequestDTO.class))).thenReturn(42L);
+
+        SendReply reply = EmailIngestionGrpc.newBlockingStub(channel).send(validRequest().build());
+
+        assertThat(reply.getMessageId()).isEqualTo("42");
+        verify(emailService).handleEmail(argThat(dto -> dto.getRecipientEmail().equals("recipient@example.com")
+                && dto.getTemplateId() == null));
+    }
+
+    @Test
+    void deveEnviarComTenantDosMetadados() {
+        when(tenants.resolve("acme", "key-acme")).thenReturn("acme");
+        Metadata metadata = new Metadata();
+        metadata.put(TenantServerInterceptor.TENANT_ID_KEY, "acme");
+        metadata.put(TenantServerInterceptor.API_KEY_KEY, "key-acme");
+
+        EmailIngestionGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata))
+                .send(validRequest().build());
+
+        verify(emailService).handleEmail(argThat(dto -> "acme".equals(dto.getTenantId())));
+    }
+
+    @Test
+    void deveRejeitarTenantInvalidoComCampoDosMetadados() {
+        when(tenants.resolve("globex", null))
+                .thenThrow(new FieldValidationException(TenantRegistry.API_KEY_HEADER, "Required for tenant globex"));
+        Metadata metadata = new Metadata();
+        metadata.put(TenantServerInterceptor.TENANT_ID_KEY, "globex");
+
+        StatusRuntimeException exception = catchThrowableOfType(StatusRuntimeException.class,
+                () -> EmailIngestionGrpc.newBlockingStub(channel)
+                        .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata))
+                        .send(validRequest().build()));
+
+        com.google.rpc.Status status = StatusProto.fromThrowable(exception);
+        assertThat(status.getCode()).isEqualTo(Code.INVALID_ARGUMENT_VALUE);
+        assertThat(unpack(status, BadRequest.class).getFieldViolations(0).getField()).isEqualTo("x-api-key");
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void deveRetornarInvalidArgumentComCamposDoProto() {
+        EmailRequest request = validRequest().setRecipientEmail("email-invalid").clearSubject().build();
+
+        StatusRuntimeException exception = catchThrowableOfType(StatusRuntimeException.class,
+                () -> EmailIngestionGrpc.newBlockingStub(channel).send(request));
+
+        com.google.rpc.Status status = StatusProto.fromThrowable(exception);
+        assertThat(status.getCode()).isEqualTo(Code.INVALID_ARGUMENT_VALUE);
+        assertThat(status.getDetails(0).is(BadRequest.class)).isTrue();
+        assertThat(unpack(status, BadRequest.class).getFieldViolationsList())
+                .extracting(BadRequest.FieldViolation::getField)
+                .containsExactlyInAnyOrder("recipient_email", "subject");
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void deveRetornarUnavailableComRetryInfo() {
+        doThrow(new ServiceUnavailableException("Provider busy", Duration.ofSeconds(2)))
+                .when(emailService).handleEmail(any(EmailRequestDTO.class));
+
+        StatusRuntimeException exception = catchThrowableOfType(StatusRuntimeException.class,
+                () -> EmailIngestionGrpc.newBlockingStub(channel).send(validRequest().build()));
+
+        com.google.rpc.Status status = StatusProto.fromThrowable(exception);
+        assertThat(status.getCode()).isEqualTo(Code.UNAVAILABLE_VALUE);
+        assertThat(unpack(status, RetryInfo.class).getRetryDelay().getSeconds()).isEqualTo(2);
+    }
+
+    @Test
+    void deveProcessarStreamDoClienteItemAItem() throws Exception {
+        when(tenants.resolve(null, "key-acme")).thenReturn("acme");
+        Metadata metadata = new Metadata();
+        metadata.put(TenantServerInterceptor.API_KEY_KEY, "key-acme");
+
+        CompletableFuture<BulkReply> reply = new CompletableFuture<>();
+        StreamObserver<EmailRequest> requests = EmailIngestionGrpc.newStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata))
+                .sendBulk(new StreamObserver<>() {
+                    @Override
+                    public void onNext(BulkReply value) {
+                        reply.complete(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        reply.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        requests.onNext(validRequest().build());
+        requests.onNext(validRequest().setSenderEmail("").build());
+        requests.onNext(validRequest().clearSubject().clearContent().setTemplateId("welcome").putVariables("name", "Ana").build());
+        requests.onCompleted();
+
+        BulkReply result = reply.get(5, TimeUnit.SECONDS);
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getRejections(0).getIndex()).isEqualTo(1);
+        assertThat(result.getRejections(0).getFieldErrorsMap()).containsKey("sender_email");
+        verify(emailService, times(2)).handleEmail(argThat(dto -> "acme".equals(dto.getTenantId())));
+    }
+
+    @Test
+    void deveConverterNomesDePropriedadeParaCamposDoProto() {
+        assertThat(EmailIngestionService.toProtoField("recipientEmail")).isEqualTo("recipient_email");
+        assertThat(EmailIngestionService.toProtoField("subject")).isEqualTo("subject");
+        assertThat(EmailIngestionService.toProtoField(TenantRegistry.TENANT_HEADER)).isEqualTo("x-tenant-id");
+    }
+
+    private static EmailRequest.Builder validRequest() {
+        return EmailRequest.newBuilder()
+                .setRecipientEmail("recipient@example.com")
+                .setRecipientName("Name")
+                .setSenderEmail("sender@example.com")
+                .setSubject("Test")
+                .setContent("Body");
+    }
+
+    private static <T extends com.google.protobuf.Message> T unpack(com.google.rpc.Status status, Class<T> type) {
+        try {
+            return status.getDetails(0).unpack(type);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,27 +1,63 @@
 package com.viasoft.mailservice.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTOValidator;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.SuppressedRecipientException;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.DeliveryStatus;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.model.enums.RoutingMode;
 import com.viasoft.mailservice.service.adapter.AdapterStrategy;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.coalesce.EmailCoalescer;
+import com.viasoft.mailservice.service.dispatch.BulkheadRegistry;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.metrics.EmailMetrics.Rejection;
+import com.viasoft.mailservice.service.ratelimit.EmailRateLimiter;
+import com.viasoft.mailservice.service.ratelimit.RateLimitRule;
+import com.viasoft.mailservice.service.ratelimit.RateLimitRules;
+import com.viasoft.mailservice.service.routing.ProviderRouter;
+import com.viasoft.mailservice.service.sink.EmailSink;
+import com.viasoft.mailservice.service.status.StatusStore;
+import com.viasoft.mailservice.service.suppression.SuppressionList;
+import com.viasoft.mailservice.service.template.TemplateEngine;
+import com.viasoft.mailservice.service.template.TemplateRepository;
+import com.viasoft.mailservice.service.tenant.Tenant;
+import com.viasoft.mailservice.service.tenant.TenantRegistry;
+import com.viasoft.mailservice.validation.DtoValidatorRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -36,11 +72,32 @@ public class EmailServiceImplTest {
     @Mock
     private Validator validator;
     @Mock
-    private ObjectMapper objectMapper;
+    private EmailSink emailSink;
+
+    @Mock
+    private ProviderRouter router;
+    @Mock
+    private EmailRateLimiter rateLimiter;
+    @Mock
+    private SuppressionList suppressionList;
+    @Mock
+    private ObjectProvider<EmailCoalescer> coalescer;
+    @Mock
+    private EmailCoalescer emailCoalescer;
     @Mock
-    private ObjectWriter objectWriter;
+    private ObjectProvider<StatusStore> statusStoreProvider;
+    @Mock
+    private StatusStore statusStore;
+    @Mock
+    private ObjectProvider<TenantRegistry> tenantsProvider;
+    @Mock
+    private TenantRegistry tenants;
+
+    @TempDir
+    Path templates;
 
     private EmailService emailService;
+    private MeterRegistry meterRegistry;
     private EmailRequestDTO requestDTO;
 
 @BeforeEach
@@ -49,26 +106,42 @@ void setUp() {
     when(ociStrategy.getIntegrationType()).thenReturn(IntegrationType.OCI);
 
     requestDTO = new EmailRequestDTO(); // DTO de entrada genérico
+    meterRegistry = new SimpleMeterRegistry();
+}
 
-    try {
-        when(objectMapper.writerWithDefaultPrettyPrinter()).thenReturn(objectWriter);
-        when(objectWriter.writeValueAsString(any())).thenReturn("{}");
-    } catch (Exception e) {
+    private void instanciarServico(IntegrationType tipoConfigurado, List<AdapterStrategy> strategiesDisponiveis) {
+        instanciarServico(tipoConfigurado, strategiesDisponiveis, new DtoValidatorRegistry(List.of()));
+    }
 
+    private void instanciarServico(IntegrationType tipoConfigurado, List<AdapterStrategy> strategiesDisponiveis,
+                                   DtoValidatorRegistry dtoValidators) {
+        instanciarServico(tipoConfigurado, RoutingMode.STATIC, strategiesDisponiveis, dtoValidators);
     }
-}
 
-    private void instanciarServico(IntegrationType tipoConfigurado, List<AdapterStrategy> strategiesDisponiveis) {
+    private void instanciarServico(IntegrationType tipoConfigurado, RoutingMode modoRoteamento,
+                                   List<AdapterStrategy> strategiesDisponiveis, DtoValidatorRegistry dtoValidators) {
         emailService = new EmailServiceImpl(
                 tipoConfigurado,
+                modoRoteamento,
                 strategiesDisponiveis,
-                objectMapper,
-                validator
+                emailSink,
+                validator,
+                dtoValidators,
+                new BulkheadRegistry(Map.of()),
+                router,
+                rateLimiter,
+                suppressionList,
+                new TemplateEngine(new TemplateRepository(templates, 10), new BodyStore(false, templates, 1024, 1, 128), Mappers.getMapper(EmailMapper.class)),
+                coalescer,
+                statusStoreProvider,
+                tenantsProvider,
+                new MessageIdGenerator(),
+                new EmailMetrics(meterRegistry)
         );
     }
 
     @Test
-    void deveProcessarComSucessoEstrategiaAws() throws Exception {
+    void deveProcessarComSucessoEstrategiaAws() {
         instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
         EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
 
@@ -80,11 +153,12 @@ void setUp() {
         verify(awsStrategy).adapt(requestDTO);
         verify(ociStrategy, never()).adapt(any());
         verify(validator).validate(dtoAdaptado);
-        verify(objectWriter).writeValueAsString(dtoAdaptado);
+        verify(awsStrategy).send(dtoAdaptado);
+        verify(emailSink).write(dtoAdaptado);
     }
 
     @Test
-    void deveProcessarComSucessoEstrategiaOci() throws Exception {
+    void deveProcessarComSucessoEstrategiaOci() {
         instanciarServico(IntegrationType.OCI, List.of(awsStrategy, ociStrategy));
         Object dtoAdaptado = new Object();
 
@@ -96,7 +170,7 @@ void setUp() {
         verify(ociStrategy).adapt(requestDTO);
         verify(awsStrategy, never()).adapt(any());
         verify(validator).validate(dtoAdaptado);
-        verify(objectWriter).writeValueAsString(dtoAdaptado);
+        verify(emailSink).write(dtoAdaptado);
     }
 
     @Test
@@ -112,7 +186,187 @@ void setUp() {
         assertThatThrownBy(() -> emailService.handleEmail(requestDTO))
                 .isInstanceOf(ConstraintViolationException.class);
 
-        verify(objectMapper, never()).writerWithDefaultPrettyPrinter();
+        verify(awsStrategy, never()).send(any());
+        verify(emailSink, never()).write(any());
+    }
+
+    @Test
+    void deveDevolverViolacoesSemLancarExcecaoNoEnvioPorResultado() {
+        when(statusStoreProvider.getIfAvailable()).thenReturn(statusStore);
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        Set<ConstraintViolation<EmailAwsDTO>> violations = Collections.singleton(mock(ConstraintViolation.class));
+        when(validator.validate(dtoAdaptado)).thenReturn(violations);
+
+        SendResult result = emailService.sendEmail(requestDTO);
+
+        assertThat(result.isSent()).isFalse();
+        assertThat(result.validation().getViolations()).hasSize(1);
+        verify(statusStore).failed(result.messageId(), Rejection.VALIDATION);
+        verify(statusStore, never()).record(anyLong(), any());
+        verify(awsStrategy, never()).send(any());
+        // Rejeitado antes do bulkhead: a fila da integração não chega a ser medida
+        assertThat(meterRegistry.get("mail.stage").tag("stage", "queue").tag("integration", "AWS").timer().count())
+                .isZero();
+    }
+
+    @Test
+    void deveEnviarPelaIntegracaoDoTenantEmVezDaGlobal() {
+        when(tenantsProvider.getIfAvailable()).thenReturn(tenants);
+        RateLimitRules limites = new RateLimitRules("acme/", List.of(
+                new RateLimitRule(RateLimitRule.Scope.SENDER, "*", 5, Duration.ofSeconds(1), 0, RateLimitRule.Action.REJECT, Duration.ZERO)));
+        when(tenants.tenant("acme")).thenReturn(new Tenant("acme", IntegrationType.OCI, limites, 0, 0));
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        Object dtoAdaptado = new Object();
+        requestDTO.setTenantId("acme");
+
+        when(ociStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+
+        emailService.handleEmail(requestDTO);
+
+        verify(rateLimiter).acquire(requestDTO, limites);
+        verify(ociStrategy).send(dtoAdaptado);
+        verify(awsStrategy, never()).adapt(any());
+    }
+
+    @Test
+    void deveRejeitarConteudoAcimaDoLimiteDoTenantSemEnviar() {
+        when(tenantsProvider.getIfAvailable()).thenReturn(tenants);
+        when(tenants.tenant("acme")).thenReturn(new Tenant("acme", null, null, 0, 10));
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        requestDTO.setTenantId("acme");
+        requestDTO.setContent("x".repeat(11));
+
+        SendResult result = emailService.sendEmail(requestDTO);
+
+        assertThat(result.isSent()).isFalse();
+        assertThat(result.validation().getFieldErrors()).containsEntry("content", "size must be between 0 and 10");
+        assertThatThrownBy(() -> emailService.validateEmail(requestDTO)).isInstanceOf(FieldValidationException.class);
+        verify(rateLimiter, never()).acquire(any(), any());
+        verify(awsStrategy, never()).adapt(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveManterTenantDoTemplateBulkAteODigest() throws Exception {
+        Files.writeString(templates.resolve("campanha.tmpl"), "Novidades\nOlá {{name}}");
+        when(tenantsProvider.getIfAvailable()).thenReturn(tenants);
+        when(tenants.tenant("acme")).thenReturn(new Tenant("acme", IntegrationType.OCI, null, 0, 0));
+        when(coalescer.getIfAvailable()).thenReturn(emailCoalescer);
+        when(emailCoalescer.accepts(requestDTO)).thenReturn(true);
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        requestDTO.setTemplateId("campanha");
+        requestDTO.setVariables(Map.of("name", "Ana"));
+        requestDTO.setLane(Lane.BULK);
+        requestDTO.setTenantId("acme");
+
+        emailService.sendEmail(requestDTO);
+
+        ArgumentCaptor<EmailRequestDTO> rendered = ArgumentCaptor.forClass(EmailRequestDTO.class);
+        ArgumentCaptor<Consumer<EmailRequestDTO>> downstream = ArgumentCaptor.forClass(Consumer.class);
+        verify(emailCoalescer).submit(rendered.capture(), eq(new IntegrationType[]{IntegrationType.OCI}), downstream.capture());
+        assertThat(rendered.getValue().getTenantId()).isEqualTo("acme");
+        assertThat(rendered.getValue().getContent()).isEqualTo("Olá Ana");
+
+        // O digest herda o tenant da primeira mensagem e sai pela integração do tenant
+        Object dtoAdaptado = new Object();
+        when(ociStrategy.adapt(rendered.getValue())).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+        downstream.getValue().accept(rendered.getValue());
+
+        verify(ociStrategy).send(dtoAdaptado);
+        verify(awsStrategy, never()).adapt(any());
+    }
+
+    @Test
+    void naoDeveRegistrarEmailQuandoEntregaFalha() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+        doThrow(new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500"))
+                .when(awsStrategy).send(dtoAdaptado);
+
+        assertThatThrownBy(() -> emailService.handleEmail(requestDTO))
+                .isInstanceOf(DeliveryException.class);
+
+        verify(emailSink, never()).write(any());
+    }
+
+    @Test
+    void deveRegistrarTempoDeCadaEtapaPorIntegracao() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+
+        emailService.handleEmail(requestDTO);
+
+        for (String stage : List.of("queue", "adapt", "validate", "send", "sink")) {
+            assertThat(meterRegistry.get("mail.stage").tag("stage", stage).tag("integration", "AWS").timer().count())
+                    .isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("mail.stage").tag("stage", "rate-limit").tag("integration", "none").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deveContarRejeicaoPorIntegracaoQuandoEntregaFalha() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+        doThrow(new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500"))
+                .when(awsStrategy).send(dtoAdaptado);
+
+        assertThatThrownBy(() -> emailService.handleEmail(requestDTO)).isInstanceOf(DeliveryException.class);
+
+        assertThat(meterRegistry.get("mail.rejections").tag("reason", "delivery").tag("integration", "AWS").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("mail.stage").tag("stage", "send").tag("integration", "AWS").timer().count())
+                .isZero();
+    }
+
+    @Test
+    void deveRegistrarTransicoesDeStatusAteODespacho() {
+        when(statusStoreProvider.getIfAvailable()).thenReturn(statusStore);
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+
+        long messageId = emailService.handleEmail(requestDTO);
+
+        InOrder ordem = inOrder(statusStore);
+        ordem.verify(statusStore).accepted(messageId, requestDTO);
+        ordem.verify(statusStore).record(messageId, DeliveryStatus.VALIDATED);
+        ordem.verify(statusStore).record(messageId, DeliveryStatus.DISPATCHED);
+        verify(statusStore, never()).failed(anyLong(), any());
+    }
+
+    @Test
+    void deveRegistrarFalhaComMotivoQuandoEntregaFalha() {
+        when(statusStoreProvider.getIfAvailable()).thenReturn(statusStore);
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        when(validator.validate(dtoAdaptado)).thenReturn(Collections.emptySet());
+        doThrow(new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500"))
+                .when(awsStrategy).send(dtoAdaptado);
+
+        assertThatThrownBy(() -> emailService.handleEmail(42L, requestDTO)).isInstanceOf(DeliveryException.class);
+
+        verify(statusStore).record(42L, DeliveryStatus.VALIDATED);
+        verify(statusStore, never()).record(42L, DeliveryStatus.DISPATCHED);
+        verify(statusStore).failed(42L, Rejection.DELIVERY);
     }
 
     @Test
@@ -124,4 +378,110 @@ void setUp() {
                 .hasMessageContaining("Service implementation not configured for: AWS");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void deveRejeitarDestinatarioSuprimidoAntesDaAdaptacao() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy));
+        requestDTO.setRecipientEmail("bounced@example.com");
+        when(suppressionList.isSuppressed("bounced@example.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> emailService.handleEmail(requestDTO))
+                .isInstanceOf(SuppressedRecipientException.class);
+
+        verify(rateLimiter, never()).acquire(any());
+        verify(awsStrategy, never()).adapt(any());
+        assertThat(meterRegistry.get("mail.rejections").tag("reason", "suppressed").tag("integration", "none").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deveDispensarValidacaoReflexivaQuandoValidadorGeradoAprova() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy),
+                new DtoValidatorRegistry(List.of(new EmailAwsDTOValidator())));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+        dtoAdaptado.setContent("Body");
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+
+        emailService.handleEmail(requestDTO);
+
+        verify(validator, never()).validate(any());
+        verify(emailSink).write(dtoAdaptado);
+    }
+
+    @Test
+    void deveUsarValidacaoReflexivaQuandoValidadorGeradoReprova() {
+        instanciarServico(IntegrationType.AWS, List.of(awsStrategy, ociStrategy),
+                new DtoValidatorRegistry(List.of(new EmailAwsDTOValidator())));
+        EmailAwsDTO dtoAdaptado = new EmailAwsDTO();
+        dtoAdaptado.setContent("x".repeat(257));
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAdaptado);
+        Set<ConstraintViolation<EmailAwsDTO>> violations = Collections.singleton(mock(ConstraintViolation.class));
+        when(validator.validate(dtoAdaptado)).thenReturn(violations);
+
+        assertThatThrownBy(() -> emailService.handleEmail(requestDTO))
+                .isInstanceOf(ConstraintViolationException.class);
+
+        verify(validator).validate(dtoAdaptado);
+    }
+
+    @Test
+    void deveFazerFailoverParaOutroProvedorNoModoAdaptativo() {
+        instanciarServico(IntegrationType.AWS, RoutingMode.ADAPTIVE, List.of(awsStrategy, ociStrategy),
+                new DtoValidatorRegistry(List.of()));
+        Object dtoAws = new Object();
+        Object dtoOci = new Object();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAws);
+        when(ociStrategy.adapt(requestDTO)).thenReturn(dtoOci);
+        when(router.route(any())).thenReturn(new IntegrationType[]{IntegrationType.AWS, IntegrationType.OCI});
+        doThrow(new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500"))
+                .when(awsStrategy).send(dtoAws);
+
+        emailService.handleEmail(requestDTO);
+
+        verify(router).recordFailure(IntegrationType.AWS);
+        verify(router).recordSuccess(eq(IntegrationType.OCI), anyLong());
+        verify(emailSink, never()).write(dtoAws);
+        verify(emailSink).write(dtoOci);
+    }
+
+    @Test
+    void deveRotearApenasParaProvedorCujosLimitesComportamORequest() {
+        instanciarServico(IntegrationType.AWS, RoutingMode.ADAPTIVE, List.of(awsStrategy, ociStrategy),
+                new DtoValidatorRegistry(List.of()));
+        Object dtoAws = new Object();
+        Object dtoOci = new Object();
+
+        when(awsStrategy.adapt(requestDTO)).thenReturn(dtoAws);
+        when(ociStrategy.adapt(requestDTO)).thenReturn(dtoOci);
+        Set<ConstraintViolation<Object>> violations = Collections.singleton(mock(ConstraintViolation.class));
+        when(validator.validate(dtoOci)).thenReturn(violations);
+        when(router.route(any())).thenReturn(new IntegrationType[]{IntegrationType.OCI, IntegrationType.AWS});
+
+        emailService.handleEmail(requestDTO);
+
+        verify(ociStrategy, never()).send(any());
+        verify(router, never()).recordFailure(any());
+        verify(awsStrategy).send(dtoAws);
+    }
+
+    @Test
+    void deveRejeitarNoModoAdaptativoQuandoNenhumProvedorComportaORequest() {
+        instanciarServico(IntegrationType.AWS, RoutingMode.ADAPTIVE, List.of(awsStrategy, ociStrategy),
+                new DtoValidatorRegistry(List.of()));
+        Set<ConstraintViolation<Object>> violations = Collections.singleton(mock(ConstraintViolation.class));
+        when(awsStrategy.adapt(requestDTO)).thenReturn(new Object());
+        when(ociStrategy.adapt(requestDTO)).thenReturn(new Object());
+        when(validator.validate(any())).thenReturn(violations);
+        when(router.route(any())).thenReturn(new IntegrationType[]{IntegrationType.AWS, IntegrationType.OCI});
+
+        assertThatThrownBy(() -> emailService.handleEmail(requestDTO))
+                .isInstanceOf(ConstraintViolationException.class);
+        assertThatThrownBy(() -> emailService.validateEmail(requestDTO))
+                .isInstanceOf(ConstraintViolationException.class);
+
+        verify(emailSink, never()).write(any());
+    }
+}
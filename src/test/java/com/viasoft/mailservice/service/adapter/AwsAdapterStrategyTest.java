@@ -1,14 +1,21 @@
 package com.viasoft.mailservice.service.adapter;
 
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.mapper.EmailMapper;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.delivery.ProviderHttpClient;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import static org.mockito.Mockito.*;
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @ExtendWith(MockitoExtension.class) // Habilita o Mockito
@@ -17,12 +24,23 @@ public class AwsAdapterStrategyTest {
     @Mock
     private EmailMapper mockMapper; // Mockamos a dependência
 
-    @InjectMocks
-    private AwsAdapterStrategy strategy; // Instancia a classe e injeta o mock
+    @Mock
+    private ProviderHttpClient mockHttpClient;
+
+    @TempDir
+    Path bodyDirectory;
+
+    private AwsAdapterStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new AwsAdapterStrategy(mockMapper, mockHttpClient, new BodyStore(true, bodyDirectory, 4096, 2, 16));
+    }
 
     @Test
     void deveAdaptarChamandoMapperParaAws() {
         EmailRequestDTO requestDTO = new EmailRequestDTO();
+        when(mockMapper.toAwsDTO(requestDTO)).thenReturn(new EmailAwsDTO());
 
         strategy.adapt(requestDTO);
 
@@ -30,6 +48,48 @@ public class AwsAdapterStrategyTest {
         verify(mockMapper, never()).toOciDTO(any());
     }
 
+    @Test
+    void deveEnviarNoFormatoSendEmailDaAws() {
+        EmailAwsDTO dto = new EmailAwsDTO();
+        dto.setRecipient("recipient@example.com");
+        dto.setRecipientName("Recipient");
+        dto.setSender("sender@example.com");
+        dto.setSubject("Subject");
+        dto.setContent("Body");
+
+        strategy.send(dto);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(mockHttpClient).post(eq(IntegrationType.AWS), eq(AwsAdapterStrategy.SEND_EMAIL_PATH), payload.capture());
+        AwsAdapterStrategy.SendEmailRequest request = (AwsAdapterStrategy.SendEmailRequest) payload.getValue();
+        assertThat(request.fromEmailAddress()).isEqualTo("sender@example.com");
+        assertThat(request.destination().toAddresses()).containsExactly("\"Recipient\" <recipient@example.com>");
+        assertThat(request.content().simple().body().text().data()).isEqualTo("Body");
+    }
+
+    @Test
+    void deveGuardarCorpoLongoUmaVezEResolverNoEnvio() {
+        String longBody = "x".repeat(1000);
+        EmailRequestDTO requestDTO = new EmailRequestDTO();
+        EmailAwsDTO first = new EmailAwsDTO();
+        first.setRecipient("recipient@example.com");
+        first.setContent(longBody);
+        EmailAwsDTO second = new EmailAwsDTO();
+        second.setContent(longBody);
+        when(mockMapper.toAwsDTO(requestDTO)).thenReturn(first, second);
+
+        EmailAwsDTO adapted = (EmailAwsDTO) strategy.adapt(requestDTO);
+        EmailAwsDTO repeated = (EmailAwsDTO) strategy.adapt(requestDTO);
+        strategy.send(adapted);
+
+        assertThat(adapted.getContent()).startsWith(BodyStore.REFERENCE_PREFIX).hasSizeLessThanOrEqualTo(256);
+        assertThat(repeated.getContent()).isEqualTo(adapted.getContent());
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(mockHttpClient).post(eq(IntegrationType.AWS), eq(AwsAdapterStrategy.SEND_EMAIL_PATH), payload.capture());
+        AwsAdapterStrategy.SendEmailRequest request = (AwsAdapterStrategy.SendEmailRequest) payload.getValue();
+        assertThat(request.content().simple().body().text().data()).isEqualTo(longBody);
+    }
+
     @Test
     void deveRetornarTipoIntegracaoCorreto() {
         IntegrationType type = strategy.getIntegrationType();
@@ -1,14 +1,20 @@
 package com.viasoft.mailservice.service.adapter;
 
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
 import com.viasoft.mailservice.dto.request.EmailRequestDTO;
 import com.viasoft.mailservice.mapper.EmailMapper;
 import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.delivery.ProviderHttpClient;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -18,12 +24,21 @@ public class OciAdapterStrategyTest {
     @Mock
     private EmailMapper mockMapper;
 
-    @InjectMocks
+    @Mock
+    private ProviderHttpClient mockHttpClient;
+
     private OciAdapterStrategy strategy;
 
+    @BeforeEach
+    void setUp() {
+        strategy = new OciAdapterStrategy(mockMapper, mockHttpClient,
+                new BodyStore(false, Path.of("bodies"), 1024, 1, 128), "ocid1.compartment.test");
+    }
+
     @Test
     void deveAdaptarChamandoMapperParaOci() {
         EmailRequestDTO requestDTO = new EmailRequestDTO();
+        when(mockMapper.toOciDTO(requestDTO)).thenReturn(new EmailOciDTO());
 
         strategy.adapt(requestDTO);
 
@@ -31,6 +46,26 @@ public class OciAdapterStrategyTest {
         verify(mockMapper, never()).toAwsDTO(any());
     }
 
+    @Test
+    void deveEnviarNoFormatoSubmitEmailDaOci() {
+        EmailOciDTO dto = new EmailOciDTO();
+        dto.setRecipientEmail("recipient@example.com");
+        dto.setRecipientName("Recipient");
+        dto.setSenderEmail("sender@example.com");
+        dto.setSubject("Subject");
+        dto.setBody("Body");
+
+        strategy.send(dto);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(mockHttpClient).post(eq(IntegrationType.OCI), eq(OciAdapterStrategy.SUBMIT_EMAIL_PATH), payload.capture());
+        OciAdapterStrategy.SubmitEmailDetails details = (OciAdapterStrategy.SubmitEmailDetails) payload.getValue();
+        assertThat(details.sender().compartmentId()).isEqualTo("ocid1.compartment.test");
+        assertThat(details.recipients().to()).extracting(OciAdapterStrategy.EmailAddress::email)
+                .containsExactly("recipient@example.com");
+        assertThat(details.bodyText()).isEqualTo("Body");
+    }
+
     @Test
     void deveRetornarTipoIntegracaoCorreto() {
         IntegrationType type = strategy.getIntegrationType();
@@ -0,0 +1,131 @@
+package com.viasoft.mailservice.service.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.dto.response.BatchItemResultDTO;
+import com.viasoft.mailservice.service.metrics.EmailMetrics;
+import com.viasoft.mailservice.service.schedule.EmailScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailBatchProcessorTest {
+
+    private static final String VALID_ITEM = """
+            {"recipientEmail":"recipient@example.com","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}""";
+
+    private static final String INVALID_ITEM = """
+            {"recipientEmail":"email-invalid","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}""";
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private ObjectProvider<EmailScheduler> emailScheduler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EmailBatchProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        processor = new EmailBatchProcessor(objectMapper, validator, emailService, new EmailMetrics(new SimpleMeterRegistry()),
+                emailScheduler);
+    }
+
+    @Test
+    void deveProcessarArrayJsonItemAItem() throws Exception {
+        when(emailService.handleEmail(any(EmailRequestDTO.class))).thenReturn(7L, 8L);
+
+        List<JsonNode> results = process("[" + VALID_ITEM + "," + INVALID_ITEM + "," + VALID_ITEM + "]");
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).get("status").asText()).isEqualTo("ACCEPTED");
+        assertThat(results.get(0).get("messageId").asText()).isEqualTo("7");
+        assertThat(results.get(1).get("status").asText()).isEqualTo("REJECTED");
+        assertThat(results.get(1).has("messageId")).isFalse();
+        assertThat(results.get(2).get("messageId").asText()).isEqualTo("8");
+        assertThat(results.get(1).get("fieldErrors").has("recipientEmail")).isTrue();
+        assertThat(results.get(2).get("index").asInt()).isEqualTo(2);
+        verify(emailService, times(2)).handleEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveProcessarNdjson() throws Exception {
+        List<JsonNode> results = process(VALID_ITEM + "\n" + VALID_ITEM + "\n");
+
+        assertThat(results).hasSize(2);
+        assertThat(results).allMatch(result -> result.get("status").asText().equals("ACCEPTED"));
+    }
+
+    @Test
+    void deveRejeitarApenasItemQueFalhaNaAdaptacao() throws Exception {
+        doReturn(1L)
+                .doThrow(new ConstraintViolationException(Collections.emptySet()))
+                .doReturn(3L)
+                .when(emailService).handleEmail(any(EmailRequestDTO.class));
+
+        List<JsonNode> results = process("[" + VALID_ITEM + "," + VALID_ITEM + "," + VALID_ITEM + "]");
+
+        assertThat(results).extracting(result -> result.get("status").asText())
+                .containsExactly("ACCEPTED", "REJECTED", "ACCEPTED");
+    }
+
+    @Test
+    void deveRejeitarItemAgendadoQuandoAgendamentoDesabilitado() throws Exception {
+        EmailRequestDTO requestDTO = objectMapper.readValue(VALID_ITEM, EmailRequestDTO.class);
+        requestDTO.setSendAt(Instant.now().plusSeconds(60));
+
+        BatchItemResultDTO result = processor.processItem(0, requestDTO);
+
+        assertThat(result.getStatus()).isEqualTo(BatchItemResultDTO.Status.REJECTED);
+        assertThat(result.getFieldErrors()).containsEntry("sendAt", EmailScheduler.DISABLED);
+        verify(emailService, never()).handleEmail(any(EmailRequestDTO.class));
+    }
+
+    @Test
+    void deveInterromperLoteQuandoJsonMalformado() throws Exception {
+        List<JsonNode> results = process("[" + VALID_ITEM + ", {\"recipientEmail\": ");
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(1).get("status").asText()).isEqualTo("REJECTED");
+        assertThat(results.get(1).get("message").asText()).startsWith("Malformed JSON");
+    }
+
+    private List<JsonNode> process(String payload) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)), output, null);
+
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
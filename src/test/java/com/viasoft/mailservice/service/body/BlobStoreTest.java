@@ -0,0 +1,100 @@
+package com.viasoft.mailservice.service.body;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlobStoreTest {
+
+    private static final int SEGMENT_SIZE = 512;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveGuardarConteudoRepetidoUmaUnicaVez() {
+        try (BlobStore store = new BlobStore(directory, SEGMENT_SIZE, 4)) {
+            BlobStore.Digest first = store.put(bytes("same body"));
+            BlobStore.Digest second = store.put(bytes("same body"));
+
+            assertThat(second).isEqualTo(first);
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(new String(store.get(first), StandardCharsets.UTF_8)).isEqualTo("same body");
+        }
+    }
+
+    @Test
+    void deveReconstruirIndiceAposReinicio() {
+        BlobStore.Digest digest;
+        try (BlobStore store = new BlobStore(directory, SEGMENT_SIZE, 4)) {
+            digest = store.put(bytes("persisted"));
+        }
+
+        try (BlobStore reopened = new BlobStore(directory, SEGMENT_SIZE, 4)) {
+            assertThat(new String(reopened.get(digest), StandardCharsets.UTF_8)).isEqualTo("persisted");
+            assertThat(reopened.put(bytes("persisted"))).isEqualTo(digest);
+            assertThat(reopened.size()).isEqualTo(1);
+
+            BlobStore.Digest next = reopened.put(bytes("after restart"));
+            assertThat(new String(reopened.get(next), StandardCharsets.UTF_8)).isEqualTo("after restart");
+        }
+    }
+
+    @Test
+    void deveDescartarSegmentosMaisAntigosAlemDoLimite() throws Exception {
+        try (BlobStore store = new BlobStore(directory, SEGMENT_SIZE, 2)) {
+            BlobStore.Digest oldest = store.put(bytes("0-" + "x".repeat(200)));
+            BlobStore.Digest newest = null;
+            for (int i = 1; i < 10; i++) {
+                newest = store.put(bytes(i + "-" + "x".repeat(200)));
+            }
+
+            assertThat(store.get(oldest)).isNull();
+            assertThat(store.get(newest)).isNotNull();
+            assertThat(countSegments()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void deveManterConteudoReferenciadoNovamenteAntesDeDescartarSeuSegmento() throws Exception {
+        try (BlobStore store = new BlobStore(directory, SEGMENT_SIZE, 2)) {
+            BlobStore.Digest kept = store.put(bytes("kept body"));
+            for (int i = 0; i < 10; i++) {
+                // Cada nova referência ao corpo repetido o mantém fora do segmento a descartar
+                assertThat(store.put(bytes("kept body"))).isEqualTo(kept);
+                store.put(bytes(i + "-" + "x".repeat(200)));
+
+                assertThat(store.get(kept)).isNotNull();
+            }
+
+            assertThat(new String(store.get(kept), StandardCharsets.UTF_8)).isEqualTo("kept body");
+            assertThat(countSegments()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void deveConverterDigestParaTextoEDeVolta() {
+        try (BlobStore store = new BlobStore(directory, SEGMENT_SIZE, 4)) {
+            BlobStore.Digest digest = store.put(bytes("body"));
+
+            assertThat(digest.toString()).hasSize(64);
+            assertThat(BlobStore.Digest.parse(digest.toString())).isEqualTo(digest);
+        }
+    }
+
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".blob")).count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
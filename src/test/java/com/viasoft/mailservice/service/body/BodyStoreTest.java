@@ -0,0 +1,71 @@
+package com.viasoft.mailservice.service.body;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BodyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private BodyStore bodyStore;
+
+    @BeforeEach
+    void setUp() {
+        bodyStore = new BodyStore(true, directory, 4096, 2, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bodyStore.close();
+    }
+
+    @Test
+    void deveManterCorpoCurtoInline() {
+        assertThat(bodyStore.externalize("short body")).isEqualTo("short body");
+        assertThat(bodyStore.resolve("short body")).isEqualTo("short body");
+    }
+
+    @Test
+    void deveSubstituirCorpoLongoPorReferencia() {
+        String body = "Olá, ".repeat(100);
+
+        String reference = bodyStore.externalize(body);
+
+        assertThat(reference).startsWith(BodyStore.REFERENCE_PREFIX).hasSize(68);
+        assertThat(bodyStore.resolve(reference)).isEqualTo(body);
+    }
+
+    @Test
+    void deveGuardarCorpoQueImitaReferencia() {
+        String forged = BodyStore.REFERENCE_PREFIX + "0".repeat(64);
+
+        String reference = bodyStore.externalize(forged);
+
+        assertThat(reference).isNotEqualTo(forged);
+        assertThat(bodyStore.resolve(reference)).isEqualTo(forged);
+    }
+
+    @Test
+    void deveRejeitarCorpoMaiorQueSegmento() {
+        assertThatThrownBy(() -> bodyStore.externalize("x".repeat(5000)))
+                .isInstanceOf(FieldValidationException.class);
+    }
+
+    @Test
+    void naoDeveAlterarCorpoQuandoDesabilitado() {
+        BodyStore disabled = new BodyStore(false, directory.resolve("unused"), 4096, 2, 16);
+        String body = "x".repeat(1000);
+
+        assertThat(disabled.externalize(body)).isSameAs(body);
+        assertThat(disabled.maxBodyLength()).isEqualTo(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,66 @@
+package com.viasoft.mailservice.service.coalesce;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+public class DigestPackerTest {
+
+    @Test
+    void deveJuntarMensagensEmUmDigestNaOrdemDeChegada() {
+        List<DigestPacker.Digest> digests = DigestPacker.pack(
+                List.of(message("Pedido enviado", "Pedido 1"), message("Pedido entregue", "Pedido 1")), 100, 250);
+
+        assertThat(digests).hasSize(1);
+        EmailRequestDTO digest = digests.get(0).message();
+        assertThat(digest.getSubject()).isEqualTo("Pedido enviado (+1 more)");
+        assertThat(digest.getContent()).isEqualTo("Pedido enviado\nPedido 1\n\nPedido entregue\nPedido 1");
+        assertThat(digest.getRecipientEmail()).isEqualTo("recipient@example.com");
+        assertThat(digests.get(0).count()).isEqualTo(2);
+    }
+
+    @Test
+    void deveDividirQuandoConteudoExcedeLimite() {
+        List<EmailRequestDTO> messages = List.of(
+                message("A", "x".repeat(100)), message("A", "y".repeat(100)), message("A", "z".repeat(100)));
+
+        List<DigestPacker.Digest> digests = DigestPacker.pack(messages, 100, 250);
+
+        assertThat(digests).extracting(DigestPacker.Digest::first, DigestPacker.Digest::count)
+                .containsExactly(tuple(0, 2), tuple(2, 1));
+        assertThat(digests.get(0).message().getSubject()).isEqualTo("A");
+        assertThat(digests.get(0).message().getContent()).hasSizeLessThanOrEqualTo(250);
+        assertThat(digests.get(1).message()).isSameAs(messages.get(2));
+    }
+
+    @Test
+    void deveManterMensagemOriginalQuandoNaoCabeComOutras() {
+        List<EmailRequestDTO> messages = List.of(message("A", "x".repeat(250)), message("B", "curta"));
+
+        List<DigestPacker.Digest> digests = DigestPacker.pack(messages, 100, 250);
+
+        assertThat(digests).extracting(DigestPacker.Digest::message).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    void deveCortarAssuntoAoLimite() {
+        List<DigestPacker.Digest> digests = DigestPacker.pack(
+                List.of(message("s".repeat(100), "a"), message("outro", "b"), message("outro", "c")), 20, 250);
+
+        assertThat(digests.get(0).message().getSubject()).isEqualTo("s".repeat(10) + " (+2 more)").hasSize(20);
+    }
+
+    private static EmailRequestDTO message(String subject, String content) {
+        EmailRequestDTO request = new EmailRequestDTO();
+        request.setRecipientEmail("recipient@example.com");
+        request.setRecipientName("Recipient");
+        request.setSenderEmail("sender@example.com");
+        request.setSubject(subject);
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,157 @@
+package com.viasoft.mailservice.service.coalesce;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.service.body.BodyStore;
+import com.viasoft.mailservice.service.template.TemplateEngine;
+import com.viasoft.mailservice.service.template.TemplateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmailCoalescerTest {
+
+    private static final IntegrationType[] PROVIDERS = {IntegrationType.AWS, IntegrationType.OCI};
+
+    @TempDir
+    Path directory;
+
+    private TemplateEngine templateEngine;
+    private EmailCoalescer coalescer;
+    private final List<EmailRequestDTO> sent = new CopyOnWriteArrayList<>();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @BeforeEach
+    void setUp() {
+        templateEngine = new TemplateEngine(new TemplateRepository(directory, 10), new BodyStore(false, directory, 1024, 1, 128), Mappers.getMapper(EmailMapper.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    void deveEnviarDigestQuandoJanelaExpira() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMillis(200), 100);
+
+        CompletableFuture<Void> first = submitAsync(message("recipient@example.com", "Primeira"), sent::add);
+        CompletableFuture<Void> second = submitAsync(message("RECIPIENT@example.com", "Segunda"), sent::add);
+        CompletableFuture.allOf(first, second).join();
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).getContent()).contains("Primeira").contains("Segunda");
+    }
+
+    @Test
+    void deveEnviarAoAtingirMaximoDeMensagensSemEsperarJanela() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMinutes(10), 2);
+
+        CompletableFuture<Void> first = submitAsync(message("recipient@example.com", "Primeira"), sent::add);
+        awaitBuffered(1);
+        coalescer.submit(message("recipient@example.com", "Segunda"), PROVIDERS, sent::add);
+        first.join();
+
+        assertThat(sent).hasSize(1);
+        assertThat(coalescer.getBuffered()).isZero();
+    }
+
+    @Test
+    void deveSepararDestinatarios() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMillis(20), 100);
+
+        CompletableFuture.allOf(
+                submitAsync(message("a@example.com", "Primeira"), sent::add),
+                submitAsync(message("b@example.com", "Segunda"), sent::add)).join();
+
+        assertThat(sent).extracting(EmailRequestDTO::getRecipientEmail)
+                .containsExactlyInAnyOrder("a@example.com", "b@example.com");
+    }
+
+    @Test
+    void deveRepassarFalhaDoDigestATodasAsMensagens() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMinutes(10), 2);
+        Consumer<EmailRequestDTO> failing = digest -> {
+            throw new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500");
+        };
+
+        CompletableFuture<Void> first = submitAsync(message("recipient@example.com", "Primeira"), failing);
+        awaitBuffered(1);
+
+        assertThatThrownBy(() -> coalescer.submit(message("recipient@example.com", "Segunda"), PROVIDERS, failing))
+                .isInstanceOf(DeliveryException.class);
+        assertThatThrownBy(first::join).hasCauseInstanceOf(DeliveryException.class);
+    }
+
+    @Test
+    void naoDeveAceitarLaneTransacional() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMillis(50), 100);
+        EmailRequestDTO transactional = message("recipient@example.com", "Código");
+        transactional.setLane(Lane.TRANSACTIONAL);
+
+        assertThat(coalescer.accepts(transactional)).isFalse();
+        assertThat(coalescer.accepts(message("recipient@example.com", "Novidades"))).isTrue();
+    }
+
+    @Test
+    void deveRegistrarTaxaDeAgrupamentoELatencia() {
+        coalescer = new EmailCoalescer(templateEngine, Duration.ofMinutes(10), 3);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+
+        CompletableFuture<Void> first = submitAsync(message("recipient@example.com", "Primeira"), sent::add);
+        CompletableFuture<Void> second = submitAsync(message("recipient@example.com", "Segunda"), sent::add);
+        awaitBuffered(2);
+        coalescer.submit(message("recipient@example.com", "Terceira"), PROVIDERS, sent::add);
+        CompletableFuture.allOf(first, second).join();
+
+        assertThat(registry.get("mail.coalesce.messages").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("mail.coalesce.digests").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.coalesce.delay").functionTimer().count()).isEqualTo(3);
+        assertThat(registry.get("mail.coalesce.buffered").gauge().value()).isZero();
+    }
+
+    private CompletableFuture<Void> submitAsync(EmailRequestDTO message, Consumer<EmailRequestDTO> downstream) {
+        return CompletableFuture.runAsync(() -> coalescer.submit(message, PROVIDERS, downstream), callers);
+    }
+
+    private void awaitBuffered(int count) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (coalescer.getBuffered() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(coalescer.getBuffered()).isEqualTo(count);
+    }
+
+    private static EmailRequestDTO message(String recipient, String content) {
+        EmailRequestDTO request = new EmailRequestDTO();
+        request.setRecipientEmail(recipient);
+        request.setRecipientName("Recipient");
+        request.setSenderEmail("sender@example.com");
+        request.setSubject("Novidades");
+        request.setContent(content);
+        return request;
+    }
+}
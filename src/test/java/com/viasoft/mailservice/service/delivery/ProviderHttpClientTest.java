@@ -0,0 +1,110 @@
+package com.viasoft.mailservice.service.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.exception.ConfigurationException;
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.service.adapter.AwsAdapterStrategy;
+import com.viasoft.mailservice.service.adapter.OciAdapterStrategy;
+import com.viasoft.mailservice.stub.ProviderStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+public class ProviderHttpClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProviderStubServer stubServer;
+    private ProviderHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = new ProviderStubServer(0, Duration.ZERO);
+        httpClient = new ProviderHttpClient(objectMapper, Map.of(
+                IntegrationType.AWS, DeliverySettings.DEFAULT.withEndpoint(stubServer.getBaseUri()),
+                IntegrationType.OCI, DeliverySettings.DEFAULT.withEndpoint(stubServer.getBaseUri())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        stubServer.stop();
+    }
+
+    @Test
+    void deveEntregarAoProvedorERetornarCorpoDaResposta() throws Exception {
+        String response = httpClient.post(IntegrationType.AWS, AwsAdapterStrategy.SEND_EMAIL_PATH, Map.of("Content", "x"));
+
+        assertThat(objectMapper.readTree(response).has("MessageId")).isTrue();
+        assertThat(stubServer.getReceivedCount(IntegrationType.AWS)).isEqualTo(1);
+        assertThat(stubServer.getReceivedCount(IntegrationType.OCI)).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveExigirProxyDeAssinaturaParaEndpointConfigurado() {
+        ObjectProvider<ProviderStubServer> noStub = mock(ObjectProvider.class);
+        MockEnvironment unsigned = new MockEnvironment()
+                .withProperty("mail.delivery.aws.endpoint", "https://email.us-east-1.amazonaws.com");
+
+        assertThatThrownBy(() -> new ProviderHttpClient(objectMapper, unsigned, noStub))
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("mail.delivery.aws.endpoint");
+
+        ProviderHttpClient proxied = new ProviderHttpClient(objectMapper,
+                unsigned.withProperty("mail.delivery.aws.signing-proxy", "true"), noStub);
+        assertThat(proxied.isEnabled(IntegrationType.AWS)).isTrue();
+        assertThat(proxied.isEnabled(IntegrationType.OCI)).isFalse();
+        proxied.close();
+    }
+
+    @Test
+    void deveLancarDeliveryExceptionQuandoProvedorRetornaErro() {
+        assertThatThrownBy(() -> httpClient.post(IntegrationType.OCI, "/unknown", Map.of("subject", "x")))
+                .isInstanceOf(DeliveryException.class)
+                .hasMessageContaining("404");
+    }
+
+    @Test
+    void naoDeveChamarProvedorSemEndpointConfigurado() {
+        ProviderHttpClient disabled = new ProviderHttpClient(objectMapper, Map.of());
+
+        assertThat(disabled.isEnabled(IntegrationType.AWS)).isFalse();
+        assertThat(disabled.post(IntegrationType.AWS, AwsAdapterStrategy.SEND_EMAIL_PATH, Map.of())).isNull();
+        disabled.close();
+    }
+
+    @Test
+    void deveReutilizarClienteEmEnviosConcorrentes() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() ->
+                        httpClient.post(IntegrationType.OCI, OciAdapterStrategy.SUBMIT_EMAIL_PATH, Map.of("subject", "x"))));
+            }
+            for (Future<String> future : futures) {
+                future.get();
+            }
+
+            assertThat(stubServer.getReceivedCount(IntegrationType.OCI)).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
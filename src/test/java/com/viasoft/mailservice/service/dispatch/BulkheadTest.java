@@ -0,0 +1,219 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.exception.DeliveryException;
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkheadTest {
+
+    @Test
+    void deveRejeitarImediatamenteQuandoPoliticaFailFast() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.OCI,
+                new BulkheadSettings(1, 10, BulkheadSettings.RejectionPolicy.FAIL_FAST, Duration.ofSeconds(1)));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+
+            assertThatThrownBy(() -> bulkhead.execute(() -> { }))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("OCI");
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void deveAguardarNaFilaAteLiberarPermissao() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(1, 10, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofSeconds(5)));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+
+            Future<String> queued = executor.submit(() -> bulkhead.execute(() -> "done"));
+            while (bulkhead.getWaitingCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+            assertThat(bulkhead.getActiveCount()).isZero();
+        }
+    }
+
+    @Test
+    void deveRejeitarQuandoFilaDeEsperaEstaCheia() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(1, 0, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofSeconds(5)));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+
+            assertThatThrownBy(() -> bulkhead.execute(() -> { }))
+                    .isInstanceOf(ServiceUnavailableException.class);
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void deveRejeitarQuandoTempoDeEsperaExpira() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(1, 10, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofMillis(20)));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+
+            assertThatThrownBy(() -> bulkhead.execute(() -> { }))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(bulkhead.getWaitingCount()).isZero();
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void deveEntregarPermissoesLiberadasPrimeiroALaneTransacional() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(1, 10, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofSeconds(5)),
+                Map.of(Lane.TRANSACTIONAL, new LaneSettings(2), Lane.BULK, new LaneSettings(1)), null, null);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+
+            List<Future<?>> queued = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String name = "bulk-" + i;
+                queued.add(executor.submit(() -> bulkhead.execute(Lane.BULK, () -> order.add(name))));
+                awaitWaiting(bulkhead, i + 1);
+            }
+            for (int i = 0; i < 3; i++) {
+                String name = "transactional-" + i;
+                queued.add(executor.submit(() -> bulkhead.execute(Lane.TRANSACTIONAL, () -> order.add(name))));
+                awaitWaiting(bulkhead, i + 4);
+            }
+            assertThat(bulkhead.getWaitingCount(Lane.BULK)).isEqualTo(3);
+            assertThat(bulkhead.getWaitingCount(Lane.TRANSACTIONAL)).isEqualTo(3);
+
+            release.countDown();
+            for (Future<?> future : queued) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(order).containsExactly(
+                "transactional-0", "transactional-1", "bulk-0", "transactional-2", "bulk-1", "bulk-2");
+        assertThat(bulkhead.getActiveCount()).isZero();
+    }
+
+    @Test
+    void deveLimitarFilaDeCadaLaneSeparadamente() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(1, 1, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofSeconds(5)));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch release = occupy(bulkhead, executor);
+            Future<?> bulk = executor.submit(() -> bulkhead.execute(Lane.BULK, () -> { }));
+            awaitWaiting(bulkhead, 1);
+
+            assertThatThrownBy(() -> bulkhead.execute(Lane.BULK, () -> { }))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            Future<?> transactional = executor.submit(() -> bulkhead.execute(Lane.TRANSACTIONAL, () -> { }));
+            awaitWaiting(bulkhead, 2);
+
+            release.countDown();
+            bulk.get(5, TimeUnit.SECONDS);
+            transactional.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void deveEnfileirarChamadasAcimaDoLimiteAdaptativo() throws Exception {
+        // Limite adaptativo fixo em 2, bem abaixo de max-concurrent
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS,
+                new BulkheadSettings(10, 10, BulkheadSettings.RejectionPolicy.QUEUE, Duration.ofSeconds(5)),
+                new ConcurrencyLimiter(new LimiterSettings(true, 2, 2, 2, 0.2, 1.5, 600)), null);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                calls.add(executor.submit(() -> bulkhead.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })));
+            }
+            awaitWaiting(bulkhead, 3);
+            assertThat(bulkhead.getActiveCount()).isEqualTo(2);
+            assertThat(bulkhead.getLimiter().getInFlight()).isEqualTo(2);
+
+            release.countDown();
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(bulkhead.getActiveCount()).isZero();
+        assertThat(bulkhead.getLimiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void deveRejeitarSemChamarProvedorQuandoCircuitoAberto() {
+        Bulkhead bulkhead = new Bulkhead(IntegrationType.AWS, BulkheadSettings.DEFAULT,
+                new ConcurrencyLimiter(LimiterSettings.DEFAULT),
+                new CircuitBreaker(IntegrationType.AWS, new CircuitBreakerSettings(true, 0.5, 4, 2, Duration.ofSeconds(30), 1)));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> bulkhead.execute(() -> {
+                throw new DeliveryException(IntegrationType.AWS, "Provider AWS rejected the email with status 500");
+            })).isInstanceOf(DeliveryException.class);
+        }
+
+        assertThatThrownBy(() -> bulkhead.execute(() -> { }))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("unavailable");
+        assertThat(bulkhead.getLimiter().getInFlight()).isZero();
+        assertThat(bulkhead.getActiveCount()).isZero();
+    }
+
+    private static void awaitWaiting(Bulkhead bulkhead, int count) {
+        while (bulkhead.getWaitingCount() < count) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private CountDownLatch occupy(Bulkhead bulkhead, ExecutorService executor) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> bulkhead.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        started.await();
+        return release;
+    }
+}
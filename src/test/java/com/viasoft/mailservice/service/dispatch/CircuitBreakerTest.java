@@ -0,0 +1,91 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.exception.ServiceUnavailableException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker(IntegrationType.AWS,
+                new CircuitBreakerSettings(true, 0.5, 10, 4, Duration.ofSeconds(10), 2), clock::get);
+    }
+
+    @Test
+    void deveAbrirQuandoTaxaDeFalhasAtingeLimite() {
+        call(CallOutcome.SUCCESS);
+        call(CallOutcome.FAILURE);
+        call(CallOutcome.SUCCESS);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(CallOutcome.FAILURE);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission())
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(e -> assertThat(((ServiceUnavailableException) e).getRetryAfter()).isEqualTo(Duration.ofSeconds(6)));
+    }
+
+    @Test
+    void naoDeveContarErrosIgnorados() {
+        for (int i = 0; i < 10; i++) {
+            call(CallOutcome.IGNORED);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void deveFecharAposChamadasDeTesteComSucesso() {
+        abrir();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission())
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        circuitBreaker.onResult(CallOutcome.SUCCESS);
+        circuitBreaker.onResult(CallOutcome.SUCCESS);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void deveReabrirQuandoChamadaDeTesteFalha() {
+        abrir();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        call(CallOutcome.FAILURE);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission())
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private void abrir() {
+        for (int i = 0; i < 4; i++) {
+            call(CallOutcome.FAILURE);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(CallOutcome outcome) {
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(outcome);
+    }
+}
@@ -0,0 +1,78 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void deveContarChamadasAdmitidasSemAlterarLimiteQuandoIgnoradas() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new LimiterSettings(true, 2, 1, 10, 0.2, 1.5, 100));
+
+        assertThat(limiter.acquire()).isEqualTo(1);
+        assertThat(limiter.acquire()).isEqualTo(2);
+        // O limite caiu depois da admissão: a contagem pode passar dele
+        assertThat(limiter.acquire()).isEqualTo(3);
+
+        limiter.release(0, 3, CallOutcome.IGNORED);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.acquire()).isEqualTo(3);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void deveAumentarLimiteEnquantoLatenciaEstavel() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new LimiterSettings(true, 10, 1, 100, 0.2, 1.5, 100));
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndSample(limiter, FAST);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void deveReduzirLimiteQuandoLatenciaSobe() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new LimiterSettings(true, 50, 4, 100, 0.2, 1.5, 100));
+        for (int i = 0; i < 20; i++) {
+            saturateAndSample(limiter, FAST);
+        }
+        int limitBeforeSlowdown = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            saturateAndSample(limiter, SLOW);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(limitBeforeSlowdown);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void naoDeveAumentarLimiteQuandoPoucoUtilizado() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new LimiterSettings(true, 20, 1, 100, 0.2, 1.5, 100));
+
+        for (int i = 0; i < 50; i++) {
+            int inFlight = limiter.acquire();
+            limiter.release(FAST, inFlight, CallOutcome.SUCCESS);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private void saturateAndSample(ConcurrencyLimiter limiter, long rttNanos) {
+        int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            limiter.acquire();
+        }
+        limiter.release(rttNanos, limit, CallOutcome.SUCCESS);
+        for (int i = 1; i < limit; i++) {
+            limiter.release(0, limit, CallOutcome.IGNORED);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.viasoft.mailservice.service.dispatch;
+
+import com.viasoft.mailservice.model.enums.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LaneQueuesTest {
+
+    @Test
+    void deveRepartirNaProporcaoDosPesosEnquantoHaFilaNasDuasLanes() {
+        LaneQueues<String> queues = new LaneQueues<>(100,
+                Map.of(Lane.TRANSACTIONAL, new LaneSettings(3), Lane.BULK, new LaneSettings(1)));
+        for (int i = 0; i < 8; i++) {
+            queues.offer(Lane.BULK, "b" + i);
+            queues.offer(Lane.TRANSACTIONAL, "t" + i);
+        }
+
+        List<String> order = drain(queues);
+
+        assertThat(order).containsExactly(
+                "t0", "t1", "t2", "b0", "t3", "t4", "t5", "b1", "t6", "t7", "b2",
+                "b3", "b4", "b5", "b6", "b7");
+        assertThat(queues.size()).isZero();
+    }
+
+    @Test
+    void deveManterFifoDentroDeCadaLane() {
+        LaneQueues<String> queues = new LaneQueues<>(100, LaneSettings.DEFAULTS);
+        queues.offer(Lane.TRANSACTIONAL, "t0");
+        queues.offer(Lane.BULK, "b0");
+        queues.offer(Lane.BULK, "b1");
+
+        assertThat(drain(queues)).containsExactly("t0", "b0", "b1");
+
+        queues.offer(Lane.BULK, "b2");
+        queues.offer(Lane.TRANSACTIONAL, "t1");
+        queues.offer(Lane.BULK, "b3");
+
+        assertThat(drain(queues)).containsExactly("t1", "b2", "b3");
+    }
+
+    @Test
+    void deveRecusarAlemDaCapacidadeDeCadaLane() {
+        LaneQueues<String> queues = new LaneQueues<>(2, LaneSettings.DEFAULTS);
+
+        assertThat(queues.offer(Lane.BULK, "b0")).isTrue();
+        assertThat(queues.offer(Lane.BULK, "b1")).isTrue();
+        assertThat(queues.offer(Lane.BULK, "b2")).isFalse();
+        assertThat(queues.offer(Lane.TRANSACTIONAL, "t0")).isTrue();
+        assertThat(queues.size(Lane.BULK)).isEqualTo(2);
+
+        assertThat(queues.remove(Lane.BULK, "b0")).isTrue();
+        assertThat(queues.remove(Lane.BULK, "b0")).isFalse();
+        assertThat(queues.size()).isEqualTo(2);
+    }
+
+    private static List<String> drain(LaneQueues<String> queues) {
+        List<String> order = new ArrayList<>();
+        String next;
+        while ((next = queues.poll()) != null) {
+            order.add(next);
+        }
+        return order;
+    }
+}
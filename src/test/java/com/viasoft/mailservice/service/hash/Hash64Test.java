@@ -0,0 +1,27 @@
+package com.viasoft.mailservice.service.hash;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Hash64Test {
+
+    @Test
+    void deveAplicarFinalizadorSobreFnv1a() {
+        // FNV-1a de 64 bits de "a" é 0xaf63dc4c8601ec8c
+        assertThat(Hash64.fnv1a("a")).isEqualTo(Hash64.fmix64(0xaf63dc4c8601ec8cL));
+        assertThat(Hash64.fnv1a("")).isEqualTo(Hash64.fmix64(0xcbf29ce484222325L));
+    }
+
+    @Test
+    void deveDiferenciarMaiusculasEMinusculas() {
+        assertThat(Hash64.fnv1a("acme")).isNotEqualTo(Hash64.fnv1a("ACME"));
+        assertThat(Hash64.fnv1a(new StringBuilder("acme"))).isEqualTo(Hash64.fnv1a("acme"));
+    }
+
+    @Test
+    void deveManterZeroComoUnicoPontoFixoDoFinalizador() {
+        assertThat(Hash64.fmix64(0)).isZero();
+        assertThat(Hash64.fmix64(1)).isNotEqualTo(1).isNotZero();
+    }
+}
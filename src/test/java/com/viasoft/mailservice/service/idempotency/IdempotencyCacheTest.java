@@ -0,0 +1,94 @@
+package com.viasoft.mailservice.service.idempotency;
+
+import com.viasoft.mailservice.exception.IdempotencyConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyCacheTest {
+
+    private static final int FINGERPRINT = 42;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void deveRetornarResultadoOriginalParaChaveRepetida() {
+        IdempotencyCache cache = new IdempotencyCache(1_000, Duration.ofMinutes(1), clock::get);
+
+        assertThat(cache.reserve("key-1", FINGERPRINT)).isNull();
+        cache.complete("key-1", 202, 123L);
+
+        assertThat(cache.reserve("key-1", FINGERPRINT)).isEqualTo(new IdempotencyCache.Outcome(202, 123L));
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deveRejeitarChaveEmProcessamentoOuComOutroConteudo() {
+        IdempotencyCache cache = new IdempotencyCache(1_000, Duration.ofMinutes(1), clock::get);
+        cache.reserve("key-1", FINGERPRINT);
+
+        assertThatThrownBy(() -> cache.reserve("key-1", FINGERPRINT))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("still being processed");
+
+        cache.complete("key-1", 204, IdempotencyCache.NO_MESSAGE_ID);
+        assertThatThrownBy(() -> cache.reserve("key-1", FINGERPRINT + 1))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("different request");
+    }
+
+    @Test
+    void devePermitirNovaTentativaAposFalha() {
+        IdempotencyCache cache = new IdempotencyCache(1_000, Duration.ofMinutes(1), clock::get);
+        cache.reserve("key-1", FINGERPRINT);
+
+        cache.release("key-1");
+
+        assertThat(cache.reserve("key-1", FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void deveExpirarEntradasAposTtl() {
+        IdempotencyCache cache = new IdempotencyCache(1_000, Duration.ofMinutes(1), clock::get);
+        cache.reserve("key-1", FINGERPRINT);
+        cache.complete("key-1", 204, IdempotencyCache.NO_MESSAGE_ID);
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThat(cache.reserve("key-1", FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void deveManterChavesFrequentesDuranteVarreduraDeChavesUnicas() {
+        IdempotencyCache cache = new IdempotencyCache(1_600, Duration.ofHours(1), clock::get);
+        for (int i = 0; i < 500; i++) {
+            cache.reserve("hot-" + i, FINGERPRINT);
+            cache.complete("hot-" + i, 204, IdempotencyCache.NO_MESSAGE_ID);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 500; i++) {
+                cache.reserve("hot-" + i, FINGERPRINT);
+            }
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            cache.reserve("scan-" + i, FINGERPRINT);
+            cache.complete("scan-" + i, 204, IdempotencyCache.NO_MESSAGE_ID);
+        }
+
+        long hitsBefore = cache.getHitCount();
+        for (int i = 0; i < 500; i++) {
+            cache.reserve("hot-" + i, FINGERPRINT);
+        }
+
+        assertThat(cache.getHitCount() - hitsBefore).isGreaterThan(450);
+        assertThat(cache.getSize()).isLessThanOrEqualTo(1_600);
+        assertThat(cache.getEvictionCount()).isPositive();
+        assertThat(cache.getMemoryBytes()).isPositive();
+    }
+}
@@ -0,0 +1,122 @@
+package com.viasoft.mailservice.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailJournalTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveLerRegistrosConfirmadosNaOrdemDeGravacao() {
+        try (EmailJournal journal = new EmailJournal(directory, SEGMENT_SIZE)) {
+            journal.awaitCommit(journal.append(bytes("first")));
+            journal.awaitCommit(journal.append(bytes("second")));
+
+            assertThat(readAll(journal, 0)).containsExactly("first", "second");
+        }
+    }
+
+    @Test
+    void deveAvancarParaProximoSegmentoQuandoRegistroNaoCabe() throws Exception {
+        try (EmailJournal journal = new EmailJournal(directory, SEGMENT_SIZE)) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String value = "message-" + i + "-" + "x".repeat(40);
+                expected.add(value);
+                journal.awaitCommit(journal.append(bytes(value)));
+            }
+
+            assertThat(readAll(journal, 0)).containsExactlyElementsOf(expected);
+            assertThat(countSegments()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void deveRetomarDoUltimoCheckpointAposReinicio() {
+        try (EmailJournal journal = new EmailJournal(directory, SEGMENT_SIZE)) {
+            journal.awaitCommit(journal.append(bytes("consumed")));
+            journal.awaitCommit(journal.append(bytes("pending")));
+
+            EmailJournal.JournalRecord first = journal.read(journal.checkpoint());
+            journal.checkpoint(first.nextOffset());
+        }
+
+        try (EmailJournal reopened = new EmailJournal(directory, SEGMENT_SIZE)) {
+            assertThat(readAll(reopened, reopened.checkpoint())).containsExactly("pending");
+
+            reopened.awaitCommit(reopened.append(bytes("after-restart")));
+            assertThat(readAll(reopened, reopened.checkpoint())).containsExactly("pending", "after-restart");
+        }
+    }
+
+    @Test
+    void deveRemoverSegmentosJaConsumidos() throws Exception {
+        try (EmailJournal journal = new EmailJournal(directory, SEGMENT_SIZE)) {
+            long end = 0;
+            for (int i = 0; i < 20; i++) {
+                end = journal.append(bytes("x".repeat(50)));
+            }
+            journal.awaitCommit(end);
+
+            journal.checkpoint(end);
+
+            assertThat(countSegments()).isEqualTo(1);
+            assertThat(journal.pendingBytes()).isZero();
+        }
+    }
+
+    @Test
+    void deveConfirmarGravacoesConcorrentes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (EmailJournal journal = new EmailJournal(directory, 4096)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String value = "concurrent-" + i;
+                futures.add(executor.submit(() -> journal.awaitCommit(journal.append(bytes(value)))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertThat(readAll(journal, 0)).hasSize(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> readAll(EmailJournal journal, long offset) {
+        List<String> values = new ArrayList<>();
+        EmailJournal.JournalRecord record;
+        while ((record = journal.read(offset)) != null) {
+            values.add(new String(record.payload(), StandardCharsets.UTF_8));
+            offset = record.nextOffset();
+        }
+        return values;
+    }
+
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.viasoft.mailservice.service.metrics;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EmailMetrics metrics = new EmailMetrics(registry);
+
+    @Test
+    void deveRegistrarTimersDeTodasAsEtapasAntecipadamente() {
+        assertThat(registry.find("mail.stage").timers())
+                .hasSize(EmailMetrics.Stage.values().length * (IntegrationType.values().length + 1));
+    }
+
+    @Test
+    void deveRetornarInicioDaProximaEtapa() {
+        long start = System.nanoTime();
+
+        long next = metrics.record(EmailMetrics.Stage.ADAPT, IntegrationType.OCI, start);
+
+        assertThat(next).isGreaterThanOrEqualTo(start);
+        assertThat(registry.get("mail.stage").tag("stage", "adapt").tag("integration", "OCI").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deveContarFalhasDeValidacaoPorCampoEIntegracao() {
+        metrics.validationFailed(null, List.of("recipientEmail", "subject"));
+        metrics.validationFailed(IntegrationType.AWS, "content");
+        metrics.validationFailed(IntegrationType.AWS, "content");
+
+        assertThat(registry.get("mail.validation.failures").tag("field", "recipientEmail")
+                .tag("integration", EmailMetrics.NO_INTEGRATION).counter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.validation.failures").tag("field", "content")
+                .tag("integration", "AWS").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void deveContarRejeicoesPorMotivo() {
+        metrics.rejected(EmailMetrics.Rejection.RATE_LIMITED, null);
+
+        assertThat(registry.get("mail.rejections").tag("reason", "rate-limited")
+                .tag("integration", EmailMetrics.NO_INTEGRATION).counter().count()).isEqualTo(1);
+    }
+}
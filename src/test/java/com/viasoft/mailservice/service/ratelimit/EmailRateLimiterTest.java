@@ -0,0 +1,114 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmailRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void deveRejeitarRemetenteAcimaDoLimite() {
+        EmailRateLimiter limiter = new EmailRateLimiter(true, 1024, List.of(
+                rule(RateLimitRule.Scope.SENDER, "*", 2, RateLimitRule.Action.REJECT)), clock::get);
+
+        limiter.acquire(request("sender@example.com", "a@one.com"));
+        limiter.acquire(request("SENDER@example.com", "b@two.com"));
+
+        assertThatThrownBy(() -> limiter.acquire(request("sender@example.com", "c@three.com")))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("sender sender@example.com")
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfter()).isEqualTo(Duration.ofMillis(500)));
+        assertThatCode(() -> limiter.acquire(request("other@example.com", "c@three.com"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void deveAplicarPrimeiraRegraQueCorrespondeAoPadrao() {
+        EmailRateLimiter limiter = new EmailRateLimiter(true, 1024, List.of(
+                rule(RateLimitRule.Scope.RECIPIENT_DOMAIN, "*.gov.br", 1, RateLimitRule.Action.REJECT),
+                rule(RateLimitRule.Scope.RECIPIENT_DOMAIN, "*", 100, RateLimitRule.Action.REJECT)), clock::get);
+
+        limiter.acquire(request("sender@example.com", "a@receita.gov.br"));
+        assertThatThrownBy(() -> limiter.acquire(request("sender@example.com", "b@receita.gov.br")))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("recipient domain receita.gov.br");
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(request("sender@example.com", i + "@example.com"));
+        }
+    }
+
+    @Test
+    void deveDevolverTokenDoRemetenteQuandoDominioRejeita() {
+        EmailRateLimiter limiter = new EmailRateLimiter(true, 1024, List.of(
+                rule(RateLimitRule.Scope.SENDER, "*", 1, RateLimitRule.Action.REJECT),
+                rule(RateLimitRule.Scope.RECIPIENT_DOMAIN, "blocked.com", 1, RateLimitRule.Action.REJECT)), clock::get);
+
+        limiter.acquire(request("first@example.com", "a@blocked.com"));
+        assertThatThrownBy(() -> limiter.acquire(request("second@example.com", "b@blocked.com")))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        assertThatCode(() -> limiter.acquire(request("second@example.com", "c@open.com"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void deveAguardarVagaQuandoRegraAdiaEnvio() {
+        EmailRateLimiter limiter = new EmailRateLimiter(true, 1024, List.of(
+                new RateLimitRule(RateLimitRule.Scope.SENDER, "*", 1, Duration.ofMillis(20), 1,
+                        RateLimitRule.Action.DEFER, Duration.ofMillis(50))), System::nanoTime);
+
+        long start = System.nanoTime();
+        limiter.acquire(request("sender@example.com", "a@one.com"));
+        limiter.acquire(request("sender@example.com", "a@one.com"));
+        limiter.acquire(request("sender@example.com", "a@one.com"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(30));
+    }
+
+    @Test
+    void naoDeveLimitarQuandoDesabilitado() {
+        EmailRateLimiter limiter = new EmailRateLimiter(false, 1024, List.of(
+                rule(RateLimitRule.Scope.SENDER, "*", 1, RateLimitRule.Action.REJECT)), clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(request("sender@example.com", "a@one.com"));
+        }
+    }
+
+    @Test
+    void deveAplicarRegrasDoTenantEmBucketsSeparados() {
+        EmailRateLimiter limiter = new EmailRateLimiter(false, 1024, List.of(), clock::get);
+        RateLimitRules acme = new RateLimitRules("acme/", List.of(
+                rule(RateLimitRule.Scope.SENDER, "*", 1, RateLimitRule.Action.REJECT)));
+        RateLimitRules globex = new RateLimitRules("globex/", List.of(
+                rule(RateLimitRule.Scope.SENDER, "*", 1, RateLimitRule.Action.REJECT)));
+
+        // Regras do tenant valem mesmo com o limitador global desabilitado
+        limiter.acquire(request("sender@example.com", "a@one.com"), acme);
+        assertThatThrownBy(() -> limiter.acquire(request("sender@example.com", "a@one.com"), acme))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        assertThatCode(() -> limiter.acquire(request("sender@example.com", "a@one.com"), globex)).doesNotThrowAnyException();
+        assertThatCode(() -> limiter.acquire(request("sender@example.com", "a@one.com"))).doesNotThrowAnyException();
+    }
+
+    private static RateLimitRule rule(RateLimitRule.Scope scope, String pattern, int limit, RateLimitRule.Action action) {
+        return new RateLimitRule(scope, pattern, limit, Duration.ofSeconds(1), 0, action, Duration.ZERO);
+    }
+
+    private static EmailRequestDTO request(String sender, String recipient) {
+        EmailRequestDTO requestDTO = new EmailRequestDTO();
+        requestDTO.setSenderEmail(sender);
+        requestDTO.setRecipientEmail(recipient);
+        return requestDTO;
+    }
+}
@@ -0,0 +1,97 @@
+package com.viasoft.mailservice.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTableTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void devePermitirRajadaERecarregarComOTempo() {
+        TokenBucketTable table = new TokenBucketTable(1024, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(table.tryAcquire("key", INTERVAL, 3, 0)).isZero();
+        }
+        assertThat(table.tryAcquire("key", INTERVAL, 3, 0)).isEqualTo(-INTERVAL);
+
+        clock.addAndGet(INTERVAL);
+        assertThat(table.tryAcquire("key", INTERVAL, 3, 0)).isZero();
+        assertThat(table.tryAcquire("other", INTERVAL, 3, 0)).isZero();
+    }
+
+    @Test
+    void deveReservarVagaFuturaDentroDoAtrasoMaximo() {
+        TokenBucketTable table = new TokenBucketTable(1024, clock::get);
+
+        assertThat(table.tryAcquire("key", INTERVAL, 1, 2 * INTERVAL)).isZero();
+        assertThat(table.tryAcquire("key", INTERVAL, 1, 2 * INTERVAL)).isEqualTo(INTERVAL);
+        assertThat(table.tryAcquire("key", INTERVAL, 1, 2 * INTERVAL)).isEqualTo(2 * INTERVAL);
+        assertThat(table.tryAcquire("key", INTERVAL, 1, 2 * INTERVAL)).isEqualTo(-3 * INTERVAL);
+    }
+
+    @Test
+    void deveLimitarMemoriaDescartandoChavesOciosas() {
+        TokenBucketTable table = new TokenBucketTable(64, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            table.tryAcquire("key-" + i, INTERVAL, 1, 0);
+            clock.addAndGet(INTERVAL);
+        }
+
+        assertThat(table.size()).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    void naoDeveDescartarBucketsQueAindaLimitam() {
+        TokenBucketTable table = new TokenBucketTable(1, clock::get);
+
+        assertThat(table.tryAcquire("throttled", INTERVAL, 1, 0)).isZero();
+        // Tabela cheia de buckets ativos: a chave nova é recusada em vez de zerar o limite da outra
+        for (int i = 0; i < 100; i++) {
+            assertThat(table.tryAcquire("key-" + i, INTERVAL, 1, 0)).isEqualTo(-INTERVAL);
+        }
+        assertThat(table.tryAcquire("throttled", INTERVAL, 1, 0)).isEqualTo(-INTERVAL);
+
+        clock.addAndGet(INTERVAL);
+        assertThat(table.tryAcquire("key-0", INTERVAL, 1, 0)).isZero();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void naoDeveExcederLimiteSobConcorrencia() throws Exception {
+        TokenBucketTable table = new TokenBucketTable(1024, clock::get);
+        AtomicInteger admitted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1_000; j++) {
+                        if (table.tryAcquire("shared", INTERVAL, 100, 0) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(admitted.get()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,78 @@
+package com.viasoft.mailservice.service.routing;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProviderRouterTest {
+
+    private static final IntegrationType[] PROVIDERS = {IntegrationType.AWS, IntegrationType.OCI};
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ProviderRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ProviderRouter(0.5, 0.5, Duration.ofSeconds(5), clock::get);
+    }
+
+    @Test
+    void deveDirecionarMaisTrafegoParaProvedorMaisRapido() {
+        for (int i = 0; i < 10; i++) {
+            router.recordSuccess(IntegrationType.AWS, TimeUnit.MILLISECONDS.toNanos(10));
+            router.recordSuccess(IntegrationType.OCI, TimeUnit.MILLISECONDS.toNanos(90));
+        }
+
+        int aws = 0;
+        for (int i = 0; i < 10_000; i++) {
+            IntegrationType[] order = router.route(PROVIDERS);
+            assertThat(order).containsExactlyInAnyOrder(PROVIDERS);
+            if (order[0] == IntegrationType.AWS) {
+                aws++;
+            }
+        }
+
+        assertThat(aws).isBetween(8_500, 9_500);
+    }
+
+    @Test
+    void deveColocarProvedorNaoSaudavelPorUltimo() {
+        router.recordFailure(IntegrationType.AWS);
+        router.recordFailure(IntegrationType.AWS);
+
+        assertThat(router.isHealthy(IntegrationType.AWS)).isFalse();
+        for (int i = 0; i < 100; i++) {
+            assertThat(router.route(PROVIDERS)).containsExactly(IntegrationType.OCI, IntegrationType.AWS);
+        }
+    }
+
+    @Test
+    void deveEnviarUmaSondagemAoProvedorNaoSaudavelAposIntervalo() {
+        router.recordFailure(IntegrationType.AWS);
+        router.recordFailure(IntegrationType.AWS);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(router.route(PROVIDERS)[0]).isEqualTo(IntegrationType.AWS);
+        assertThat(router.route(PROVIDERS)[0]).isEqualTo(IntegrationType.OCI);
+    }
+
+    @Test
+    void deveRecuperarProvedorAposSucessos() {
+        router.recordFailure(IntegrationType.OCI);
+        router.recordFailure(IntegrationType.OCI);
+        assertThat(router.isHealthy(IntegrationType.OCI)).isFalse();
+
+        router.recordSuccess(IntegrationType.OCI, TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThat(router.isHealthy(IntegrationType.OCI)).isTrue();
+        assertThat(router.getLatencyMillis(IntegrationType.OCI)).isEqualTo(20.0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.viasoft.mailservice.service.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailAcceptedDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.service.DeferredEmailHandler;
+import com.viasoft.mailservice.service.EmailService;
+import com.viasoft.mailservice.service.MessageIdGenerator;
+import com.viasoft.mailservice.service.status.StatusStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailSchedulerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private ObjectProvider<StatusStore> statusStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private EmailScheduler scheduler;
+
+    private EmailRequestDTO requestDTO;
+
+    @BeforeEach
+    void setUp() {
+        requestDTO = new EmailRequestDTO();
+        requestDTO.setRecipientEmail("recipient@example.com");
+        requestDTO.setRecipientName("Recipient Name");
+        requestDTO.setSenderEmail("sender@example.com");
+        requestDTO.setSubject("Reminder");
+        requestDTO.setContent("Body Email");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void deveEnviarPeloPipelineQuandoChegaAHora() {
+        scheduler = start();
+        requestDTO.setSendAt(Instant.now().plusMillis(200));
+
+        EmailAcceptedDTO accepted = scheduler.schedule(requestDTO);
+
+        assertThat(accepted.getMessageId()).isNotBlank();
+        verify(emailService).validateEmail(requestDTO);
+        verify(emailService, after(100).never()).handleEmail(anyLong(), any());
+
+        ArgumentCaptor<EmailRequestDTO> sent = ArgumentCaptor.forClass(EmailRequestDTO.class);
+        verify(emailService, timeout(2000)).handleEmail(anyLong(), sent.capture());
+        assertThat(sent.getValue()).isEqualTo(requestDTO);
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    void deveRecuperarAgendamentosPendentesAposReinicio() throws Exception {
+        scheduler = start();
+        requestDTO.setSendAt(Instant.now().plusSeconds(3600));
+        scheduler.schedule(requestDTO);
+        EmailRequestDTO soon = copyOf(requestDTO);
+        soon.setSendAt(Instant.now().plusMillis(100));
+        soon.setSubject("Soon");
+        scheduler.schedule(soon);
+        verify(emailService, timeout(2000)).handleEmail(anyLong(), eq(soon));
+        Thread.sleep(100);
+        scheduler.shutdown();
+
+        scheduler = start();
+
+        assertThat(scheduler.pending()).isEqualTo(1);
+        verify(emailService, after(200).times(1)).handleEmail(anyLong(), any());
+    }
+
+    @Test
+    void deveEnviarAposReinicioAgendamentoCujaHoraPassou() throws Exception {
+        scheduler = start();
+        requestDTO.setSendAt(Instant.now().plusMillis(300));
+        scheduler.schedule(requestDTO);
+        scheduler.shutdown();
+        Thread.sleep(400);
+
+        scheduler = start();
+
+        verify(emailService, timeout(2000)).handleEmail(anyLong(), eq(requestDTO));
+    }
+
+    @Test
+    void deveRejeitarHorarioAlemDoAtrasoMaximo() {
+        scheduler = start();
+        requestDTO.setSendAt(Instant.now().plus(Duration.ofDays(2)));
+
+        assertThatThrownBy(() -> scheduler.schedule(requestDTO))
+                .isInstanceOf(FieldValidationException.class)
+                .satisfies(e -> assertThat(((FieldValidationException) e).getFieldErrors()).containsKey("sendAt"));
+        verify(emailService, never()).validateEmail(any());
+    }
+
+    private EmailScheduler start() {
+        EmailScheduler started = new EmailScheduler(emailService, new DeferredEmailHandler(emailService),
+                new MessageIdGenerator(), statusStore, objectMapper, directory, 4096, Duration.ofMillis(10), Duration.ofDays(1), 16);
+        started.start();
+        return started;
+    }
+
+    private EmailRequestDTO copyOf(EmailRequestDTO source) throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(source), EmailRequestDTO.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.viasoft.mailservice.service.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    @Test
+    void deveExpirarCadaValorNoSeuTick() {
+        TimingWheel wheel = new TimingWheel(1000, 4);
+        wheel.schedule(1003, 3);
+        wheel.schedule(1001, 1);
+        wheel.schedule(1002, 2);
+        List<Long> expired = new ArrayList<>();
+
+        assertThat(wheel.advance(1001, expired::add)).isEqualTo(1);
+        assertThat(expired).containsExactly(1L);
+
+        wheel.advance(1010, expired::add);
+        assertThat(expired).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deveExpirarNoProximoTickPrazosQueJaPassaram() {
+        TimingWheel wheel = new TimingWheel(500, 4);
+        wheel.schedule(10, 7);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(500, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(501, expired::add);
+        assertThat(expired).containsExactly(7L);
+    }
+
+    @Test
+    void deveDescerNiveisSemAdiantarNemAtrasarPrazos() {
+        long start = (1L << 20) - 37;
+        TimingWheel wheel = new TimingWheel(start, 16);
+        Random random = new Random(42);
+        long[] deadlines = new long[5_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = start + 1 + (long) Math.pow(random.nextDouble(), 4) * (1L << 22);
+            wheel.schedule(deadlines[i], i);
+        }
+
+        long[] firedAt = new long[deadlines.length];
+        long end = start + (1L << 22) + 1;
+        long tick = start;
+        while (tick < end) {
+            tick = Math.min(end, tick + 1 + random.nextInt(3));
+            long now = tick;
+            wheel.advance(tick, value -> firedAt[(int) value] = now);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            assertThat(firedAt[i]).as("value %d", i).isEqualTo(deadlines[i]);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deveGuardarPrazosAlemDaUltimaRodaAteAVolta() {
+        long topRange = 1L << (TimingWheel.BITS * TimingWheel.LEVELS);
+        long start = topRange - 2;
+        TimingWheel wheel = new TimingWheel(start, 4);
+        wheel.schedule(topRange + 5, 1);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(topRange + 4, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(topRange + 5, expired::add);
+        assertThat(expired).containsExactly(1L);
+    }
+
+    @Test
+    void deveReaproveitarEntradasLiberadas() {
+        TimingWheel wheel = new TimingWheel(0, 16);
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 10; i++) {
+                wheel.schedule(wheel.currentTick() + 1 + i, i);
+            }
+            wheel.advance(wheel.currentTick() + 10, value -> { });
+        }
+
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.viasoft.mailservice.service.sink;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncEmailSinkTest {
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    private final PayloadWriter output = (buffer, offset, length) ->
+            written.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+
+    @Test
+    void deveSerializarDtoEmJsonCompacto() throws Exception {
+        AsyncEmailSink sink = new AsyncEmailSink(new ObjectMapper().writer(), output, 16);
+        sink.start();
+
+        EmailOciDTO dto = new EmailOciDTO();
+        dto.setRecipientEmail("recipient@example.com");
+        dto.setBody("Body");
+        sink.write(dto);
+        sink.stop();
+
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0))
+                .doesNotContain("\n")
+                .contains("\"recipientEmail\":\"recipient@example.com\"")
+                .contains("\"body\":\"Body\"");
+    }
+
+    @Test
+    void deveEntregarTodosOsRegistrosMesmoComBufferCheio() throws Exception {
+        AsyncEmailSink sink = new AsyncEmailSink(new ObjectMapper().writer(), output, 4);
+        sink.start();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 1000; i++) {
+                int value = i;
+                executor.submit(() -> sink.write(value));
+            }
+        }
+        sink.stop();
+
+        assertThat(written).hasSize(1000);
+        assertThat(sink.getPendingCount()).isZero();
+    }
+
+    @Test
+    void ringBufferDeveRecusarQuandoCheio() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(2);
+
+        assertThat(ringBuffer.offer(1)).isTrue();
+        assertThat(ringBuffer.offer(2)).isTrue();
+        assertThat(ringBuffer.offer(3)).isFalse();
+
+        List<Integer> drained = new CopyOnWriteArrayList<>();
+        assertThat(ringBuffer.drain(drained::add, 10)).isEqualTo(2);
+        assertThat(drained).containsExactly(1, 2);
+        assertThat(ringBuffer.offer(3)).isTrue();
+    }
+}
@@ -0,0 +1,59 @@
+package com.viasoft.mailservice.service.status;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LongLongMapTest {
+
+    @Test
+    void deveCrescerAlemDoTamanhoEsperadoSemPerderEntradas() {
+        LongLongMap map = new LongLongMap(4);
+
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 10);
+        }
+        map.put(5, 7);
+
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(5, -1)).isEqualTo(7);
+        assertThat(map.get(10_000, -1)).isEqualTo(100_000);
+        assertThat(map.get(10_001, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(10_001)).isFalse();
+    }
+
+    @Test
+    void deveManterChavesAlcancaveisAposRemocoesNoMeioDeSequencias() {
+        LongLongMap map = new LongLongMap(64);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void deveRejeitarChaveZero() {
+        LongLongMap map = new LongLongMap(16);
+
+        assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.remove(0)).isFalse();
+    }
+}
@@ -0,0 +1,229 @@
+package com.viasoft.mailservice.service.status;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusDTO;
+import com.viasoft.mailservice.dto.response.EmailStatusPageDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.exception.MessageNotFoundException;
+import com.viasoft.mailservice.model.enums.DeliveryStatus;
+import com.viasoft.mailservice.service.metrics.EmailMetrics.Rejection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatusStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private StatusStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void deveRegistrarTransicoesEMotivoDaFalha() {
+        store = open(Duration.ofDays(1));
+
+        store.accepted(1, request("sender@example.com"));
+        store.record(1, DeliveryStatus.VALIDATED);
+        store.accepted(2, request("sender@example.com"));
+        store.failed(2, Rejection.RATE_LIMITED);
+
+        EmailStatusDTO dispatched = store.find("1");
+        assertThat(dispatched.getStatus()).isEqualTo(DeliveryStatus.VALIDATED);
+        assertThat(dispatched.getReason()).isNull();
+        assertThat(dispatched.getTransitions()).containsOnlyKeys(DeliveryStatus.ACCEPTED, DeliveryStatus.VALIDATED);
+
+        EmailStatusDTO failed = store.find("2");
+        assertThat(failed.getStatus()).isEqualTo(DeliveryStatus.FAILED);
+        assertThat(failed.getReason()).isEqualTo("rate-limited");
+        assertThatThrownBy(() -> store.find("3")).isInstanceOf(MessageNotFoundException.class);
+        assertThatThrownBy(() -> store.find("abc")).isInstanceOf(MessageNotFoundException.class);
+    }
+
+    @Test
+    void devePaginarMensagensDoRemetenteDaMaisNovaParaAMaisAntiga() {
+        store = open(Duration.ofDays(1));
+        for (long id = 1; id <= 5; id++) {
+            store.accepted(id, request(id == 3 ? "other@example.com" : "Sender@Example.com"));
+        }
+        // Um id mais antigo que chega depois entra na posição certa da cadeia.
+        store.accepted(4, request("sender@example.com"));
+
+        EmailStatusPageDTO first = store.findBySender("sender@example.com", null, 2);
+        EmailStatusPageDTO second = store.findBySender("sender@example.com", first.getNextCursor(), 2);
+
+        assertThat(first.getItems()).extracting(EmailStatusDTO::getMessageId).containsExactly("5", "4");
+        assertThat(second.getItems()).extracting(EmailStatusDTO::getMessageId).containsExactly("2", "1");
+        assertThat(second.getNextCursor()).isNull();
+        assertThatThrownBy(() -> store.findBySender("sender@example.com", null, 0))
+                .isInstanceOf(FieldValidationException.class);
+    }
+
+    @Test
+    void deveCompactarSegmentosMortosMantendoRegistrosVivos() {
+        store = open(Duration.ofDays(1));
+        for (long id = 1; id <= 8; id++) {
+            store.accepted(id, request("sender@example.com"));
+            store.record(id, DeliveryStatus.VALIDATED);
+            store.record(id, DeliveryStatus.DISPATCHED);
+        }
+        int before = store.segments();
+
+        store.compact(System.currentTimeMillis());
+
+        assertThat(store.segments()).isLessThan(before);
+        assertThat(store.tracked()).isEqualTo(8);
+        for (long id = 1; id <= 8; id++) {
+            assertThat(store.find(Long.toString(id)).getStatus()).isEqualTo(DeliveryStatus.DISPATCHED);
+        }
+        assertThat(store.findBySender("sender@example.com", null, 100).getItems()).hasSize(8);
+    }
+
+    @Test
+    void deveDescartarMensagensAlemDaRetencaoNaCompactacao() {
+        store = open(Duration.ofMinutes(1));
+        for (long id = 1; id <= 9; id++) {
+            store.accepted(id, request("sender@example.com"));
+        }
+
+        store.compact(System.currentTimeMillis() + Duration.ofMinutes(2).toMillis());
+
+        // O segmento ativo, com a mensagem 9, nunca é compactado.
+        assertThat(store.tracked()).isEqualTo(1);
+        assertThat(store.segments()).isEqualTo(1);
+        assertThatThrownBy(() -> store.find("1")).isInstanceOf(MessageNotFoundException.class);
+        assertThat(store.findBySender("sender@example.com", null, 10).getItems())
+                .extracting(EmailStatusDTO::getMessageId)
+                .containsExactly("9");
+    }
+
+    @Test
+    void deveRecuperarStatusAoReabrir() throws Exception {
+        store = open(Duration.ofDays(1));
+        for (long id = 1; id <= 6; id++) {
+            store.accepted(id, request("sender@example.com"));
+        }
+        store.record(2, DeliveryStatus.DISPATCHED);
+        store.shutdown();
+
+        store = open(Duration.ofDays(1));
+        store.record(3, DeliveryStatus.VALIDATED);
+
+        assertThat(store.tracked()).isEqualTo(6);
+        assertThat(store.find("2").getStatus()).isEqualTo(DeliveryStatus.DISPATCHED);
+        assertThat(store.find("3").getStatus()).isEqualTo(DeliveryStatus.VALIDATED);
+        assertThat(store.findBySender("sender@example.com", null, 10).getItems())
+                .extracting(EmailStatusDTO::getMessageId)
+                .containsExactly("6", "5", "4", "3", "2", "1");
+    }
+
+    @Test
+    void naoDeveEncontrarMensagensDeOutroTenant() throws Exception {
+        store = open(Duration.ofDays(1));
+        store.accepted(1, request("sender@example.com", "acme"));
+        store.record(1, DeliveryStatus.VALIDATED);
+        store.accepted(2, request("sender@example.com", "globex"));
+        store.accepted(3, request("sender@example.com"));
+
+        assertThat(store.find("1", "acme").getStatus()).isEqualTo(DeliveryStatus.VALIDATED);
+        assertThatThrownBy(() -> store.find("1", "globex")).isInstanceOf(MessageNotFoundException.class);
+        assertThatThrownBy(() -> store.find("1")).isInstanceOf(MessageNotFoundException.class);
+        assertThatThrownBy(() -> store.find("3", "acme")).isInstanceOf(MessageNotFoundException.class);
+        assertThat(store.findBySender("sender@example.com", "acme", null, 10).getItems())
+                .extracting(EmailStatusDTO::getMessageId).containsExactly("1");
+        assertThat(store.findBySender("sender@example.com", null, 10).getItems())
+                .extracting(EmailStatusDTO::getMessageId).containsExactly("3");
+
+        // O tenant sobrevive à reconstrução do índice
+        store.shutdown();
+        store = open(Duration.ofDays(1));
+
+        assertThat(store.find("2", "globex").getTransitions()).containsOnlyKeys(DeliveryStatus.ACCEPTED);
+        assertThatThrownBy(() -> store.find("2", "acme")).isInstanceOf(MessageNotFoundException.class);
+        assertThat(store.findBySender("sender@example.com", "globex", null, 10).getItems())
+                .extracting(EmailStatusDTO::getMessageId).containsExactly("2");
+    }
+
+    @Test
+    void deveRegistrarTransicoesConcorrentesSemPerderMensagens() throws Exception {
+        store = new StatusStore(directory, 64, 16, Duration.ofDays(1), Duration.ofMinutes(1), 0.5);
+        int threads = 8;
+        int perThread = 250;
+        AtomicBoolean done = new AtomicBoolean();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads + 1)) {
+            // Compactação em paralelo com aceites e transições de todas as threads
+            Future<?> compactor = executor.submit(() -> {
+                while (!done.get()) {
+                    store.compact(System.currentTimeMillis());
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long id = (long) i * threads + thread + 1;
+                        store.accepted(id, request("sender@example.com"));
+                        store.record(id, DeliveryStatus.VALIDATED);
+                        store.record(id, DeliveryStatus.DISPATCHED);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            compactor.get();
+        }
+
+        int total = threads * perThread;
+        assertThat(store.tracked()).isEqualTo(total);
+        for (long id = 1; id <= total; id++) {
+            assertThat(store.find(Long.toString(id)).getStatus()).isEqualTo(DeliveryStatus.DISPATCHED);
+        }
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmailStatusPageDTO page = store.findBySender("sender@example.com", cursor, StatusStore.MAX_PAGE_SIZE);
+            page.getItems().forEach(item -> ids.add(item.getMessageId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(ids).hasSize(total).doesNotHaveDuplicates().first().isEqualTo(Long.toString(total));
+        assertThat(ids).last().isEqualTo("1");
+    }
+
+    private StatusStore open(Duration retention) {
+        return new StatusStore(directory, 4, 16, retention, Duration.ofMinutes(1), 0.5);
+    }
+
+    private static EmailRequestDTO request(String sender) {
+        return request(sender, null);
+    }
+
+    private static EmailRequestDTO request(String sender, String tenantId) {
+        EmailRequestDTO requestDTO = new EmailRequestDTO();
+        requestDTO.setSenderEmail(sender);
+        requestDTO.setRecipientEmail("recipient@example.com");
+        requestDTO.setTenantId(tenantId);
+        return requestDTO;
+    }
+}
@@ -0,0 +1,85 @@
+package com.viasoft.mailservice.service.suppression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuppressionIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveEncontrarEnderecosNormalizados() throws Exception {
+        Path source = write("# bounces\nBounced@Example.com\n\n  unsubscribed@example.com \nbounced@example.com");
+
+        SuppressionIndex index = SuppressionIndex.build(source, directory.resolve("list.idx"), 0.01, 1024);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.contains(AddressHash.hash("bounced@example.com"))).isTrue();
+        assertThat(index.contains(AddressHash.hash(" UNSUBSCRIBED@example.com"))).isTrue();
+        assertThat(index.contains(AddressHash.hash("other@example.com"))).isFalse();
+        assertThat(index.contains(AddressHash.hash("# bounces"))).isFalse();
+        assertThat(index.sourceLength()).isEqualTo(Files.size(source));
+    }
+
+    @Test
+    void deveOrdenarEmBlocosEMesclarListasMaioresQueOBloco() throws Exception {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            addresses.add("user" + i + "@example.com");
+        }
+        addresses.add("user7@example.com");
+        Path source = write(String.join("\n", addresses) + "\n");
+
+        SuppressionIndex index = SuppressionIndex.build(source, directory.resolve("list.idx"), 0.01, 1000);
+
+        assertThat(index.size()).isEqualTo(20_000);
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(index.contains(AddressHash.hash("user" + i + "@example.com"))).isTrue();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("source.txt", "list.idx");
+        }
+    }
+
+    @Test
+    void deveManterTaxaDeFalsosPositivosDoFiltroDeBloom() throws Exception {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            source.append("suppressed").append(i).append("@example.com\n");
+        }
+        SuppressionIndex index = SuppressionIndex.build(write(source.toString()), directory.resolve("list.idx"), 0.01, 1 << 16);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (index.mightContain(AddressHash.hash("recipient" + i + "@example.com"))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void deveReabrirIndiceGravado() throws Exception {
+        Path file = directory.resolve("list.idx");
+        SuppressionIndex.build(write("bounced@example.com\n"), file, 0.01, 16);
+
+        SuppressionIndex reopened = SuppressionIndex.open(file);
+
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.contains(AddressHash.hash("bounced@example.com"))).isTrue();
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.writeString(directory.resolve("source.txt"), content);
+    }
+}
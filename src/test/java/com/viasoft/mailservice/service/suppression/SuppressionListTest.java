@@ -0,0 +1,122 @@
+package com.viasoft.mailservice.service.suppression;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuppressionListTest {
+
+    @TempDir
+    Path directory;
+
+    private SuppressionList suppressionList;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (suppressionList != null) {
+            suppressionList.stop();
+        }
+    }
+
+    @Test
+    void naoDeveSuprimirNadaQuandoDesabilitada() throws Exception {
+        Files.writeString(source(), "bounced@example.com\n");
+        suppressionList = create(false, 100);
+        suppressionList.start();
+
+        assertThat(suppressionList.isSuppressed("bounced@example.com")).isFalse();
+    }
+
+    @Test
+    void deveIncluirLinhasAcrescentadasNoDeltaSemReconstruirIndice() throws Exception {
+        Files.writeString(source(), "bounced@example.com\n");
+        suppressionList = create(true, 100);
+        suppressionList.start();
+        Path index = singleIndex();
+
+        Files.writeString(source(), "late@example.com\npartial@exam", StandardOpenOption.APPEND);
+        suppressionList.reload();
+
+        assertThat(suppressionList.isSuppressed("LATE@example.com")).isTrue();
+        assertThat(suppressionList.isSuppressed("partial@exam")).isFalse();
+        assertThat(suppressionList.deltaSize()).isEqualTo(1);
+        assertThat(singleIndex()).isEqualTo(index);
+
+        Files.writeString(source(), "ple.com\n", StandardOpenOption.APPEND);
+        suppressionList.reload();
+
+        assertThat(suppressionList.isSuppressed("partial@example.com")).isTrue();
+        assertThat(suppressionList.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deveReconstruirIndiceQuandoArquivoESubstituido() throws Exception {
+        Files.writeString(source(), "bounced@example.com\n");
+        suppressionList = create(true, 100);
+        suppressionList.start();
+        Path index = singleIndex();
+
+        Path replacement = directory.resolve("replacement.txt");
+        Files.writeString(replacement, "other@example.com\n");
+        Files.move(replacement, source(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        suppressionList.reload();
+
+        assertThat(suppressionList.isSuppressed("bounced@example.com")).isFalse();
+        assertThat(suppressionList.isSuppressed("other@example.com")).isTrue();
+        assertThat(singleIndex()).isNotEqualTo(index);
+    }
+
+    @Test
+    void deveReconstruirIndiceQuandoDeltaExcedeLimite() throws Exception {
+        Files.writeString(source(), "bounced@example.com\n");
+        suppressionList = create(true, 1);
+        suppressionList.start();
+
+        Files.writeString(source(), "first@example.com\nsecond@example.com\n", StandardOpenOption.APPEND);
+        suppressionList.reload();
+
+        assertThat(suppressionList.deltaSize()).isZero();
+        assertThat(suppressionList.isSuppressed("second@example.com")).isTrue();
+        assertThat(suppressionList.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deveReaproveitarIndiceAposReinicioQuandoFonteNaoMudou() throws Exception {
+        Files.writeString(source(), "bounced@example.com\n");
+        suppressionList = create(true, 100);
+        suppressionList.start();
+        Path index = singleIndex();
+        suppressionList.stop();
+
+        suppressionList = create(true, 100);
+        suppressionList.start();
+
+        assertThat(singleIndex()).isEqualTo(index);
+        assertThat(suppressionList.isSuppressed("bounced@example.com")).isTrue();
+    }
+
+    private SuppressionList create(boolean enabled, int maxDelta) {
+        return new SuppressionList(enabled, source(), directory.resolve("index"), 0.01, 1024, maxDelta,
+                Duration.ofHours(1));
+    }
+
+    private Path source() {
+        return directory.resolve("suppression.txt");
+    }
+
+    private Path singleIndex() throws Exception {
+        try (Stream<Path> files = Files.list(directory.resolve("index"))) {
+            return files.reduce((first, second) -> {
+                throw new AssertionError("More than one index file: " + first + ", " + second);
+            }).orElseThrow();
+        }
+    }
+}
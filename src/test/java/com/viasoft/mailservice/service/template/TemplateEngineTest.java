@@ -0,0 +1,95 @@
+package com.viasoft.mailservice.service.template;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.mapper.EmailMapper;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import com.viasoft.mailservice.model.enums.Lane;
+import com.viasoft.mailservice.service.body.BodyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TemplateEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private TemplateEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(directory.resolve("welcome.tmpl"), "Bem-vindo, {{name}}\nOlá {{name}}, seu código é {{ code }}.\n");
+        Files.writeString(directory.resolve("long.tmpl"), "Assunto\n{{text}}");
+        engine = new TemplateEngine(new TemplateRepository(directory, 10), new BodyStore(false, directory, 1024, 1, 128), Mappers.getMapper(EmailMapper.class));
+    }
+
+    @Test
+    void deveRenderizarAssuntoECorpoDoTemplate() {
+        EmailRequestDTO rendered = engine.render(request("welcome", Map.of("name", "Ana", "code", "42")), IntegrationType.AWS);
+
+        assertThat(rendered.getSubject()).isEqualTo("Bem-vindo, Ana");
+        assertThat(rendered.getContent()).isEqualTo("Olá Ana, seu código é 42.");
+        assertThat(rendered.getRecipientEmail()).isEqualTo("recipient@example.com");
+        assertThat(rendered.getTemplateId()).isNull();
+    }
+
+    @Test
+    void deveManterDemaisCamposDaRequisicao() {
+        EmailRequestDTO request = request("welcome", Map.of("name", "Ana", "code", "42"));
+        request.setTenantId("acme");
+        request.setLane(Lane.BULK);
+        request.setSendAt(Instant.parse("2030-01-01T00:00:00Z"));
+
+        EmailRequestDTO rendered = engine.render(request, IntegrationType.AWS);
+
+        assertThat(rendered.getTenantId()).isEqualTo("acme");
+        assertThat(rendered.getSendAt()).isEqualTo(request.getSendAt());
+        assertThat(rendered.getLane()).isEqualTo(Lane.BULK);
+        assertThat(rendered.getRecipientName()).isEqualTo(request.getRecipientName());
+        assertThat(rendered.getVariables()).isNull();
+    }
+
+    @Test
+    void deveRetornarMesmaRequisicaoQuandoSemTemplate() {
+        EmailRequestDTO request = request(null, null);
+
+        assertThat(engine.render(request, IntegrationType.AWS)).isSameAs(request);
+    }
+
+    @Test
+    void deveRejeitarVariavelAusente() {
+        assertThatThrownBy(() -> engine.render(request("welcome", Map.of("name", "Ana")), IntegrationType.AWS))
+                .isInstanceOf(FieldValidationException.class)
+                .satisfies(e -> assertThat(((FieldValidationException) e).getFieldErrors()).containsKey("variables"));
+    }
+
+    @Test
+    void deveRejeitarConteudoAcimaDoLimiteDoProvedor() {
+        EmailRequestDTO request = request("long", Map.of("text", "x".repeat(251)));
+
+        assertThatThrownBy(() -> engine.render(request, IntegrationType.OCI))
+                .isInstanceOf(FieldValidationException.class)
+                .satisfies(e -> assertThat(((FieldValidationException) e).getFieldErrors()).containsKey("content"));
+        assertThat(engine.render(request, IntegrationType.OCI, IntegrationType.AWS).getContent()).hasSize(251);
+    }
+
+    private static EmailRequestDTO request(String templateId, Map<String, String> variables) {
+        EmailRequestDTO request = new EmailRequestDTO();
+        request.setRecipientEmail("recipient@example.com");
+        request.setRecipientName("Recipient");
+        request.setSenderEmail("sender@example.com");
+        request.setTemplateId(templateId);
+        request.setVariables(variables);
+        return request;
+    }
+}
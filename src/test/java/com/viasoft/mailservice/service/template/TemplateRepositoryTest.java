@@ -0,0 +1,76 @@
+package com.viasoft.mailservice.service.template;
+
+import com.viasoft.mailservice.exception.FieldValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TemplateRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deveReutilizarTemplateCompilado() throws Exception {
+        Files.writeString(directory.resolve("a.tmpl"), "A\nbody");
+        TemplateRepository repository = new TemplateRepository(directory, 10);
+
+        assertThat(repository.get("a")).isSameAs(repository.get("a"));
+    }
+
+    @Test
+    void deveDescartarTemplateMenosUsadoRecentementeQuandoCheio() throws Exception {
+        for (String id : new String[]{"a", "b", "c"}) {
+            Files.writeString(directory.resolve(id + ".tmpl"), id + "\nbody");
+        }
+        TemplateRepository repository = new TemplateRepository(directory, 2);
+
+        CompiledTemplate a = repository.get("a");
+        repository.get("b");
+        repository.get("a");
+        CompiledTemplate b = repository.get("b");
+        repository.get("c");
+        repository.get("a");
+
+        assertThat(repository.cachedCount()).isEqualTo(2);
+        assertThat(repository.get("b")).isNotSameAs(b);
+        assertThat(a).isNotNull();
+    }
+
+    @Test
+    void deveRecarregarTemplateAlteradoNoDiretorio() throws Exception {
+        Path file = directory.resolve("a.tmpl");
+        Files.writeString(file, "old\nbody");
+        TemplateRepository repository = new TemplateRepository(directory, 10);
+        repository.startWatching();
+        try {
+            CompiledTemplate original = repository.get("a");
+            Files.writeString(file, "new\nbody");
+
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (repository.get("a") == original && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(repository.get("a")).isNotSameAs(original);
+        } finally {
+            repository.stopWatching();
+        }
+    }
+
+    @Test
+    void deveRejeitarTemplateInexistenteOuIdInvalido() {
+        TemplateRepository repository = new TemplateRepository(directory, 10);
+
+        assertThatThrownBy(() -> repository.get("missing"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("Unknown template");
+        assertThatThrownBy(() -> repository.get("../etc/passwd"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("Invalid template id");
+    }
+}
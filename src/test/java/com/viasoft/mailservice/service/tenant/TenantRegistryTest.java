@@ -0,0 +1,168 @@
+package com.viasoft.mailservice.service.tenant;
+
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import com.viasoft.mailservice.exception.FieldValidationException;
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TenantRegistryTest {
+
+    private static final String TENANTS = """
+            tenant.acme.api-keys=key-acme-1,key-acme-2
+            tenant.acme.integration=OCI
+            tenant.acme.max-content-length=10
+            tenant.acme.rate-limits[0].scope=SENDER
+            tenant.acme.rate-limits[0].pattern=*
+            tenant.acme.rate-limits[0].limit=5
+            tenant.acme.rate-limits[0].period=1s
+            tenant.globex.api-keys=key-globex
+            tenant.hooli.max-subject-length=50
+            """;
+
+    @TempDir
+    Path directory;
+
+    private TenantRegistry registry;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (registry != null) {
+            registry.stop();
+        }
+    }
+
+    @Test
+    void deveResolverTenantPelaChaveOuPeloCabecalho() throws Exception {
+        Files.writeString(source(), TENANTS);
+        registry = create();
+        registry.start();
+
+        assertThat(registry.size()).isEqualTo(3);
+        assertThat(registry.resolve(null, "key-acme-2")).isEqualTo("acme");
+        assertThat(registry.resolve("acme", "key-acme-1")).isEqualTo("acme");
+        assertThat(registry.resolve("hooli", null)).isEqualTo("hooli");
+        assertThat(registry.resolve(null, null)).isNull();
+
+        Tenant acme = registry.tenant("acme");
+        assertThat(acme.integration()).isEqualTo(IntegrationType.OCI);
+        assertThat(acme.rateLimits()).isNotNull();
+        assertThat(acme.maxSubjectLength()).isZero();
+        assertThat(registry.tenant("globex").rateLimits()).isNull();
+    }
+
+    @Test
+    void deveRejeitarChaveOuTenantDesconhecidos() throws Exception {
+        Files.writeString(source(), TENANTS);
+        registry = create();
+        registry.start();
+
+        assertThatThrownBy(() -> registry.resolve(null, "key-unknown"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("Unknown API key");
+        assertThatThrownBy(() -> registry.resolve("globex", "key-acme-1"))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("Does not match");
+        assertThatThrownBy(() -> registry.resolve("initech", null))
+                .isInstanceOf(FieldValidationException.class)
+                .hasMessageContaining("Unknown tenant: initech");
+    }
+
+    @Test
+    void deveExigirChaveParaTenantComChaves() throws Exception {
+        Files.writeString(source(), TENANTS);
+        registry = create();
+        registry.start();
+
+        // Só o cabeçalho X-Tenant-Id não basta para quem tem chaves de API
+        assertThatThrownBy(() -> registry.resolve("globex", null))
+                .isInstanceOf(FieldValidationException.class)
+                .satisfies(e -> assertThat(((FieldValidationException) e).getFieldErrors())
+                        .containsEntry(TenantRegistry.API_KEY_HEADER, "Required for tenant globex"));
+        assertThat(registry.resolve("globex", "key-globex")).isEqualTo("globex");
+    }
+
+    @Test
+    void deveUsarTenantDefaultParaRequisicoesSemTenant() throws Exception {
+        Files.writeString(source(), TENANTS + "tenant.default.max-subject-length=3\n");
+        registry = create();
+        registry.start();
+
+        EmailRequestDTO requestDTO = new EmailRequestDTO();
+        requestDTO.setSubject("assunto");
+
+        assertThat(registry.tenant(null).checkSize(requestDTO).getFieldErrors())
+                .containsEntry("subject", "size must be between 0 and 3");
+        assertThat(registry.tenant("removed").id()).isEqualTo("default");
+        assertThat(registry.tenant("acme").checkSize(requestDTO).isValid()).isTrue();
+    }
+
+    @Test
+    void deveManterConfiguracaoAnteriorQuandoRecargaEInvalida() throws Exception {
+        Files.writeString(source(), TENANTS);
+        // Atraso longo: o watcher não recarrega durante o teste, só as chamadas explícitas
+        registry = create(Duration.ofMinutes(1));
+        registry.start();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        registry.bindTo(meterRegistry);
+
+        // Chave duplicada entre tenants invalida o arquivo inteiro
+        Files.writeString(source(), TENANTS + "tenant.initech.api-keys=key-globex\n");
+        registry.reload();
+        Files.writeString(source(), "tenant.acme.integration=SMTP\n");
+        registry.reload();
+
+        assertThat(registry.size()).isEqualTo(3);
+        assertThat(registry.tenant("acme").integration()).isEqualTo(IntegrationType.OCI);
+        assertThat(meterRegistry.get("mail.tenants.reloads").tag("result", "rejected").functionCounter().count()).isEqualTo(2);
+
+        Files.delete(source());
+        registry.reload();
+
+        assertThat(registry.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deveFalharNaInicializacaoQuandoArquivoEInvalido() throws Exception {
+        Files.writeString(source(), "tenant.acme.max-content-length=-1\n");
+        registry = create();
+
+        assertThatThrownBy(registry::start).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deveRecarregarQuandoArquivoMuda() throws Exception {
+        registry = create();
+        registry.start();
+        assertThat(registry.size()).isZero();
+
+        Files.writeString(source(), TENANTS);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (registry.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(registry.resolve(null, "key-globex")).isEqualTo("globex");
+    }
+
+    private TenantRegistry create() {
+        return create(Duration.ofMillis(20));
+    }
+
+    private TenantRegistry create(Duration reloadDelay) {
+        return new TenantRegistry(source(), reloadDelay);
+    }
+
+    private Path source() {
+        return directory.resolve("tenants.properties");
+    }
+}
@@ -0,0 +1,36 @@
+package com.viasoft.mailservice.stub;
+
+import com.viasoft.mailservice.model.enums.IntegrationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"mail.stub.enabled=true", "mail.integracao=OCI", "mail.grpc.port=0"})
+@AutoConfigureMockMvc
+public class ProviderStubServerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProviderStubServer stubServer;
+
+    @Test
+    void deveEntregarEmailAoStubDoProvedorConfigurado() throws Exception {
+        mockMvc.perform(post("/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"recipientEmail":"recipient@example.com","recipientName":"Name","senderEmail":"sender@example.com","subject":"Test","content":"Body"}"""))
+                .andExpect(status().isNoContent());
+
+        assertThat(stubServer.getReceivedCount(IntegrationType.OCI)).isEqualTo(1);
+        assertThat(stubServer.getReceivedCount(IntegrationType.AWS)).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.viasoft.mailservice.validation;
+
+import com.viasoft.mailservice.dto.adapter.EmailAwsDTO;
+import com.viasoft.mailservice.dto.adapter.EmailOciDTO;
+import com.viasoft.mailservice.dto.request.EmailRequestDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DtoValidatorRegistryTest {
+
+    private final DtoValidatorRegistry registry = new DtoValidatorRegistry();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void deveCarregarValidadoresGeradosParaDtosDeAdaptacao() {
+        assertThat(registry.get(EmailAwsDTO.class)).isNotNull();
+        assertThat(registry.get(EmailOciDTO.class)).isNotNull();
+    }
+
+    @Test
+    void naoDeveGerarValidadorParaDtoComRestricaoNaoSuportada() {
+        assertThat(registry.get(EmailRequestDTO.class)).isNull();
+    }
+
+    @Test
+    void deveConcordarComBeanValidationNosLimitesDeTamanho() {
+        for (int length = 248; length <= 258; length++) {
+            EmailAwsDTO awsDTO = new EmailAwsDTO();
+            awsDTO.setContent("x".repeat(length));
+            assertThat(registry.isValid(awsDTO)).isEqualTo(validator.validate(awsDTO).isEmpty());
+
+            EmailOciDTO ociDTO = new EmailOciDTO();
+            ociDTO.setBody("x".repeat(length));
+            assertThat(registry.isValid(ociDTO)).isEqualTo(validator.validate(ociDTO).isEmpty());
+        }
+    }
+
+    @Test
+    void deveAceitarCamposNulos() {
+        assertThat(registry.isValid(new EmailAwsDTO())).isTrue();
+        assertThat(registry.isValid(new EmailOciDTO())).isTrue();
+    }
+}